@@ -55,10 +55,15 @@ public class FactAcctLogWorkpackageProcessor extends WorkpackageProcessorAdapter
 	// services
 	private final transient ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 	private final transient IFactAcctLogBL factAcctLogBL = Services.get(IFactAcctLogBL.class);
+	private final transient IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
 
 	private static final String SYSCONFIG_MaxLogsToProcess = "de.metas.acct.async.FactAcctLogWorkpackageProcessor.MaxLogsToProcess";
 	private static final int DEFAULT_MaxLogsToProcess = 500;
 
+	/** How many batches of {@value #SYSCONFIG_MaxLogsToProcess} logs shall be processed (each in its own transaction) before enqueueing a new workpackage */
+	private static final String SYSCONFIG_MaxBatchesToProcess = "de.metas.acct.async.FactAcctLogWorkpackageProcessor.MaxBatchesToProcess";
+	private static final int DEFAULT_MaxBatchesToProcess = 10;
+
 	private static final FactAcctLogWorkpackageProcessorScheduler SCHEDULER = new FactAcctLogWorkpackageProcessorScheduler();
 
 	@Override
@@ -66,13 +71,20 @@ public class FactAcctLogWorkpackageProcessor extends WorkpackageProcessorAdapter
 	{
 		final Properties ctx = InterfaceWrapperHelper.getCtx(workPackage);
 		final int maxLogsToProcess = getMaxLogsToProcess();
-		factAcctLogBL.processAll(ctx, maxLogsToProcess);
+		final int maxBatchesToProcess = getMaxBatchesToProcess();
 
-		if (Services.get(IFactAcctLogDAO.class).hasLogs(ctx, IFactAcctLogDAO.PROCESSINGTAG_NULL))
+		// Keep processing while there are logs, instead of enqueueing a new workpackage for each batch
+		for (int batchNo = 1; batchNo <= maxBatchesToProcess; batchNo++)
 		{
-			schedule(FactAcctLogProcessRequest.of(ctx));
+			factAcctLogBL.processAll(ctx, maxLogsToProcess);
+
+			if (!factAcctLogDAO.hasLogs(ctx, IFactAcctLogDAO.PROCESSINGTAG_NULL))
+			{
+				return Result.SUCCESS;
+			}
 		}
 
+		schedule(FactAcctLogProcessRequest.of(ctx));
 		return Result.SUCCESS;
 	}
 
@@ -81,4 +93,10 @@ public class FactAcctLogWorkpackageProcessor extends WorkpackageProcessorAdapter
 		return sysConfigBL.getIntValue(SYSCONFIG_MaxLogsToProcess, DEFAULT_MaxLogsToProcess);
 	}
 
+	private final int getMaxBatchesToProcess()
+	{
+		final int maxBatchesToProcess = sysConfigBL.getIntValue(SYSCONFIG_MaxBatchesToProcess, DEFAULT_MaxBatchesToProcess);
+		return maxBatchesToProcess > 0 ? maxBatchesToProcess : 1;
+	}
+
 }
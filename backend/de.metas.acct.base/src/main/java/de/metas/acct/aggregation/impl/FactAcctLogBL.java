@@ -1,17 +1,25 @@
 package de.metas.acct.aggregation.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.TreeMap;
 
+import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.dao.impl.EqualsQueryFilter;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.model.InterfaceWrapperHelper;
-import org.adempiere.util.agg.key.IAggregationKeyBuilder;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.TrxRunnableAdapter;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
+
+import com.google.common.collect.ImmutableList;
 
 import de.metas.acct.aggregation.IFactAcctLogBL;
 import de.metas.acct.aggregation.IFactAcctLogDAO;
@@ -24,7 +32,6 @@ import de.metas.util.Check;
 import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
-import de.metas.util.collections.MapReduceAggregator;
 
 /*
  * #%L
@@ -50,6 +57,9 @@ import de.metas.util.collections.MapReduceAggregator;
 
 public class FactAcctLogBL implements IFactAcctLogBL
 {
+	/** If enabled, after each batch, the updated summaries are recomputed from Fact_Acct and the mismatches are logged. Expensive, use it only to troubleshoot. */
+	private static final String SYSCONFIG_VerifySummaries = "de.metas.acct.aggregation.FactAcctLogBL.VerifySummaries";
+
 	@Override
 	public void processAll(final Properties ctx, final int limit)
 	{
@@ -81,7 +91,7 @@ public class FactAcctLogBL implements IFactAcctLogBL
 		{
 			factAcctSummaryUpdater.add(log);
 		}
-		factAcctSummaryUpdater.closeAllGroups();
+		factAcctSummaryUpdater.flush();
 
 		//
 		// Update Fact_Acct_EndingBalance
@@ -93,64 +103,236 @@ public class FactAcctLogBL implements IFactAcctLogBL
 
 		loggable.addLog("Processed {0} {1} records", factAcctSummaryUpdater.getItemsCount(), I_Fact_Acct_Log.Table_Name);
 		loggable.addLog("Created/Updated {0} {1} records", factAcctSummaryUpdater.getGroupsCount(), I_Fact_Acct_Summary.Table_Name);
+
+		//
+		// Verify the summaries we just updated, if asked
+		if (isVerifySummaries())
+		{
+			final int mismatchesCount = new FactAcctSummaryVerifier().verify(factAcctSummaryUpdater.getUpdatedKeys());
+			loggable.addLog("Verified {0} {1} dimensions: {2} mismatches", factAcctSummaryUpdater.getUpdatedKeys().size(), I_Fact_Acct_Summary.Table_Name, mismatchesCount);
+		}
 	}
 
-	private static class FactAcctSummaryUpdater extends MapReduceAggregator<FactAcctGroup, I_Fact_Acct_Log>
+	private boolean isVerifySummaries()
 	{
-		public FactAcctSummaryUpdater()
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_VerifySummaries, false);
+	}
+
+	/**
+	 * Folds the logs of one set of dimensions (i.e. {@link IFactAcctSummaryKey} without DateAcct) in memory and applies them when the next set of dimensions starts.
+	 * <p>
+	 * IMPORTANT: the logs are expected to be ordered by dimensions and DateAcct (see {@link IFactAcctLogDAO#tagAndRetrieve(Properties, int)}).
+	 * If they are not, the result is still correct, but the same dimensions might be updated more than once.
+	 */
+	private static final class FactAcctSummaryUpdater
+	{
+		private final transient IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
+
+		private ArrayKey currentDimensionsKey = null;
+		private final TreeMap<Date, FactAcctGroup> currentGroupsByDateAcct = new TreeMap<>();
+
+		private final List<IFactAcctSummaryKey> updatedKeys = new ArrayList<>();
+		private int itemsCount = 0;
+		private int groupsCount = 0;
+
+		public void add(final I_Fact_Acct_Log log)
 		{
-			super();
-			setGroupsBufferSize(1); // IMPORTANT: keep only one group in memory because we are also updating next groups when a current group is updated
-			setItemAggregationKeyBuilder(FactAcctSummaryKeyBuilder.instance);
+			final IFactAcctSummaryKey key = FactAcctSummaryKey.of(log);
+
+			final ArrayKey dimensionsKey = createDimensionsKey(key);
+			if (!dimensionsKey.equals(currentDimensionsKey))
+			{
+				flush();
+				currentDimensionsKey = dimensionsKey;
+			}
+
+			currentGroupsByDateAcct.computeIfAbsent(key.getDateAcct(), dateAcct -> new FactAcctGroup(log, key))
+					.add(log);
+			itemsCount++;
 		}
 
-		@Override
-		protected FactAcctGroup createGroup(final Object itemHashKey, final I_Fact_Acct_Log log)
+		private static ArrayKey createDimensionsKey(final IFactAcctSummaryKey key)
 		{
-			return FactAcctGroup.getCreatedForLog(log);
+			return Util.mkKey(
+					key.getC_ElementValue_ID(),
+					key.getC_AcctSchema_ID(),
+					key.getPostingType(),
+					key.getAD_Client_ID(),
+					key.getAD_Org_ID(),
+					key.getPA_ReportCube_ID());
 		}
 
-		@Override
-		protected void closeGroup(final FactAcctGroup group)
+		public void flush()
+		{
+			final List<FactAcctGroup> groups = currentGroupsByDateAcct.values()
+					.stream()
+					.filter(FactAcctGroup::hasChanges)
+					.collect(ImmutableList.toImmutableList());
+			currentGroupsByDateAcct.clear();
+			currentDimensionsKey = null;
+
+			if (groups.isEmpty())
+			{
+				return;
+			}
+
+			//
+			// Make sure we have a summary record for each DateAcct.
+			// NOTE: a new record copies the values of the previous one, which were not updated yet, so we can update all of them consistently below.
+			for (final FactAcctGroup group : groups)
+			{
+				group.createFactAcctSummaryIfMissing();
+			}
+
+			//
+			// Each group's amounts shall be added to all summary records starting with the group's DateAcct.
+			// Instead of updating those records once for each group, we update each DateAcct range only once, with the running totals.
+			final FactAcctAmounts runningTotals = new FactAcctAmounts();
+			final FactAcctAmounts runningTotalsYTD = new FactAcctAmounts();
+			int runningTotalsYTD_YearId = -1;
+			for (int i = 0; i < groups.size(); i++)
+			{
+				final FactAcctGroup group = groups.get(i);
+
+				if (group.getC_Year_ID() != runningTotalsYTD_YearId)
+				{
+					runningTotalsYTD.reset();
+					runningTotalsYTD_YearId = group.getC_Year_ID();
+				}
+				runningTotals.add(group.getAmountsToAdd());
+				runningTotalsYTD.add(group.getAmountsToAdd());
+
+				final IQueryBuilder<I_Fact_Acct_Summary> queryBuilder = factAcctLogDAO.retrieveCurrentAndNextMatchingFactAcctSummaryQuery(group.getCtx(), group.getKey());
+				if (i + 1 < groups.size())
+				{
+					final Date nextDateAcct = groups.get(i + 1).getKey().getDateAcct();
+					queryBuilder.addCompareFilter(I_Fact_Acct_Summary.COLUMN_DateAcct, Operator.LESS, TimeUtil.asTimestamp(nextDateAcct));
+				}
+
+				final IQueryFilter<I_Fact_Acct_Summary> currentYearFilter = new EqualsQueryFilter<>(I_Fact_Acct_Summary.COLUMN_C_Year_ID, runningTotalsYTD_YearId);
+				queryBuilder.create()
+						.updateDirectly()
+						//
+						// Amounts: from beginning to Date
+						.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctDr, runningTotals.getAmtAcctDr())
+						.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctCr, runningTotals.getAmtAcctCr())
+						.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_Qty, runningTotals.getQty())
+						//
+						// Amounts: Year to Date
+						.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctDr_YTD, runningTotalsYTD.getAmtAcctDr(), currentYearFilter)
+						.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctCr_YTD, runningTotalsYTD.getAmtAcctCr(), currentYearFilter)
+						//
+						.execute();
+			}
+
+			updatedKeys.add(groups.get(0).getKey());
+			groupsCount += groups.size();
+		}
+
+		public int getItemsCount()
 		{
-			group.close();
+			return itemsCount;
 		}
 
-		@Override
-		protected void addItemToGroup(final FactAcctGroup group, final I_Fact_Acct_Log log)
+		public int getGroupsCount()
 		{
-			group.add(log);
+			return groupsCount;
+		}
+
+		/** @return one key for each set of dimensions which was updated */
+		public List<IFactAcctSummaryKey> getUpdatedKeys()
+		{
+			return updatedKeys;
 		}
 	}
 
-	private static final class FactAcctGroup
+	private static final class FactAcctAmounts
 	{
-		private final transient IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
+		private BigDecimal amtAcctDr = BigDecimal.ZERO;
+		private BigDecimal amtAcctCr = BigDecimal.ZERO;
+		private BigDecimal qty = BigDecimal.ZERO;
+
+		public void add(final BigDecimal amtAcctDr, final BigDecimal amtAcctCr, final BigDecimal qty)
+		{
+			this.amtAcctDr = this.amtAcctDr.add(amtAcctDr);
+			this.amtAcctCr = this.amtAcctCr.add(amtAcctCr);
+			this.qty = this.qty.add(qty);
+		}
 
-		public static final FactAcctGroup getCreatedForLog(final I_Fact_Acct_Log log)
+		public void add(final FactAcctAmounts amounts)
 		{
-			return new FactAcctGroup(log);
+			add(amounts.amtAcctDr, amounts.amtAcctCr, amounts.qty);
 		}
 
+		public void reset()
+		{
+			amtAcctDr = BigDecimal.ZERO;
+			amtAcctCr = BigDecimal.ZERO;
+			qty = BigDecimal.ZERO;
+		}
+
+		public boolean isZero()
+		{
+			return amtAcctDr.signum() == 0 && amtAcctCr.signum() == 0 && qty.signum() == 0;
+		}
+
+		public BigDecimal getAmtAcctDr()
+		{
+			return amtAcctDr;
+		}
+
+		public BigDecimal getAmtAcctCr()
+		{
+			return amtAcctCr;
+		}
+
+		public BigDecimal getQty()
+		{
+			return qty;
+		}
+	}
+
+	/** The logs of one {@link IFactAcctSummaryKey}, i.e. of one set of dimensions and one DateAcct */
+	private static final class FactAcctGroup
+	{
+		private final transient IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
+
 		private final Object contextProvider;
 		private final Properties ctx;
 		private final IFactAcctSummaryKey key;
-		private BigDecimal amtAcctDr_ToAdd;
-		private BigDecimal amtAcctCr_ToAdd;
-		private BigDecimal qty_ToAdd;
+		private final FactAcctAmounts amountsToAdd = new FactAcctAmounts();
+		private int C_Year_ID = -1;
 
-		private FactAcctGroup(final I_Fact_Acct_Log log)
+		private FactAcctGroup(final I_Fact_Acct_Log log, final IFactAcctSummaryKey key)
 		{
-			super();
-
 			contextProvider = log;
 			ctx = InterfaceWrapperHelper.getCtx(log);
-			key = FactAcctSummaryKey.of(log);
+			this.key = key;
+		}
 
-			resetAmounts();
+		public Properties getCtx()
+		{
+			return ctx;
+		}
+
+		public IFactAcctSummaryKey getKey()
+		{
+			return key;
+		}
+
+		public FactAcctAmounts getAmountsToAdd()
+		{
+			return amountsToAdd;
 		}
 
-		private final I_Fact_Acct_Summary getCreateFactAcctSummary()
+		/** @return the C_Year_ID of this group's summary record; available only after {@link #createFactAcctSummaryIfMissing()} */
+		public int getC_Year_ID()
+		{
+			Check.assume(C_Year_ID > 0, "C_Year_ID was set for {}", this);
+			return C_Year_ID;
+		}
+
+		private final void createFactAcctSummaryIfMissing()
 		{
 			final Date dateAcct = key.getDateAcct();
 
@@ -162,7 +344,7 @@ public class FactAcctLogBL implements IFactAcctLogBL
 			// If the retrieved summary is precisely for our DateAcct, we can use it right away
 			if (factAcctSummaryExisting != null && factAcctSummaryExisting.getDateAcct().getTime() == dateAcct.getTime())
 			{
-				return factAcctSummaryExisting;
+				C_Year_ID = factAcctSummaryExisting.getC_Year_ID();
 			}
 			//
 			// Create new
@@ -204,113 +386,36 @@ public class FactAcctLogBL implements IFactAcctLogBL
 
 				InterfaceWrapperHelper.save(factAcctSummary);
 
-				return factAcctSummary;
+				C_Year_ID = factAcctSummary.getC_Year_ID();
 			}
 		}
 
-		private final void resetAmounts()
-		{
-			amtAcctDr_ToAdd = BigDecimal.ZERO;
-			amtAcctCr_ToAdd = BigDecimal.ZERO;
-			qty_ToAdd = BigDecimal.ZERO;
-		}
-
 		public void add(final I_Fact_Acct_Log log)
 		{
 			final String logAction = log.getAction();
-			final BigDecimal amtAcctDr_Diff;
-			final BigDecimal amtAcctCr_Diff;
-			final BigDecimal qty_Diff;
 			if (X_Fact_Acct_Log.ACTION_Insert.equals(logAction))
 			{
-				amtAcctDr_Diff = log.getAmtAcctDr();
-				amtAcctCr_Diff = log.getAmtAcctCr();
-				qty_Diff = log.getQty();
+				amountsToAdd.add(log.getAmtAcctDr(), log.getAmtAcctCr(), log.getQty());
 			}
 			else if (X_Fact_Acct_Log.ACTION_Delete.equals(logAction))
 			{
-				amtAcctDr_Diff = log.getAmtAcctDr().negate();
-				amtAcctCr_Diff = log.getAmtAcctCr().negate();
-				qty_Diff = log.getQty().negate();
+				amountsToAdd.add(log.getAmtAcctDr().negate(), log.getAmtAcctCr().negate(), log.getQty().negate());
 			}
 			else
 			{
 				throw new IllegalStateException("Log action not supported: " + logAction + " (" + log + ")");
 			}
-
-			//
-			// Update the summary record
-			amtAcctDr_ToAdd = amtAcctDr_ToAdd.add(amtAcctDr_Diff);
-			amtAcctCr_ToAdd = amtAcctCr_ToAdd.add(amtAcctCr_Diff);
-			qty_ToAdd = qty_ToAdd.add(qty_Diff);
-		}
-
-		private final boolean hasChanges()
-		{
-			return amtAcctDr_ToAdd.signum() != 0 || amtAcctCr_ToAdd.signum() != 0 || qty_ToAdd.signum() != 0;
-		}
-
-		public void close()
-		{
-			if (!hasChanges())
-			{
-				return;
-			}
-
-			//
-			// Create the summary record for our particular DateAcct
-			final I_Fact_Acct_Summary factAcctSummary = getCreateFactAcctSummary();
-			final IQueryFilter<I_Fact_Acct_Summary> currentYearFilter = new EqualsQueryFilter<>(I_Fact_Acct_Summary.COLUMN_C_Year_ID, factAcctSummary.getC_Year_ID());
-
-			//
-			// Update all summary records which are >= particular DateAcct
-			factAcctLogDAO.retrieveCurrentAndNextMatchingFactAcctSummaryQuery(ctx, key)
-					.create()
-					.updateDirectly()
-					//
-					// Amounts: from beginning to Date
-					.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctDr, amtAcctDr_ToAdd)
-					.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctCr, amtAcctCr_ToAdd)
-					.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_Qty, qty_ToAdd)
-					//
-					// Amounts: Year to Date
-					.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctDr_YTD, amtAcctDr_ToAdd, currentYearFilter)
-					.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctCr_YTD, amtAcctCr_ToAdd, currentYearFilter)
-					//
-					.execute();
-
-			//
-			// Reset the amounts because we processed them
-			resetAmounts();
-		}
-
-	}
-
-	private static final class FactAcctSummaryKeyBuilder implements IAggregationKeyBuilder<I_Fact_Acct_Log>
-	{
-		public static final transient FactAcctSummaryKeyBuilder instance = new FactAcctSummaryKeyBuilder();
-
-		private FactAcctSummaryKeyBuilder()
-		{
-			super();
 		}
 
-		@Override
-		public String buildKey(final I_Fact_Acct_Log item)
-		{
-			return FactAcctSummaryKey.of(item).asString();
-		}
-
-		@Override
-		public List<String> getDependsOnColumnNames()
+		public boolean hasChanges()
 		{
-			throw new UnsupportedOperationException();
+			return !amountsToAdd.isZero();
 		}
 
 		@Override
-		public boolean isSame(final I_Fact_Acct_Log item1, final I_Fact_Acct_Log item2)
+		public String toString()
 		{
-			throw new UnsupportedOperationException();
+			return "FactAcctGroup[" + key + "]";
 		}
 	}
 }
@@ -0,0 +1,142 @@
+package de.metas.acct.aggregation.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.acct.aggregation.IFactAcctSummaryKey;
+import de.metas.acct.model.I_Fact_Acct_Summary;
+import de.metas.acct.model.X_Fact_Acct_Log;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Loggables;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Recomputes the {@link I_Fact_Acct_Summary} records of given dimensions from scratch (i.e. from <code>Fact_Acct</code>) and reports the records which are not matching.
+ * <p>
+ * The <code>Fact_Acct_Log</code>s which were not processed yet are considered, because their changes are in <code>Fact_Acct</code> but not yet in the summary.
+ */
+final class FactAcctSummaryVerifier
+{
+	private static final Logger logger = LogManager.getLogger(FactAcctSummaryVerifier.class);
+
+	private static final String SQL_Mismatches = "SELECT fas.DateAcct"
+			+ ", fas.AmtAcctDr, fas.AmtAcctCr, fas.Qty, fas.AmtAcctDr_YTD, fas.AmtAcctCr_YTD"
+			+ ", expected.AmtAcctDr, expected.AmtAcctCr, expected.Qty, expected.AmtAcctDr_YTD, expected.AmtAcctCr_YTD"
+			+ "\n FROM Fact_Acct_Summary fas"
+			+ "\n INNER JOIN LATERAL ("
+			+ "\n   SELECT COALESCE(SUM(x.AmtAcctDr), 0) AS AmtAcctDr"
+			+ "\n   , COALESCE(SUM(x.AmtAcctCr), 0) AS AmtAcctCr"
+			+ "\n   , COALESCE(SUM(x.Qty), 0) AS Qty"
+			+ "\n   , COALESCE(SUM(x.AmtAcctDr) FILTER (WHERE x.C_Year_ID = fas.C_Year_ID), 0) AS AmtAcctDr_YTD"
+			+ "\n   , COALESCE(SUM(x.AmtAcctCr) FILTER (WHERE x.C_Year_ID = fas.C_Year_ID), 0) AS AmtAcctCr_YTD"
+			+ "\n   FROM ("
+			+ "\n     SELECT fa.DateAcct, fa.AmtAcctDr, fa.AmtAcctCr, fa.Qty, p.C_Year_ID"
+			+ "\n     FROM Fact_Acct fa INNER JOIN C_Period p ON p.C_Period_ID = fa.C_Period_ID"
+			+ "\n     WHERE fa.AD_Client_ID = ? AND fa.AD_Org_ID = ? AND fa.C_AcctSchema_ID = ? AND fa.Account_ID = ? AND fa.PostingType = ?"
+			+ "\n     UNION ALL"
+			+ "\n     SELECT l.DateAcct, l.AmtAcctDr * s.Sign, l.AmtAcctCr * s.Sign, l.Qty * s.Sign, p.C_Year_ID" // logs not processed yet
+			+ "\n     FROM Fact_Acct_Log l INNER JOIN C_Period p ON p.C_Period_ID = l.C_Period_ID"
+			+ "\n     INNER JOIN LATERAL (SELECT (CASE WHEN l.Action = ? THEN -1 ELSE 1 END) AS Sign) s ON true"
+			+ "\n     WHERE l.AD_Client_ID = ? AND l.AD_Org_ID = ? AND l.C_AcctSchema_ID = ? AND l.C_ElementValue_ID = ? AND l.PostingType = ?"
+			+ "\n   ) x"
+			+ "\n   WHERE date_trunc('day', x.DateAcct) <= fas.DateAcct"
+			+ "\n ) expected ON true"
+			+ "\n WHERE fas.AD_Client_ID = ? AND fas.AD_Org_ID = ? AND fas.C_AcctSchema_ID = ? AND fas.Account_ID = ? AND fas.PostingType = ? AND fas.PA_ReportCube_ID IS NULL"
+			+ "\n AND (fas.AmtAcctDr <> expected.AmtAcctDr OR fas.AmtAcctCr <> expected.AmtAcctCr OR fas.Qty <> expected.Qty"
+			+ "\n   OR fas.AmtAcctDr_YTD <> expected.AmtAcctDr_YTD OR fas.AmtAcctCr_YTD <> expected.AmtAcctCr_YTD)"
+			+ "\n ORDER BY fas.DateAcct";
+
+	/**
+	 * @param keys one key for each set of dimensions to be verified; the DateAcct and C_Period_ID of the keys are not relevant
+	 * @return how many summary records are not matching
+	 */
+	public int verify(@NonNull final List<IFactAcctSummaryKey> keys)
+	{
+		int mismatchesCount = 0;
+		for (final IFactAcctSummaryKey key : keys)
+		{
+			mismatchesCount += verify(key);
+		}
+		return mismatchesCount;
+	}
+
+	private int verify(final IFactAcctSummaryKey key)
+	{
+		// NOTE: the report cube summaries are maintained by FactAcctCubeUpdater
+		Check.assume(key.getPA_ReportCube_ID() <= 0, "Only summaries which are not part of a report cube can be verified: {}", key);
+
+		final List<Object> dimensionParams = ImmutableList.<Object> of(key.getAD_Client_ID(), key.getAD_Org_ID(), key.getC_AcctSchema_ID(), key.getC_ElementValue_ID(), key.getPostingType());
+		final List<Object> sqlParams = ImmutableList.<Object> builder()
+				.addAll(dimensionParams) // Fact_Acct
+				.add(X_Fact_Acct_Log.ACTION_Insert)
+				.addAll(dimensionParams) // Fact_Acct_Log
+				.addAll(dimensionParams) // Fact_Acct_Summary
+				.build();
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(SQL_Mismatches, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			int mismatchesCount = 0;
+			while (rs.next())
+			{
+				mismatchesCount++;
+				final String mismatch = "Fact_Acct_Summary of " + rs.getTimestamp(1)
+						+ " is not matching Fact_Acct for " + key
+						+ ": AmtAcctDr=" + rs.getBigDecimal(2) + "/" + rs.getBigDecimal(7)
+						+ ", AmtAcctCr=" + rs.getBigDecimal(3) + "/" + rs.getBigDecimal(8)
+						+ ", Qty=" + rs.getBigDecimal(4) + "/" + rs.getBigDecimal(9)
+						+ ", AmtAcctDr_YTD=" + rs.getBigDecimal(5) + "/" + rs.getBigDecimal(10)
+						+ ", AmtAcctCr_YTD=" + rs.getBigDecimal(6) + "/" + rs.getBigDecimal(11)
+						+ " (actual/expected)";
+				logger.warn(mismatch);
+				Loggables.addLog(mismatch);
+			}
+			return mismatchesCount;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, SQL_Mismatches, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+}
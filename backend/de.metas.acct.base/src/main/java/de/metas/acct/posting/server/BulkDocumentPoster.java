@@ -0,0 +1,384 @@
+package de.metas.acct.posting.server;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.POInfo;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
+import de.metas.acct.api.IPostingService;
+import de.metas.acct.posting.DocumentPostRequest;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Posts a batch of documents directly (i.e. without going through the event bus), on server side.
+ * <p>
+ * By default, the documents are posted sequentially, in the order in which they were requested.
+ * If parallel posting is enabled (see {@value #SYSCONFIG_Parallelism}), the documents are partitioned by client, table and accounting month.
+ * The documents of one partition are still posted in the order in which they were requested, but the partitions are posted in parallel.
+ * <p>
+ * NOTE: the accounting schema is not a partition dimension because one document is posted for all the accounting schemas of its client in one go.
+ */
+public final class BulkDocumentPoster
+{
+	private static final Logger logger = LogManager.getLogger(BulkDocumentPoster.class);
+	private final ISysConfigBL sysConfigBL;
+	private final IPostingService postingService;
+
+	/**
+	 * How many partitions shall be posted in parallel.
+	 * Defaults to one, because costing might depend on the order in which the documents of different tables are posted.
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_Parallelism = "de.metas.acct.posting.server.BulkDocumentPoster.Parallelism";
+	private static final int DEFAULT_Parallelism = 1;
+
+	private static final String COLUMNNAME_DateAcct = "DateAcct";
+
+	private static final long WORKERS_KEEP_ALIVE_MINUTES = 1;
+
+	private final ConcurrentHashMap<String, TableStatistics> statisticsByTableName = new ConcurrentHashMap<>();
+
+	private ExecutorService workersPool;
+	private int workersPoolSize;
+
+	@Builder
+	private BulkDocumentPoster(
+			@NonNull final ISysConfigBL sysConfigBL,
+			@NonNull final IPostingService postingService)
+	{
+		this.sysConfigBL = sysConfigBL;
+		this.postingService = postingService;
+	}
+
+	/**
+	 * Posts given documents and waits until all of them were posted.
+	 * Errors of individual documents are logged (and the user is notified, if requested) but don't stop the posting of the other documents.
+	 */
+	public void postAll(@NonNull final List<DocumentPostRequest> requests)
+	{
+		if (requests.isEmpty())
+		{
+			return;
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int configuredParallelism = getParallelism();
+		if (configuredParallelism <= 1)
+		{
+			// post strictly in the requested order, also across tables (see SYSCONFIG_Parallelism)
+			logger.debug("Posting {} documents sequentially", requests.size());
+			requests.forEach(this::post);
+
+			stopwatch.stop();
+			logger.info("Posted {} documents sequentially in {}. Statistics so far: {}", requests.size(), stopwatch, getStatisticsAsString());
+			return;
+		}
+
+		final ImmutableList<ImmutableList<DocumentPostRequest>> partitions = partition(requests, retrieveAcctMonths(requests));
+		final int parallelism = Math.min(configuredParallelism, partitions.size());
+		logger.debug("Posting {} documents in {} partitions, using {} threads", requests.size(), partitions.size(), parallelism);
+
+		if (parallelism <= 1)
+		{
+			partitions.forEach(this::postPartition);
+		}
+		else
+		{
+			// NOTE: the pool is sized by the configured parallelism, not by the number of partitions of this batch, so that it can be reused by the next batches
+			postPartitionsInParallel(partitions, configuredParallelism);
+		}
+
+		stopwatch.stop();
+		logger.info("Posted {} documents in {} ({} partitions, {} threads). Statistics so far: {}", requests.size(), stopwatch, partitions.size(), parallelism, getStatisticsAsString());
+	}
+
+	private void postPartitionsInParallel(final List<ImmutableList<DocumentPostRequest>> partitions, final int parallelism)
+	{
+		final ExecutorService workersPool = getWorkersPool(parallelism);
+
+		// the workers shall post with the caller's context (e.g. client, org, user), but each worker needs its own copy of it
+		final Properties callerCtx = Env.getCtx();
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(partitions.size());
+			for (final ImmutableList<DocumentPostRequest> partition : partitions)
+			{
+				final Properties workerCtx = Env.copyCtx(callerCtx);
+				futures.add(workersPool.submit(() -> {
+					try (final IAutoCloseable ignored = Env.switchContext(workerCtx))
+					{
+						postPartition(partition);
+					}
+				}));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
+	}
+
+	/**
+	 * @return the workers pool of this poster; it's created again only if the configured parallelism was changed meanwhile
+	 */
+	private synchronized ExecutorService getWorkersPool(final int parallelism)
+	{
+		if (workersPool != null && workersPoolSize == parallelism)
+		{
+			return workersPool;
+		}
+
+		if (workersPool != null)
+		{
+			workersPool.shutdown(); // the partitions which were already submitted will still be posted
+		}
+
+		final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(BulkDocumentPoster.class.getSimpleName() + "-");
+		threadFactory.setDaemon(true);
+		final ThreadPoolExecutor newWorkersPool = new ThreadPoolExecutor(
+				parallelism,
+				parallelism,
+				WORKERS_KEEP_ALIVE_MINUTES,
+				TimeUnit.MINUTES,
+				new LinkedBlockingQueue<>(),
+				threadFactory);
+		newWorkersPool.allowCoreThreadTimeOut(true); // don't keep idle threads around between the posting batches
+
+		workersPool = newWorkersPool;
+		workersPoolSize = parallelism;
+		return workersPool;
+	}
+
+	private void postPartition(final List<DocumentPostRequest> partition)
+	{
+		partition.forEach(this::post);
+	}
+
+	private void post(@NonNull final DocumentPostRequest request)
+	{
+		final TableStatistics statistics = statisticsByTableName.computeIfAbsent(request.getRecord().getTableName(), TableStatistics::new);
+		final long startNanos = System.nanoTime();
+		boolean success = false;
+		try
+		{
+			postingService.newPostingRequest()
+					.setClientId(request.getClientId())
+					.setDocumentRef(request.getRecord())
+					.setForce(request.isForce())
+					.setFailOnError(true) // we catch it below, so that we can count the failures and post the other documents
+					.onErrorNotifyUser(request.getOnErrorNotifyUserId())
+					.setPostWithoutServer() // we are on server side now, so don't try to contact the server again
+					.setPostImmediate(PostImmediate.Yes)
+					.postIt();
+			success = true;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed posting {}", request, ex);
+		}
+		finally
+		{
+			statistics.record(success, System.nanoTime() - startNanos);
+		}
+	}
+
+	private int getParallelism()
+	{
+		final int parallelism = sysConfigBL.getIntValue(SYSCONFIG_Parallelism, DEFAULT_Parallelism);
+		return parallelism > 0 ? parallelism : DEFAULT_Parallelism;
+	}
+
+	/**
+	 * Groups the requests by client, table and accounting month, preserving the order of the requests inside each group.
+	 *
+	 * @param acctMonths accounting month of each record; records which are missing are considered to be all in the same (unknown) month
+	 */
+	@VisibleForTesting
+	static ImmutableList<ImmutableList<DocumentPostRequest>> partition(
+			@NonNull final List<DocumentPostRequest> requests,
+			@NonNull final Map<TableRecordReference, YearMonth> acctMonths)
+	{
+		final LinkedHashMap<PartitionKey, ImmutableList.Builder<DocumentPostRequest>> partitions = new LinkedHashMap<>();
+		for (final DocumentPostRequest request : requests)
+		{
+			final PartitionKey partitionKey = PartitionKey.builder()
+					.clientId(request.getClientId())
+					.tableName(request.getRecord().getTableName())
+					.acctMonth(acctMonths.get(request.getRecord()))
+					.build();
+			partitions.computeIfAbsent(partitionKey, k -> ImmutableList.<DocumentPostRequest> builder()).add(request);
+		}
+
+		return partitions.values()
+				.stream()
+				.map(ImmutableList.Builder::build)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static ImmutableMap<TableRecordReference, YearMonth> retrieveAcctMonths(final List<DocumentPostRequest> requests)
+	{
+		final Map<String, List<TableRecordReference>> recordRefsByTableName = requests.stream()
+				.map(DocumentPostRequest::getRecord)
+				.distinct()
+				.collect(Collectors.groupingBy(TableRecordReference::getTableName));
+
+		final ImmutableMap.Builder<TableRecordReference, YearMonth> result = ImmutableMap.builder();
+		recordRefsByTableName.forEach((tableName, recordRefs) -> result.putAll(retrieveAcctMonths(tableName, recordRefs)));
+		return result.build();
+	}
+
+	private static Map<TableRecordReference, YearMonth> retrieveAcctMonths(final String tableName, final List<TableRecordReference> recordRefs)
+	{
+		final POInfo poInfo = POInfo.getPOInfo(tableName);
+		final String keyColumnName = poInfo != null ? poInfo.getKeyColumnName() : null;
+		if (keyColumnName == null || !poInfo.hasColumnName(COLUMNNAME_DateAcct))
+		{
+			return ImmutableMap.of();
+		}
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = "SELECT " + keyColumnName + ", " + COLUMNNAME_DateAcct
+				+ " FROM " + tableName
+				+ " WHERE " + keyColumnName + " IN " + DB.buildSqlList(recordRefs.stream().map(TableRecordReference::getRecord_ID).collect(Collectors.toList()), sqlParams);
+
+		return DB.retrieveRowsOutOfTrx(sql, sqlParams, rs -> {
+			final LocalDate dateAcct = TimeUtil.asLocalDate(rs.getTimestamp(COLUMNNAME_DateAcct));
+			return dateAcct != null
+					? new TableRecordReferenceAndMonth(TableRecordReference.of(tableName, rs.getInt(keyColumnName)), YearMonth.from(dateAcct))
+					: null;
+		})
+				.stream()
+				.collect(ImmutableMap.toImmutableMap(TableRecordReferenceAndMonth::getRecordRef, TableRecordReferenceAndMonth::getAcctMonth));
+	}
+
+	/**
+	 * @return documents per second and failures count, for each table which was posted since this instance was created
+	 */
+	public String getStatisticsAsString()
+	{
+		return statisticsByTableName.values()
+				.stream()
+				.map(TableStatistics::toString)
+				.sorted()
+				.collect(Collectors.joining(", ", "[", "]"));
+	}
+
+	@Value
+	@Builder
+	private static class PartitionKey
+	{
+		@NonNull
+		ClientId clientId;
+
+		@NonNull
+		String tableName;
+
+		@Nullable
+		YearMonth acctMonth;
+	}
+
+	@Value
+	private static class TableRecordReferenceAndMonth
+	{
+		@NonNull
+		TableRecordReference recordRef;
+
+		@NonNull
+		YearMonth acctMonth;
+	}
+
+	private static final class TableStatistics
+	{
+		private final String tableName;
+		private final LongAdder postedCount = new LongAdder();
+		private final LongAdder failedCount = new LongAdder();
+		private final LongAdder durationNanos = new LongAdder();
+
+		private TableStatistics(@NonNull final String tableName)
+		{
+			this.tableName = tableName;
+		}
+
+		public void record(final boolean success, final long durationNanos)
+		{
+			(success ? postedCount : failedCount).increment();
+			this.durationNanos.add(durationNanos);
+		}
+
+		@Override
+		public String toString()
+		{
+			final long count = postedCount.sum() + failedCount.sum();
+			final long millis = TimeUnit.NANOSECONDS.toMillis(durationNanos.sum());
+			final String docsPerSecond = millis > 0 ? String.format("%.1f", count * 1000.0 / millis) : "-";
+			return tableName + ": " + docsPerSecond + " docs/s (posted=" + postedCount.sum() + ", failed=" + failedCount.sum() + ")";
+		}
+	}
+}
@@ -7,9 +7,11 @@ import org.adempiere.service.ISysConfigBL;
 import org.slf4j.Logger;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 
-import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
 import de.metas.acct.api.IPostingService;
+import de.metas.acct.posting.DocumentPostRequest;
+import de.metas.acct.posting.server.BulkDocumentPoster;
 import de.metas.logging.LogManager;
 import lombok.Builder;
 import lombok.NonNull;
@@ -40,10 +42,11 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 {
 	private static final Logger logger = LogManager.getLogger(AccoutingDocsToRepostDBTableWatcher.class);
 	private final ISysConfigBL sysConfigBL;
-	private final IPostingService postingService;
 	private final AccoutingDocsToRepostDBTableRepository accoutingDocsToRepostDBTableRepository;
+	private final BulkDocumentPoster bulkDocumentPoster;
 
-	private static final int RETRIEVE_CHUNK_SIZE = 100;
+	private static final String SYSCONFIG_RetrieveChunkSize = "de.metas.acct.accounting_docs_to_repost.retrieveChunkSize";
+	private static final int DEFAULT_RetrieveChunkSize = 100;
 	private static final String SYSCONFIG_PollIntervalInSeconds = "de.metas.acct.accounting_docs_to_repost.pollIntervalInSeconds";
 	private static final Duration DEFAULT_PollInterval = Duration.ofSeconds(10);
 
@@ -53,8 +56,11 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 			@NonNull final IPostingService postingService)
 	{
 		this.sysConfigBL = sysConfigBL;
-		this.postingService = postingService;
 		this.accoutingDocsToRepostDBTableRepository = new AccoutingDocsToRepostDBTableRepository();
+		this.bulkDocumentPoster = BulkDocumentPoster.builder()
+				.sysConfigBL(sysConfigBL)
+				.postingService(postingService)
+				.build();
 	}
 
 	@Override
@@ -76,7 +82,7 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 
 			try
 			{
-				enqueueAllForReposting();
+				repostAll();
 			}
 			catch (final Exception ex)
 			{
@@ -85,53 +91,48 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 		}
 	}
 
-	private void enqueueAllForReposting()
+	private void repostAll()
 	{
 		boolean tryAgain = false;
 		do
 		{
-			final List<AccountingDocToRepost> docsToRepost = accoutingDocsToRepostDBTableRepository.retrieve(RETRIEVE_CHUNK_SIZE);
+			final int retrieveChunkSize = getRetrieveChunkSize();
+			final List<AccountingDocToRepost> docsToRepost = accoutingDocsToRepostDBTableRepository.retrieve(retrieveChunkSize);
 			if (docsToRepost.isEmpty())
 			{
 				return;
 			}
 
-			logger.info("Enqueueing for reposting {} documents: {}", docsToRepost.size(), docsToRepost);
+			logger.info("Reposting {} documents: {}", docsToRepost.size(), docsToRepost);
 			final Stopwatch stopwatch = Stopwatch.createStarted();
 
-			for (final AccountingDocToRepost docToRepost : docsToRepost)
-			{
-				enqueueForReposting(docToRepost);
-			}
-			tryAgain = docsToRepost.size() >= 100;
+			// NOTE: errors of individual documents are handled by the poster; if it fails as a whole, we keep the records, so they are reposted on the next run
+			bulkDocumentPoster.postAll(toDocumentPostRequests(docsToRepost));
+			docsToRepost.forEach(accoutingDocsToRepostDBTableRepository::delete);
+			tryAgain = docsToRepost.size() >= retrieveChunkSize;
 
 			stopwatch.stop();
-			logger.info("Done enqueueing {} documents in {} (tryAgain={})", docsToRepost.size(), stopwatch, tryAgain);
+			logger.info("Done reposting {} documents in {} (tryAgain={})", docsToRepost.size(), stopwatch, tryAgain);
 		}
 		while (tryAgain);
 	}
 
-	private void enqueueForReposting(@NonNull final AccountingDocToRepost docToRepost)
+	private static ImmutableList<DocumentPostRequest> toDocumentPostRequests(@NonNull final List<AccountingDocToRepost> docsToRepost)
 	{
-		try
-		{
-			postingService.newPostingRequest()
-					.setClientId(docToRepost.getClientId())
-					.setDocumentRef(docToRepost.getRecordRef())
-					.setForce(docToRepost.isForce())
-					.setFailOnError(false) // don't fail because we don't want to fail this thread
-					.onErrorNotifyUser(docToRepost.getOnErrorNotifyUserId())
-					.setPostImmediate(PostImmediate.No) // no, just enqueue it
-					.postIt();
-		}
-		catch (Exception ex)
-		{
-			logger.warn("Failed enqueueing {}", docToRepost, ex);
-		}
-		finally
-		{
-			accoutingDocsToRepostDBTableRepository.delete(docToRepost);
-		}
+		return docsToRepost.stream()
+				.map(docToRepost -> DocumentPostRequest.builder()
+						.record(docToRepost.getRecordRef())
+						.clientId(docToRepost.getClientId())
+						.force(docToRepost.isForce())
+						.onErrorNotifyUserId(docToRepost.getOnErrorNotifyUserId())
+						.build())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private int getRetrieveChunkSize()
+	{
+		final int retrieveChunkSize = sysConfigBL.getIntValue(SYSCONFIG_RetrieveChunkSize, -1);
+		return retrieveChunkSize > 0 ? retrieveChunkSize : DEFAULT_RetrieveChunkSize;
 	}
 
 	private Duration getPollInterval()
@@ -196,6 +196,44 @@ public class FactAcctLogBLTest
 
 	}
 
+	@Test
+	public void test_MultipleDatesAndYearsInOneBatch()
+	{
+		final I_Fact_Acct_Log log1 = newFactAcctLogBuilder()
+				.setC_Period(year2014_p1)
+				.setDateAcct(2014, 01, 7)
+				.setC_ElementValue_ID(C_ElementValue_ID1)
+				.setAction(X_Fact_Acct_Log.ACTION_Insert)
+				.setAmtAcctDr(100)
+				.build();
+		processAllLogs();
+
+		//
+		// One batch: before, on and after the existing summary, crossing the year
+		newFactAcctLogBuilder().setC_Period(year2014_p1).setDateAcct(2014, 01, 5).setC_ElementValue_ID(C_ElementValue_ID1).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(10).build();
+		newFactAcctLogBuilder().setC_Period(year2014_p1).setDateAcct(2014, 01, 7).setC_ElementValue_ID(C_ElementValue_ID1).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(1).build();
+		newFactAcctLogBuilder().setC_Period(year2015_p1).setDateAcct(2015, 01, 7).setC_ElementValue_ID(C_ElementValue_ID1).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(50).build();
+		newFactAcctLogBuilder().setC_Period(year2015_p1).setDateAcct(2015, 01, 8).setC_ElementValue_ID(C_ElementValue_ID1).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(5).build();
+		newFactAcctLogBuilder().setC_Period(year2015_p1).setDateAcct(2015, 01, 9).setC_ElementValue_ID(C_ElementValue_ID1).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(7).build();
+		newFactAcctLogBuilder().setC_Period(year2015_p1).setDateAcct(2015, 01, 9).setC_ElementValue_ID(C_ElementValue_ID1).setAction(X_Fact_Acct_Log.ACTION_Delete).setAmtAcctDr(7).build();
+		processAllLogs();
+
+		final List<I_Fact_Acct_Summary> summaries = retrieveAllFactAcctSummariesFor(FactAcctSummaryKey.of(log1));
+		assertThat(summaries).hasSize(4); // nothing for 2015-01-09, because the logs are compensating each other
+		//
+		assertEquals("Summary AmtAcctDr", 10, summaries.get(0).getAmtAcctDr().intValueExact());
+		assertEquals("Summary AmtAcctDr_YTD", 10, summaries.get(0).getAmtAcctDr_YTD().intValueExact());
+		//
+		assertEquals("Summary AmtAcctDr", 10 + 100 + 1, summaries.get(1).getAmtAcctDr().intValueExact());
+		assertEquals("Summary AmtAcctDr_YTD", 10 + 100 + 1, summaries.get(1).getAmtAcctDr_YTD().intValueExact());
+		//
+		assertEquals("Summary AmtAcctDr", 10 + 100 + 1 + 50, summaries.get(2).getAmtAcctDr().intValueExact());
+		assertEquals("Summary AmtAcctDr_YTD", 50, summaries.get(2).getAmtAcctDr_YTD().intValueExact());
+		//
+		assertEquals("Summary AmtAcctDr", 10 + 100 + 1 + 50 + 5, summaries.get(3).getAmtAcctDr().intValueExact());
+		assertEquals("Summary AmtAcctDr_YTD", 50 + 5, summaries.get(3).getAmtAcctDr_YTD().intValueExact());
+	}
+
 	private final Fact_Acct_Log_Builder newFactAcctLogBuilder()
 	{
 		return Fact_Acct_Log_Builder.newBuilder()
@@ -0,0 +1,95 @@
+package de.metas.acct.posting.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.YearMonth;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.acct.posting.DocumentPostRequest;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BulkDocumentPosterTest
+{
+	private static DocumentPostRequest request(final String tableName, final int recordId)
+	{
+		return request(tableName, recordId, ClientId.ofRepoId(1000000));
+	}
+
+	private static DocumentPostRequest request(final String tableName, final int recordId, final ClientId clientId)
+	{
+		return DocumentPostRequest.builder()
+				.record(TableRecordReference.of(tableName, recordId))
+				.clientId(clientId)
+				.build();
+	}
+
+	@Test
+	public void partitionByTableAndMonth_preservingTheOrder()
+	{
+		final DocumentPostRequest invoice1 = request("C_Invoice", 1);
+		final DocumentPostRequest inout1 = request("M_InOut", 1);
+		final DocumentPostRequest invoice2 = request("C_Invoice", 2);
+		final DocumentPostRequest invoice3 = request("C_Invoice", 3);
+		final DocumentPostRequest inout2 = request("M_InOut", 2);
+
+		final ImmutableMap<TableRecordReference, YearMonth> acctMonths = ImmutableMap.<TableRecordReference, YearMonth> builder()
+				.put(invoice1.getRecord(), YearMonth.of(2021, 1))
+				.put(invoice2.getRecord(), YearMonth.of(2021, 2))
+				.put(invoice3.getRecord(), YearMonth.of(2021, 1))
+				.put(inout1.getRecord(), YearMonth.of(2021, 1))
+				.put(inout2.getRecord(), YearMonth.of(2021, 1))
+				.build();
+
+		final ImmutableList<ImmutableList<DocumentPostRequest>> partitions = BulkDocumentPoster.partition(
+				ImmutableList.of(invoice1, inout1, invoice2, invoice3, inout2),
+				acctMonths);
+
+		assertThat(partitions).containsExactly(
+				ImmutableList.of(invoice1, invoice3),
+				ImmutableList.of(inout1, inout2),
+				ImmutableList.of(invoice2));
+	}
+
+	@Test
+	public void partitionByClient_unknownMonth()
+	{
+		final DocumentPostRequest client1_doc1 = request("GL_Journal", 1, ClientId.ofRepoId(1000000));
+		final DocumentPostRequest client2_doc2 = request("GL_Journal", 2, ClientId.ofRepoId(1000001));
+		final DocumentPostRequest client1_doc3 = request("GL_Journal", 3, ClientId.ofRepoId(1000000));
+
+		final ImmutableList<ImmutableList<DocumentPostRequest>> partitions = BulkDocumentPoster.partition(
+				ImmutableList.of(client1_doc1, client2_doc2, client1_doc3),
+				ImmutableMap.of());
+
+		assertThat(partitions).containsExactly(
+				ImmutableList.of(client1_doc1, client1_doc3),
+				ImmutableList.of(client2_doc2));
+	}
+}
@@ -45,6 +45,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.compiere.Adempiere;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
@@ -550,6 +551,12 @@ public abstract class AbstractExcelExporter
 		Workbook workbook = exportToWorkbook();
 		workbook.write(out);
 		out.close();
+
+		if (workbook instanceof SXSSFWorkbook)
+		{
+			// delete the temporary files where the streaming implementation flushed the rows
+			((SXSSFWorkbook)workbook).dispose();
+		}
 	}
 
 	@VisibleForTesting
@@ -34,7 +34,7 @@ import lombok.Value;
  */
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class ExcelExportConstants
 {
 	public static ExcelExportConstants givenOrDefault(@Nullable final ExcelExportConstants constants)
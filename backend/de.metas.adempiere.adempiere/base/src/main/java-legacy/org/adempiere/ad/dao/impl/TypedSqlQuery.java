@@ -29,9 +29,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
@@ -972,6 +975,60 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 
 	}
 
+	@Override
+	public <ET extends T> Stream<ET> streamUsingKeysetPagination(@NonNull final Class<ET> clazz, final int pageSize) throws DBException
+	{
+		final String keyColumnName = getKeyColumnNameForKeysetPagination();
+
+		return new KeysetPaginationIterator<ET>(
+				pageSize,
+				(lastKey, pageSizeToUse) -> createKeysetPageQuery(keyColumnName, lastKey, pageSizeToUse).list(clazz),
+				InterfaceWrapperHelper::getId)
+						.stream();
+	}
+
+	@Override
+	public Stream<Map<String, Object>> streamColumnsUsingKeysetPagination(final int pageSize, @NonNull final String... columnNames) throws DBException
+	{
+		final String keyColumnName = getKeyColumnNameForKeysetPagination();
+
+		final Set<String> columnNamesIncludingKey = new LinkedHashSet<>();
+		columnNamesIncludingKey.add(keyColumnName);
+		columnNamesIncludingKey.addAll(Arrays.asList(columnNames));
+		final String[] columnNamesToLoad = columnNamesIncludingKey.toArray(new String[0]);
+
+		return new KeysetPaginationIterator<Map<String, Object>>(
+				pageSize,
+				(lastKey, pageSizeToUse) -> createKeysetPageQuery(keyColumnName, lastKey, pageSizeToUse).listColumns(false, columnNamesToLoad),
+				row -> ((Number)row.get(keyColumnName)).intValue())
+						.stream();
+	}
+
+	private String getKeyColumnNameForKeysetPagination()
+	{
+		Check.assumeNull(postQueryFilter, "No post-filter shall be defined when using keyset pagination");
+		Check.assume(!hasUnions(), "No unions shall be defined when using keyset pagination");
+		Check.assume(!hasLimitOrOffset(), "No limit or offset shall be defined when using keyset pagination");
+		Check.assumeNull(sqlFrom, "No custom FROM clause shall be defined when using keyset pagination, because the key column might be ambiguous");
+
+		return getKeyColumnName();
+	}
+
+	private TypedSqlQuery<T> createKeysetPageQuery(
+			@NonNull final String keyColumnName,
+			@Nullable final Integer lastKey,
+			final int pageSize)
+	{
+		// NOTE: lastKey is an integer, so it's safe to render it in the SQL; this way we don't have to care about the order of the parameters
+		final TypedSqlQuery<T> pageQuery = lastKey != null
+				? addWhereClause(true, keyColumnName + ">" + lastKey)
+				: copy();
+
+		return pageQuery
+				.setOrderBy(keyColumnName)
+				.setLimit(QueryLimit.ofInt(pageSize));
+	}
+
 	/**
 	 * Return a simple wrapper over a JDBC {@link ResultSet}. It is the caller responsibility to call the close method to release the underlying database resources.
 	 *
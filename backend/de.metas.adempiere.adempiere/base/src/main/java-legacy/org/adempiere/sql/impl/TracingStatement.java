@@ -82,7 +82,7 @@ class TracingStatement<StatementType extends AbstractCStatementProxy<? extends S
 
 		final Stopwatch duration = Stopwatch.createStarted();
 		final T retValue = sqlCall.call();
-		collector.collect(sql, duration.stop());
+		collector.collect(sql, duration.stop(), extractRowsAffected(retValue));
 
 		return retValue;
 	}
@@ -97,11 +97,38 @@ class TracingStatement<StatementType extends AbstractCStatementProxy<? extends S
 
 		final Stopwatch duration = Stopwatch.createStarted();
 		final T retValue = sqlCall.call();
-		collector.collect(delegate.getVO(), duration.stop());
+		collector.collect(delegate.getVO(), duration.stop(), extractRowsAffected(retValue));
 
 		return retValue;
 	}
 
+	/**
+	 * @return the update count(s) returned by <code>executeUpdate</code> or <code>executeBatch</code>; for queries the rows are not known at this point
+	 */
+	private static long extractRowsAffected(final Object retValue)
+	{
+		if (retValue instanceof Integer)
+		{
+			return (Integer)retValue;
+		}
+		else if (retValue instanceof int[])
+		{
+			long rowsAffected = 0;
+			for (final int updateCount : (int[])retValue)
+			{
+				if (updateCount > 0)
+				{
+					rowsAffected += updateCount;
+				}
+			}
+			return rowsAffected;
+		}
+		else
+		{
+			return IQueryStatisticsCollector.ROWS_AFFECTED_UNKNOWN;
+		}
+	}
+
 	@Override
 	public final String getSql()
 	{
@@ -22,6 +22,8 @@ import java.util.Properties;
 
 import org.compiere.util.DB;
 import org.compiere.util.Env;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import de.metas.acct.api.AcctSchemaId;
@@ -62,8 +64,10 @@ public class MCharge extends X_C_Charge
 		String acctName = X_C_Charge_Acct.COLUMNNAME_Ch_Expense_Acct;		//  Expense (positive amt)
 		if (amount != null && amount.signum() < 0)
 			acctName = X_C_Charge_Acct.COLUMNNAME_Ch_Revenue_Acct;			//  Revenue (negative amt)
-		String sql = "SELECT "+acctName+" FROM C_Charge_Acct WHERE C_Charge_ID=? AND C_AcctSchema_ID=?";
-		int Account_ID = DB.getSQLValueEx(null, sql, C_Charge_ID, acctSchemaId);
+		final String sql = "SELECT "+acctName+" FROM C_Charge_Acct WHERE C_Charge_ID=? AND C_AcctSchema_ID=?";
+		final int Account_ID = s_chargeAccountIds.getOrLoad(
+				Util.mkKey(C_Charge_ID, acctSchemaId, acctName),
+				() -> DB.getSQLValueEx(null, sql, C_Charge_ID, acctSchemaId));
 		//	No account
 		if (Account_ID <= 0)
 		{
@@ -97,6 +101,12 @@ public class MCharge extends X_C_Charge
 	/**	Cache						*/
 	private static CCache<Integer, MCharge> s_cache 
 		= new CCache<> ("C_Charge", 10);
+
+	/** Cache: C_Charge_ID, C_AcctSchema_ID, ColumnName to Account_ID; used a lot when posting */
+	private static final CCache<ArrayKey, Integer> s_chargeAccountIds = CCache.<ArrayKey, Integer> builder()
+			.tableName(I_C_Charge_Acct.Table_Name)
+			.initialCapacity(50)
+			.build();
 	
 	/**	Static Logger	*/
 	private static Logger	s_log	= LogManager.getLogger(MCharge.class);
@@ -25,7 +25,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.adempiere.ad.migration.logger.IMigrationLogger;
 import org.adempiere.ad.service.ISequenceDAO;
@@ -39,6 +44,11 @@ import org.compiere.util.DB;
 import org.compiere.util.Ini;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.document.sequence.IDocumentNoBuilder;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
@@ -61,6 +71,23 @@ public class MSequence extends X_AD_Sequence
 	public static final String SYSCONFIG_DICTIONARY_ID_USE_CENTRALIZED_ID = "DICTIONARY_ID_USE_CENTRALIZED_ID";
 	public static final String SYSCONFIG_PROJECT_ID_USE_CENTRALIZED_ID = "PROJECT_ID_USE_CENTRALIZED_ID";
 
+	/**
+	 * How many table IDs shall be allocated at once from AD_Sequence and kept in memory. Default is 1, i.e. allocate each ID on demand.
+	 * <p>
+	 * Allocating IDs in blocks avoids one AD_Sequence round-trip (and lock) per inserted record, but IDs are no longer gapless
+	 * and not strictly ascending across JVMs.
+	 */
+	public static final String SYSCONFIG_TABLE_ID_BLOCK_SIZE = "org.compiere.model.MSequence.TableIdBlockSize";
+
+	/** Preallocated table IDs, indexed by TableName */
+	private static final ConcurrentHashMap<String, TableIdBlock> tableIdBlocks = new ConcurrentHashMap<>();
+
+	static
+	{
+		// e.g. if the sequence was reset, the preallocated IDs would be wrong
+		CacheMgt.get().addCacheResetListener(Table_Name, MSequence::onSequenceCacheReset);
+	}
+
 	/** Use SQL procedure to get next id */
 	// begin vpj-cd e-evolution 02/11/2005 PostgreSQL
 	// private static final boolean USE_PROCEDURE = true;
@@ -88,6 +115,90 @@ public class MSequence extends X_AD_Sequence
 	{
 		Check.assumeNotEmpty(TableName, "The given parameter tableName is not empty");
 
+		final int idBlockSize = getTableIdBlockSize(AD_Client_ID, TableName);
+		if (idBlockSize <= 1)
+		{
+			return retrieveNextIDs(AD_Client_ID, TableName, 1).nextId();
+		}
+
+		return nextPreallocatedID(TableName, () -> retrieveNextIDs(AD_Client_ID, TableName, idBlockSize));
+	}	// getNextID
+
+	/**
+	 * @return next preallocated ID of given table; if there is none left, a new range is allocated using given <code>rangeAllocator</code>
+	 */
+	@VisibleForTesting
+	static int nextPreallocatedID(final String TableName, final Supplier<TableIdRange> rangeAllocator)
+	{
+		return tableIdBlocks
+				.computeIfAbsent(TableName, k -> new TableIdBlock())
+				.nextId(rangeAllocator);
+	}
+
+	/**
+	 * Discards the preallocated IDs of the sequences which were changed. The IDs which were not used yet are lost.
+	 */
+	@VisibleForTesting
+	static long onSequenceCacheReset(final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (multiRequest.isResetAll())
+		{
+			final int count = tableIdBlocks.size();
+			tableIdBlocks.clear();
+			return count;
+		}
+
+		final Set<Integer> sequenceIds = new HashSet<>();
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			if (!Table_Name.equals(request.getTableNameEffective()))
+			{
+				continue;
+			}
+			if (request.isAllRecords())
+			{
+				final int count = tableIdBlocks.size();
+				tableIdBlocks.clear();
+				return count;
+			}
+			sequenceIds.add(request.getRecordIdEffective());
+		}
+
+		long count = 0;
+		for (final Iterator<TableIdBlock> it = tableIdBlocks.values().iterator(); it.hasNext();)
+		{
+			if (sequenceIds.contains(it.next().getSequenceId()))
+			{
+				it.remove();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return how many IDs shall be allocated at once for given table
+	 */
+	private static int getTableIdBlockSize(final int AD_Client_ID, final String TableName)
+	{
+		// Dictionary, external ID servers and migration scripts are expecting to get the IDs one by one
+		if (isAdempiereSys(AD_Client_ID)
+				|| isUseExternalIDSystem(TableName, AD_Client_ID)
+				|| Ini.isPropertyBool(Ini.P_LOGMIGRATIONSCRIPT))
+		{
+			return 1;
+		}
+
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_TABLE_ID_BLOCK_SIZE, 1);
+	}
+
+	/**
+	 * Allocates the next <code>count</code> IDs for given table.
+	 *
+	 * NOTE: if an external ID system is used, only one ID is allocated, no matter what <code>count</code> is.
+	 */
+	private static TableIdRange retrieveNextIDs(final int AD_Client_ID, final String TableName, final int count)
+	{
 		final boolean adempiereSys = isAdempiereSys(AD_Client_ID);
 		// FIXME: 08240 because we had big issues with AD_Sequence getting locked, we decided to acquire next sequence out of transaction (as a workaround)
 		final String trxName = ITrx.TRXNAME_None;
@@ -139,7 +250,7 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					return TableIdRange.ofSingleId(AD_Sequence_ID, nextId);
 				}
 
 				// If not official dictionary try to get the ID from http custom server - if configured
@@ -160,13 +271,13 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					return TableIdRange.ofSingleId(AD_Sequence_ID, nextId);
 				}
 
 				//
 				if (USE_PROCEDURE)
 				{
-					return nextID(conn, AD_Sequence_ID, adempiereSys);
+					return TableIdRange.ofSingleId(AD_Sequence_ID, nextID(conn, AD_Sequence_ID, adempiereSys));
 				}
 				else
 				{
@@ -186,7 +297,7 @@ public class MSequence extends X_AD_Sequence
 
 					try
 					{
-						updateSQL.setInt(1, incrementNo);
+						updateSQL.setInt(1, incrementNo * count);
 						updateSQL.setInt(2, AD_Sequence_ID);
 						updateSQL.executeUpdate();
 					}
@@ -195,7 +306,7 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					return new TableIdRange(AD_Sequence_ID, nextId, incrementNo, count);
 				}
 			}
 			else
@@ -241,7 +352,7 @@ public class MSequence extends X_AD_Sequence
 				DB.close(conn);
 			}
 		}
-	}	// getNextID
+	}	// retrieveNextIDs
 
 	/**
 	 * Get Next ID
@@ -790,4 +901,75 @@ public class MSequence extends X_AD_Sequence
 		return false;
 	}
 
+	/**
+	 * A range of table IDs which were allocated at once.
+	 */
+	@VisibleForTesting
+	static final class TableIdRange
+	{
+		public static TableIdRange ofSingleId(final int sequenceId, final int id)
+		{
+			return new TableIdRange(sequenceId, id, 1, 1);
+		}
+
+		private final int sequenceId;
+		private int nextId;
+		private final int incrementNo;
+		private int remaining;
+
+		@VisibleForTesting
+		TableIdRange(final int sequenceId, final int firstId, final int incrementNo, final int count)
+		{
+			this.sequenceId = sequenceId;
+			this.nextId = firstId;
+			this.incrementNo = incrementNo;
+			this.remaining = count;
+		}
+
+		public int getSequenceId()
+		{
+			return sequenceId;
+		}
+
+		public boolean hasNext()
+		{
+			return remaining > 0;
+		}
+
+		public int nextId()
+		{
+			Check.assume(remaining > 0, "No more IDs available");
+
+			final int id = nextId;
+			nextId += incrementNo;
+			remaining--;
+			return id;
+		}
+	}
+
+	/**
+	 * Preallocated IDs of one table. When all IDs were consumed, a new range is allocated.
+	 */
+	private static final class TableIdBlock
+	{
+		private TableIdRange range;
+
+		public synchronized int nextId(final Supplier<TableIdRange> rangeAllocator)
+		{
+			if (range == null || !range.hasNext())
+			{
+				range = rangeAllocator.get();
+			}
+			return range.nextId();
+		}
+
+		/**
+		 * @return the AD_Sequence_ID from which the IDs were allocated or -1 if no IDs were allocated yet
+		 */
+		public synchronized int getSequenceId()
+		{
+			return range != null ? range.getSequenceId() : -1;
+		}
+	}
+
 }	// MSequence
@@ -18,14 +18,14 @@ package org.compiere.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -36,6 +36,7 @@ import org.adempiere.ad.modelvalidator.IModelValidationEngine;
 import org.adempiere.ad.modelvalidator.ModelChangeType;
 import org.adempiere.ad.modelvalidator.ModelInterceptor2ModelValidatorWrapper;
 import org.adempiere.ad.modelvalidator.ModelInterceptorInitException;
+import org.adempiere.ad.modelvalidator.ModelInterceptorsStatistics;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptor;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptorsCollection;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptorsRepository;
@@ -66,8 +67,12 @@ import org.springframework.context.ApplicationContext;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Multimaps;
+import com.google.common.collect.Table;
 
+import de.metas.cache.CCache;
 import de.metas.impexp.processing.IImportInterceptor;
 import de.metas.impexp.processing.IImportProcess;
 import de.metas.logging.LogManager;
@@ -444,13 +449,28 @@ public class ModelValidationEngine implements IModelValidationEngine
 	/** Data Import Validation Listeners */
 	private Hashtable<String, ArrayList<IImportInterceptor>> m_impValidateListeners = new Hashtable<>();
 
-	private ArrayList<ModelValidator> m_globalValidators = new ArrayList<>();
+	private final Set<ModelValidator> m_globalValidators = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Immutable copy of {@link #m_modelChangeListeners}, indexed by TableName and AD_Client_ID (or {@link #CLIENT_ID_Global} for global listeners).
+	 * It's used when firing model change events and it's rebuilt (copy-on-write) each time a listener is added or removed.
+	 */
+	private volatile ImmutableTable<String, Integer, ImmutableList<ModelValidator>> modelChangeDispatchTable = ImmutableTable.of();
+	private static final Integer CLIENT_ID_Global = -1;
+
+	/** Script validators, indexed by AD_Table_ID and then by EventModelValidator */
+	private final CCache<Integer, ImmutableListMultimap<String, I_AD_Table_ScriptValidator>> scriptValidatorsByTableId = CCache.<Integer, ImmutableListMultimap<String, I_AD_Table_ScriptValidator>> builder()
+			.tableName(I_AD_Table_ScriptValidator.Table_Name)
+			.expireMinutes(CCache.EXPIREMINUTES_Never)
+			.build();
+
+	private final ModelInterceptorsStatistics interceptorsStatistics = ModelInterceptorsStatistics.instance;
 
 	/**
 	 * Contains model validators for subsequent processing. The boolean value tells if the subsequent processing takes place directly when fireModelChange() is invoked with this type (
 	 * <code>true</code>) or later on (<code>false</code>).
 	 */
-	private Map<ModelValidator, Boolean> m_modelChangeSubsequent = Collections.synchronizedMap(new HashMap<ModelValidator, Boolean>());
+	private final Map<ModelValidator, Boolean> m_modelChangeSubsequent = new ConcurrentHashMap<>();
 
 	/**
 	 * Initialize and add validator
@@ -608,7 +628,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 	 * @param tableName table name
 	 * @param listener listener
 	 */
-	public void addModelChange(String tableName, ModelValidator listener)
+	public synchronized void addModelChange(String tableName, ModelValidator listener)
 	{
 		if (tableName == null || listener == null)
 		{
@@ -639,6 +659,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 				logger.debug("Listener " + listener + " already added for " + propertyName);
 			}
 		}
+
+		updateModelChangeDispatchTable(tableName, listener, list);
 	}	// addModelValidator
 
 	@Override
@@ -659,7 +681,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 	 * @param tableName table name
 	 * @param listener listener
 	 */
-	public void removeModelChange(
+	public synchronized void removeModelChange(
 			@Nullable final String tableName,
 			@Nullable final ModelValidator listener)
 	{
@@ -679,8 +701,33 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			m_modelChangeListeners.remove(propertyName);
 		}
+
+		updateModelChangeDispatchTable(tableName, listener, list);
 	}	// removeModelValidator
 
+	private void updateModelChangeDispatchTable(
+			@NonNull final String tableName,
+			@NonNull final ModelValidator listener,
+			@NonNull final List<ModelValidator> listeners)
+	{
+		final Integer clientId = m_globalValidators.contains(listener) ? CLIENT_ID_Global : listener.getAD_Client_ID();
+
+		final ImmutableTable.Builder<String, Integer, ImmutableList<ModelValidator>> builder = ImmutableTable.builder();
+		for (final Table.Cell<String, Integer, ImmutableList<ModelValidator>> cell : modelChangeDispatchTable.cellSet())
+		{
+			if (!tableName.equals(cell.getRowKey()) || !clientId.equals(cell.getColumnKey()))
+			{
+				builder.put(cell);
+			}
+		}
+		if (!listeners.isEmpty())
+		{
+			builder.put(tableName, clientId, ImmutableList.copyOf(listeners));
+		}
+
+		modelChangeDispatchTable = builder.build();
+	}
+
 	@Override
 	public void removeModelChange(String tableName, IModelInterceptor interceptor)
 	{
@@ -716,7 +763,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 	{
 		try (final MDCCloseable mdcCloseable = MDC.putCloseable("changeType", changeType.toString()))
 		{
-			if (po == null || m_modelChangeListeners.isEmpty())
+			final ImmutableTable<String, Integer, ImmutableList<ModelValidator>> modelChangeDispatchTable = this.modelChangeDispatchTable;
+			if (po == null || modelChangeDispatchTable.isEmpty())
 			{
 				return;
 			}
@@ -734,15 +782,14 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 			//
 			// Retrieve system level model interceptors
-			final String propertyNameSystem = getPropertyName(po.get_TableName());
-			final List<ModelValidator> interceptorsSystem = m_modelChangeListeners.get(propertyNameSystem);
+			final String tableName = po.get_TableName();
+			final List<ModelValidator> interceptorsSystem = modelChangeDispatchTable.get(tableName, CLIENT_ID_Global);
 			final int countSystemInterceptors = interceptorsSystem != null ? interceptorsSystem.size() : 0;
 			countInterceptors += countSystemInterceptors;
 
 			//
 			// Retrieve client level model interceptors
-			final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-			final List<ModelValidator> interceptorsClient = m_modelChangeListeners.get(propertyNameClient);
+			final List<ModelValidator> interceptorsClient = modelChangeDispatchTable.get(tableName, po.getAD_Client_ID());
 			final int countClientInterceptors = interceptorsClient != null ? interceptorsClient.size() : 0;
 			countInterceptors += countClientInterceptors;
 
@@ -756,10 +803,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 			final int countScriptingInterceptors;
 			if (ModelValidator.tableEventValidators.length > changeType.toInt())
 			{
-				scriptValidators = Services.get(IADTableScriptValidatorDAO.class).retrieveTableScriptValidators(
-						po.getCtx(),
-						po.get_Table_ID(),
-						ModelValidator.tableEventValidators[changeType.toInt()]);
+				scriptValidators = retrieveTableScriptValidators(po, ModelValidator.tableEventValidators[changeType.toInt()]);
 				countScriptingInterceptors = scriptValidators != null ? scriptValidators.size() : 0;
 			}
 			else
@@ -785,6 +829,30 @@ public class ModelValidationEngine implements IModelValidationEngine
 		}
 	}	// fireModelChange
 
+	private List<I_AD_Table_ScriptValidator> retrieveTableScriptValidators(@NonNull final PO po, @NonNull final String eventModelValidator)
+	{
+		return scriptValidatorsByTableId
+				.getOrLoad(po.get_Table_ID(), adTableId -> retrieveTableScriptValidatorsByEvent(po.getCtx(), adTableId))
+				.get(eventModelValidator);
+	}
+
+	private static ImmutableListMultimap<String, I_AD_Table_ScriptValidator> retrieveTableScriptValidatorsByEvent(final Properties ctx, final int adTableId)
+	{
+		final IADTableScriptValidatorDAO tableScriptValidatorDAO = Services.get(IADTableScriptValidatorDAO.class);
+
+		final ImmutableSet<String> eventModelValidators = ImmutableSet.<String> builder()
+				.add(ModelValidator.tableEventValidators)
+				.addAll(ModelValidator.documentEventValidators.values())
+				.build();
+
+		final ImmutableListMultimap.Builder<String, I_AD_Table_ScriptValidator> result = ImmutableListMultimap.builder();
+		for (final String eventModelValidator : eventModelValidators)
+		{
+			result.putAll(eventModelValidator, tableScriptValidatorDAO.retrieveTableScriptValidators(ctx, adTableId, eventModelValidator));
+		}
+		return result.build();
+	}
+
 	private final void executeInTrx(final String trxName, final TimingType changeTypeOrDocTiming, @NonNull final Runnable runnable)
 	{
 		final boolean runInTrx = changeTypeOrDocTiming != ModelChangeType.BEFORE_SAVE_TRX;
@@ -956,28 +1024,30 @@ public class ModelValidationEngine implements IModelValidationEngine
 				return;
 			}
 
-		final Stopwatch stopwatch = Stopwatch.createStarted();
-				try
-		{
+			final long startNanos = System.nanoTime();
+			try
+			{
+				// the default cause
+				final String error = validator.modelChange(po, changeType.toInt());
+				if (!Check.isEmpty(error))
+				{
+					throw new AdempiereException(error);
+				}
 
-			// the default cause
-			final String error = validator.modelChange(po, changeType.toInt());
-			if (!Check.isEmpty(error))
+				final long durationNanos = System.nanoTime() - startNanos;
+				interceptorsStatistics.collect(validator, durationNanos, false);
+				logger.debug("Executed in {}ns: {} ({}) for {}", durationNanos, validator, changeType, po);
+			}
+			catch (final Exception ex)
 			{
-				throw new AdempiereException(error);
+				final long durationNanos = System.nanoTime() - startNanos;
+				interceptorsStatistics.collect(validator, durationNanos, true);
+				logger.debug("Failed executing in {}ns: {} ({}) for {}", durationNanos, validator, changeType, po, ex);
+				throw AdempiereException.wrapIfNeeded(ex);
 			}
-
-					logger.debug("Executed in {}: {} ({}) for {}", stopwatch, validator, changeType, po);
-		}
-		catch (final Exception ex)
-		{
-					logger.debug("Failed executing in {}: {} ({}) for {}", stopwatch, validator, changeType, po, ex);
-			throw AdempiereException.wrapIfNeeded(ex);
 		}
 	}
 
-				}
-
 	/**************************************************************************
 	 * Add Document Validation Listener
 	 *
@@ -1125,10 +1195,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 		final List<I_AD_Table_ScriptValidator> scriptValidators;
 		if (ModelValidator.documentEventValidators.containsKey(docTiming))
 		{
-			scriptValidators = Services.get(IADTableScriptValidatorDAO.class).retrieveTableScriptValidators(
-					po.getCtx(),
-					po.get_Table_ID(),
-					ModelValidator.documentEventValidators.get(docTiming));
+			scriptValidators = retrieveTableScriptValidators(po, ModelValidator.documentEventValidators.get(docTiming));
 			final int countScriptingInterceptors = scriptValidators != null ? scriptValidators.size() : 0;
 			countInterceptors += countScriptingInterceptors;
 		}
@@ -1205,7 +1272,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 			return;
 		}
 
-		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final long startNanos = System.nanoTime();
 		try
 		{
 			final String error = interceptor.docValidate(po, docTiming.toInt());
@@ -1214,11 +1281,15 @@ public class ModelValidationEngine implements IModelValidationEngine
 				throw new AdempiereException(error);
 			}
 
-			logger.trace("Executed in {}: {} ({}) for {}", stopwatch, interceptor, docTiming, po);
+			final long durationNanos = System.nanoTime() - startNanos;
+			interceptorsStatistics.collect(interceptor, durationNanos, false);
+			logger.trace("Executed in {}ns: {} ({}) for {}", durationNanos, interceptor, docTiming, po);
 		}
 		catch (final Exception ex)
 		{
-			logger.trace("Failed executing in {}: {} ({}) for {}", stopwatch, interceptor, docTiming, po, ex);
+			final long durationNanos = System.nanoTime() - startNanos;
+			interceptorsStatistics.collect(interceptor, durationNanos, true);
+			logger.trace("Failed executing in {}ns: {} ({}) for {}", durationNanos, interceptor, docTiming, po, ex);
 			throw AdempiereException.wrapIfNeeded(ex);
 		}
 	}
@@ -1484,12 +1555,12 @@ public class ModelValidationEngine implements IModelValidationEngine
 	/**
 	 * Specify if model changed events with type=deferred should be processed when they occur (still after the po has been saved an all other logic has been finished) or some time later.
 	 */
-	public void enableModelValidatorSubsequentProcessing(final ModelValidator validator, final boolean processDirectly)
+	public void enableModelValidatorSubsequentProcessing(@NonNull final ModelValidator validator, final boolean processDirectly)
 	{
 		m_modelChangeSubsequent.put(validator, processDirectly);
 	}
 
-	public void disableModelValidatorSubsequentProcessing(final ModelValidator validator)
+	public void disableModelValidatorSubsequentProcessing(@NonNull final ModelValidator validator)
 	{
 		m_modelChangeSubsequent.remove(validator);
 	}
@@ -16,6 +16,7 @@
  *****************************************************************************/
 package org.compiere.model;
 
+import com.google.common.annotations.VisibleForTesting;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.IModelCacheInvalidationService;
 import de.metas.cache.model.ModelCacheInvalidationTiming;
@@ -1782,7 +1783,8 @@ public abstract class PO
 			rs = pstmt.executeQuery();
 			if (rs.next())
 			{
-				success = load(rs);
+				final boolean sqlSelectColumnPositions = true; // we know the columns' positions because we used POInfo's SQL
+				success = load(rs, sqlSelectColumnPositions);
 			}
 			else
 			{
@@ -1860,6 +1862,20 @@ public abstract class PO
 	 * @return true if loaded
 	 */
 	protected final boolean load(final ResultSet rs)
+	{
+		final boolean sqlSelectColumnPositions = false;
+		return load(rs, sqlSelectColumnPositions);
+	}
+
+	/**
+	 * Load from the current position of a ResultSet
+	 *
+	 * @param rs result set
+	 * @param sqlSelectColumnPositions if true, the columns are fetched by their position in {@link POInfo#getSqlSelect()}, which is faster than fetching them by name
+	 * @return true if loaded
+	 */
+	@VisibleForTesting
+	final boolean load(final ResultSet rs, final boolean sqlSelectColumnPositions)
 	{
 		final int size = get_ColumnCount();
 		boolean success = true;
@@ -1872,7 +1888,8 @@ public abstract class PO
 			{
 				continue;
 			}
-			if (!loadColumn(index, rs))
+			final int columnPosition = sqlSelectColumnPositions ? p_info.getSqlSelectColumnPosition(index) : -1;
+			if (!loadColumn(index, rs, columnPosition))
 			{
 				success = false;
 			}
@@ -1884,6 +1901,15 @@ public abstract class PO
 	}	// load
 
 	private final boolean loadColumn(final int index, final ResultSet rs)
+	{
+		final int columnPosition = -1; // unknown, fetch by column name
+		return loadColumn(index, rs, columnPosition);
+	}
+
+	/**
+	 * @param columnPosition 1-based position of the column in given result set; if not positive, the column is searched by name
+	 */
+	private final boolean loadColumn(final int index, final ResultSet rs, final int columnPosition)
 	{
 		boolean success = true;
 		final String columnName = p_info.getColumnName(index);
@@ -1891,29 +1917,30 @@ public abstract class PO
 		final int dt = p_info.getColumnDisplayType(index);
 		try
 		{
+			final int position = columnPosition > 0 ? columnPosition : rs.findColumn(columnName);
 			if (clazz == Integer.class)
 			{
-				m_oldValues[index] = decrypt(index, rs.getInt(columnName));
+				m_oldValues[index] = decrypt(index, rs.getInt(position));
 			}
 			else if (clazz == BigDecimal.class)
 			{
-				m_oldValues[index] = decrypt(index, rs.getBigDecimal(columnName));
+				m_oldValues[index] = decrypt(index, rs.getBigDecimal(position));
 			}
 			else if (clazz == Boolean.class)
 			{
-				m_oldValues[index] = StringUtils.toBoolean(decrypt(index, rs.getString(columnName)));
+				m_oldValues[index] = StringUtils.toBoolean(decrypt(index, rs.getString(position)));
 			}
 			else if (clazz == Timestamp.class)
 			{
-				m_oldValues[index] = decrypt(index, rs.getTimestamp(columnName));
+				m_oldValues[index] = decrypt(index, rs.getTimestamp(position));
 			}
 			else if (DisplayType.isLOB(dt))
 			{
-				m_oldValues[index] = get_LOB(rs.getObject(columnName));
+				m_oldValues[index] = get_LOB(rs.getObject(position));
 			}
 			else if (clazz == String.class)
 			{
-				m_oldValues[index] = decrypt(index, rs.getString(columnName));
+				m_oldValues[index] = decrypt(index, rs.getString(position));
 			}
 			else
 			{
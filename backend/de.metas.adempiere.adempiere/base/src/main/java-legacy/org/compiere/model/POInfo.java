@@ -36,6 +36,7 @@ import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
@@ -217,6 +218,8 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 	private String sqlSelectByKeys;
 	private String sqlSelectColumns;
 	private String sqlSelect;
+	/** 1-based position of each column in {@link #sqlSelect}'s result set or -1 if the column is not selected (i.e. lazy loading) */
+	private int[] sqlSelectColumnPositions;
 
 	private POTrlInfo trlInfo;
 
@@ -232,6 +235,14 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 		loadInfo(trxName);
 	}   // PInfo
 
+	@VisibleForTesting
+	POInfo(final int AD_Table_ID, final String tableName, final List<POInfoColumn> columns)
+	{
+		m_AD_Table_ID = AD_Table_ID;
+		m_TableName = tableName;
+		initColumns(columns);
+	}
+
 	/**
 	 * Load Table/Column Info into this instance. If the select returns no result, nothing is loaded and no error is raised.
 	 *
@@ -272,8 +283,6 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 				+ (m_AD_Table_ID <= 0 ? "UPPER(t.TableName)=UPPER(?)" : "t.AD_Table_ID=?")
 				+ " AND c.IsActive='Y'");
 		//
-		final List<String> keyColumnNames = new ArrayList<>();
-		final List<String> parentColumnNames = new ArrayList<>();
 		boolean tableInfoLoaded = false;
 		//
 		PreparedStatement pstmt = null;
@@ -313,16 +322,7 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 				int AD_Column_ID = rs.getInt(9);
 
 				final boolean IsKey = "Y".equals(rs.getString(10));
-				if (IsKey)
-				{
-					keyColumnNames.add(ColumnName);
-				}
-
 				final boolean IsParent = "Y".equals(rs.getString(11));
-				if (IsParent)
-				{
-					parentColumnNames.add(ColumnName);
-				}
 
 				int AD_Reference_Value_ID = rs.getInt(12);
 				// String ValidationCode = rs.getString(13);
@@ -377,6 +377,14 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 			pstmt = null;
 		}
 
+		initColumns(list);
+	}   // loadInfo
+
+	/**
+	 * Sets given columns and builds the pre-calculated values, indexes and SQLs which depend on them.
+	 */
+	private void initColumns(final List<POInfoColumn> list)
+	{
 		// convert to array
 		m_columns = list.toArray(new POInfoColumn[list.size()]);
 
@@ -389,6 +397,8 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 		final ImmutableSortedMap.Builder<String, Integer> columnName2columnIndexBuilder = ImmutableSortedMap.orderedBy(String.CASE_INSENSITIVE_ORDER);
 		final ImmutableMap.Builder<Integer, Integer> adColumnId2columnIndexBuilder = ImmutableMap.<Integer, Integer> builder();
 		final List<String> translatedColumnNames = new ArrayList<>();
+		final List<String> keyColumnNames = new ArrayList<>();
+		final List<String> parentColumnNames = new ArrayList<>();
 		for (int columnIndex = 0; columnIndex < columnsCount; columnIndex++)
 		{
 			final POInfoColumn columnInfo = m_columns[columnIndex];
@@ -398,6 +408,15 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 			columnName2columnIndexBuilder.put(columnName, columnIndex);
 			adColumnId2columnIndexBuilder.put(adColumnId, columnIndex);
 
+			if (columnInfo.IsKey)
+			{
+				keyColumnNames.add(columnName);
+			}
+			if (columnInfo.IsParent)
+			{
+				parentColumnNames.add(columnName);
+			}
+
 			if (columnInfo.isTranslated())
 			{
 				translatedColumnNames.add(columnName);
@@ -451,11 +470,12 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 		// Setup some pre-built SQLs which are frequently used
 		sqlSelectColumns = buildSqlSelectColumns();
 		sqlSelect = buildSqlSelect();
+		sqlSelectColumnPositions = buildSqlSelectColumnPositions();
 		sqlWhereClauseByKeys = buildSqlWhereClauseByKeys();
 		sqlSelectByKeys = buildSqlSelectByKeys();
 
 		trlInfo = POTrlRepository.instance.createPOTrlInfo(m_TableName, m_keyColumnName, translatedColumnNames);
-	}   // loadInfo
+	}   // initColumns
 
 	/**
 	 * String representation
@@ -1302,6 +1322,27 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 		return sql.toString();
 	}
 
+	private int[] buildSqlSelectColumnPositions()
+	{
+		final int size = getColumnCount();
+		final int[] positions = new int[size];
+		int position = 0;
+		for (int i = 0; i < size; i++)
+		{
+			// NOTE: shall be in sync with buildSqlSelectColumns()
+			positions[i] = isLazyLoading(i) ? -1 : ++position;
+		}
+		return positions;
+	}
+
+	/**
+	 * @return 1-based position of given column in the result set of {@link #getSqlSelect()} (and {@link #getSqlSelectByKeys()}) or -1 if the column is not selected
+	 */
+	/* package */int getSqlSelectColumnPosition(final int index)
+	{
+		return sqlSelectColumnPositions[index];
+	}
+
 	/**
 	 * @return all columns to select in SQL format (i.e. ColumnName1, ColumnName2 ....)
 	 */
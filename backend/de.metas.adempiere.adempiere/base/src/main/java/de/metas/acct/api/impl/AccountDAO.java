@@ -8,7 +8,6 @@ import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.ModelColumn;
-import org.adempiere.util.LegacyAdapters;
 import org.adempiere.util.proxy.Cached;
 import org.compiere.model.I_C_ValidCombination;
 import org.compiere.model.MAccount;
@@ -17,11 +16,15 @@ import com.google.common.collect.ImmutableMap;
 
 import de.metas.acct.api.AccountDimension;
 import de.metas.acct.api.AccountId;
+import de.metas.acct.api.AcctSchemaId;
 import de.metas.acct.api.IAccountDAO;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -68,6 +71,16 @@ public class AccountDAO implements IAccountDAO
 			.put(AcctSegmentType.UserElement2, I_C_ValidCombination.COLUMN_UserElement2_ID)
 			.build();
 
+	/**
+	 * Accounting dimension to C_ValidCombination_ID. Posting is looking up the same combinations over and over again, so we cache them.
+	 * Only existing combinations are cached, because the missing ones are created right after.
+	 */
+	private final CCache<ValidCombinationKey, AccountId> accountIdsByKey = CCache.<ValidCombinationKey, AccountId> builder()
+			.tableName(I_C_ValidCombination.Table_Name)
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(10000)
+			.build();
+
 	@Override
 	@Cached(cacheName = MAccount.Table_Name)
 	public MAccount getById(@CacheCtx final Properties ctx, final int validCombinationId)
@@ -89,6 +102,12 @@ public class AccountDAO implements IAccountDAO
 
 	@Override
 	public MAccount retrieveAccount(final Properties ctx, final AccountDimension dimension)
+	{
+		final AccountId accountId = accountIdsByKey.getOrLoad(ValidCombinationKey.of(dimension), () -> retrieveAccountId(ctx, dimension));
+		return accountId != null ? getById(ctx, accountId) : null;
+	}
+
+	private AccountId retrieveAccountId(final Properties ctx, final AccountDimension dimension)
 	{
 		final IQueryBL queryBL = Services.get(IQueryBL.class);
 		final IQueryBuilder<I_C_ValidCombination> queryBuilder = queryBL.createQueryBuilder(I_C_ValidCombination.class, ctx, ITrx.TRXNAME_None)
@@ -101,27 +120,44 @@ public class AccountDAO implements IAccountDAO
 			final ModelColumn<I_C_ValidCombination, ?> column = e.getValue();
 			final int valueInt = dimension.getSegmentValue(segmentType);
 
-			if (valueInt > 0)
+			if (valueInt > 0 || isMandatorySegment(segmentType))
 			{
 				queryBuilder.addEqualsFilter(column, valueInt);
 			}
 			else
 			{
-				final boolean mandatorySegment = segmentType == AcctSegmentType.Client
-						|| segmentType == AcctSegmentType.Organization
-						|| segmentType == AcctSegmentType.Account;
-				if (mandatorySegment)
-				{
-					queryBuilder.addEqualsFilter(column, valueInt);
-				}
-				else
-				{
-					queryBuilder.addEqualsFilter(column, null);
-				}
+				queryBuilder.addEqualsFilter(column, null);
 			}
 		}
 
-		final I_C_ValidCombination existingAccount = queryBuilder.create().firstOnly(I_C_ValidCombination.class);
-		return LegacyAdapters.convertToPO(existingAccount);
+		final int existingAccountId = queryBuilder.create().firstId();
+		return AccountId.ofRepoIdOrNull(existingAccountId);
+	}
+
+	private static boolean isMandatorySegment(final AcctSegmentType segmentType)
+	{
+		return segmentType == AcctSegmentType.Client
+				|| segmentType == AcctSegmentType.Organization
+				|| segmentType == AcctSegmentType.Account;
+	}
+
+	@Value
+	private static class ValidCombinationKey
+	{
+		AcctSchemaId acctSchemaId;
+		ImmutableMap<AcctSegmentType, Integer> segmentValues;
+
+		public static ValidCombinationKey of(@NonNull final AccountDimension dimension)
+		{
+			// NOTE: optional segments which are not set are all queried as null (see retrieveAccountId)
+			final ImmutableMap.Builder<AcctSegmentType, Integer> segmentValues = ImmutableMap.builder();
+			for (final AcctSegmentType segmentType : segmentType2column.keySet())
+			{
+				final int valueInt = dimension.getSegmentValue(segmentType);
+				segmentValues.put(segmentType, valueInt > 0 || isMandatorySegment(segmentType) ? valueInt : 0);
+			}
+
+			return new ValidCombinationKey(dimension.getAcctSchemaId(), segmentValues.build());
+		}
 	}
 }
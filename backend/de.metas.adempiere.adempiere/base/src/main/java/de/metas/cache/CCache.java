@@ -20,6 +20,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -29,6 +30,7 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -159,6 +161,14 @@ public class CCache<K, V> implements CacheInterface
 
 	private CacheAdditionListener<K, V> additionListener;
 
+	/** Estimates the entry sizes. If null, this cache is not participating in memory budgets. */
+	@Nullable
+	private final CacheWeigher<K, V> weigher;
+	/** Estimated size (in bytes) of all entries which are currently cached. Maintained only if we have a {@link #weigher}. */
+	private final AtomicLong estimatedWeight = new AtomicLong(0);
+	/** How many entries were removed in order to respect the memory budgets */
+	private final AtomicLong budgetEvictionCount = new AtomicLong(0);
+
 	/**
 	 * Metasfresh Cache - expires after 2 hours
 	 *
@@ -187,7 +197,9 @@ public class CCache<K, V> implements CacheInterface
 				CacheMapType.HashMap,
 				(CachingKeysMapper<K>)null,
 				(CacheRemovalListener<K, V>)null,
-				(CacheAdditionListener<K, V>)null);
+				(CacheAdditionListener<K, V>)null,
+				(Long)null, // maximumWeight
+				(CacheWeigher<K, V>)null);
 	}
 
 	@Builder
@@ -200,12 +212,15 @@ public class CCache<K, V> implements CacheInterface
 			final CacheMapType cacheMapType,
 			@Nullable final CachingKeysMapper<K> invalidationKeysMapper,
 			@Nullable final CacheRemovalListener<K, V> removalListener,
-			@Nullable final CacheAdditionListener<K, V> additionListener)
+			@Nullable final CacheAdditionListener<K, V> additionListener,
+			@Nullable final Long maximumWeight,
+			@Nullable final CacheWeigher<K, V> weigher)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
 		this.invalidationKeysMapper = Optional.ofNullable(invalidationKeysMapper);
 		this.additionListener = additionListener;
+		this.weigher = weigher;
 
 		final String tableNameEffective;
 		if (cacheName == null)
@@ -250,7 +265,9 @@ public class CCache<K, V> implements CacheInterface
 				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
 				initialCapacity != null ? initialCapacity : 0,
 				this.expireMinutes,
-				removalListener);
+				removalListener,
+				weigher != null ? createWeightTracker(weigher, estimatedWeight) : null,
+				weigher != null ? computeMaximumWeight(maximumWeight, labels) : 0);
 
 		if (DEBUG)
 		{
@@ -314,13 +331,21 @@ public class CCache<K, V> implements CacheInterface
 		return builder.build();
 	}
 
+	/**
+	 * @param weightTracker if not null, the cache will be weighted using it
+	 * @param maximumWeight maximum weight (bytes) of the cache. If not positive, the cache's weight is not limited.
+	 *            Considered only if we have a weightTracker.
+	 */
 	private static final <K, V> Cache<K, V> buildGuavaCache(
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
 			final int expireMinutes,
-			@Nullable final CacheRemovalListener<K, V> removalListener)
+			@Nullable final CacheRemovalListener<K, V> removalListener,
+			@Nullable final WeightTracker<K, V> weightTracker,
+			final long maximumWeight)
 	{
-		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+				.recordStats();
 		if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
@@ -328,20 +353,35 @@ public class CCache<K, V> implements CacheInterface
 		}
 		else if (cacheMapType == CacheMapType.LRU)
 		{
-			cacheBuilder = cacheBuilder
-					.maximumSize(initialCapacity); // FIXME: this is confusing
+			// NOTE: guava does not allow maximumSize and maximumWeight at the same time.
+			// In case of a weighted cache, the maximumWeight is the one which limits the cache.
+			if (weightTracker == null)
+			{
+				cacheBuilder = cacheBuilder
+						.maximumSize(initialCapacity); // FIXME: this is confusing
+			}
 		}
 		else
 		{
 			throw new AdempiereException("Unknown CacheMapType: " + cacheMapType);
 		}
 
+		if (weightTracker != null)
+		{
+			// NOTE: guava requires a maximumWeight when a weigher is used
+			@SuppressWarnings("unchecked")
+			final WeightTracker<Object, Object> weightTrackerObj = (WeightTracker<Object, Object>)weightTracker;
+			cacheBuilder = cacheBuilder
+					.maximumWeight(maximumWeight > 0 ? maximumWeight : Long.MAX_VALUE)
+					.weigher(weightTrackerObj::weighAndTrack);
+		}
+
 		if (expireMinutes > 0)
 		{
 			cacheBuilder = cacheBuilder.expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
 		}
 
-		if (removalListener != null)
+		if (removalListener != null || weightTracker != null)
 		{
 			cacheBuilder.removalListener(notif -> {
 				@SuppressWarnings("unchecked")
@@ -350,12 +390,86 @@ public class CCache<K, V> implements CacheInterface
 				@SuppressWarnings("unchecked")
 				final V value = (V)notif.getValue();
 
-				removalListener.itemRemoved(key, value);
+				if (weightTracker != null)
+				{
+					weightTracker.untrack(key, value);
+				}
+				if (removalListener != null)
+				{
+					removalListener.itemRemoved(key, value);
+				}
 			});
 		}
 		return cacheBuilder.build();
 	}
 
+	private static long computeMaximumWeight(@Nullable final Long maximumWeight, @NonNull final Set<CacheLabel> labels)
+	{
+		if (maximumWeight != null && maximumWeight > 0)
+		{
+			return maximumWeight;
+		}
+
+		// fallback to the memory budget of our labels (if any)
+		return CacheMgt.get().getMemoryBudgetBytes(labels);
+	}
+
+	private static <K, V> WeightTracker<K, V> createWeightTracker(@NonNull final CacheWeigher<K, V> weigher, @NonNull final AtomicLong estimatedWeight)
+	{
+		return new WeightTracker<>(weigher, estimatedWeight);
+	}
+
+	/**
+	 * Wraps a {@link CacheWeigher} and keeps the {@link CCache#estimatedWeight} up to date.
+	 *
+	 * NOTE: guava is calling the weigher exactly once for each entry which is added to cache, and it notifies the removal listener for each entry which is removed from cache.
+	 */
+	private static final class WeightTracker<K, V>
+	{
+		private final CacheWeigher<K, V> weigher;
+		private final AtomicLong estimatedWeight;
+
+		private WeightTracker(@NonNull final CacheWeigher<K, V> weigher, @NonNull final AtomicLong estimatedWeight)
+		{
+			this.weigher = weigher;
+			this.estimatedWeight = estimatedWeight;
+		}
+
+		public int weighAndTrack(final K key, final V value)
+		{
+			final int weight = weighNoFail(key, value);
+			estimatedWeight.addAndGet(weight);
+			CacheMgt.get().addEstimatedWeight(weight);
+			return weight;
+		}
+
+		public void untrack(final K key, final V value)
+		{
+			if (key == null || value == null)
+			{
+				// the entry was garbage collected; we cannot weigh it anymore
+				return;
+			}
+
+			final int weight = weighNoFail(key, value);
+			estimatedWeight.addAndGet(-weight);
+			CacheMgt.get().addEstimatedWeight(-weight);
+		}
+
+		private int weighNoFail(final K key, final V value)
+		{
+			try
+			{
+				return Math.max(weigher.weigh(key, value), 0);
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed weighing {}={} using {}. Considering zero.", key, value, weigher, ex);
+				return 0;
+			}
+		}
+	}
+
 	/**
 	 * @return unique cache ID
 	 */
@@ -449,6 +563,27 @@ public class CCache<K, V> implements CacheInterface
 		}
 	}
 
+	@Override
+	public long resetForRecordIds(@NonNull final Collection<TableRecordReference> recordRefs)
+	{
+		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
+		{
+			if (!invalidationKeysMapper.isPresent())
+			{
+				// NOTE: reseting only by "key" is not supported, so we are reseting everything, but only once
+				return reset();
+			}
+
+			final CachingKeysMapper<K> keysMapper = invalidationKeysMapper.get();
+			long resetCount = 0;
+			for (final TableRecordReference recordRef : recordRefs)
+			{
+				resetCount += resetForRecordIdUsingKeysMapper(recordRef, keysMapper);
+			}
+			return resetCount;
+		}
+	}
+
 	private long resetForRecordIdUsingKeysMapper(
 			@NonNull final TableRecordReference recordRef,
 			@NonNull final CachingKeysMapper<K> keysMapper)
@@ -603,7 +738,18 @@ public class CCache<K, V> implements CacheInterface
 
 			try
 			{
-				return cache.get(key, valueInitializer);
+				final AtomicBoolean loaded = new AtomicBoolean(false);
+				final V value = cache.get(key, () -> {
+					loaded.set(true);
+					return valueInitializer.call();
+				});
+
+				// check the budgets only if something was added to cache, and not on each cache hit
+				if (loaded.get())
+				{
+					checkMemoryBudgets();
+				}
+				return value;
 			}
 			catch (final InvalidCacheLoadException e)
 			{
@@ -712,6 +858,8 @@ public class CCache<K, V> implements CacheInterface
 					fireAdditionListener(key, value);
 				}
 				values.addAll(valuesLoaded.values()); // add loaded values to the list we will return
+
+				checkMemoryBudgets();
 			}
 
 			return values;
@@ -752,6 +900,7 @@ public class CCache<K, V> implements CacheInterface
 			{
 				cache.put(key, value);
 				fireAdditionListener(key, value);
+				checkMemoryBudgets();
 			}
 		}
 	}
@@ -780,6 +929,72 @@ public class CCache<K, V> implements CacheInterface
 			{
 				fireAdditionListener(entry.getKey(), entry.getValue());
 			}
+
+			checkMemoryBudgets();
+		}
+	}
+
+	private void checkMemoryBudgets()
+	{
+		if (weigher == null)
+		{
+			return;
+		}
+
+		CacheMgt.get().checkMemoryBudgets(this);
+	}
+
+	/**
+	 * @return true if this cache has a {@link CacheWeigher} and therefore it's participating in memory budgets
+	 */
+	public boolean isWeighted()
+	{
+		return weigher != null;
+	}
+
+	/**
+	 * @return estimated size (in bytes) of all cached entries or zero if this cache is not weighted
+	 * @see #isWeighted()
+	 */
+	public long getEstimatedWeight()
+	{
+		return estimatedWeight.get();
+	}
+
+	/**
+	 * Removes entries until at least <code>weightToFree</code> bytes were freed or the cache is empty.
+	 *
+	 * NOTE: guava does not expose the access order, so the entries are removed in their iteration order.
+	 *
+	 * @return how many bytes were actually freed
+	 */
+	long shrinkByWeight(final long weightToFree)
+	{
+		if (weigher == null || weightToFree <= 0)
+		{
+			return 0;
+		}
+
+		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
+		{
+			final long weightBefore = estimatedWeight.get();
+			final long weightTarget = weightBefore - weightToFree;
+
+			// NOTE: not copying the keys, because usually only a few entries are removed; the iterator tolerates concurrent removals
+			long countRemoved = 0;
+			final Iterator<K> keys = cache.asMap().keySet().iterator();
+			while (keys.hasNext() && estimatedWeight.get() > weightTarget)
+			{
+				cache.invalidate(keys.next());
+				countRemoved++;
+			}
+			cache.cleanUp();
+
+			budgetEvictionCount.addAndGet(countRemoved);
+
+			final long weightFreed = weightBefore - estimatedWeight.get();
+			logger.debug("shrinkByWeight - Removed {} entries ({} bytes) from {}", countRemoved, weightFreed, this);
+			return weightFreed;
 		}
 	}
 
@@ -835,7 +1050,7 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public CCacheStats stats()
 	{
-		return new CCacheStats(cacheId, cacheName, cache.size(), cache.stats());
+		return new CCacheStats(cacheId, cacheName, labels, cache.size(), estimatedWeight.get(), budgetEvictionCount.get(), cache.stats());
 	}
 
 	@SuppressWarnings("serial")
@@ -845,14 +1060,27 @@ public class CCache<K, V> implements CacheInterface
 
 		private final long cacheId;
 		private final String name;
+		private final ImmutableSet<CacheLabel> labels;
 		private final long size;
+		private final long estimatedWeight;
+		private final long budgetEvictionCount;
 		private final CacheStats guavaStats;
 
-		private CCacheStats(final long cacheId, final String name, final long size, final CacheStats guavaStats)
+		private CCacheStats(
+				final long cacheId,
+				final String name,
+				final ImmutableSet<CacheLabel> labels,
+				final long size,
+				final long estimatedWeight,
+				final long budgetEvictionCount,
+				final CacheStats guavaStats)
 		{
 			this.cacheId = cacheId;
 			this.name = name;
+			this.labels = labels;
 			this.size = size;
+			this.estimatedWeight = estimatedWeight;
+			this.budgetEvictionCount = budgetEvictionCount;
 			this.guavaStats = guavaStats;
 		}
 
@@ -862,7 +1090,12 @@ public class CCache<K, V> implements CacheInterface
 			return MoreObjects.toStringHelper(this)
 					.add("name", name)
 					.add("size", size)
-					.add("guavaStats", guavaStats)
+					.add("estimatedWeight", estimatedWeight)
+					.add("hitCount", guavaStats.hitCount())
+					.add("missCount", guavaStats.missCount())
+					.add("loadCount", guavaStats.loadCount())
+					.add("averageLoadPenaltyMillis", getAverageLoadPenaltyMillis())
+					.add("evictionCount", getEvictionCount())
 					.add("cacheId", cacheId)
 					.toString();
 		}
@@ -870,7 +1103,7 @@ public class CCache<K, V> implements CacheInterface
 		@Override
 		public int hashCode()
 		{
-			return Objects.hash(cacheId, name, size, guavaStats);
+			return Objects.hash(cacheId, name, size, estimatedWeight, budgetEvictionCount, guavaStats);
 		}
 
 		@Override
@@ -882,6 +1115,8 @@ public class CCache<K, V> implements CacheInterface
 				return cacheId == other.cacheId
 						&& name.equals(other.name)
 						&& size == other.size
+						&& estimatedWeight == other.estimatedWeight
+						&& budgetEvictionCount == other.budgetEvictionCount
 						&& guavaStats.equals(other.guavaStats);
 			}
 			return false;
@@ -897,11 +1132,57 @@ public class CCache<K, V> implements CacheInterface
 			return name;
 		}
 
+		public ImmutableSet<CacheLabel> getLabels()
+		{
+			return labels;
+		}
+
 		public long getSize()
 		{
 			return size;
 		}
 
+		/**
+		 * @return estimated size (in bytes) of all cached entries or zero if the cache is not weighted
+		 */
+		public long getEstimatedWeight()
+		{
+			return estimatedWeight;
+		}
+
+		public long getHitCount()
+		{
+			return guavaStats.hitCount();
+		}
+
+		public long getMissCount()
+		{
+			return guavaStats.missCount();
+		}
+
+		public long getLoadCount()
+		{
+			return guavaStats.loadCount();
+		}
+
+		public long getTotalLoadTimeMillis()
+		{
+			return TimeUnit.NANOSECONDS.toMillis(guavaStats.totalLoadTime());
+		}
+
+		public double getAverageLoadPenaltyMillis()
+		{
+			return guavaStats.averageLoadPenalty() / 1_000_000d;
+		}
+
+		/**
+		 * @return how many entries were evicted, either by guava (size, weight or expiration limits) or because the memory budgets were exceeded
+		 */
+		public long getEvictionCount()
+		{
+			return guavaStats.evictionCount() + budgetEvictionCount;
+		}
+
 		public CacheStats getGuavaStats()
 		{
 			return guavaStats;
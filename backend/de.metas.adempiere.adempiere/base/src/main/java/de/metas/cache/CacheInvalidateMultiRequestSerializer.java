@@ -0,0 +1,217 @@
+package de.metas.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2017 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CacheInvalidateMultiRequestSerializer
+{
+	private final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+
+	public String toJson(final CacheInvalidateMultiRequest request)
+	{
+		try
+		{
+			return jsonObjectMapper.writeValueAsString(request);
+		}
+		catch (final JsonProcessingException ex)
+		{
+			throw new AdempiereException("Failed converting request to json: " + request, ex);
+		}
+	}
+
+	public CacheInvalidateMultiRequest fromJson(final String jsonRequest)
+	{
+		try
+		{
+			return jsonObjectMapper.readValue(jsonRequest, CacheInvalidateMultiRequest.class);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting json to request: " + jsonRequest, ex);
+		}
+	}
+
+	//
+	// Compact format
+	//
+	// Requests are separated by ";". Each request has the format: [RootTableName[=RootRecordId(s)]][>ChildTableName[=ChildRecordId]].
+	// A missing record ID means "all records"; the root table is omitted in case of child record requests without a root. Root record requests for the same table are grouped, e.g. C_Order=1,2,3.
+	// "*" means reset all.
+	//
+
+	private static final String COMPACT_ALL = "*";
+	private static final String COMPACT_REQUESTS_SEPARATOR = ";";
+	private static final String COMPACT_CHILD_SEPARATOR = ">";
+	private static final String COMPACT_RECORD_ID_SEPARATOR = "=";
+	private static final String COMPACT_RECORD_IDS_SEPARATOR = ",";
+
+	/**
+	 * Converts given request to a compact string representation, which is way smaller than the JSON representation in case of many record requests.
+	 */
+	public String toCompactString(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (multiRequest.isResetAll())
+		{
+			return COMPACT_ALL;
+		}
+
+		final List<String> tokens = new ArrayList<>();
+		final Map<String, StringBuilder> rootRecordIdsByTableName = new LinkedHashMap<>();
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			final String rootTableName = request.getRootTableName();
+			if (request.getChildTableName() != null)
+			{
+				final StringBuilder token = new StringBuilder();
+				if (rootTableName != null)
+				{
+					token.append(rootTableName);
+					if (request.getRootRecordId() >= 0)
+					{
+						token.append(COMPACT_RECORD_ID_SEPARATOR).append(request.getRootRecordId());
+					}
+				}
+				token.append(COMPACT_CHILD_SEPARATOR).append(request.getChildTableName());
+				if (request.getChildRecordId() >= 0)
+				{
+					token.append(COMPACT_RECORD_ID_SEPARATOR).append(request.getChildRecordId());
+				}
+				tokens.add(token.toString());
+			}
+			else if (request.isAllRecords())
+			{
+				tokens.add(rootTableName);
+			}
+			else
+			{
+				final StringBuilder recordIds = rootRecordIdsByTableName.get(rootTableName);
+				if (recordIds == null)
+				{
+					rootRecordIdsByTableName.put(rootTableName, new StringBuilder().append(request.getRootRecordId()));
+				}
+				else
+				{
+					recordIds.append(COMPACT_RECORD_IDS_SEPARATOR).append(request.getRootRecordId());
+				}
+			}
+		}
+
+		rootRecordIdsByTableName.forEach((tableName, recordIds) -> tokens.add(tableName + COMPACT_RECORD_ID_SEPARATOR + recordIds));
+
+		return String.join(COMPACT_REQUESTS_SEPARATOR, tokens);
+	}
+
+	public CacheInvalidateMultiRequest fromCompactString(@NonNull final String compactString)
+	{
+		try
+		{
+			if (COMPACT_ALL.equals(compactString))
+			{
+				return CacheInvalidateMultiRequest.all();
+			}
+
+			final List<CacheInvalidateRequest> requests = new ArrayList<>();
+			for (final String token : compactString.split(COMPACT_REQUESTS_SEPARATOR))
+			{
+				if (Check.isBlank(token))
+				{
+					continue;
+				}
+
+				final int childIdx = token.indexOf(COMPACT_CHILD_SEPARATOR);
+				if (childIdx >= 0)
+				{
+					requests.add(fromCompactChildToken(token.substring(0, childIdx), token.substring(childIdx + 1)));
+				}
+				else
+				{
+					final int recordIdIdx = token.indexOf(COMPACT_RECORD_ID_SEPARATOR);
+					if (recordIdIdx < 0)
+					{
+						requests.add(CacheInvalidateRequest.allRecordsForTable(token));
+					}
+					else
+					{
+						final String tableName = token.substring(0, recordIdIdx);
+						for (final String recordIdStr : token.substring(recordIdIdx + 1).split(COMPACT_RECORD_IDS_SEPARATOR))
+						{
+							requests.add(CacheInvalidateRequest.rootRecord(tableName, Integer.parseInt(recordIdStr)));
+						}
+					}
+				}
+			}
+
+			return CacheInvalidateMultiRequest.of(requests);
+		}
+		catch (final RuntimeException ex)
+		{
+			throw new AdempiereException("Failed converting compact string to request: " + compactString, ex);
+		}
+	}
+
+	private static CacheInvalidateRequest fromCompactChildToken(@NonNull final String rootToken, @NonNull final String childToken)
+	{
+		final CacheInvalidateRequest.Builder builder = CacheInvalidateRequest.builder();
+
+		if (!rootToken.isEmpty())
+		{
+			final int rootRecordIdIdx = rootToken.indexOf(COMPACT_RECORD_ID_SEPARATOR);
+			if (rootRecordIdIdx < 0)
+			{
+				builder.rootTable(rootToken);
+			}
+			else
+			{
+				builder.rootRecord(rootToken.substring(0, rootRecordIdIdx), Integer.parseInt(rootToken.substring(rootRecordIdIdx + 1)));
+			}
+		}
+
+		final int childRecordIdIdx = childToken.indexOf(COMPACT_RECORD_ID_SEPARATOR);
+		if (childRecordIdIdx < 0)
+		{
+			builder.childTable(childToken);
+		}
+		else
+		{
+			builder.childRecord(childToken.substring(0, childRecordIdIdx), Integer.parseInt(childToken.substring(childRecordIdIdx + 1)));
+		}
+
+		return builder.build();
+	}
+}
@@ -1,13 +1,18 @@
 package de.metas.cache;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.compiere.Adempiere;
 
-import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequestSerializer;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.cache.model.CacheInvalidateMultiRequest;
@@ -55,12 +60,38 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private static final Topic TOPIC_CacheInvalidation = RabbitMQEventBusConfiguration.CacheInvalidationQueueConfiguration.EVENTBUS_TOPIC;
 
+	/**
+	 * Request serialized as JSON. That's the only property which is understood by nodes running an older version,
+	 * so we keep sending it (next to the compact one) until {@link #SYSTEM_PROPERTY_SendLegacyJson} is disabled, i.e. after all nodes were upgraded.
+	 */
 	private static final String EVENT_PROPERTY = CacheInvalidateRequest.class.getSimpleName();
+	/** Request serialized in a compact format, see {@link CacheInvalidateMultiRequestSerializer#toCompactString(CacheInvalidateMultiRequest)} */
+	private static final String EVENT_PROPERTY_Compact = CacheInvalidateRequest.class.getSimpleName() + "_Compact";
+
+	/**
+	 * Set it to <code>false</code> on all nodes (app server, webui, material dispo etc.) as soon as each node of the cluster runs a version which reads {@link #EVENT_PROPERTY_Compact}.
+	 * Until then, each message carries both payloads, so a rolling upgrade does not lose cache invalidations.
+	 */
+	private static final String SYSTEM_PROPERTY_SendLegacyJson = "de.metas.cache.remoteInvalidation.sendLegacyJson";
+	private static final boolean DEFAULT_SendLegacyJson = true;
+
+	private static final String SYSTEM_PROPERTY_BufferDelayMillis = "de.metas.cache.remoteInvalidation.bufferDelayMillis";
+	private static final int DEFAULT_BufferDelayMillis = 100;
+	private static final String SYSTEM_PROPERTY_BufferMaxSize = "de.metas.cache.remoteInvalidation.bufferMaxSize";
+	private static final int DEFAULT_BufferMaxSize = 10000;
+	private static final String SYSTEM_PROPERTY_MaxRecordsPerTable = "de.metas.cache.remoteInvalidation.maxRecordsPerTable";
+	private static final int DEFAULT_MaxRecordsPerTable = 100;
 
 	private final AtomicBoolean _initalized = new AtomicBoolean(false);
 	private ImmutableTableNamesGroupsIndex _tableNamesToBroadcastIndex = ImmutableTableNamesGroupsIndex.EMPTY;
 
-	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
+	private final CacheInvalidateMultiRequestSerializer serializer = new CacheInvalidateMultiRequestSerializer();
+	private boolean sendLegacyJson = Boolean.parseBoolean(System.getProperty(SYSTEM_PROPERTY_SendLegacyJson, String.valueOf(DEFAULT_SendLegacyJson)));
+
+	private final Supplier<CoalescingCacheInvalidationBroadcaster> broadcasterSupplier = Suppliers.memoize(this::createBroadcaster);
+
+	private final AtomicLong countEventsReceived = new AtomicLong();
+	private final AtomicLong countRequestsReceived = new AtomicLong();
 
 	private CacheInvalidationRemoteHandler()
 	{
@@ -143,7 +174,34 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
-		// Broadcast the event.
+		// Enqueue the request. It will be coalesced with the other requests and broadcasted a bit later.
+		getBroadcaster().broadcast(request);
+	}
+
+	private CoalescingCacheInvalidationBroadcaster getBroadcaster()
+	{
+		return broadcasterSupplier.get();
+	}
+
+	private CoalescingCacheInvalidationBroadcaster createBroadcaster()
+	{
+		// NOTE: in unit test mode we are broadcasting right away, to have deterministic tests
+		final int bufferDelayMillis = Adempiere.isUnitTestMode()
+				? 0
+				: Integer.getInteger(SYSTEM_PROPERTY_BufferDelayMillis, DEFAULT_BufferDelayMillis);
+
+		final CoalescingCacheInvalidationBroadcaster broadcaster = CoalescingCacheInvalidationBroadcaster.builder()
+				.sender(this::sendEvent)
+				.bufferDelayMillis(bufferDelayMillis)
+				.bufferMaxSize(Integer.getInteger(SYSTEM_PROPERTY_BufferMaxSize, DEFAULT_BufferMaxSize))
+				.maxRecordsPerTable(Integer.getInteger(SYSTEM_PROPERTY_MaxRecordsPerTable, DEFAULT_MaxRecordsPerTable))
+				.build();
+		logger.info("Created {}", broadcaster);
+		return broadcaster;
+	}
+
+	private void sendEvent(@NonNull final CacheInvalidateMultiRequest request)
+	{
 		final Event event = createEventFromRequest(request);
 		try (final MDCCloseable mdc = EventMDC.putEvent(event))
 		{
@@ -154,6 +212,16 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		}
 	}
 
+	public String getStatisticsSummary()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("enabled", isEnabled())
+				.add("broadcaster", isEnabled() ? getBroadcaster() : null)
+				.add("eventsReceived", countEventsReceived.get())
+				.add("requestsReceived", countRequestsReceived.get())
+				.toString();
+	}
+
 	private boolean isAllowBroadcast(final CacheInvalidateMultiRequest multiRequest)
 	{
 		return multiRequest.getRequests().stream().anyMatch(this::isAllowBroadcast);
@@ -187,30 +255,49 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
+		countEventsReceived.incrementAndGet();
+		countRequestsReceived.addAndGet(request.getRequests().size());
+
 		//
 		// Reset cache for TableName/Record_ID
 		logger.debug("onEvent - resetting local cache for request {} because we got remote event={}", request, event);
 		CacheMgt.get().reset(request, CacheMgt.ResetMode.LOCAL); // don't broadcast it anymore because else we would introduce recursion
 	}
 
+	@VisibleForTesting
+	void setSendLegacyJson(final boolean sendLegacyJson)
+	{
+		this.sendLegacyJson = sendLegacyJson;
+	}
+
 	@VisibleForTesting
 	Event createEventFromRequest(@NonNull final CacheInvalidateMultiRequest request)
 	{
-		final Event event = Event.builder()
-				.putProperty(EVENT_PROPERTY, jsonSerializer.toJson(request))
-				.build();
+		final Event.Builder eventBuilder = Event.builder()
+				.putProperty(EVENT_PROPERTY_Compact, serializer.toCompactString(request));
+		if (sendLegacyJson)
+		{
+			eventBuilder.putProperty(EVENT_PROPERTY, serializer.toJson(request));
+		}
 
-		return event;
+		return eventBuilder.build();
 	}
 
-	private CacheInvalidateMultiRequest createRequestFromEvent(final Event event)
+	@VisibleForTesting
+	CacheInvalidateMultiRequest createRequestFromEvent(final Event event)
 	{
+		final String compactRequest = event.getProperty(EVENT_PROPERTY_Compact);
+		if (!Check.isEmpty(compactRequest, true))
+		{
+			return serializer.fromCompactString(compactRequest);
+		}
+
 		final String jsonRequest = event.getProperty(EVENT_PROPERTY);
 		if (Check.isEmpty(jsonRequest, true))
 		{
 			return null;
 		}
 
-		return jsonSerializer.fromJson(jsonRequest);
+		return serializer.fromJson(jsonRequest);
 	}
 }
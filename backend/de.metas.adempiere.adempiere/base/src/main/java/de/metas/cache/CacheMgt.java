@@ -17,6 +17,11 @@
 package de.metas.cache;
 
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -25,6 +30,8 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -44,10 +51,12 @@ import org.slf4j.MDC.MDCCloseable;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.logging.LogManager;
@@ -87,6 +96,29 @@ public final class CacheMgt
 	private final AtomicBoolean cacheResetRunning = new AtomicBoolean();
 	private final AtomicLong lastCacheReset = new AtomicLong();
 
+	/**
+	 * System property which defines the global memory budget (in bytes) of all weighted caches.
+	 * Also, it can be suffixed by ".CacheLabel" (e.g. de.metas.cache.memoryBudgetBytes.M_ProductPrice) in order to define the memory budget of a given label.
+	 */
+	private static final String SYSTEM_PROPERTY_MemoryBudgetBytes = "de.metas.cache.memoryBudgetBytes";
+	/** When a memory budget is exceeded, we shrink the caches down to this percentage of the budget, to avoid shrinking again on the next addition */
+	private static final double MEMORY_BUDGET_LowWatermark = 0.8;
+
+	/**
+	 * System property which defines how often (in millis) the full eviction pass of a memory budget runs at most.
+	 * The full pass sorts all weighted caches of that budget, so we don't want to do it on each cache addition.
+	 * The budget itself is checked on each addition; in between two full passes, only the cache which was added to is shrunk.
+	 */
+	private static final String SYSTEM_PROPERTY_MemoryBudgetCheckIntervalMillis = "de.metas.cache.memoryBudgetCheckIntervalMillis";
+	private static final String GLOBAL_MEMORY_BUDGET_NAME = "global";
+
+	private final AtomicLong globalMemoryBudgetBytes = new AtomicLong(Long.getLong(SYSTEM_PROPERTY_MemoryBudgetBytes, 0));
+	private final ConcurrentHashMap<CacheLabel, Long> memoryBudgetBytesByLabel = new ConcurrentHashMap<>();
+	private final AtomicLong totalEstimatedWeight = new AtomicLong(0);
+	private final AtomicBoolean memoryBudgetEnforcementRunning = new AtomicBoolean();
+	private final AtomicLong memoryBudgetCheckIntervalMillis = new AtomicLong(Long.getLong(SYSTEM_PROPERTY_MemoryBudgetCheckIntervalMillis, 1000));
+	private final ConcurrentHashMap<Object, AtomicLong> lastMemoryBudgetEvictionMillisByBudgetName = new ConcurrentHashMap<>();
+
 	private CacheMgt()
 	{
 		JMXRegistry.get().registerJMX(new JMXCacheMgt(), OnJMXAlreadyExistsPolicy.Replace);
@@ -163,6 +195,14 @@ public final class CacheMgt
 		return CacheInvalidationRemoteHandler.instance.getTableNamesToBroadcast();
 	}
 
+	/**
+	 * @return summary of remote cache invalidation statistics (requests in, requests merged, messages sent etc)
+	 */
+	public String getRemoteCacheInvalidationStatistics()
+	{
+		return CacheInvalidationRemoteHandler.instance.getStatisticsSummary();
+	}
+
 	/** @return last time cache reset timestamp */
 	public long getLastCacheReset()
 	{
@@ -391,64 +431,305 @@ public final class CacheMgt
 			return reset();
 		}
 
-		int total = 0;
+		//
+		// Collect the records to invalidate, grouped by label,
+		// so we are visiting each CachesGroup only once, no matter how many requests we have.
+		final Set<CacheLabel> labelsToInvalidateAll = new HashSet<>();
+		final Map<CacheLabel, Set<TableRecordReference>> recordsToInvalidateByLabel = new LinkedHashMap<>();
 		for (final CacheInvalidateRequest request : multiRequest.getRequests())
 		{
-			final long totalPerRequest = invalidateForRequest(request);
-			total += totalPerRequest;
+			if (request.isAllRecords())
+			{
+				labelsToInvalidateAll.add(CacheLabel.ofTableName(request.getTableNameEffective()));
+			}
+			else
+			{
+				final TableRecordReference childRecordRef = request.getChildRecordOrNull();
+				if (childRecordRef != null)
+				{
+					recordsToInvalidateByLabel.computeIfAbsent(CacheLabel.ofTableName(childRecordRef.getTableName()), k -> new LinkedHashSet<>()).add(childRecordRef);
+				}
+				final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
+				if (rootRecordRef != null)
+				{
+					recordsToInvalidateByLabel.computeIfAbsent(CacheLabel.ofTableName(rootRecordRef.getTableName()), k -> new LinkedHashSet<>()).add(rootRecordRef);
+				}
+			}
+		}
+
+		long total = 0;
+		for (final CacheLabel label : labelsToInvalidateAll)
+		{
+			total += invalidateAllForLabel(label);
+		}
+		for (final Map.Entry<CacheLabel, Set<TableRecordReference>> entry : recordsToInvalidateByLabel.entrySet())
+		{
+			final CacheLabel label = entry.getKey();
+			if (labelsToInvalidateAll.contains(label))
+			{
+				continue; // already invalidated
+			}
+
+			total += invalidateForRecords(label, entry.getValue());
 		}
 
 		return total;
 	}
 
-	private long invalidateForRequest(@NonNull final CacheInvalidateRequest request)
+	private long invalidateAllForLabel(@NonNull final CacheLabel label)
 	{
-		if (request.isAllRecords())
+		try (final MDCCloseable ignored = CacheMDC.putCacheLabel(label))
 		{
-			final CacheLabel label = CacheLabel.ofTableName(request.getTableNameEffective());
-			try (final MDCCloseable ignored = CacheMDC.putCacheLabel(label))
+			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
+			if (cachesGroup == null)
 			{
-				final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
-				if (cachesGroup == null)
-				{
-					return 0;
-				}
+				return 0;
+			}
+
+			return cachesGroup.invalidateAllNoFail();
+		}
+	}
 
-				return cachesGroup.invalidateAllNoFail();
+	private long invalidateForRecords(@NonNull final CacheLabel label, @NonNull final Set<TableRecordReference> recordRefs)
+	{
+		try (final MDCCloseable ignored = CacheMDC.putCacheLabel(label))
+		{
+			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
+			if (cachesGroup == null)
+			{
+				return 0;
 			}
+
+			return cachesGroup.invalidateForRecordsNoFail(recordRefs);
 		}
-		else
+	}
+
+	/**
+	 * @return global memory budget (in bytes) of all weighted caches; zero or negative means no budget
+	 */
+	public long getGlobalMemoryBudgetBytes()
+	{
+		return globalMemoryBudgetBytes.get();
+	}
+
+	/**
+	 * Sets the global memory budget (in bytes) of all weighted caches.
+	 *
+	 * @param memoryBudgetBytes budget; zero or negative means no budget
+	 */
+	public void setGlobalMemoryBudgetBytes(final long memoryBudgetBytes)
+	{
+		globalMemoryBudgetBytes.set(memoryBudgetBytes);
+		logger.info("Global cache memory budget set to {} bytes", memoryBudgetBytes);
+	}
+
+	/**
+	 * @return memory budget (in bytes) of all weighted caches of given label; zero means no budget
+	 */
+	public long getMemoryBudgetBytes(@NonNull final CacheLabel label)
+	{
+		return memoryBudgetBytesByLabel.computeIfAbsent(
+				label,
+				k -> Math.max(Long.getLong(SYSTEM_PROPERTY_MemoryBudgetBytes + "." + k.getName(), 0), 0));
+	}
+
+	/**
+	 * @return the smallest memory budget (in bytes) of given labels; zero means no budget
+	 */
+	long getMemoryBudgetBytes(@NonNull final Set<CacheLabel> labels)
+	{
+		return labels.stream()
+				.mapToLong(this::getMemoryBudgetBytes)
+				.filter(memoryBudgetBytes -> memoryBudgetBytes > 0)
+				.min()
+				.orElse(0);
+	}
+
+	/**
+	 * Sets the memory budget (in bytes) of all weighted caches of given label.
+	 *
+	 * NOTE: the budget is also used as maximum weight of the caches of this label which will be created from now on.
+	 *
+	 * @param memoryBudgetBytes budget; zero or negative means no budget
+	 */
+	public void setMemoryBudgetBytes(@NonNull final CacheLabel label, final long memoryBudgetBytes)
+	{
+		memoryBudgetBytesByLabel.put(label, Math.max(memoryBudgetBytes, 0));
+		logger.info("Cache memory budget for {} set to {} bytes", label, memoryBudgetBytes);
+	}
+
+	public ImmutableMap<CacheLabel, Long> getMemoryBudgetsByLabel()
+	{
+		return memoryBudgetBytesByLabel.entrySet()
+				.stream()
+				.filter(entry -> entry.getValue() > 0)
+				.collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+
+	/**
+	 * @return estimated size (in bytes) of all weighted caches
+	 */
+	public long getTotalEstimatedWeight()
+	{
+		return totalEstimatedWeight.get();
+	}
+
+	/** Called by weighted caches when entries are added or removed */
+	void addEstimatedWeight(final long weightDelta)
+	{
+		totalEstimatedWeight.addAndGet(weightDelta);
+	}
+
+	/**
+	 * Sets how often (in millis) the full eviction pass of a memory budget runs at most.
+	 *
+	 * @param intervalMillis interval; zero or negative means the full eviction pass runs each time a budget is exceeded
+	 */
+	public void setMemoryBudgetCheckIntervalMillis(final long intervalMillis)
+	{
+		memoryBudgetCheckIntervalMillis.set(intervalMillis);
+	}
+
+	/**
+	 * @return true if the full eviction pass of given budget did not run in the last {@link #memoryBudgetCheckIntervalMillis}; in this case the pass is also considered started
+	 */
+	private boolean isMemoryBudgetEvictionDue(@NonNull final Object budgetName)
+	{
+		final long intervalMillis = memoryBudgetCheckIntervalMillis.get();
+		if (intervalMillis <= 0)
+		{
+			return true;
+		}
+
+		final AtomicLong lastEvictionMillis = lastMemoryBudgetEvictionMillisByBudgetName.computeIfAbsent(budgetName, k -> new AtomicLong(0));
+		final long nowMillis = System.currentTimeMillis();
+		final long lastMillis = lastEvictionMillis.get();
+		return nowMillis - lastMillis >= intervalMillis
+				&& lastEvictionMillis.compareAndSet(lastMillis, nowMillis);
+	}
+
+	/**
+	 * Checks the memory budgets of given cache's labels and the global memory budget.
+	 * If a budget is exceeded, the heaviest caches are shrunk. That full eviction pass runs at most once per {@link #SYSTEM_PROPERTY_MemoryBudgetCheckIntervalMillis};
+	 * in between, only the given cache is shrunk, so that the budget is not overrun.
+	 *
+	 * Called by weighted caches after entries were added.
+	 */
+	void checkMemoryBudgets(@NonNull final CCache<?, ?> cache)
+	{
+		// Don't check if somebody else is already shrinking.
+		// Also this is avoiding recursion.
+		if (memoryBudgetEnforcementRunning.getAndSet(true))
 		{
-			long resetCount = 0;
+			return;
+		}
 
-			final TableRecordReference childRecordRef = request.getChildRecordOrNull();
-			if (childRecordRef != null)
+		try
+		{
+			for (final CacheLabel label : cache.getLabels())
 			{
-				resetCount += invalidateForRecord(childRecordRef);
+				final long labelMemoryBudget = getMemoryBudgetBytes(label);
+				if (labelMemoryBudget <= 0)
+				{
+					continue;
+				}
+
+				final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
+				if (cachesGroup == null)
+				{
+					continue;
+				}
+
+				final long labelWeight = cachesGroup.streamWeightedCCaches().mapToLong(CCache::getEstimatedWeight).sum();
+				if (labelWeight <= labelMemoryBudget)
+				{
+					continue;
+				}
+
+				if (isMemoryBudgetEvictionDue(label))
+				{
+					shrinkIfMemoryBudgetExceeded(label, cachesGroup.streamWeightedCCaches(), labelMemoryBudget);
+				}
+				else
+				{
+					cache.shrinkByWeight(labelWeight - labelMemoryBudget);
+				}
 			}
-			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
-			if (rootRecordRef != null)
+
+			final long globalMemoryBudget = globalMemoryBudgetBytes.get();
+			final long totalWeight = totalEstimatedWeight.get();
+			if (globalMemoryBudget > 0 && totalWeight > globalMemoryBudget)
 			{
-				resetCount += invalidateForRecord(rootRecordRef);
+				if (isMemoryBudgetEvictionDue(GLOBAL_MEMORY_BUDGET_NAME))
+				{
+					shrinkIfMemoryBudgetExceeded(GLOBAL_MEMORY_BUDGET_NAME, streamCCaches().filter(CCache::isWeighted), globalMemoryBudget);
+				}
+				else
+				{
+					cache.shrinkByWeight(totalWeight - globalMemoryBudget);
+				}
 			}
-
-			return resetCount;
+		}
+		finally
+		{
+			memoryBudgetEnforcementRunning.set(false);
 		}
 	}
 
-	private long invalidateForRecord(@NonNull final TableRecordReference recordRef)
+	private static void shrinkIfMemoryBudgetExceeded(
+			@NonNull final Object budgetName,
+			@NonNull final Stream<CCache<?, ?>> weightedCaches,
+			final long memoryBudget)
 	{
-		final CacheLabel label = CacheLabel.ofTableName(recordRef.getTableName());
-		try (final MDCCloseable ignored = CacheMDC.putCacheLabel(label))
+		final List<CCache<?, ?>> cachesHeaviestFirst = weightedCaches
+				.sorted(Comparator.<CCache<?, ?>> comparingLong(CCache::getEstimatedWeight).reversed())
+				.collect(ImmutableList.toImmutableList());
+
+		final long weight = cachesHeaviestFirst.stream().mapToLong(CCache::getEstimatedWeight).sum();
+		if (weight <= memoryBudget)
 		{
-			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
-			if (cachesGroup == null)
+			return;
+		}
+
+		final long weightToFree = weight - (long)(memoryBudget * MEMORY_BUDGET_LowWatermark);
+		long weightFreed = 0;
+		for (final CCache<?, ?> cache : cachesHeaviestFirst)
+		{
+			if (weightFreed >= weightToFree)
 			{
-				return 0;
+				break;
 			}
 
-			return cachesGroup.invalidateForRecordNoFail(recordRef);
+			weightFreed += cache.shrinkByWeight(weightToFree - weightFreed);
 		}
+
+		logger.info("Memory budget {} of {} bytes exceeded ({} bytes). Freed {} bytes.", budgetName, memoryBudget, weight, weightFreed);
+	}
+
+	private Stream<CCache<?, ?>> streamCCaches()
+	{
+		return cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCCaches)
+				.filter(distinctByCacheId());
+	}
+
+	private static Predicate<CacheInterface> distinctByCacheId()
+	{
+		final Set<Long> seenCacheIds = ConcurrentHashMap.newKeySet();
+		return cache -> seenCacheIds.add(cache.getCacheId());
+	}
+
+	/**
+	 * @return statistics of all {@link CCache}s, heaviest first and then by cache name
+	 */
+	public List<CCacheStats> getCacheStats()
+	{
+		return streamCCaches()
+				.map(CCache::stats)
+				.sorted(Comparator.<CCacheStats> comparingLong(CCacheStats::getEstimatedWeight).reversed()
+						.thenComparing(CCacheStats::getName))
+				.collect(Collectors.toList());
 	}
 
 	/**
@@ -476,7 +757,11 @@ public final class CacheMgt
 	 */
 	public String toStringX()
 	{
-		return "CacheMgt[Instances=" + cachesByLabel.size() + ", Elements=" + computeTotalSize() + "]";
+		return "CacheMgt[Instances=" + cachesByLabel.size()
+				+ ", Elements=" + computeTotalSize()
+				+ ", EstimatedWeight=" + totalEstimatedWeight.get()
+				+ ", GlobalMemoryBudget=" + globalMemoryBudgetBytes.get()
+				+ "]";
 	}
 
 	public void addCacheResetListener(@NonNull final ICacheResetListener cacheResetListener)
@@ -636,6 +921,18 @@ public final class CacheMgt
 					.filter(Objects::nonNull);
 		}
 
+		public Stream<CCache<?, ?>> streamCCaches()
+		{
+			return streamCaches()
+					.filter(cache -> cache instanceof CCache)
+					.map(cache -> (CCache<?, ?>)cache);
+		}
+
+		public Stream<CCache<?, ?>> streamWeightedCCaches()
+		{
+			return streamCCaches().filter(CCache::isWeighted);
+		}
+
 		public long computeTotalSize()
 		{
 			return streamCaches()
@@ -650,23 +947,25 @@ public final class CacheMgt
 					.sum();
 		}
 
-		public long invalidateForRecordNoFail(final TableRecordReference recordRef)
+		public long invalidateForRecordsNoFail(final Set<TableRecordReference> recordRefs)
 		{
 			return streamCaches()
-					.mapToLong(cache -> invalidateNoFail(cache, recordRef))
+					.mapToLong(cache -> invalidateNoFail(cache, recordRefs))
 					.sum();
 		}
 
-		private static long invalidateNoFail(final CacheInterface cacheInstance, final TableRecordReference recordRef)
+		private static long invalidateNoFail(final CacheInterface cacheInstance, final Set<TableRecordReference> recordRefs)
 		{
 			try (final IAutoCloseable ignored = CacheMDC.putCache(cacheInstance))
 			{
-				return cacheInstance.resetForRecordId(recordRef);
+				return recordRefs.size() == 1
+						? cacheInstance.resetForRecordId(recordRefs.iterator().next())
+						: cacheInstance.resetForRecordIds(recordRefs);
 			}
 			catch (final Exception ex)
 			{
 				// log but don't fail
-				logger.warn("Error while reseting {} for {}. Ignored.", cacheInstance, recordRef, ex);
+				logger.warn("Error while reseting {} for {}. Ignored.", cacheInstance, recordRefs, ex);
 				return 0;
 			}
 		}
@@ -0,0 +1,46 @@
+package de.metas.cache;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Estimates the memory footprint of one cache entry.
+ *
+ * IMPORTANT: the implementation shall be deterministic, i.e. return the same weight for the same key/value pair,
+ * because the weight is computed again when the entry is removed from cache.
+ */
+@FunctionalInterface
+public interface CacheWeigher<K, V>
+{
+	/**
+	 * @return estimated size of given entry, in bytes; shall not be negative
+	 */
+	int weigh(K key, V value);
+
+	/**
+	 * @return a weigher which assumes that each entry has the same given size (in bytes)
+	 */
+	static <K, V> CacheWeigher<K, V> ofFixedEntrySize(final int entrySizeInBytes)
+	{
+		return (key, value) -> entrySizeInBytes;
+	}
+}
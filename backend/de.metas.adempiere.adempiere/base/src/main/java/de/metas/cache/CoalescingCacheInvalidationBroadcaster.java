@@ -0,0 +1,265 @@
+package de.metas.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Buffers the cache invalidation requests which shall be broadcasted for a short time window,
+ * coalesces them and forwards them to the sender as one single {@link CacheInvalidateMultiRequest}.
+ *
+ * Coalescing means:
+ * <ul>
+ * <li>duplicate requests are sent only once
+ * <li>if there is a "reset all" request, only that one is sent
+ * <li>record requests are dropped if there is an "all records" request for the same table
+ * <li>if there are more than <code>maxRecordsPerTable</code> record requests for the same table, they are replaced by one "all records" request
+ * </ul>
+ */
+final class CoalescingCacheInvalidationBroadcaster
+{
+	private static final Logger logger = LogManager.getLogger(CoalescingCacheInvalidationBroadcaster.class);
+
+	// Params
+	private final Consumer<CacheInvalidateMultiRequest> sender;
+	private final int bufferDelayMillis;
+	private final int bufferMaxSize;
+	private final int maxRecordsPerTable;
+
+	// State
+	private final Object lock = new Object();
+	private final LinkedHashSet<CacheInvalidateRequest> buffer = new LinkedHashSet<>();
+	private boolean flushScheduled = false;
+	private ScheduledExecutorService _executor; // lazy
+
+	// Statistics
+	private final AtomicLong countRequestsIn = new AtomicLong();
+	private final AtomicLong countRequestsOut = new AtomicLong();
+	private final AtomicLong countRequestsMerged = new AtomicLong();
+	private final AtomicLong countMessagesSent = new AtomicLong();
+
+	/**
+	 * @param bufferDelayMillis for how long the requests are buffered. If not positive, the requests are sent right away (but still coalesced).
+	 * @param bufferMaxSize if the buffer contains more requests than this, it's flushed right away. If not positive, the buffer size is not limited.
+	 * @param maxRecordsPerTable if there are more record requests for the same table, they are replaced by one "all records" request. If not positive, the records are never merged.
+	 */
+	@Builder
+	private CoalescingCacheInvalidationBroadcaster(
+			@NonNull final Consumer<CacheInvalidateMultiRequest> sender,
+			final int bufferDelayMillis,
+			final int bufferMaxSize,
+			final int maxRecordsPerTable)
+	{
+		this.sender = sender;
+		this.bufferDelayMillis = bufferDelayMillis;
+		this.bufferMaxSize = bufferMaxSize;
+		this.maxRecordsPerTable = maxRecordsPerTable;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("bufferDelayMillis", bufferDelayMillis)
+				.add("bufferMaxSize", bufferMaxSize)
+				.add("maxRecordsPerTable", maxRecordsPerTable)
+				.add("requestsIn", countRequestsIn.get())
+				.add("requestsOut", countRequestsOut.get())
+				.add("requestsMerged", countRequestsMerged.get())
+				.add("messagesSent", countMessagesSent.get())
+				.toString();
+	}
+
+	private ScheduledExecutorService getExecutor()
+	{
+		// NOTE: shall be called only from within synchronized(lock)
+		ScheduledExecutorService executor = _executor;
+		if (executor == null)
+		{
+			final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(CoalescingCacheInvalidationBroadcaster.class.getSimpleName() + "-");
+			threadFactory.setDaemon(true);
+			executor = _executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+		}
+		return executor;
+	}
+
+	public void broadcast(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		final Set<CacheInvalidateRequest> requests = multiRequest.getRequests();
+		countRequestsIn.addAndGet(requests.size());
+
+		if (bufferDelayMillis <= 0)
+		{
+			send(requests);
+			return;
+		}
+
+		final boolean flushNow;
+		synchronized (lock)
+		{
+			buffer.addAll(requests);
+
+			flushNow = bufferMaxSize > 0 && buffer.size() >= bufferMaxSize;
+			if (!flushNow && !flushScheduled)
+			{
+				flushScheduled = true;
+				getExecutor().schedule(this::flush, bufferDelayMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		if (flushNow)
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Sends all buffered requests right away.
+	 */
+	public void flush()
+	{
+		final List<CacheInvalidateRequest> requests;
+		synchronized (lock)
+		{
+			flushScheduled = false;
+			if (buffer.isEmpty())
+			{
+				return;
+			}
+
+			requests = ImmutableList.copyOf(buffer);
+			buffer.clear();
+		}
+
+		send(requests);
+	}
+
+	private void send(@NonNull final Collection<CacheInvalidateRequest> requests)
+	{
+		final CacheInvalidateMultiRequest coalescedRequest = coalesce(requests, maxRecordsPerTable);
+		if (coalescedRequest == null)
+		{
+			return;
+		}
+
+		final int countOut = coalescedRequest.getRequests().size();
+		countRequestsOut.addAndGet(countOut);
+		countRequestsMerged.addAndGet(requests.size() - countOut);
+		countMessagesSent.incrementAndGet();
+
+		try
+		{
+			sender.accept(coalescedRequest);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed sending {}. Ignored.", coalescedRequest, ex);
+		}
+	}
+
+	/**
+	 * @return coalesced request or <code>null</code> if there are no requests
+	 */
+	@VisibleForTesting
+	static CacheInvalidateMultiRequest coalesce(@NonNull final Collection<CacheInvalidateRequest> requests, final int maxRecordsPerTable)
+	{
+		if (requests.isEmpty())
+		{
+			return null;
+		}
+
+		if (requests.stream().anyMatch(CacheInvalidateRequest::isAll))
+		{
+			return CacheInvalidateMultiRequest.all();
+		}
+
+		final Set<String> allRecordsTableNames = new HashSet<>();
+		final Map<String, List<CacheInvalidateRequest>> recordRequestsByTableName = new LinkedHashMap<>();
+		final List<CacheInvalidateRequest> otherRequests = new ArrayList<>();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (request.getChildTableName() != null)
+			{
+				// NOTE: child requests are also invalidating the root record, so we keep them as they are
+				otherRequests.add(request);
+			}
+			else if (request.isAllRecords())
+			{
+				allRecordsTableNames.add(request.getRootTableName());
+			}
+			else
+			{
+				recordRequestsByTableName.computeIfAbsent(request.getRootTableName(), k -> new ArrayList<>()).add(request);
+			}
+		}
+
+		final LinkedHashSet<CacheInvalidateRequest> result = new LinkedHashSet<>();
+		recordRequestsByTableName.forEach((tableName, recordRequests) -> {
+			if (allRecordsTableNames.contains(tableName))
+			{
+				return; // already covered by the "all records" request
+			}
+
+			if (maxRecordsPerTable > 0 && recordRequests.size() > maxRecordsPerTable)
+			{
+				allRecordsTableNames.add(tableName);
+			}
+			else
+			{
+				result.addAll(recordRequests);
+			}
+		});
+
+		allRecordsTableNames.stream()
+				.map(CacheInvalidateRequest::allRecordsForTable)
+				.forEach(result::add);
+		result.addAll(otherRequests);
+
+		return CacheInvalidateMultiRequest.of(result);
+	}
+}
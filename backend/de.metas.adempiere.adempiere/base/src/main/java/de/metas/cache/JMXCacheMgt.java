@@ -6,6 +6,7 @@ import java.util.Set;
 import org.adempiere.util.jmx.IJMXNameAware;
 import org.slf4j.Logger;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.logging.LogManager;
 
 /**
@@ -77,6 +78,12 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return tableNamesArray;
 	}
 
+	@Override
+	public String getRemoteCacheInvalidationStatistics()
+	{
+		return getCacheMgt().getRemoteCacheInvalidationStatistics();
+	}
+
 	@Override
 	public void enableRemoteCacheInvalidationForTableName(final String tableName)
 	{
@@ -101,4 +108,50 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return getCacheMgt().reset(tableName, recordId);
 	}
 
+	@Override
+	public String[] getCacheStatistics()
+	{
+		return getCacheMgt()
+				.getCacheStats()
+				.stream()
+				.map(CCacheStats::toString)
+				.toArray(size -> new String[size]);
+	}
+
+	@Override
+	public long getTotalEstimatedWeightBytes()
+	{
+		return getCacheMgt().getTotalEstimatedWeight();
+	}
+
+	@Override
+	public long getGlobalMemoryBudgetBytes()
+	{
+		return getCacheMgt().getGlobalMemoryBudgetBytes();
+	}
+
+	@Override
+	public void setGlobalMemoryBudgetBytes(final long memoryBudgetBytes)
+	{
+		getCacheMgt().setGlobalMemoryBudgetBytes(memoryBudgetBytes);
+	}
+
+	@Override
+	public String[] getMemoryBudgets()
+	{
+		return getCacheMgt()
+				.getMemoryBudgetsByLabel()
+				.entrySet()
+				.stream()
+				.map(entry -> entry.getKey().getName() + "=" + entry.getValue())
+				.sorted()
+				.toArray(size -> new String[size]);
+	}
+
+	@Override
+	public void setMemoryBudgetBytes(final String cacheLabel, final long memoryBudgetBytes)
+	{
+		getCacheMgt().setMemoryBudgetBytes(CacheLabel.ofTableName(cacheLabel), memoryBudgetBytes);
+	}
+
 }
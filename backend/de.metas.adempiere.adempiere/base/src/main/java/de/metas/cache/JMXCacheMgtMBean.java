@@ -18,6 +18,8 @@ public interface JMXCacheMgtMBean
 
 	String[] getTableNamesToBroadcast();
 
+	String getRemoteCacheInvalidationStatistics();
+
 	void enableRemoteCacheInvalidationForTableName(String tableName);
 
 	long resetAll();
@@ -25,4 +27,16 @@ public interface JMXCacheMgtMBean
 	long resetForTable(String tableName);
 
 	long resetForRecordId(String tableName, int recordId);
+
+	String[] getCacheStatistics();
+
+	long getTotalEstimatedWeightBytes();
+
+	long getGlobalMemoryBudgetBytes();
+
+	void setGlobalMemoryBudgetBytes(long memoryBudgetBytes);
+
+	String[] getMemoryBudgets();
+
+	void setMemoryBudgetBytes(String cacheLabel, long memoryBudgetBytes);
 }
@@ -244,5 +244,20 @@ public final class CacheInvalidateRequest
 			return this;
 		}
 
+		/** Sets the root table, without a particular root record */
+		public Builder rootTable(@NonNull final String tableName)
+		{
+			rootTableName = tableName;
+			rootRecordId = RECORD_ID_ALL;
+			return this;
+		}
+
+		/** Sets the child table, without a particular child record, i.e. all child records */
+		public Builder childTable(@NonNull final String tableName)
+		{
+			childTableName = tableName;
+			childRecordId = RECORD_ID_ALL;
+			return this;
+		}
 	}
 }
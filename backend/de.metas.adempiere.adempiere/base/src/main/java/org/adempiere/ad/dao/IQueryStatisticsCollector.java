@@ -34,19 +34,26 @@ import com.google.common.base.Stopwatch;
  */
 public interface IQueryStatisticsCollector
 {
+	/**
+	 * Value of <code>rowsAffected</code> if the statement is a query or if the number of affected rows is not known.
+	 */
+	long ROWS_AFFECTED_UNKNOWN = -1;
+
 	/**
 	 * Collect given <code>sql</code> query (that will be executed)
 	 *
 	 * @param sql
 	 * @param duration
+	 * @param rowsAffected how many rows were inserted, updated or deleted, or {@link #ROWS_AFFECTED_UNKNOWN}
 	 */
-	void collect(String sql, Stopwatch duration);
+	void collect(String sql, Stopwatch duration, long rowsAffected);
 
 	/**
 	 * Collect given statement query (that will be executed)
 	 *
 	 * @param vo statement value object
 	 * @param duration
+	 * @param rowsAffected how many rows were inserted, updated or deleted, or {@link #ROWS_AFFECTED_UNKNOWN}
 	 */
-	void collect(CStatementVO vo, Stopwatch duration);
+	void collect(CStatementVO vo, Stopwatch duration, long rowsAffected);
 }
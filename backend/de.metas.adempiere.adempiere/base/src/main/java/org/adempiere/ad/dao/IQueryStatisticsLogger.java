@@ -24,6 +24,8 @@ package org.adempiere.ad.dao;
 
 import java.util.Date;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Query Statistics Logger: build up a list of top used SQL queries
  *
@@ -37,6 +39,12 @@ public interface IQueryStatisticsLogger
 {
 	public static final String SYSTEM_PROPERTY_LOG_TO_SYSTEM_ERROR = "org.adempiere.ad.dao.impl.QueryStatisticsLogger.LogToSystemError";
 
+	/**
+	 * If this system property is <code>true</code> then the statistics logging is enabled on startup.
+	 * The overhead is low enough to keep it enabled in production.
+	 */
+	public static final String SYSTEM_PROPERTY_ENABLE_ON_STARTUP = "org.adempiere.ad.dao.impl.QueryStatisticsLogger.EnableOnStartup";
+
 	/**
 	 * Enable statistics logging
 	 */
@@ -103,4 +111,24 @@ public interface IQueryStatisticsLogger
 	 * @return
 	 */
 	String[] getTopAverageDurationQueriesAsString();
+
+	/**
+	 * Gets top SQL queries ordered by their 99th percentile execution time (descending)
+	 */
+	String[] getTopP99DurationQueriesAsString();
+
+	/**
+	 * @return statistics of the top SQL queries ordered by their total summed execution time (descending)
+	 */
+	ImmutableList<SqlQueryStatistics> getTopTotalDurationQueries(int limit);
+
+	/**
+	 * Runs <code>EXPLAIN</code> for the slowest recorded execution of the top SELECT queries, ordered by their maximum execution time (descending).
+	 *
+	 * @param analyze if <code>true</code>, runs <code>EXPLAIN (ANALYZE, BUFFERS)</code> instead, which is actually executing the queries, in a transaction which is rolled back afterwards.
+	 *            Because the rollback does not undo everything (e.g. sequence values or the side effects of volatile functions),
+	 *            the queries which are locking rows (<code>FOR UPDATE</code> etc.) or which might call functions are skipped in that case.
+	 * @return the query plan of each query
+	 */
+	String[] explainSlowestQueries(int limit, boolean analyze);
 }
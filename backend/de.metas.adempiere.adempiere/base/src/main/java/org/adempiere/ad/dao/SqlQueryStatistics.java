@@ -0,0 +1,61 @@
+package org.adempiere.ad.dao;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableMap;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Snapshot of the statistics which {@link IQueryStatisticsLogger} collected for one normalized SQL statement.
+ */
+@Value
+@Builder
+public class SqlQueryStatistics
+{
+	/** SQL with all literals replaced by <code>?</code> */
+	@NonNull
+	String sql;
+
+	/** The table which is queried or updated, if it could be determined */
+	@Nullable
+	String tableName;
+
+	long executionsCount;
+	double totalDurationMillis;
+	double avgDurationMillis;
+	double p50DurationMillis;
+	double p99DurationMillis;
+	double maxDurationMillis;
+
+	/** How many rows were inserted, updated or deleted by all executions */
+	long rowsAffected;
+
+	/** Executions count by the monitored transaction which executed the statement (e.g. async workpackage processor, REST endpoint) */
+	@NonNull
+	ImmutableMap<String, Long> executionsCountByCaller;
+}
@@ -0,0 +1,135 @@
+package org.adempiere.ad.dao.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Iterates a result page by page, using keyset pagination: each page contains the next <code>pageSize</code> rows whose key is greater than the key of the previous page's last row.
+ * <p>
+ * Unlike LIMIT/OFFSET pagination, loading a page costs the same no matter how many rows were already loaded, and rows which are added or removed meanwhile are not making us skip or repeat rows.
+ * Only the current page is kept in memory and no database resources are held between pages.
+ *
+ * @param <ET> row type
+ */
+@ToString(of = { "pageSize", "lastKey", "lastPage" })
+final class KeysetPaginationIterator<ET> implements Iterator<ET>
+{
+	/**
+	 * Loads the page of rows which come after given key, ordered by key.
+	 */
+	@FunctionalInterface
+	interface PageLoader<ET>
+	{
+		/**
+		 * @param lastKey the key of the previous page's last row or <code>null</code> if the first page shall be loaded
+		 * @return at most <code>pageSize</code> rows, ordered by key
+		 */
+		List<ET> loadPageAfter(@Nullable Integer lastKey, int pageSize);
+	}
+
+	private final int pageSize;
+	private final PageLoader<ET> pageLoader;
+	private final ToIntFunction<ET> keyExtractor;
+
+	private Iterator<ET> currentPage = null;
+	private Integer lastKey = null;
+	private boolean lastPage = false;
+
+	KeysetPaginationIterator(
+			final int pageSize,
+			@NonNull final PageLoader<ET> pageLoader,
+			@NonNull final ToIntFunction<ET> keyExtractor)
+	{
+		if (pageSize <= 0)
+		{
+			throw new AdempiereException("pageSize shall be greater than zero but it was " + pageSize);
+		}
+
+		this.pageSize = pageSize;
+		this.pageLoader = pageLoader;
+		this.keyExtractor = keyExtractor;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		while (currentPage == null || !currentPage.hasNext())
+		{
+			if (lastPage)
+			{
+				return false;
+			}
+			loadNextPage();
+		}
+		return true;
+	}
+
+	@Override
+	public ET next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		final ET row = currentPage.next();
+		lastKey = keyExtractor.applyAsInt(row);
+		return row;
+	}
+
+	private void loadNextPage()
+	{
+		final List<ET> page = pageLoader.loadPageAfter(lastKey, pageSize);
+		if (page.size() > pageSize)
+		{
+			throw new AdempiereException("Loaded page shall have at most " + pageSize + " rows but it has " + page.size());
+		}
+
+		lastPage = page.size() < pageSize;
+		currentPage = page.iterator();
+	}
+
+	/**
+	 * @return lazy stream of the rows of all pages
+	 */
+	public Stream<ET> stream()
+	{
+		final boolean parallel = false;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), parallel);
+	}
+}
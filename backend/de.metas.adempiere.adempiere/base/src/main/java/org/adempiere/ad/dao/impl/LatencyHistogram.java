@@ -0,0 +1,131 @@
+package org.adempiere.ad.dao.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.adempiere.exceptions.AdempiereException;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Lock-free histogram of durations, with fixed memory footprint and bounded relative error (HDR style).
+ * <p>
+ * Each power of two is split into {@value #SUB_BUCKETS} linear buckets, so a reported percentile is at most 12.5% bigger than the actual value.
+ * The maximum is tracked exactly.
+ */
+final class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** Durations longer than 2^40ns (approx. 18 minutes) are counted in the last bucket */
+	private static final int MAX_MAGNITUDE = 40;
+	private static final long MAX_TRACKABLE_VALUE = (1L << MAX_MAGNITUDE) - 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(bucketIndex(MAX_TRACKABLE_VALUE) + 1);
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+	public void record(final long durationNanos)
+	{
+		final long value = Math.max(durationNanos, 0);
+		counts.incrementAndGet(bucketIndex(Math.min(value, MAX_TRACKABLE_VALUE)));
+		totalCount.increment();
+		maxValue.accumulate(value);
+	}
+
+	public long getCount()
+	{
+		return totalCount.sum();
+	}
+
+	public long getMaxNanos()
+	{
+		return maxValue.get();
+	}
+
+	/**
+	 * @param percentile e.g. 50 for the median or 99
+	 * @return the (upper bound of the) duration which is not exceeded by given percent of the recorded durations; 0 if nothing was recorded
+	 */
+	public long getPercentileNanos(final double percentile)
+	{
+		if (percentile <= 0 || percentile > 100)
+		{
+			throw new AdempiereException("Invalid percentile: " + percentile);
+		}
+
+		// NOTE: don't rely on totalCount, because the counters might be updated meanwhile
+		final int bucketsCount = counts.length();
+		final long[] snapshot = new long[bucketsCount];
+		long total = 0;
+		for (int i = 0; i < bucketsCount; i++)
+		{
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if (total <= 0)
+		{
+			return 0;
+		}
+
+		final long rank = (long)Math.ceil(percentile / 100.0 * total);
+		long cumulatedCount = 0;
+		for (int i = 0; i < bucketsCount; i++)
+		{
+			cumulatedCount += snapshot[i];
+			if (cumulatedCount >= rank)
+			{
+				return Math.min(bucketUpperBound(i), getMaxNanos());
+			}
+		}
+
+		return getMaxNanos();
+	}
+
+	static int bucketIndex(final long value)
+	{
+		if (value < SUB_BUCKETS)
+		{
+			return (int)value;
+		}
+
+		final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		final int shift = magnitude - SUB_BUCKET_BITS;
+		final int subBucket = (int)(value >>> shift) & (SUB_BUCKETS - 1);
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long bucketUpperBound(final int bucketIndex)
+	{
+		if (bucketIndex < SUB_BUCKETS)
+		{
+			return bucketIndex;
+		}
+
+		final int shift = bucketIndex / SUB_BUCKETS - 1;
+		final int subBucket = bucketIndex % SUB_BUCKETS;
+		return ((long)(SUB_BUCKETS + subBucket + 1) << shift) - 1;
+	}
+}
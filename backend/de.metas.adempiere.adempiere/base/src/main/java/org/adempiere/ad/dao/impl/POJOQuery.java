@@ -26,11 +26,13 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -38,6 +40,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 import de.metas.common.util.time.SystemTime;
 import org.adempiere.ad.dao.ICompositeQueryFilter;
@@ -280,6 +283,37 @@ public class POJOQuery<T> extends AbstractTypedQuery<T>
 		return resultCasted;
 	}
 
+	/**
+	 * The records are in memory anyways, so they are all loaded at once and then sorted by their primary key.
+	 */
+	@Override
+	public <ET extends T> Stream<ET> streamUsingKeysetPagination(@NonNull final Class<ET> clazz, final int pageSize) throws DBException
+	{
+		Check.assume(pageSize > 0, "pageSize > 0");
+
+		return list(clazz)
+				.stream()
+				.sorted(Comparator.comparingInt(InterfaceWrapperHelper::getId));
+	}
+
+	/**
+	 * The records are in memory anyways, so they are all loaded at once and then sorted by their primary key.
+	 */
+	@Override
+	public Stream<Map<String, Object>> streamColumnsUsingKeysetPagination(final int pageSize, @NonNull final String... columnNames) throws DBException
+	{
+		Check.assume(pageSize > 0, "pageSize > 0");
+
+		final String keyColumnName = InterfaceWrapperHelper.getKeyColumnName(getTableName());
+		final Set<String> columnNamesIncludingKey = new LinkedHashSet<>();
+		columnNamesIncludingKey.add(keyColumnName);
+		columnNamesIncludingKey.addAll(Arrays.asList(columnNames));
+
+		return listColumns(false, columnNamesIncludingKey.toArray(new String[0]))
+				.stream()
+				.sorted(Comparator.comparingInt(row -> ((Number)row.get(keyColumnName)).intValue()));
+	}
+
 	private static final <T> void mergeModelLists(final List<T> to, final List<T> from, final boolean distinct)
 	{
 		// Case: from list is empty => nothing to do
@@ -1,22 +1,37 @@
 package org.adempiere.ad.dao.impl;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
 
 import de.metas.common.util.time.SystemTime;
 import org.adempiere.ad.dao.IQueryStatisticsCollector;
 import org.adempiere.ad.dao.IQueryStatisticsLogger;
+import org.adempiere.ad.dao.SqlQueryStatistics;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.sql.impl.StatementsFactory;
 import org.compiere.util.CStatementVO;
+import org.compiere.util.DB;
 import org.compiere.util.Trace;
 import org.slf4j.Logger;
 import org.springframework.jmx.export.annotation.ManagedOperation;
@@ -24,10 +39,16 @@ import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.logging.LogManager;
+import de.metas.monitoring.adapter.PerformanceMonitoringContext;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
 
 @Service
 @ManagedResource(objectName = "org.adempiere.ad.dao.impl.QueryStatisticsLogger:type=Statistics", description = "SQL query statistics and tracing")
@@ -38,7 +59,23 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	private static final TimeUnit TIMEUNIT_Internal = TimeUnit.NANOSECONDS;
 	private static final TimeUnit TIMEUNIT_Display = TimeUnit.MILLISECONDS;
 
+	/**
+	 * Upper limit of distinct (normalized) SQLs for which we collect statistics; the SQLs over this limit are aggregated together.
+	 */
+	private static final int MAX_DISTINCT_SQLS = 2000;
+	private static final String SQL_Others = "<other SQLs>";
+
+	private static final Pattern PATTERN_LockingClause = Pattern.compile("\\bFOR\\s+(UPDATE|NO\\s+KEY\\s+UPDATE|SHARE|KEY\\s+SHARE)\\b");
+	private static final Pattern PATTERN_FunctionCall = Pattern.compile("([A-Z_][A-Z0-9_$.]*)\\s*\\(");
+	/**
+	 * Keywords and builtin functions which are followed by "(" but which are not changing anything. Any other name followed by "(" is considered a function which might change data.
+	 */
+	private static final ImmutableSet<String> NOT_FUNCTION_CALLS = ImmutableSet.of(
+			"SELECT", "FROM", "JOIN", "ON", "WHERE", "AND", "OR", "NOT", "IN", "EXISTS", "ANY", "ALL", "AS", "USING", "UNION", "VALUES", "CASE", "WHEN", "THEN", "ELSE",
+			"COALESCE", "NULLIF", "GREATEST", "LEAST", "COUNT", "SUM", "MIN", "MAX", "AVG", "UPPER", "LOWER", "TRIM", "SUBSTR", "ROUND", "ABS", "CAST", "ARRAY", "ROW", "OVER", "ROW_NUMBER");
+
 	private boolean enabled = false;
+	/** normalized SQL to statistics */
 	private final ConcurrentHashMap<String, QueryStatistics> sql2statistics = new ConcurrentHashMap<>();
 	private Date validFrom = null;
 	private String filterBy = null;
@@ -52,6 +89,16 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	{
 	}
 
+	@PostConstruct
+	private void enableIfConfigured()
+	{
+		if (Boolean.getBoolean(SYSTEM_PROPERTY_ENABLE_ON_STARTUP))
+		{
+			enable();
+			logger.info("Enabled SQL query statistics because system property {} is set", SYSTEM_PROPERTY_ENABLE_ON_STARTUP);
+		}
+	}
+
 	private void logMessage(final String message)
 	{
 		if (logToSystemError)
@@ -65,7 +112,7 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 	}
 
 	@Override
-	public void collect(final CStatementVO vo, final Stopwatch duration)
+	public void collect(final CStatementVO vo, final Stopwatch duration, final long rowsAffected)
 	{
 		if (!enabled)
 		{
@@ -75,11 +122,11 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 		final String sql = vo == null ? null : vo.getSql();
 		final Map<Integer, Object> sqlParams = vo == null ? null : vo.getDebugSqlParams();
 		final String trxName = vo == null ? "?" : vo.getTrxName();
-		collect(sql, sqlParams, trxName, duration);
+		collect(sql, sqlParams, trxName, duration, rowsAffected);
 	}
 
 	@Override
-	public void collect(final String sql, final Stopwatch duration)
+	public void collect(final String sql, final Stopwatch duration, final long rowsAffected)
 	{
 		if (!enabled)
 		{
@@ -88,10 +135,15 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 
 		final Map<Integer, Object> sqlParams = null;
 		final String trxName = "?";
-		collect(sql, sqlParams, trxName, duration);
+		collect(sql, sqlParams, trxName, duration, rowsAffected);
 	}
 
-	private void collect(final String sql, final Map<Integer, Object> sqlParams, final String trxName, final Stopwatch durationStopwatch)
+	private void collect(
+			final String sql,
+			@Nullable final Map<Integer, Object> sqlParams,
+			final String trxName,
+			final Stopwatch durationStopwatch,
+			final long rowsAffected)
 	{
 		if (!enabled)
 		{
@@ -108,13 +160,27 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 			return;
 		}
 
-		final QueryStatistics queryStatistics = sql2statistics.computeIfAbsent(sql, (sqlKey) -> new QueryStatistics(sqlKey));
-		final CountAndDuration duration = queryStatistics.incrementAndGet(durationValue);
+		final QueryStatistics queryStatistics = getOrCreateQueryStatistics(sql);
+		queryStatistics.collect(sql, sqlParams, durationValue, rowsAffected, PerformanceMonitoringContext.getCurrentName());
 
 		if (traceSqlQueries)
 		{
-			traceSqlQuery(sql, sqlParams, trxName, duration);
+			traceSqlQuery(sql, sqlParams, trxName, durationValue, queryStatistics);
+		}
+	}
+
+	private QueryStatistics getOrCreateQueryStatistics(@NonNull final String sql)
+	{
+		final String normalizedSql = SqlNormalizer.normalize(sql);
+		final QueryStatistics existingStatistics = sql2statistics.get(normalizedSql);
+		if (existingStatistics != null)
+		{
+			return existingStatistics;
 		}
+
+		// Make sure the map is not growing unbounded, e.g. because of some SQLs we are not able to normalize
+		final String sqlKey = sql2statistics.size() < MAX_DISTINCT_SQLS ? normalizedSql : SQL_Others;
+		return sql2statistics.computeIfAbsent(sqlKey, QueryStatistics::new);
 	}
 
 	@Override
@@ -225,12 +291,12 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 		return validFrom;
 	}
 
-	private void traceSqlQuery(final String sql, final Map<Integer, Object> sqlParams, final String trxName, final CountAndDuration duration)
+	private void traceSqlQuery(final String sql, final Map<Integer, Object> sqlParams, final String trxName, final long duration, final QueryStatistics queryStatistics)
 	{
 		final Thread thread = Thread.currentThread();
 		final String threadName = thread.getName();
 		final StackTraceElement[] stacktrace = thread.getStackTrace();
-		final String durationStr = duration.getLastDurationAsString(TIMEUNIT_Display) + " (Avg. " + duration.getAverageDurationAsString(TIMEUNIT_Display) + ")";
+		final String durationStr = format(duration, TIMEUNIT_Internal, TIMEUNIT_Display) + " (Avg. " + queryStatistics.getAverageDurationAsString(TIMEUNIT_Display) + ")";
 		final String trxNameInfo = extractTrxNameInfo(trxName);
 
 		final int count = traceSqlQueries_Count.incrementAndGet();
@@ -362,6 +428,13 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 		return getTopQueriesAsString(Comparator.comparing(QueryStatistics::getAverageDuration));
 	}
 
+	@Override
+	@ManagedOperation(description = "Gets top SQL queries ordered by their 99th percentile execution time (descending)")
+	public String[] getTopP99DurationQueriesAsString()
+	{
+		return getTopQueriesAsString(Comparator.comparing(QueryStatistics::getP99Duration));
+	}
+
 	private String[] getTopQueriesAsString(final Comparator<QueryStatistics> comparing)
 	{
 		return sql2statistics.values()
@@ -371,117 +444,302 @@ public class QueryStatisticsLogger implements IQueryStatisticsLogger, IQueryStat
 				.toArray(size -> new String[size]);
 	}
 
-	private static final class CountAndDuration
+	@Override
+	public ImmutableList<SqlQueryStatistics> getTopTotalDurationQueries(final int limit)
+	{
+		return sql2statistics.values()
+				.stream()
+				.sorted(Comparator.comparing(QueryStatistics::getTotalDuration).reversed())
+				.limit(limit)
+				.map(QueryStatistics::toSqlQueryStatistics)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Override
+	@ManagedOperation(description = "Runs EXPLAIN for the slowest execution of the top SELECT queries ordered by their maximum execution time (descending)."
+			+ " If analyze is true, runs EXPLAIN (ANALYZE, BUFFERS) which is actually executing the queries, skipping the ones which are locking rows or might call functions")
+	public String[] explainSlowestQueries(final int limit, final boolean analyze)
 	{
-		public static final CountAndDuration ZERO = new CountAndDuration(0, 0, 0);
+		return sql2statistics.values()
+				.stream()
+				.filter(queryStatistics -> queryStatistics.isExplainable(analyze))
+				.sorted(Comparator.comparing(QueryStatistics::getMaxDuration).reversed())
+				.limit(limit)
+				.map(queryStatistics -> explainSlowestExecution(queryStatistics, analyze))
+				.toArray(size -> new String[size]);
+	}
 
-		private final long count;
-		private final long durationTotal;
-		private final long durationLast;
+	private String explainSlowestExecution(@NonNull final QueryStatistics queryStatistics, final boolean analyze)
+	{
+		final SlowestExecution slowestExecution = queryStatistics.getSlowestExecution();
+		final StringBuilder result = new StringBuilder()
+				.append(queryStatistics)
+				.append("\n-- Slowest execution: ").append(format(slowestExecution.getDuration(), TIMEUNIT_Internal, TIMEUNIT_Display))
+				.append("\n-- Parameters: ").append(slowestExecution.getSqlParams());
 
-		private CountAndDuration(final long count, final long durationTotal, final long durationLast)
-		{
-			this.count = count;
-			this.durationTotal = durationTotal;
-			this.durationLast = durationLast;
+		// NOTE: EXPLAIN ANALYZE is actually running the query, so we always roll back, even if we skipped the queries which are known to change something
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final String trxName = trxManager.createTrxName("QueryStatisticsLogger_explain", true);
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement((analyze ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ") + slowestExecution.getSql(), trxName);
+			DB.setParameters(pstmt, slowestExecution.getSqlParams());
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				result.append("\n").append(rs.getString(1));
+			}
 		}
-
-		@Override
-		public String toString()
+		catch (final SQLException | RuntimeException ex)
 		{
-			return getAverageDurationAsString(TIMEUNIT_Display)
-					+ ", Total " + getTotalDurationAsString(TIMEUNIT_Display);
+			logger.warn("Failed explaining {}", slowestExecution.getSql(), ex);
+			result.append("\n-- Failed explaining the query: ").append(ex.getLocalizedMessage());
 		}
-
-		public String getAverageDurationAsString(final TimeUnit timeUnit)
+		finally
 		{
-			return format(getAverageDuration(), TIMEUNIT_Internal, timeUnit) + " / " + count + " executions";
+			DB.close(rs, pstmt);
+			final ITrx trx = trxManager.get(trxName, OnTrxMissingPolicy.ReturnTrxNone);
+			if (!trxManager.isNull(trx))
+			{
+				trx.rollback();
+				trx.close();
+			}
 		}
 
-		public String getLastDurationAsString(final TimeUnit timeUnit)
+		return result.toString();
+	}
+
+	/**
+	 * @return the name of the first table after FROM, INTO or UPDATE, or null
+	 */
+	@Nullable
+	private static String extractTableName(@NonNull final String normalizedSql)
+	{
+		final String sqlUC = normalizedSql.toUpperCase();
+		final int tableNameStart;
+		if (sqlUC.startsWith("UPDATE "))
 		{
-			return format(durationLast, TIMEUNIT_Internal, timeUnit);
+			tableNameStart = "UPDATE ".length();
 		}
-
-		public String getTotalDurationAsString(final TimeUnit timeUnit)
+		else if (sqlUC.startsWith("INSERT INTO "))
 		{
-			return format(durationTotal, TIMEUNIT_Internal, timeUnit);
+			tableNameStart = "INSERT INTO ".length();
 		}
-
-		public CountAndDuration newIncrement(final long durationToAdd)
+		else
 		{
-			if (durationToAdd == 0)
+			final int fromIndex = sqlUC.indexOf(" FROM ");
+			if (fromIndex < 0)
 			{
-				return this;
+				return null;
 			}
-
-			return new CountAndDuration(count + 1, durationTotal + durationToAdd, durationToAdd);
+			tableNameStart = fromIndex + " FROM ".length();
 		}
 
-		public long getCount()
+		int tableNameEnd = tableNameStart;
+		while (tableNameEnd < normalizedSql.length())
 		{
-			return count;
+			final char ch = normalizedSql.charAt(tableNameEnd);
+			if (!Character.isLetterOrDigit(ch) && ch != '_' && ch != '.' && ch != '"')
+			{
+				break;
+			}
+			tableNameEnd++;
 		}
 
-		private double getAverageDuration()
+		return tableNameEnd > tableNameStart ? normalizedSql.substring(tableNameStart, tableNameEnd) : null;
+	}
+
+	@Value
+	private static class SlowestExecution
+	{
+		public static final SlowestExecution NONE = new SlowestExecution(null, Collections.emptyList(), 0);
+
+		@Nullable
+		String sql;
+		@NonNull
+		List<Object> sqlParams;
+		long duration;
+
+		private static List<Object> toSqlParamsList(@Nullable final Map<Integer, Object> sqlParams)
 		{
-			if (count == 0)
+			if (sqlParams == null || sqlParams.isEmpty())
 			{
-				return count;
+				return Collections.emptyList();
 			}
 
-			return durationTotal / count;
-		}
-
-		private long getTotalDuration()
-		{
-			return durationTotal;
+			// NOTE: parameters are indexed starting from 1
+			final List<Object> sqlParamsList = new ArrayList<>(new TreeMap<>(sqlParams).values());
+			return Collections.unmodifiableList(sqlParamsList);
 		}
 	}
 
 	private static final class QueryStatistics
 	{
+		private static final int MAX_CALLERS = 20;
+		private static final String CALLER_Unknown = "<unknown>";
+		private static final String CALLER_Others = "<others>";
+
 		private final String sql;
-		private final AtomicReference<CountAndDuration> countAndDurationRef;
+		private final String tableName;
+		private final LatencyHistogram durations = new LatencyHistogram();
+		private final LongAdder totalDuration = new LongAdder();
+		private final LongAdder rowsAffected = new LongAdder();
+		private final ConcurrentHashMap<String, LongAdder> countByCaller = new ConcurrentHashMap<>();
+		private final AtomicReference<SlowestExecution> slowestExecutionRef = new AtomicReference<>(SlowestExecution.NONE);
 
 		public QueryStatistics(final String sql)
 		{
-			super();
 			this.sql = sql;
-			this.countAndDurationRef = new AtomicReference<>(CountAndDuration.ZERO);
+			this.tableName = extractTableName(sql);
 		}
 
 		@Override
 		public String toString()
 		{
 			return "SQL: " + sql
-					+ "\n-- " + countAndDurationRef.get();
+					+ "\n-- " + getAverageDurationAsString(TIMEUNIT_Display)
+					+ ", Total " + format(getTotalDuration(), TIMEUNIT_Internal, TIMEUNIT_Display)
+					+ ", p50 " + format(durations.getPercentileNanos(50), TIMEUNIT_Internal, TIMEUNIT_Display)
+					+ ", p99 " + format(getP99Duration(), TIMEUNIT_Internal, TIMEUNIT_Display)
+					+ ", Max " + format(getMaxDuration(), TIMEUNIT_Internal, TIMEUNIT_Display)
+					+ (rowsAffected.sum() > 0 ? ", " + rowsAffected.sum() + " rows affected" : "")
+					+ "\n-- Table: " + tableName
+					+ "\n-- Callers: " + getCountByCaller();
+		}
+
+		public void collect(
+				final String sqlExecuted,
+				@Nullable final Map<Integer, Object> sqlParams,
+				final long duration,
+				final long rowsAffected,
+				@Nullable final String caller)
+		{
+			durations.record(duration);
+			totalDuration.add(duration);
+			if (rowsAffected > 0)
+			{
+				this.rowsAffected.add(rowsAffected);
+			}
+
+			countByCaller.computeIfAbsent(normalizeCaller(caller), k -> new LongAdder()).increment();
+
+			// Remember the slowest execution, so we can explain it later.
+			// NOTE: check first, so that we are converting the SQL parameters only in the rare case when we actually need them
+			if (duration > slowestExecutionRef.get().getDuration())
+			{
+				final SlowestExecution execution = new SlowestExecution(sqlExecuted, SlowestExecution.toSqlParamsList(sqlParams), duration);
+				slowestExecutionRef.accumulateAndGet(execution, (current, candidate) -> candidate.getDuration() > current.getDuration() ? candidate : current);
+			}
 		}
 
-		public CountAndDuration incrementAndGet(final long duration)
+		private String normalizeCaller(@Nullable final String caller)
 		{
-			return countAndDurationRef.updateAndGet(countAndDuration -> countAndDuration.newIncrement(duration));
+			final String callerNorm = caller != null ? caller : CALLER_Unknown;
+			if (countByCaller.size() >= MAX_CALLERS && !countByCaller.containsKey(callerNorm))
+			{
+				return CALLER_Others;
+			}
+			return callerNorm;
 		}
 
-		@SuppressWarnings("unused")
-		public String getSql()
+		public String getAverageDurationAsString(final TimeUnit timeUnit)
 		{
-			return sql;
+			return format(getAverageDuration(), TIMEUNIT_Internal, timeUnit) + " / " + getCount() + " executions";
 		}
 
 		public long getCount()
 		{
-			return countAndDurationRef.get().getCount();
+			return durations.getCount();
 		}
 
 		public long getTotalDuration()
 		{
-			return countAndDurationRef.get().getTotalDuration();
+			return totalDuration.sum();
 		}
 
 		private double getAverageDuration()
 		{
-			return countAndDurationRef.get().getAverageDuration();
+			final long count = getCount();
+			if (count == 0)
+			{
+				return 0;
+			}
+
+			return (double)getTotalDuration() / count;
+		}
+
+		public long getP99Duration()
+		{
+			return durations.getPercentileNanos(99);
+		}
+
+		public long getMaxDuration()
+		{
+			return durations.getMaxNanos();
+		}
+
+		public SlowestExecution getSlowestExecution()
+		{
+			return slowestExecutionRef.get();
+		}
+
+		/**
+		 * @param analyze if true, the query is going to be actually executed, so it's explainable only if it's neither locking rows nor calling functions
+		 */
+		public boolean isExplainable(final boolean analyze)
+		{
+			final String slowestSql = getSlowestExecution().getSql();
+			if (slowestSql == null)
+			{
+				return false;
+			}
+
+			final String slowestSqlUC = slowestSql.trim().toUpperCase();
+			if (!slowestSqlUC.startsWith("SELECT "))
+			{
+				return false;
+			}
+
+			return !analyze
+					|| (!PATTERN_LockingClause.matcher(slowestSqlUC).find() && !isCallingFunctions(slowestSqlUC));
+		}
+
+		private static boolean isCallingFunctions(@NonNull final String sqlUC)
+		{
+			final Matcher matcher = PATTERN_FunctionCall.matcher(sqlUC);
+			while (matcher.find())
+			{
+				if (!NOT_FUNCTION_CALLS.contains(matcher.group(1)))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private ImmutableMap<String, Long> getCountByCaller()
+		{
+			final ImmutableMap.Builder<String, Long> result = ImmutableMap.builder();
+			countByCaller.forEach((caller, count) -> result.put(caller, count.sum()));
+			return result.build();
+		}
+
+		public SqlQueryStatistics toSqlQueryStatistics()
+		{
+			return SqlQueryStatistics.builder()
+					.sql(sql)
+					.tableName(tableName)
+					.executionsCount(getCount())
+					.totalDurationMillis(convert(getTotalDuration(), TIMEUNIT_Internal, TIMEUNIT_Display))
+					.avgDurationMillis(convert(getAverageDuration(), TIMEUNIT_Internal, TIMEUNIT_Display))
+					.p50DurationMillis(convert(durations.getPercentileNanos(50), TIMEUNIT_Internal, TIMEUNIT_Display))
+					.p99DurationMillis(convert(getP99Duration(), TIMEUNIT_Internal, TIMEUNIT_Display))
+					.maxDurationMillis(convert(getMaxDuration(), TIMEUNIT_Internal, TIMEUNIT_Display))
+					.rowsAffected(rowsAffected.sum())
+					.executionsCountByCaller(getCountByCaller())
+					.build();
 		}
 	}
 }
@@ -0,0 +1,179 @@
+package org.adempiere.ad.dao.impl;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Normalizes SQL statements, so that the statements which are differing only by their inlined literals are aggregated together by {@link QueryStatisticsLogger}.
+ * <p>
+ * It's a single pass over the SQL text (no regular expressions), so it's cheap enough to be called for each executed statement.
+ */
+@UtilityClass
+class SqlNormalizer
+{
+	/**
+	 * Replaces string and numeric literals by <code>?</code>, collapses the lists of parameters (e.g. <code>IN (?,?,?)</code> becomes <code>IN (?...)</code>)
+	 * and collapses all whitespaces to one space.
+	 */
+	public String normalize(@NonNull final String sql)
+	{
+		final int length = sql.length();
+		final StringBuilder result = new StringBuilder(length);
+
+		int i = 0;
+		while (i < length)
+		{
+			final char ch = sql.charAt(i);
+
+			if (ch == '\'')
+			{
+				i = skipStringLiteral(sql, i);
+				appendParameter(result);
+			}
+			else if (Character.isDigit(ch) && !isPartOfIdentifier(result))
+			{
+				i = skipNumericLiteral(sql, i);
+				appendParameter(result);
+			}
+			else if (Character.isWhitespace(ch))
+			{
+				i++;
+				if (result.length() > 0 && result.charAt(result.length() - 1) != ' ')
+				{
+					result.append(' ');
+				}
+			}
+			else
+			{
+				i++;
+				if (ch == '?')
+				{
+					appendParameter(result);
+				}
+				else
+				{
+					result.append(ch);
+				}
+			}
+		}
+
+		return result.toString().trim();
+	}
+
+	/**
+	 * @return the position right after the closing quote; escaped quotes (<code>''</code>) are part of the literal
+	 */
+	private int skipStringLiteral(final String sql, final int startIndex)
+	{
+		final int length = sql.length();
+		int i = startIndex + 1;
+		while (i < length)
+		{
+			if (sql.charAt(i) == '\'')
+			{
+				if (i + 1 < length && sql.charAt(i + 1) == '\'')
+				{
+					i += 2;
+					continue;
+				}
+				return i + 1;
+			}
+			i++;
+		}
+		return length;
+	}
+
+	private int skipNumericLiteral(final String sql, final int startIndex)
+	{
+		final int length = sql.length();
+		int i = startIndex;
+		while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.'))
+		{
+			i++;
+		}
+		return i;
+	}
+
+	private boolean isPartOfIdentifier(final StringBuilder result)
+	{
+		if (result.length() <= 0)
+		{
+			return false;
+		}
+
+		final char previousChar = result.charAt(result.length() - 1);
+		return Character.isLetterOrDigit(previousChar) || previousChar == '_' || previousChar == '$' || previousChar == '"';
+	}
+
+	/**
+	 * Appends <code>?</code>, unless the previous token was also a parameter of the same list, in which case the list is collapsed to <code>?...</code>
+	 */
+	private void appendParameter(final StringBuilder result)
+	{
+		final int parametersListTailStart = getParametersListTailStart(result);
+		if (parametersListTailStart >= 0)
+		{
+			result.setLength(parametersListTailStart);
+			result.append("?...");
+		}
+		else
+		{
+			result.append('?');
+		}
+	}
+
+	/**
+	 * @return if the result ends with <code>?,</code> or <code>?...,</code> then the index of that <code>?</code>, else <code>-1</code>
+	 */
+	private int getParametersListTailStart(final StringBuilder result)
+	{
+		int i = skipSpacesBackward(result, result.length());
+		if (i <= 0 || result.charAt(i - 1) != ',')
+		{
+			return -1;
+		}
+
+		i = skipSpacesBackward(result, i - 1);
+		if (i >= 4 && "?...".contentEquals(result.subSequence(i - 4, i)))
+		{
+			return i - 4;
+		}
+		if (i >= 1 && result.charAt(i - 1) == '?')
+		{
+			return i - 1;
+		}
+		return -1;
+	}
+
+	private int skipSpacesBackward(final StringBuilder result, final int endIndex)
+	{
+		int i = endIndex;
+		while (i > 0 && result.charAt(i - 1) == ' ')
+		{
+			i--;
+		}
+		return i;
+	}
+}
@@ -0,0 +1,61 @@
+package org.adempiere.ad.modelvalidator;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * JMX bean for {@link ModelInterceptorsStatistics} (implementation)
+ */
+public class JMXModelInterceptorsStatistics implements JMXModelInterceptorsStatisticsMBean, IJMXNameAware
+{
+	private final ModelInterceptorsStatistics statistics;
+
+	JMXModelInterceptorsStatistics(@NonNull final ModelInterceptorsStatistics statistics)
+	{
+		this.statistics = statistics;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return ModelInterceptorsStatistics.JMX_NAME;
+	}
+
+	@Override
+	public String[] getStatistics()
+	{
+		return statistics.getStatistics()
+				.stream()
+				.map(Object::toString)
+				.toArray(String[]::new);
+	}
+
+	@Override
+	public void reset()
+	{
+		statistics.reset();
+	}
+}
@@ -0,0 +1,148 @@
+package org.adempiere.ad.modelvalidator;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects invocation counters and durations for each model interceptor, to be able to find out which interceptors are slowing down the saves.
+ *
+ * The statistics are exposed via JMX ({@link JMXModelInterceptorsStatisticsMBean}) and REST.
+ */
+public final class ModelInterceptorsStatistics
+{
+	public static final ModelInterceptorsStatistics instance = new ModelInterceptorsStatistics();
+
+	public static final String JMX_NAME = "org.adempiere.ad.modelvalidator:type=ModelInterceptorsStatistics";
+
+	private final ConcurrentHashMap<Object, InterceptorCounters> countersByInterceptor = new ConcurrentHashMap<>();
+
+	private ModelInterceptorsStatistics()
+	{
+		JMXRegistry.get().registerJMX(new JMXModelInterceptorsStatistics(this), OnJMXAlreadyExistsPolicy.Replace);
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("interceptorsCount", countersByInterceptor.size())
+				.toString();
+	}
+
+	/**
+	 * @param interceptor the model interceptor or model validator which was invoked
+	 * @param durationNanos how long the invocation took
+	 * @param failed true if the interceptor has thrown an exception
+	 */
+	public void collect(@NonNull final Object interceptor, final long durationNanos, final boolean failed)
+	{
+		countersByInterceptor
+				.computeIfAbsent(interceptor, InterceptorCounters::new)
+				.collect(durationNanos, failed);
+	}
+
+	/**
+	 * @return statistics of all interceptors which were invoked at least once, slowest first
+	 */
+	public ImmutableList<ModelInterceptorStatistics> getStatistics()
+	{
+		return countersByInterceptor.values()
+				.stream()
+				.map(InterceptorCounters::toModelInterceptorStatistics)
+				.sorted(Comparator.comparing(ModelInterceptorStatistics::getTotalDurationMillis).reversed())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public void reset()
+	{
+		countersByInterceptor.clear();
+	}
+
+	private static final class InterceptorCounters
+	{
+		private final String interceptorName;
+		private final LongAdder invocationsCount = new LongAdder();
+		private final LongAdder errorsCount = new LongAdder();
+		private final LongAdder totalDurationNanos = new LongAdder();
+		private final LongAccumulator maxDurationNanos = new LongAccumulator(Math::max, 0);
+
+		private InterceptorCounters(@NonNull final Object interceptor)
+		{
+			this.interceptorName = interceptor.toString();
+		}
+
+		public void collect(final long durationNanos, final boolean failed)
+		{
+			invocationsCount.increment();
+			if (failed)
+			{
+				errorsCount.increment();
+			}
+			totalDurationNanos.add(durationNanos);
+			maxDurationNanos.accumulate(durationNanos);
+		}
+
+		public ModelInterceptorStatistics toModelInterceptorStatistics()
+		{
+			final long invocationsCount = this.invocationsCount.sum();
+			final long totalDurationNanos = this.totalDurationNanos.sum();
+
+			return ModelInterceptorStatistics.builder()
+					.interceptorName(interceptorName)
+					.invocationsCount(invocationsCount)
+					.errorsCount(errorsCount.sum())
+					.totalDurationMillis(TimeUnit.NANOSECONDS.toMillis(totalDurationNanos))
+					.avgDurationMillis(invocationsCount > 0 ? (double)totalDurationNanos / invocationsCount / 1_000_000 : 0)
+					.maxDurationMillis(TimeUnit.NANOSECONDS.toMillis(maxDurationNanos.get()))
+					.build();
+		}
+	}
+
+	@Value
+	@Builder
+	public static class ModelInterceptorStatistics
+	{
+		@NonNull
+		String interceptorName;
+		long invocationsCount;
+		long errorsCount;
+		long totalDurationMillis;
+		double avgDurationMillis;
+		long maxDurationMillis;
+	}
+}
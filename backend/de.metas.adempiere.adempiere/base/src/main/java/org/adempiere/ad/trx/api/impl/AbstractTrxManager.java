@@ -25,12 +25,11 @@ package org.adempiere.ad.trx.api.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 import javax.annotation.Nullable;
 
@@ -69,6 +68,7 @@ import org.slf4j.Logger;
 import org.slf4j.MDC;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
 
 import ch.qos.logback.classic.Level;
 import de.metas.logging.LogManager;
@@ -91,8 +91,12 @@ public abstract class AbstractTrxManager implements ITrxManager
 	/**
 	 * Active Transactions Map: trxName to {@link ITrx}
 	 */
-	private final Map<String, ITrx> trxName2trx = new HashMap<>();
-	private final ReentrantLock trxName2trxLock = new ReentrantLock();
+	private final ConcurrentHashMap<String, ITrx> trxName2trx = new ConcurrentHashMap<>();
+	/**
+	 * Locks used to make sure that a transaction is created only once for a given trxName.
+	 * Looking up or removing a transaction does not need any of them.
+	 */
+	private final Striped<Lock> trxCreateLocks = Striped.lock(64);
 
 	private ITrxNameGenerator trxNameGenerator = DefaultTrxNameGenerator.instance;
 
@@ -107,7 +111,7 @@ public abstract class AbstractTrxManager implements ITrxManager
 	 *
 	 * If not null it will collect transactions which were cloased and removed from {@link #getActiveTransactionsList()}.
 	 */
-	private List<ITrx> debugClosedTransactionsList = null;
+	private volatile List<ITrx> debugClosedTransactionsList = null;
 	private boolean debugConnectionBackendId = false;
 
 	public AbstractTrxManager()
@@ -129,8 +133,6 @@ public abstract class AbstractTrxManager implements ITrxManager
 	/**
 	 * Creates and registers {@link ITrx} for given transaction name.
 	 *
-	 * NOTE: this method assumes that {@link #trxName2trxLock} is already locked.
-	 *
 	 * @return created transaction name
 	 */
 	@VisibleForTesting
@@ -139,7 +141,8 @@ public abstract class AbstractTrxManager implements ITrxManager
 		final ITrx trx = createTrx(trxName, autoCommit);
 		Check.assumeNotNull(trx, "trx not null"); // shall never happen, but just to make sure the contract is respected
 
-		trxName2trxLock.lock();
+		final Lock trxCreateLock = trxCreateLocks.get(trxName);
+		trxCreateLock.lock();
 		try
 		{
 			Services.get(IOpenTrxBL.class).onNewTrx(trx); // metas 02367
@@ -173,7 +176,7 @@ public abstract class AbstractTrxManager implements ITrxManager
 		}
 		finally
 		{
-			trxName2trxLock.unlock();
+			trxCreateLock.unlock();
 		}
 
 		return trx;
@@ -330,80 +333,76 @@ public abstract class AbstractTrxManager implements ITrxManager
 		}
 
 		//
-		// Get/Create the ITrx from "trxName"
-		trxName2trxLock.lock();
+		// Get the ITrx from "trxName" (no locking needed)
+		final ITrx trx = trxName2trx.get(trxName);
+		if (trx != null)
+		{
+			// transaction was found => perfect
+			return trx;
+		}
+		else if (onTrxMissingPolicy == OnTrxMissingPolicy.CreateNew)
+		{
+			return getOrCreateTrx(trxName, autoCommit);
+		}
+		else if (onTrxMissingPolicy == OnTrxMissingPolicy.Fail)
+		{
+			throw new TrxNotFoundException(this, trxName);
+		}
+		else if (onTrxMissingPolicy == OnTrxMissingPolicy.ReturnTrxNone)
+		{
+			return ITrx.TRX_None;
+		}
+		else
+		{
+			throw new OnTrxMissingPolicyNotSupportedException(onTrxMissingPolicy);
+		}
+	}	// get
+
+	private ITrx getOrCreateTrx(final String trxName, final boolean autoCommit)
+	{
+		// NOTE: the lock is reentrant, so createTrxAndRegister can lock it again.
+		// Only the threads which are creating a transaction with a name from the same stripe are waiting for each other.
+		final Lock trxCreateLock = trxCreateLocks.get(trxName);
+		trxCreateLock.lock();
 		try
 		{
-			ITrx trx = trxName2trx.get(trxName);
-			if (trx != null)
-			{
-				// transaction was found => perfect
-			}
-			else if (onTrxMissingPolicy == OnTrxMissingPolicy.CreateNew)
-			{
-				trx = createTrxAndRegister(trxName, autoCommit);
-			}
-			else if (onTrxMissingPolicy == OnTrxMissingPolicy.Fail)
+			final ITrx existingTrx = trxName2trx.get(trxName);
+			if (existingTrx != null)
 			{
-				throw new TrxNotFoundException(this, trxName);
-			}
-			else if (onTrxMissingPolicy == OnTrxMissingPolicy.ReturnTrxNone)
-			{
-				return ITrx.TRX_None;
-			}
-			else
-			{
-				throw new OnTrxMissingPolicyNotSupportedException(onTrxMissingPolicy);
+				// created meanwhile by another thread
+				return existingTrx;
 			}
 
-			return trx;
+			return createTrxAndRegister(trxName, autoCommit);
 		}
 		finally
 		{
-			trxName2trxLock.unlock();
+			trxCreateLock.unlock();
 		}
-	}	// get
+	}
 
 	@Override
 	public boolean remove(final ITrx trx)
 	{
 		final String trxName = trx.getTrxName();
 
-		trxName2trxLock.lock();
-		try
+		// NOTE: remove it only if it's still the registered one, so we don't unregister another transaction which is using the same name
+		final boolean removed = trxName2trx.remove(trxName, trx);
+		if (removed)
 		{
-			final ITrx trxOld = trxName2trx.remove(trxName);
-			if (trxOld != null)
+			final List<ITrx> debugClosedTransactionsList = this.debugClosedTransactionsList;
+			if (debugClosedTransactionsList != null)
 			{
-				if (debugClosedTransactionsList != null)
-				{
-					debugClosedTransactionsList.add(trxOld);
-				}
-				return true;
-			}
-			else
-			{
-				return false;
+				debugClosedTransactionsList.add(trx);
 			}
 		}
-		finally
-		{
-			trxName2trxLock.unlock();
-		}
+		return removed;
 	}
 
 	@Override
 	public List<ITrx> getActiveTransactionsList()
 	{
-		trxName2trxLock.lock();
-		try
-		{
-			return new ArrayList<>(trxName2trx.values());
-		}
-		finally
-		{
-			trxName2trxLock.unlock();
-		}
+		return new ArrayList<>(trxName2trx.values());
 	}
 
 	@Override
@@ -1325,26 +1324,18 @@ public abstract class AbstractTrxManager implements ITrxManager
 	}
 
 	@Override
-	public final void setDebugClosedTransactions(final boolean enabled)
+	public final synchronized void setDebugClosedTransactions(final boolean enabled)
 	{
-		trxName2trxLock.lock();
-		try
+		if (enabled)
 		{
-			if (enabled)
-			{
-				if (debugClosedTransactionsList == null)
-				{
-					debugClosedTransactionsList = new ArrayList<>();
-				}
-			}
-			else
+			if (debugClosedTransactionsList == null)
 			{
-				debugClosedTransactionsList = null;
+				debugClosedTransactionsList = Collections.synchronizedList(new ArrayList<>());
 			}
 		}
-		finally
+		else
 		{
-			trxName2trxLock.unlock();
+			debugClosedTransactionsList = null;
 		}
 	}
 
@@ -1357,18 +1348,15 @@ public abstract class AbstractTrxManager implements ITrxManager
 	@Override
 	public final List<ITrx> getDebugClosedTransactions()
 	{
-		trxName2trxLock.lock();
-		try
+		final List<ITrx> debugClosedTransactionsList = this.debugClosedTransactionsList;
+		if (debugClosedTransactionsList == null)
 		{
-			if (debugClosedTransactionsList == null)
-			{
-				return Collections.emptyList();
-			}
-			return new ArrayList<>(debugClosedTransactionsList);
+			return Collections.emptyList();
 		}
-		finally
+
+		synchronized (debugClosedTransactionsList)
 		{
-			trxName2trxLock.unlock();
+			return new ArrayList<>(debugClosedTransactionsList);
 		}
 	}
 
@@ -1387,7 +1375,7 @@ public abstract class AbstractTrxManager implements ITrxManager
 	@Override
 	public String toString()
 	{
-		return "AbstractTrxManager [trxName2trx=" + trxName2trx + ", trxName2trxLock=" + trxName2trxLock + ", trxNameGenerator=" + trxNameGenerator + ", threadLocalTrx=" + threadLocalTrx + ", threadLocalOnRunnableFail=" + threadLocalOnRunnableFail + ", debugTrxCreateStacktrace=" + debugTrxCreateStacktrace + ", debugTrxCloseStacktrace=" + debugTrxCloseStacktrace + ", debugClosedTransactionsList="
+		return "AbstractTrxManager [trxName2trx=" + trxName2trx + ", trxNameGenerator=" + trxNameGenerator + ", threadLocalTrx=" + threadLocalTrx + ", threadLocalOnRunnableFail=" + threadLocalOnRunnableFail + ", debugTrxCreateStacktrace=" + debugTrxCreateStacktrace + ", debugTrxCloseStacktrace=" + debugTrxCloseStacktrace + ", debugClosedTransactionsList="
 				+ debugClosedTransactionsList + ", debugConnectionBackendId=" + debugConnectionBackendId + "]";
 	}
 
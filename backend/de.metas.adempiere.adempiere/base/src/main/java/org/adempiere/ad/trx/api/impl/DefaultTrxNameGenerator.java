@@ -24,6 +24,7 @@ package org.adempiere.ad.trx.api.impl;
 
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.adempiere.ad.trx.api.ITrxNameGenerator;
 
@@ -41,22 +42,32 @@ public class DefaultTrxNameGenerator implements ITrxNameGenerator
 
 	public static final String TRXNAME_PREFIX_DEFAULT = "Trx";
 
+	/** Length of a UUID's string representation */
+	private static final int UUID_LENGTH = 36;
+
 	@Override
 	public String createTrxName(final String prefix)
 	{
-		final StringBuilder trxName = new StringBuilder();
-
-		if (prefix == null || prefix.isEmpty())
-		{
-			trxName.append(TRXNAME_PREFIX_DEFAULT);
-		}
-		else
-		{
-			trxName.append(prefix);
-		}
+		final String prefixToUse = prefix == null || prefix.isEmpty() ? TRXNAME_PREFIX_DEFAULT : prefix;
 
-		trxName.append("_").append(UUID.randomUUID());
+		return new StringBuilder(prefixToUse.length() + 1 + UUID_LENGTH)
+				.append(prefixToUse)
+				.append("_")
+				.append(randomUUID())
+				.toString();
+	}
 
-		return trxName.toString();
+	/**
+	 * Creates a random (version 4) UUID.
+	 * <p>
+	 * Unlike {@link UUID#randomUUID()}, it's not using the (shared and synchronized) SecureRandom, so threads which are starting transactions are not blocking each other.
+	 * A transaction name needs to be unique, but not unpredictable.
+	 */
+	private static UUID randomUUID()
+	{
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final long mostSigBits = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L; // version 4
+		final long leastSigBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L; // IETF variant
+		return new UUID(mostSigBits, leastSigBits);
 	}
 }
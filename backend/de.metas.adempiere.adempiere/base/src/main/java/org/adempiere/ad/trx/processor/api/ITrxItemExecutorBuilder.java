@@ -25,11 +25,17 @@ package org.adempiere.ad.trx.processor.api;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrxSavepoint;
 import org.adempiere.ad.trx.processor.spi.ITrxItemProcessor;
 import org.adempiere.ad.trx.processor.spi.TrxItemProcessorAdapter;
+import org.adempiere.util.lang.IAutoCloseable;
 
 import com.google.common.base.Preconditions;
 
@@ -85,6 +91,8 @@ public interface ITrxItemExecutorBuilder<IT, RT>
 
 	/**
 	 * Builds the executor
+	 * <p>
+	 * NOTE: not supported when processing in parallel (see {@link #setParallelism(int, Function)}), because there is no single processor; use {@link #process(Iterator)} instead.
 	 *
 	 * @return executor
 	 */
@@ -125,7 +133,7 @@ public interface ITrxItemExecutorBuilder<IT, RT>
 	{
 		Preconditions.checkNotNull(processor, "processor is null");
 
-		setProcessor(new TrxItemProcessorAdapter<IT, RT>()
+		setProcessorFactory(() -> new TrxItemProcessorAdapter<IT, RT>()
 		{
 			@Override
 			public void process(IT item) throws Exception
@@ -136,6 +144,44 @@ public interface ITrxItemExecutorBuilder<IT, RT>
 		return this;
 	}
 
+	/**
+	 * Configures a factory which creates a new processor instance each time it's called.
+	 * Use it instead of {@link #setProcessor(ITrxItemProcessor)} if you want to process the items in parallel (see {@link #setParallelism(int, Function)}),
+	 * because each worker needs its own processor.
+	 */
+	ITrxItemExecutorBuilder<IT, RT> setProcessorFactory(Supplier<? extends ITrxItemProcessor<IT, RT>> processorFactory);
+
+	/**
+	 * Configures the executor to process the items in parallel.
+	 * <p>
+	 * The items are distributed to <code>parallelism</code> workers, each running in its own thread, with its own processor (see {@link #setProcessorFactory(Supplier)})
+	 * and processing each chunk in its own transaction. So this is allowed only if the context has no transaction (see {@link #setContext(Properties, String)}).
+	 * The error handling (exception handler, {@link OnItemErrorPolicy}) applies to each worker like in the sequential case.
+	 * <p>
+	 * Please make sure the exception handler and the code called by the processor are thread-safe.
+	 * Parallel processing is available only through {@link #process(Iterator)}.
+	 *
+	 * @param parallelism how many workers shall process the items; if less than or equal to one, the items are processed sequentially, in the calling thread (default)
+	 * @param partitionKeyFunction items having the same partition key are processed by the same worker, in the order they are provided.
+	 *            If <code>null</code>, the items are distributed round-robin.
+	 */
+	ITrxItemExecutorBuilder<IT, RT> setParallelism(int parallelism, @Nullable Function<? super IT, ?> partitionKeyFunction);
+
+	/**
+	 * Sets how the results of the workers shall be merged, in case the items are processed in parallel (see {@link #setParallelism(int, Function)}).
+	 * If not set, at most one worker is allowed to return a not-null result.
+	 */
+	ITrxItemExecutorBuilder<IT, RT> setResultsMerger(BinaryOperator<RT> resultsMerger);
+
+	/**
+	 * Sets up the thread-local state (e.g. flags, loggables) which the processor requires, in case the items are processed in parallel (see {@link #setParallelism(int, Function)}).
+	 * <p>
+	 * The initializer is called on each worker thread before it processes its first item. The returned closeable is closed on the same thread
+	 * after the worker completed and committed all its chunks, so the state is available during the whole chunk lifecycle.
+	 * When processing sequentially, the initializer is not called, because the items are processed in the caller's thread.
+	 */
+	ITrxItemExecutorBuilder<IT, RT> setWorkerThreadInitializer(Supplier<IAutoCloseable> workerThreadInitializer);
+
 	/**
 	 * Sets exception handler to be used if processing fails.
 	 *
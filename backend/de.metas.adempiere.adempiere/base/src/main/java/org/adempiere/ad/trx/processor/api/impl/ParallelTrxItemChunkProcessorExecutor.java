@@ -0,0 +1,323 @@
+package org.adempiere.ad.trx.processor.api.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.processor.api.ITrxItemExceptionHandler;
+import org.adempiere.ad.trx.processor.api.ITrxItemExecutorBuilder.OnItemErrorPolicy;
+import org.adempiere.ad.trx.processor.api.ITrxItemProcessorContext;
+import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutor;
+import org.adempiere.ad.trx.processor.spi.ITrxItemChunkProcessor;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.google.common.collect.AbstractIterator;
+
+import de.metas.util.Services;
+import de.metas.util.collections.IteratorUtils;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Executor which distributes the items to a fixed number of workers, each of them running a {@link TrxItemChunkProcessorExecutor} in its own thread.
+ *
+ * NOTE: it's not an {@link ITrxItemProcessorExecutor}, because there is no single processor; it's used by {@link TrxItemExecutorBuilder#process(Iterator)}.
+ *
+ * Items having the same partition key are always processed by the same worker, in the order they were provided.
+ * Each worker has its own processor instance and processes each chunk in its own transaction.
+ * The error handling is the one of {@link TrxItemChunkProcessorExecutor}, applied on each worker.
+ *
+ * @param <IT> item type
+ * @param <RT> result type
+ */
+@ToString(of = { "parallelism", "onItemErrorPolicy" })
+class ParallelTrxItemChunkProcessorExecutor<IT, RT>
+{
+	// services
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private static final int WORKER_QUEUE_CAPACITY = 1000;
+	private static final long WORKER_QUEUE_OFFER_TIMEOUT_MILLIS = 100;
+	private static final Object END_OF_ITEMS = new Object();
+
+	//
+	// Configuration parameters
+	private final ITrxItemProcessorContext processorCtx;
+	private final Supplier<ITrxItemChunkProcessor<IT, RT>> processorFactory;
+	private final OnItemErrorPolicy onItemErrorPolicy;
+	private final ITrxItemExceptionHandler exceptionHandler;
+	private final boolean useTrxSavepoints;
+	private final int parallelism;
+	private final Function<? super IT, ?> partitionKeyFunction;
+	private final BinaryOperator<RT> resultsMerger;
+	private final Supplier<IAutoCloseable> workerThreadInitializer;
+
+	ParallelTrxItemChunkProcessorExecutor(
+			@NonNull final ITrxItemProcessorContext processorCtx,
+			@NonNull final Supplier<ITrxItemChunkProcessor<IT, RT>> processorFactory,
+			@NonNull final ITrxItemExceptionHandler exceptionHandler,
+			@NonNull final OnItemErrorPolicy onItemErrorPolicy,
+			final boolean useTrxSavepoints,
+			final int parallelism,
+			@Nullable final Function<? super IT, ?> partitionKeyFunction,
+			@Nullable final BinaryOperator<RT> resultsMerger,
+			@Nullable final Supplier<IAutoCloseable> workerThreadInitializer)
+	{
+		if (parallelism <= 1)
+		{
+			throw new AdempiereException("parallelism shall be greater than one but it was " + parallelism);
+		}
+
+		this.processorCtx = processorCtx;
+		this.processorFactory = processorFactory;
+		this.exceptionHandler = exceptionHandler;
+		this.onItemErrorPolicy = onItemErrorPolicy;
+		this.useTrxSavepoints = useTrxSavepoints;
+		this.parallelism = parallelism;
+		this.partitionKeyFunction = partitionKeyFunction;
+		this.resultsMerger = resultsMerger;
+		this.workerThreadInitializer = workerThreadInitializer;
+	}
+
+	public RT execute(@NonNull final Iterator<? extends IT> items)
+	{
+		// Workers can't share the caller's transaction
+		if (!trxManager.isNull(processorCtx.getTrx()))
+		{
+			IteratorUtils.closeQuietly(items);
+			throw new AdempiereException("Parallel processing is allowed only if each chunk is processed in its own transaction, but the context has the transaction " + processorCtx.getTrx());
+		}
+
+		final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(ParallelTrxItemChunkProcessorExecutor.class.getSimpleName() + "-");
+		threadFactory.setDaemon(true);
+		final ExecutorService workersPool = Executors.newFixedThreadPool(parallelism, threadFactory);
+		try
+		{
+			final List<Worker> workers = new ArrayList<>(parallelism);
+			for (int i = 0; i < parallelism; i++)
+			{
+				final Worker worker = new Worker();
+				worker.future = workersPool.submit(worker);
+				workers.add(worker);
+			}
+
+			dispatchItems(items, workers);
+
+			return mergeResults(getWorkerResults(workers));
+		}
+		finally
+		{
+			workersPool.shutdownNow();
+		}
+	}
+
+	private void dispatchItems(final Iterator<? extends IT> items, final List<Worker> workers)
+	{
+		try
+		{
+			int itemIndex = 0;
+			while (items.hasNext())
+			{
+				final IT item = items.next();
+				final Worker worker = workers.get(getWorkerIndex(item, itemIndex++));
+				if (!worker.enqueue(item))
+				{
+					// the worker stopped (i.e. failed), so there is no point to continue
+					// NOTE: the error will be propagated when the worker results are fetched
+					break;
+				}
+			}
+		}
+		finally
+		{
+			IteratorUtils.closeQuietly(items);
+			workers.forEach(Worker::endOfItems);
+		}
+	}
+
+	private int getWorkerIndex(final IT item, final int itemIndex)
+	{
+		if (partitionKeyFunction == null)
+		{
+			return itemIndex % parallelism;
+		}
+
+		final Object partitionKey = partitionKeyFunction.apply(item);
+		return Math.floorMod(Objects.hashCode(partitionKey), parallelism);
+	}
+
+	private List<RT> getWorkerResults(final List<Worker> workers)
+	{
+		final List<RT> results = new ArrayList<>(workers.size());
+		for (final Worker worker : workers)
+		{
+			try
+			{
+				results.add(worker.future.get());
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			catch (final ExecutionException ex)
+			{
+				throw AdempiereException.wrapIfNeeded(ex.getCause());
+			}
+		}
+		return results;
+	}
+
+	private RT mergeResults(final List<RT> results)
+	{
+		RT mergedResult = null;
+		for (final RT result : results)
+		{
+			if (result == null)
+			{
+				continue;
+			}
+			else if (mergedResult == null)
+			{
+				mergedResult = result;
+			}
+			else if (resultsMerger != null)
+			{
+				mergedResult = resultsMerger.apply(mergedResult, result);
+			}
+			else
+			{
+				throw new AdempiereException("More than one worker returned a result but no results merger was configured")
+						.appendParametersToMessage()
+						.setParameter("executor", this)
+						.setParameter("results", results);
+			}
+		}
+		return mergedResult;
+	}
+
+	private final class Worker implements Callable<RT>
+	{
+		private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY);
+		private Future<RT> future;
+
+		@Override
+		public RT call()
+		{
+			final ITrxItemProcessorContext workerCtx = processorCtx.copy();
+			try (final IAutoCloseable ctxRestorer = Env.switchContext(Env.copyCtx(workerCtx.getCtx()));
+					final IAutoCloseable workerThreadRestorer = initializeWorkerThread())
+			{
+				final TrxItemChunkProcessorExecutor<IT, RT> executor = new TrxItemChunkProcessorExecutor<>(
+						workerCtx,
+						processorFactory.get(),
+						exceptionHandler,
+						onItemErrorPolicy,
+						useTrxSavepoints);
+
+				return executor.execute(new QueueIterator());
+			}
+		}
+
+		private IAutoCloseable initializeWorkerThread()
+		{
+			if (workerThreadInitializer == null)
+			{
+				return () -> {};
+			}
+			return workerThreadInitializer.get();
+		}
+
+		/**
+		 * @return false if the worker stopped and the item was not enqueued
+		 */
+		public boolean enqueue(final IT item)
+		{
+			return enqueue0(item);
+		}
+
+		public void endOfItems()
+		{
+			enqueue0(END_OF_ITEMS);
+		}
+
+		private boolean enqueue0(final Object item)
+		{
+			try
+			{
+				while (!queue.offer(item, WORKER_QUEUE_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+				{
+					if (future.isDone())
+					{
+						return false;
+					}
+				}
+				return true;
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+		}
+
+		private final class QueueIterator extends AbstractIterator<IT>
+		{
+			@Override
+			@SuppressWarnings("unchecked")
+			protected IT computeNext()
+			{
+				try
+				{
+					final Object item = queue.take();
+					return item == END_OF_ITEMS ? endOfData() : (IT)item;
+				}
+				catch (final InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+					throw AdempiereException.wrapIfNeeded(ex);
+				}
+			}
+		}
+	}
+}
@@ -24,6 +24,11 @@ package org.adempiere.ad.trx.processor.api.impl;
 
 import java.util.Iterator;
 import java.util.Properties;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -33,6 +38,8 @@ import org.adempiere.ad.trx.processor.api.ITrxItemProcessorContext;
 import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutor;
 import org.adempiere.ad.trx.processor.spi.ITrxItemChunkProcessor;
 import org.adempiere.ad.trx.processor.spi.ITrxItemProcessor;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.Env;
 
 import de.metas.util.Check;
@@ -51,6 +58,7 @@ import lombok.NonNull;
 	private String _trxName = ITrx.TRXNAME_ThreadInherited;
 
 	private ITrxItemProcessor<IT, RT> _processor;
+	private Supplier<? extends ITrxItemProcessor<IT, RT>> _processorFactory;
 	private ITrxItemExceptionHandler _exceptionHandler = ITrxItemProcessorExecutor.DEFAULT_ExceptionHandler;
 
 	private boolean _useTrxSavepoints = ITrxItemProcessorExecutor.DEFAULT_UseTrxSavepoints;
@@ -59,6 +67,11 @@ import lombok.NonNull;
 
 	private OnItemErrorPolicy _onItemErrorPolicy = ITrxItemProcessorExecutor.DEFAULT_OnItemErrorPolicy; // #302
 
+	private int _parallelism = 1;
+	private Function<? super IT, ?> _partitionKeyFunction = null;
+	private BinaryOperator<RT> _resultsMerger = null;
+	private Supplier<IAutoCloseable> _workerThreadInitializer = null;
+
 	public TrxItemExecutorBuilder(@NonNull final TrxItemProcessorExecutorService executorService)
 	{
 		this.executorService = executorService;
@@ -67,6 +80,11 @@ import lombok.NonNull;
 	@Override
 	public RT process(final Iterator<? extends IT> items)
 	{
+		if (isParallel())
+		{
+			return buildParallelExecutor().execute(items);
+		}
+
 		// Create and configure the executor
 		final ITrxItemProcessorExecutor<IT, RT> executor = build();
 
@@ -78,11 +96,17 @@ import lombok.NonNull;
 	@Override
 	public ITrxItemProcessorExecutor<IT, RT> build()
 	{
+		if (isParallel())
+		{
+			// the parallel executor has no single processor, so it can't honor the ITrxItemProcessorExecutor contract
+			throw new AdempiereException("Parallel processing can't be built as " + ITrxItemProcessorExecutor.class.getSimpleName() + "; please use process(...) instead");
+		}
+
 		// Create processing context
 		final ITrxItemProcessorContext processorCtx = createProcessorContext();
 
 		// Get the processor and wrap it
-		final ITrxItemChunkProcessor<IT, RT> processor = createProcessor();
+		final ITrxItemChunkProcessor<IT, RT> processor = createProcessor(getProcessor());
 
 		// Create and configure the executor
 		final TrxItemChunkProcessorExecutor<IT, RT> executor = new TrxItemChunkProcessorExecutor<>(processorCtx,
@@ -94,10 +118,27 @@ import lombok.NonNull;
 		return executor;
 	}
 
-	private final ITrxItemChunkProcessor<IT, RT> createProcessor()
+	private boolean isParallel()
+	{
+		return _parallelism > 1;
+	}
+
+	private ParallelTrxItemChunkProcessorExecutor<IT, RT> buildParallelExecutor()
 	{
-		ITrxItemProcessor<IT, RT> processor = getProcessor();
+		final Supplier<? extends ITrxItemProcessor<IT, RT>> processorFactory = getProcessorFactoryForParallelProcessing();
+		return new ParallelTrxItemChunkProcessorExecutor<>(createProcessorContext(),
+				() -> createProcessor(processorFactory.get()),
+				getExceptionHandler(),
+				_onItemErrorPolicy,
+				_useTrxSavepoints,
+				_parallelism,
+				_partitionKeyFunction,
+				_resultsMerger,
+				_workerThreadInitializer);
+	}
 
+	private final ITrxItemChunkProcessor<IT, RT> createProcessor(@NonNull ITrxItemProcessor<IT, RT> processor)
+	{
 		if (itemsPerBatch != null)
 		{
 			processor = FixedBatchTrxItemProcessor.of(processor, itemsPerBatch);
@@ -148,13 +189,36 @@ import lombok.NonNull;
 	public ITrxItemExecutorBuilder<IT, RT> setProcessor(final ITrxItemProcessor<IT, RT> processor)
 	{
 		this._processor = processor;
+		this._processorFactory = null;
+		return this;
+	}
+
+	@Override
+	public ITrxItemExecutorBuilder<IT, RT> setProcessorFactory(@NonNull final Supplier<? extends ITrxItemProcessor<IT, RT>> processorFactory)
+	{
+		this._processor = null;
+		this._processorFactory = processorFactory;
 		return this;
 	}
 
 	private final ITrxItemProcessor<IT, RT> getProcessor()
 	{
-		Check.assumeNotNull(_processor, "processor is set");
-		return _processor;
+		if (_processor != null)
+		{
+			return _processor;
+		}
+
+		Check.assumeNotNull(_processorFactory, "processor is set");
+		return _processorFactory.get();
+	}
+
+	private Supplier<? extends ITrxItemProcessor<IT, RT>> getProcessorFactoryForParallelProcessing()
+	{
+		if (_processorFactory == null)
+		{
+			throw new AdempiereException("A processor factory is required when processing in parallel, because each worker needs its own processor");
+		}
+		return _processorFactory;
 	}
 
 	@Override
@@ -196,4 +260,26 @@ import lombok.NonNull;
 		this._useTrxSavepoints = useTrxSavepoints;
 		return this;
 	}
+
+	@Override
+	public ITrxItemExecutorBuilder<IT, RT> setParallelism(final int parallelism, @Nullable final Function<? super IT, ?> partitionKeyFunction)
+	{
+		this._parallelism = parallelism;
+		this._partitionKeyFunction = partitionKeyFunction;
+		return this;
+	}
+
+	@Override
+	public ITrxItemExecutorBuilder<IT, RT> setResultsMerger(@NonNull final BinaryOperator<RT> resultsMerger)
+	{
+		this._resultsMerger = resultsMerger;
+		return this;
+	}
+
+	@Override
+	public ITrxItemExecutorBuilder<IT, RT> setWorkerThreadInitializer(@NonNull final Supplier<IAutoCloseable> workerThreadInitializer)
+	{
+		this._workerThreadInitializer = workerThreadInitializer;
+		return this;
+	}
 }
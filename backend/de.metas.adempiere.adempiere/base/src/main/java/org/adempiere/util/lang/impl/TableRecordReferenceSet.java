@@ -163,11 +163,16 @@ public final class TableRecordReferenceSet implements Iterable<TableRecordRefere
 				.mapToObj(idMapper);
 	}
 
-	public String getSingleTableName()
+	public ImmutableSet<String> getTableNames()
 	{
-		final ImmutableSet<String> tableNames = recordRefs.stream()
+		return recordRefs.stream()
 				.map(TableRecordReference::getTableName)
 				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	public String getSingleTableName()
+	{
+		final ImmutableSet<String> tableNames = getTableNames();
 		if (tableNames.isEmpty())
 		{
 			throw new AdempiereException("No tablename");
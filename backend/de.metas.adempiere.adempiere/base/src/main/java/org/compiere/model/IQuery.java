@@ -598,4 +598,30 @@ public interface IQuery<T>
 	{
 		return list(clazz).stream();
 	}
+
+	/**
+	 * Return a lazy stream of all records that match the query criteria, ordered by their primary key.
+	 * <p>
+	 * The records are loaded page by page, using keyset pagination (i.e. each page is loaded with <code>WHERE KeyColumn > lastKeyOfPreviousPage</code>),
+	 * so loading a page costs the same, no matter how many records were already loaded. Only the current page is kept in memory
+	 * and no database resources are held between pages, so it's safe to commit while consuming the stream.
+	 * <p>
+	 * Use it for processing or exporting a big number of records. The query's own ORDER BY is ignored.
+	 *
+	 * @param clazz all resulting models will be converted to this interface
+	 * @param pageSize how many records to load at once
+	 */
+	default <ET extends T> Stream<ET> streamUsingKeysetPagination(final Class<ET> clazz, final int pageSize) throws DBException
+	{
+		throw new UnsupportedOperationException("Keyset pagination is not supported by " + this);
+	}
+
+	/**
+	 * Same as {@link #streamUsingKeysetPagination(Class, int)}, but instead of loading the models, only the given columns are loaded, as ColumnName to Value maps (see {@link #listColumns(String...)}).
+	 * The primary key column is always included.
+	 */
+	default Stream<Map<String, Object>> streamColumnsUsingKeysetPagination(final int pageSize, final String... columnNames) throws DBException
+	{
+		throw new UnsupportedOperationException("Keyset pagination is not supported by " + this);
+	}
 }
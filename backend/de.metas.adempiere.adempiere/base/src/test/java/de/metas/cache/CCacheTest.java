@@ -34,6 +34,8 @@ import org.junit.Test;
 
 import com.google.common.collect.ImmutableMap;
 
+import de.metas.cache.CCache.CCacheStats;
+
 public class CCacheTest
 {
 	public static class MyUncheckedException extends RuntimeException
@@ -244,4 +246,60 @@ public class CCacheTest
 		cache.remove("k1");
 		assertThat(removedItems).containsEntry("k1", "v1");
 	}
+
+	@Test
+	public void test_weigher_estimatedWeight()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.weigher((key, value) -> value.length())
+				.build();
+		assertThat(cache.isWeighted()).isTrue();
+
+		cache.put("k1", "1234");
+		cache.put("k2", "123456");
+		assertThat(cache.getEstimatedWeight()).isEqualTo(10);
+
+		cache.put("k1", "12"); // replace
+		assertThat(cache.getEstimatedWeight()).isEqualTo(8);
+
+		cache.remove("k2");
+		assertThat(cache.getEstimatedWeight()).isEqualTo(2);
+
+		cache.reset();
+		assertThat(cache.getEstimatedWeight()).isEqualTo(0);
+	}
+
+	@Test
+	public void test_maximumWeight()
+	{
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.weigher(CacheWeigher.ofFixedEntrySize(10))
+				.maximumWeight(100L)
+				.build();
+
+		for (int i = 1; i <= 50; i++)
+		{
+			cache.put(i, "value" + i);
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(10);
+		assertThat(cache.getEstimatedWeight()).isLessThanOrEqualTo(100);
+		assertThat(cache.stats().getEvictionCount()).isGreaterThanOrEqualTo(40);
+	}
+
+	@Test
+	public void test_stats()
+	{
+		final CCache<String, String> cache = new CCache<>("Test", 10);
+
+		cache.getOrLoad("k1", () -> "v1"); // miss + load
+		cache.getOrLoad("k1", () -> "v1"); // hit
+		cache.get("k2"); // miss
+
+		final CCacheStats stats = cache.stats();
+		assertThat(stats.getSize()).isEqualTo(1);
+		assertThat(stats.getHitCount()).isEqualTo(1);
+		assertThat(stats.getMissCount()).isEqualTo(2);
+		assertThat(stats.getLoadCount()).isEqualTo(1);
+	}
 }
@@ -1,4 +1,4 @@
-package org.adempiere.ad.dao.cache;
+package de.metas.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -39,6 +39,10 @@ public class CacheInvalidateMultiRequestSerializerTest
 		final String json = jsonSerializer.toJson(multiRequest);
 		final CacheInvalidateMultiRequest multiRequest2 = jsonSerializer.fromJson(json);
 		assertThat(multiRequest2).isEqualTo(multiRequest);
+
+		final String compactString = jsonSerializer.toCompactString(multiRequest);
+		final CacheInvalidateMultiRequest multiRequest3 = jsonSerializer.fromCompactString(compactString);
+		assertThat(multiRequest3).isEqualTo(multiRequest);
 	}
 
 	@Test
@@ -73,4 +77,43 @@ public class CacheInvalidateMultiRequestSerializerTest
 				.childRecord("SomeChildTable", 456)
 				.build());
 	}
+
+	@Test
+	void request_childRecordWithoutRoot()
+	{
+		testSerializeDeserialize(CacheInvalidateRequest.builder()
+				.childRecord("SomeChildTable", 456)
+				.build());
+	}
+
+	@Test
+	void request_allChildRecordsWithoutRoot()
+	{
+		testSerializeDeserialize(CacheInvalidateRequest.builder()
+				.childTable("SomeChildTable")
+				.build());
+	}
+
+	@Test
+	void request_childRecordOfAllRootRecords()
+	{
+		testSerializeDeserialize(CacheInvalidateRequest.builder()
+				.rootTable("SomeRootTable")
+				.childRecord("SomeChildTable", 456)
+				.build());
+	}
+
+	@Test
+	void multiRequest_mixed()
+	{
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.of(
+				CacheInvalidateRequest.rootRecord("SomeTable", 1),
+				CacheInvalidateRequest.allRecordsForTable("SomeOtherTable"),
+				CacheInvalidateRequest.rootRecord("SomeTable", 2),
+				CacheInvalidateRequest.builder().childTable("SomeChildTable").build());
+
+		final String compactString = jsonSerializer.toCompactString(multiRequest);
+		final CacheInvalidateMultiRequest multiRequest2 = jsonSerializer.fromCompactString(compactString);
+		assertThat(multiRequest2).isEqualTo(multiRequest);
+	}
 }
@@ -2,11 +2,20 @@ package de.metas.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.event.Event;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.impl.PlainEventBusFactory;
+import de.metas.event.remote.RabbitMQEventBusConfiguration;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -32,6 +41,11 @@ import de.metas.event.Event;
 
 class CacheInvalidationRemoteHandlerTest
 {
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+	}
 
 	@Test
 	void createEventFromRequest()
@@ -45,4 +59,78 @@ class CacheInvalidationRemoteHandlerTest
 		assertThat(result).isNotNull();
 	}
 
+	@Test
+	void createRequestFromEvent()
+	{
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.of(
+				CacheInvalidateRequest.builder().rootRecord("SomeRootTable", 123).childRecord("SomeChildTable", 456).build(),
+				CacheInvalidateRequest.builder().childRecord("SomeChildTable", 789).build(),
+				CacheInvalidateRequest.allChildRecords("SomeRootTable", 124, "SomeChildTable"),
+				CacheInvalidateRequest.allRecordsForTable("SomeTable"),
+				CacheInvalidateRequest.rootRecord("SomeRootTable", 1),
+				CacheInvalidateRequest.rootRecord("SomeRootTable", 2),
+				CacheInvalidateRequest.rootRecord("SomeOtherRootTable", 3));
+
+		final Event event = CacheInvalidationRemoteHandler.instance.createEventFromRequest(multiRequest);
+		final CacheInvalidateMultiRequest result = CacheInvalidationRemoteHandler.instance.createRequestFromEvent(event);
+
+		assertThat(result).isEqualTo(multiRequest);
+	}
+
+	@Test
+	void createEventFromRequest_legacyJsonIsSentForOlderNodes()
+	{
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.rootRecord("SomeRootTable", 1);
+		final CacheInvalidationRemoteHandler handler = CacheInvalidationRemoteHandler.instance;
+		try
+		{
+			handler.setSendLegacyJson(true);
+			final Event event = handler.createEventFromRequest(multiRequest);
+			final String jsonRequest = event.getProperty(CacheInvalidateRequest.class.getSimpleName());
+			assertThat(new CacheInvalidateMultiRequestSerializer().fromJson(jsonRequest)).isEqualTo(multiRequest);
+
+			handler.setSendLegacyJson(false);
+			final Event compactOnlyEvent = handler.createEventFromRequest(multiRequest);
+			assertThat((Object)compactOnlyEvent.getProperty(CacheInvalidateRequest.class.getSimpleName())).isNull();
+			assertThat(handler.createRequestFromEvent(compactOnlyEvent)).isEqualTo(multiRequest);
+		}
+		finally
+		{
+			handler.setSendLegacyJson(true);
+		}
+	}
+
+	@Test
+	void createRequestFromEvent_all()
+	{
+		final Event event = CacheInvalidationRemoteHandler.instance.createEventFromRequest(CacheInvalidateMultiRequest.all());
+		final CacheInvalidateMultiRequest result = CacheInvalidationRemoteHandler.instance.createRequestFromEvent(event);
+
+		assertThat(result.isResetAll()).isTrue();
+	}
+
+	@Test
+	void postEvent_recordsAreCoalesced()
+	{
+		final PlainEventBusFactory eventBusFactory = PlainEventBusFactory.newInstance();
+		Services.registerService(IEventBusFactory.class, eventBusFactory);
+
+		final List<Event> eventsPosted = new ArrayList<>();
+		eventBusFactory.getEventBus(RabbitMQEventBusConfiguration.CacheInvalidationQueueConfiguration.EVENTBUS_TOPIC).subscribe(eventsPosted::add);
+
+		final CacheInvalidationRemoteHandler handler = CacheInvalidationRemoteHandler.instance;
+		handler.enableForTableName("SomeTableToBroadcast");
+
+		final List<CacheInvalidateRequest> requests = new ArrayList<>();
+		for (int recordId = 1; recordId <= 1000; recordId++)
+		{
+			requests.add(CacheInvalidateRequest.rootRecord("SomeTableToBroadcast", recordId));
+		}
+		handler.postEvent(CacheInvalidateMultiRequest.of(requests));
+
+		assertThat(eventsPosted).hasSize(1);
+		assertThat(handler.createRequestFromEvent(eventsPosted.get(0)))
+				.isEqualTo(CacheInvalidateMultiRequest.allRecordsForTable("SomeTableToBroadcast"));
+	}
+
 }
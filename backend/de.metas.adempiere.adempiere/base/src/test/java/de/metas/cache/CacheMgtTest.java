@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.util.lang.impl.TableRecordReference;
@@ -104,6 +105,73 @@ public class CacheMgtTest
 		invoiceLineCache.assertRecordInvalidated(TableRecordReference.of("C_InvoiceLine", 2));
 	}
 
+	@Test
+	public void memoryBudgetPerLabel()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final CacheLabel label = CacheLabel.ofTableName("TableWithMemoryBudget");
+		cacheManager.setMemoryBudgetBytes(label, 100);
+		cacheManager.setMemoryBudgetCheckIntervalMillis(0);
+		try
+		{
+			final CCache<Integer, String> cache1 = CCache.<Integer, String> builder()
+					.tableName(label.getName())
+					.weigher(CacheWeigher.ofFixedEntrySize(10))
+					.build();
+			final CCache<Integer, String> cache2 = CCache.<Integer, String> builder()
+					.tableName(label.getName())
+					.weigher(CacheWeigher.ofFixedEntrySize(10))
+					.build();
+
+			for (int i = 1; i <= 8; i++)
+			{
+				cache1.put(i, "value" + i);
+				cache2.put(i, "value" + i);
+			}
+
+			assertThat(cache1.getEstimatedWeight() + cache2.getEstimatedWeight()).isLessThanOrEqualTo(100);
+		}
+		finally
+		{
+			cacheManager.setMemoryBudgetBytes(label, 0);
+			cacheManager.setMemoryBudgetCheckIntervalMillis(1000);
+		}
+	}
+
+	@Test
+	public void memoryBudgetPerLabel_isNotOverrunWhileEvictionIsThrottled()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final CacheLabel label = CacheLabel.ofTableName("TableWithThrottledMemoryBudget");
+		cacheManager.setMemoryBudgetBytes(label, 100);
+		cacheManager.setMemoryBudgetCheckIntervalMillis(TimeUnit.HOURS.toMillis(1));
+		try
+		{
+			final CCache<Integer, String> cache1 = CCache.<Integer, String> builder()
+					.tableName(label.getName())
+					.weigher(CacheWeigher.ofFixedEntrySize(10))
+					.build();
+			final CCache<Integer, String> cache2 = CCache.<Integer, String> builder()
+					.tableName(label.getName())
+					.weigher(CacheWeigher.ofFixedEntrySize(10))
+					.build();
+
+			for (int i = 1; i <= 8; i++)
+			{
+				cache1.put(i, "value" + i);
+				cache2.put(i, "value" + i);
+			}
+
+			// the full eviction pass ran only once, but after that the cache which was added to was shrunk each time the budget was exceeded
+			assertThat(cache1.getEstimatedWeight() + cache2.getEstimatedWeight()).isLessThanOrEqualTo(100);
+		}
+		finally
+		{
+			cacheManager.setMemoryBudgetBytes(label, 0);
+			cacheManager.setMemoryBudgetCheckIntervalMillis(1000);
+		}
+	}
+
 	private static class AssertCache implements CacheInterface
 	{
 		public static AssertCache newForTableName(final String tableName)
@@ -0,0 +1,145 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class CoalescingCacheInvalidationBroadcasterTest
+{
+	@Test
+	void coalesce_resetAll()
+	{
+		final CacheInvalidateMultiRequest result = CoalescingCacheInvalidationBroadcaster.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("T1", 1),
+						CacheInvalidateRequest.all()),
+				100);
+
+		assertThat(result.isResetAll()).isTrue();
+	}
+
+	@Test
+	void coalesce_recordsCoveredByAllRecords()
+	{
+		final CacheInvalidateMultiRequest result = CoalescingCacheInvalidationBroadcaster.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("T1", 1),
+						CacheInvalidateRequest.rootRecord("T1", 2),
+						CacheInvalidateRequest.allRecordsForTable("T1"),
+						CacheInvalidateRequest.rootRecord("T2", 1)),
+				100);
+
+		assertThat(result.getRequests()).containsOnly(
+				CacheInvalidateRequest.allRecordsForTable("T1"),
+				CacheInvalidateRequest.rootRecord("T2", 1));
+	}
+
+	@Test
+	void coalesce_tooManyRecordsForTable()
+	{
+		final CacheInvalidateMultiRequest result = CoalescingCacheInvalidationBroadcaster.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("T1", 1),
+						CacheInvalidateRequest.rootRecord("T1", 2),
+						CacheInvalidateRequest.rootRecord("T1", 3),
+						CacheInvalidateRequest.rootRecord("T2", 1)),
+				2);
+
+		assertThat(result.getRequests()).containsOnly(
+				CacheInvalidateRequest.allRecordsForTable("T1"),
+				CacheInvalidateRequest.rootRecord("T2", 1));
+	}
+
+	@Test
+	void coalesce_childRecordsAreKept()
+	{
+		final CacheInvalidateRequest childRequest = CacheInvalidateRequest.builder()
+				.rootRecord("T1", 1)
+				.childRecord("T2", 2)
+				.build();
+
+		final CacheInvalidateMultiRequest result = CoalescingCacheInvalidationBroadcaster.coalesce(
+				ImmutableList.of(
+						childRequest,
+						CacheInvalidateRequest.allRecordsForTable("T2")),
+				100);
+
+		assertThat(result.getRequests()).containsOnly(
+				childRequest,
+				CacheInvalidateRequest.allRecordsForTable("T2"));
+	}
+
+	@Test
+	void broadcast_bufferedUntilFlush()
+	{
+		final List<CacheInvalidateMultiRequest> sent = new ArrayList<>();
+		final CoalescingCacheInvalidationBroadcaster broadcaster = CoalescingCacheInvalidationBroadcaster.builder()
+				.sender(sent::add)
+				.bufferDelayMillis(60 * 60 * 1000) // 1h, we flush manually
+				.maxRecordsPerTable(100)
+				.build();
+
+		broadcaster.broadcast(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+		broadcaster.broadcast(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+		broadcaster.broadcast(CacheInvalidateMultiRequest.rootRecord("T1", 2));
+		assertThat(sent).isEmpty();
+
+		broadcaster.flush();
+		assertThat(sent).hasSize(1);
+		assertThat(sent.get(0).getRequests()).containsOnly(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.rootRecord("T1", 2));
+
+		broadcaster.flush();
+		assertThat(sent).hasSize(1);
+	}
+
+	@Test
+	void broadcast_flushWhenBufferIsFull()
+	{
+		final List<CacheInvalidateMultiRequest> sent = new ArrayList<>();
+		final CoalescingCacheInvalidationBroadcaster broadcaster = CoalescingCacheInvalidationBroadcaster.builder()
+				.sender(sent::add)
+				.bufferDelayMillis(60 * 60 * 1000) // 1h
+				.bufferMaxSize(3)
+				.build();
+
+		broadcaster.broadcast(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+		broadcaster.broadcast(CacheInvalidateMultiRequest.rootRecord("T1", 2));
+		assertThat(sent).isEmpty();
+
+		broadcaster.broadcast(CacheInvalidateMultiRequest.rootRecord("T1", 3));
+		assertThat(sent).hasSize(1);
+		assertThat(sent.get(0).getRequests()).hasSize(3);
+	}
+}
@@ -0,0 +1,114 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class KeysetPaginationIteratorTest
+{
+	/** Simulates a table whose keys are 10, 20, 30... and records the <code>lastKey</code> of each page request. */
+	private static class MockedPageLoader implements KeysetPaginationIterator.PageLoader<Integer>
+	{
+		private final List<Integer> rows;
+		private final List<Integer> requestedLastKeys = new ArrayList<>();
+
+		private MockedPageLoader(final int rowsCount)
+		{
+			rows = IntStream.rangeClosed(1, rowsCount).map(i -> i * 10).boxed().collect(Collectors.toList());
+		}
+
+		@Override
+		public List<Integer> loadPageAfter(final Integer lastKey, final int pageSize)
+		{
+			requestedLastKeys.add(lastKey);
+			return rows.stream()
+					.filter(key -> lastKey == null || key > lastKey)
+					.limit(pageSize)
+					.collect(Collectors.toList());
+		}
+	}
+
+	private static List<Integer> iterateAll(final MockedPageLoader pageLoader, final int pageSize)
+	{
+		return new KeysetPaginationIterator<>(pageSize, pageLoader, Integer::intValue)
+				.stream()
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void lastPageIsPartial()
+	{
+		final MockedPageLoader pageLoader = new MockedPageLoader(5);
+
+		assertThat(iterateAll(pageLoader, 2)).containsExactly(10, 20, 30, 40, 50);
+		assertThat(pageLoader.requestedLastKeys).containsExactly(null, 20, 40);
+	}
+
+	@Test
+	public void rowsCountIsMultipleOfPageSize()
+	{
+		final MockedPageLoader pageLoader = new MockedPageLoader(4);
+
+		assertThat(iterateAll(pageLoader, 2)).containsExactly(10, 20, 30, 40);
+		assertThat(pageLoader.requestedLastKeys).containsExactly(null, 20, 40);
+	}
+
+	@Test
+	public void noRows()
+	{
+		final MockedPageLoader pageLoader = new MockedPageLoader(0);
+
+		assertThat(iterateAll(pageLoader, 2)).isEmpty();
+		assertThat(pageLoader.requestedLastKeys).containsExactly((Integer)null);
+	}
+
+	@Test
+	public void pagesAreLoadedLazily()
+	{
+		final MockedPageLoader pageLoader = new MockedPageLoader(10);
+
+		final List<Integer> firstRows = new KeysetPaginationIterator<>(3, pageLoader, Integer::intValue)
+				.stream()
+				.limit(4)
+				.collect(Collectors.toList());
+
+		assertThat(firstRows).containsExactly(10, 20, 30, 40);
+		assertThat(pageLoader.requestedLastKeys).containsExactly(null, 30);
+	}
+
+	@Test
+	public void invalidPageSize()
+	{
+		assertThatThrownBy(() -> new KeysetPaginationIterator<>(0, new MockedPageLoader(1), Integer::intValue))
+				.isInstanceOf(AdempiereException.class);
+	}
+}
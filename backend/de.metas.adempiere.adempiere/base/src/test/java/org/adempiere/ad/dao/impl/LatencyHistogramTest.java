@@ -0,0 +1,70 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LatencyHistogramTest
+{
+	@Test
+	public void empty()
+	{
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getPercentileNanos(99)).isZero();
+		assertThat(histogram.getMaxNanos()).isZero();
+	}
+
+	@Test
+	public void percentiles()
+	{
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++)
+		{
+			histogram.record(i * 1000L);
+		}
+
+		assertThat(histogram.getCount()).isEqualTo(1000);
+		assertThat(histogram.getMaxNanos()).isEqualTo(1_000_000);
+		assertThat(histogram.getPercentileNanos(50)).isBetween(500_000L, 562_500L);
+		assertThat(histogram.getPercentileNanos(99)).isBetween(990_000L, 1_000_000L);
+		assertThat(histogram.getPercentileNanos(100)).isEqualTo(1_000_000);
+	}
+
+	@Test
+	public void bucketsAreCoveringAllValues()
+	{
+		for (long value = 0; value < 10_000; value++)
+		{
+			final int bucketIndex = LatencyHistogram.bucketIndex(value);
+			assertThat(LatencyHistogram.bucketUpperBound(bucketIndex)).isGreaterThanOrEqualTo(value);
+			if (bucketIndex > 0)
+			{
+				assertThat(LatencyHistogram.bucketUpperBound(bucketIndex - 1)).isLessThan(value);
+			}
+		}
+	}
+}
@@ -29,6 +29,7 @@ import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -42,6 +43,8 @@ import org.compiere.model.I_M_Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.process.PInstanceId;
 
 public class QueryBuilderTests
@@ -333,4 +336,33 @@ public class QueryBuilderTests
 		final List<I_M_Product> result = query.list();
 		assertThat(result).containsExactly(product0, product1, product2, product3, product4);
 	}
+
+	@Test
+	public void streamUsingKeysetPagination_ignoresOrderByAndSortsByKey()
+	{
+		final IQuery<I_M_Product> query = new QueryBuilder<>(I_M_Product.class, null) // tableName=null
+				.orderByDescending(I_M_Product.COLUMNNAME_M_Product_ID)
+				.create();
+
+		assertThat(query.streamUsingKeysetPagination(I_M_Product.class, 2))
+				.containsExactly(product0, product1_NotActive, product2);
+	}
+
+	@Test
+	public void streamColumnsUsingKeysetPagination_includesKeyColumn()
+	{
+		final IQuery<I_M_Product> query = new QueryBuilder<>(I_M_Product.class, null) // tableName=null
+				.orderByDescending(I_M_Product.COLUMNNAME_M_Product_ID)
+				.create();
+
+		final List<Map<String, Object>> rows = query.streamColumnsUsingKeysetPagination(2, I_M_Product.COLUMNNAME_IsActive)
+				.collect(ImmutableList.toImmutableList());
+
+		assertThat(rows)
+				.extracting(row -> row.get(I_M_Product.COLUMNNAME_M_Product_ID))
+				.containsExactly(product0.getM_Product_ID(), product1_NotActive.getM_Product_ID(), product2.getM_Product_ID());
+		assertThat(rows)
+				.extracting(row -> row.get(I_M_Product.COLUMNNAME_IsActive))
+				.containsExactly(true, false, true);
+	}
 }
@@ -0,0 +1,65 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlNormalizerTest
+{
+	@Test
+	public void literalsAreReplaced()
+	{
+		assertThat(SqlNormalizer.normalize("SELECT * FROM C_Order WHERE C_Order_ID=1000123 AND DocStatus='CO' AND Name='it''s'"))
+				.isEqualTo("SELECT * FROM C_Order WHERE C_Order_ID=? AND DocStatus=? AND Name=?");
+	}
+
+	@Test
+	public void numbersInIdentifiersAreKept()
+	{
+		assertThat(SqlNormalizer.normalize("SELECT Value2, \"Column1\" FROM T1 WHERE Qty > 1.5"))
+				.isEqualTo("SELECT Value2, \"Column1\" FROM T1 WHERE Qty > ?");
+	}
+
+	@Test
+	public void parameterListsAreCollapsed()
+	{
+		assertThat(SqlNormalizer.normalize("SELECT * FROM T WHERE A IN (1, 2,3) AND B IN (?,?) AND C IN ('x')"))
+				.isEqualTo("SELECT * FROM T WHERE A IN (?...) AND B IN (?...) AND C IN (?)");
+	}
+
+	@Test
+	public void whitespacesAreCollapsed()
+	{
+		assertThat(SqlNormalizer.normalize("  SELECT *\n\tFROM T\r\n  WHERE A=?  "))
+				.isEqualTo("SELECT * FROM T WHERE A=?");
+	}
+
+	@Test
+	public void updateParametersAreNotCollapsed()
+	{
+		assertThat(SqlNormalizer.normalize("UPDATE T SET A=?, B=? WHERE T_ID=?"))
+				.isEqualTo("UPDATE T SET A=?, B=? WHERE T_ID=?");
+	}
+}
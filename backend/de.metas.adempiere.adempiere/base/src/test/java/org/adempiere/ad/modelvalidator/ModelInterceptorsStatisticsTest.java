@@ -0,0 +1,83 @@
+package org.adempiere.ad.modelvalidator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.modelvalidator.ModelInterceptorsStatistics.ModelInterceptorStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ModelInterceptorsStatisticsTest
+{
+	private final ModelInterceptorsStatistics statistics = ModelInterceptorsStatistics.instance;
+
+	@BeforeEach
+	@AfterEach
+	public void reset()
+	{
+		statistics.reset();
+	}
+
+	@Test
+	public void collect_and_sort_slowest_first()
+	{
+		final String fastInterceptor = "FastInterceptor";
+		final String slowInterceptor = "SlowInterceptor";
+
+		statistics.collect(fastInterceptor, TimeUnit.MILLISECONDS.toNanos(1), false);
+		statistics.collect(fastInterceptor, TimeUnit.MILLISECONDS.toNanos(3), true);
+		statistics.collect(slowInterceptor, TimeUnit.MILLISECONDS.toNanos(100), false);
+
+		final List<ModelInterceptorStatistics> result = statistics.getStatistics();
+		assertThat(result).hasSize(2);
+
+		final ModelInterceptorStatistics slow = result.get(0);
+		assertThat(slow.getInterceptorName()).isEqualTo(slowInterceptor);
+		assertThat(slow.getInvocationsCount()).isEqualTo(1);
+		assertThat(slow.getErrorsCount()).isZero();
+		assertThat(slow.getTotalDurationMillis()).isEqualTo(100);
+
+		final ModelInterceptorStatistics fast = result.get(1);
+		assertThat(fast.getInterceptorName()).isEqualTo(fastInterceptor);
+		assertThat(fast.getInvocationsCount()).isEqualTo(2);
+		assertThat(fast.getErrorsCount()).isEqualTo(1);
+		assertThat(fast.getTotalDurationMillis()).isEqualTo(4);
+		assertThat(fast.getAvgDurationMillis()).isEqualTo(2);
+		assertThat(fast.getMaxDurationMillis()).isEqualTo(3);
+	}
+
+	@Test
+	public void reset_clears_statistics()
+	{
+		statistics.collect("SomeInterceptor", 1, false);
+
+		statistics.reset();
+
+		assertThat(statistics.getStatistics()).isEmpty();
+	}
+}
@@ -25,7 +25,16 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -609,6 +618,53 @@ public class TrxManagerTest
 		Assert.assertEquals(expectedTrx, trxManager.getTrx(ITrx.TRXNAME_ThreadInherited));
 	}
 
+	@Test
+	public void test_get_CreateNew_ConcurrentlyWithSameTrxName() throws Exception
+	{
+		final int threadsCount = 16;
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+		try
+		{
+			final CountDownLatch startSignal = new CountDownLatch(1);
+			final List<Future<ITrx>> futures = new ArrayList<>();
+			for (int i = 0; i < threadsCount; i++)
+			{
+				futures.add(executor.submit(() -> {
+					startSignal.await();
+					return trxManager.get("ConcurrentTrx", OnTrxMissingPolicy.CreateNew);
+				}));
+			}
+			startSignal.countDown();
+
+			final Set<ITrx> trxs = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (final Future<ITrx> future : futures)
+			{
+				trxs.add(future.get(10, TimeUnit.SECONDS));
+			}
+
+			assertThat(trxs).hasSize(1);
+			assertThat(trxManager.getActiveTransactionsList()).containsExactlyElementsOf(trxs);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void test_remove_DoesNotRemoveNewerTrxWithSameName()
+	{
+		final ITrx trx1 = trxManager.get("TestTrx", OnTrxMissingPolicy.CreateNew);
+		trx1.close();
+		assertInActiveTransactionList(trx1, false);
+
+		final ITrx trx2 = trxManager.get("TestTrx", OnTrxMissingPolicy.CreateNew);
+		assertThat(trx2).isNotSameAs(trx1);
+
+		assertThat(trxManager.remove(trx1)).isFalse();
+		assertInActiveTransactionList(trx2, true);
+	}
+
 	@Test
 	public void test_getTrx_NotExistingTrxName()
 	{
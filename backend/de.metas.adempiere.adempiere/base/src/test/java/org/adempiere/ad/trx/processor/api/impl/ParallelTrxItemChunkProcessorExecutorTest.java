@@ -0,0 +1,296 @@
+package org.adempiere.ad.trx.processor.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.ad.trx.api.impl.PlainTrxManager;
+import org.adempiere.ad.trx.processor.api.FailTrxItemExceptionHandler;
+import org.adempiere.ad.trx.processor.api.ITrxItemExecutorBuilder;
+import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutorService;
+import org.adempiere.ad.trx.processor.spi.TrxItemProcessorAdapter;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ParallelTrxItemChunkProcessorExecutorTest
+{
+	private ITrxManager trxManager;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final PlainTrxManager plainTrxManager = (PlainTrxManager)Services.get(ITrxManager.class);
+		plainTrxManager.setFailCommitIfTrxNotStarted(false);
+		plainTrxManager.setFailRollbackIfTrxNotStarted(false);
+		this.trxManager = plainTrxManager;
+	}
+
+	private static List<Integer> createItems(final int count)
+	{
+		return IntStream.rangeClosed(1, count).boxed().collect(Collectors.toList());
+	}
+
+	private ITrxItemExecutorBuilder<Integer, Integer> newExecutor()
+	{
+		return Services.get(ITrxItemProcessorExecutorService.class)
+				.<Integer, Integer> createExecutor()
+				.setContext(Env.getCtx(), ITrx.TRXNAME_None)
+				.setExceptionHandler(FailTrxItemExceptionHandler.instance);
+	}
+
+	/** Counts the processed items and records the thread and the transaction on which they were processed */
+	private class CountingProcessor extends TrxItemProcessorAdapter<Integer, Integer>
+	{
+		private final Map<Integer, String> threadNamesByKey;
+		private final Map<Integer, List<Integer>> itemsByKey;
+		private int countProcessed = 0;
+
+		private CountingProcessor(final Map<Integer, String> threadNamesByKey, final Map<Integer, List<Integer>> itemsByKey)
+		{
+			this.threadNamesByKey = threadNamesByKey;
+			this.itemsByKey = itemsByKey;
+		}
+
+		@Override
+		public void process(final Integer item) throws Exception
+		{
+			assertThat(trxManager.isNull(getTrxName())).isFalse();
+			assertThat(trxManager.getThreadInheritedTrxName()).isEqualTo(getTrxName());
+
+			final int key = partitionKey(item);
+			final String threadName = Thread.currentThread().getName();
+			final String previousThreadName = threadNamesByKey.putIfAbsent(key, threadName);
+			assertThat(previousThreadName).isIn(null, threadName);
+			itemsByKey.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(item);
+
+			countProcessed++;
+		}
+
+		@Override
+		public Integer getResult()
+		{
+			return countProcessed;
+		}
+	}
+
+	private static int partitionKey(final Integer item)
+	{
+		return item % 7;
+	}
+
+	@Test
+	public void items_with_same_key_are_processed_by_same_worker_in_order()
+	{
+		final List<Integer> items = createItems(100);
+		final Map<Integer, String> threadNamesByKey = new ConcurrentHashMap<>();
+		final Map<Integer, List<Integer>> itemsByKey = new ConcurrentHashMap<>();
+
+		final Integer countProcessed = newExecutor()
+				.setItemsPerBatch(5)
+				.setParallelism(4, ParallelTrxItemChunkProcessorExecutorTest::partitionKey)
+				.setProcessorFactory(() -> new CountingProcessor(threadNamesByKey, itemsByKey))
+				.setResultsMerger(Integer::sum)
+				.process(items);
+
+		assertThat(countProcessed).isEqualTo(100);
+		assertThat(itemsByKey).hasSize(7);
+		itemsByKey.forEach((key, itemsOfKey) -> assertThat(itemsOfKey)
+				.isSorted()
+				.allMatch(item -> partitionKey(item) == key));
+	}
+
+	@Test
+	public void worker_thread_initializer_is_applied_for_the_whole_worker_lifecycle()
+	{
+		final ThreadLocal<Boolean> workerThreadInitialized = ThreadLocal.withInitial(() -> false);
+		final AtomicInteger countInitialized = new AtomicInteger(0);
+		final AtomicInteger countClosed = new AtomicInteger(0);
+		final AtomicInteger countCommittedWithState = new AtomicInteger(0);
+		final AtomicInteger countCommittedWithoutState = new AtomicInteger(0);
+
+		final Integer countProcessed = newExecutor()
+				.setItemsPerBatch(5)
+				.setParallelism(4, ParallelTrxItemChunkProcessorExecutorTest::partitionKey)
+				.setWorkerThreadInitializer(() -> {
+					countInitialized.incrementAndGet();
+					workerThreadInitialized.set(true);
+					return () -> {
+						workerThreadInitialized.set(false);
+						countClosed.incrementAndGet();
+					};
+				})
+				.setProcessorFactory(() -> new TrxItemProcessorAdapter<Integer, Integer>()
+				{
+					private int countProcessedByWorker = 0;
+
+					@Override
+					public void process(final Integer item)
+					{
+						assertThat(workerThreadInitialized.get()).isTrue();
+						trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.Fail)
+								.getTrxListenerManager()
+								.newEventListener(TrxEventTiming.AFTER_COMMIT)
+								.registerHandlingMethod(trx -> (workerThreadInitialized.get() ? countCommittedWithState : countCommittedWithoutState).incrementAndGet());
+						countProcessedByWorker++;
+					}
+
+					@Override
+					public Integer getResult()
+					{
+						return countProcessedByWorker;
+					}
+				})
+				.setResultsMerger(Integer::sum)
+				.process(createItems(100));
+
+		assertThat(countProcessed).isEqualTo(100);
+		assertThat(countInitialized.get()).isEqualTo(4);
+		assertThat(countClosed.get()).isEqualTo(4);
+		assertThat(countCommittedWithState.get()).isGreaterThan(0);
+		assertThat(countCommittedWithoutState.get()).isZero();
+	}
+
+	@Test
+	public void fails_when_more_results_and_no_results_merger()
+	{
+		final ITrxItemExecutorBuilder<Integer, Integer> executor = newExecutor()
+				.setParallelism(2, null)
+				.setProcessorFactory(() -> new CountingProcessor(new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+
+		assertThatThrownBy(() -> executor.process(createItems(10)))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("no results merger");
+	}
+
+	@Test
+	public void fails_when_running_in_external_trx()
+	{
+		final ITrxItemExecutorBuilder<Integer, Integer> executor = newExecutor()
+				.setParallelism(2, null)
+				.setProcessorFactory(() -> new CountingProcessor(new ConcurrentHashMap<>(), new ConcurrentHashMap<>()))
+				.setResultsMerger(Integer::sum);
+
+		trxManager.runInNewTrx(() -> {
+			executor.setContext(Env.getCtx(), ITrx.TRXNAME_ThreadInherited);
+			assertThatThrownBy(() -> executor.process(createItems(10)))
+					.isInstanceOf(AdempiereException.class)
+					.hasMessageContaining("own transaction");
+		});
+	}
+
+	@Test
+	public void fails_when_no_processor_factory()
+	{
+		final ITrxItemExecutorBuilder<Integer, Integer> executor = newExecutor()
+				.setParallelism(2, null)
+				.setProcessor(new CountingProcessor(new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+
+		assertThatThrownBy(() -> executor.process(createItems(10)))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("processor factory");
+	}
+
+	@Test
+	public void fails_when_building_parallel_executor()
+	{
+		final ITrxItemExecutorBuilder<Integer, Integer> executor = newExecutor()
+				.setParallelism(2, null)
+				.setProcessorFactory(() -> new CountingProcessor(new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+
+		assertThatThrownBy(executor::build)
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("process(...)");
+	}
+
+	/**
+	 * Makes each worker wait on its first item until all the other workers reached their first item too.
+	 * That's only possible if the workers are really running in parallel; otherwise the barrier times out and the test fails.
+	 */
+	@Test
+	public void workers_are_processing_in_parallel()
+	{
+		final int parallelism = 4;
+		final CyclicBarrier allWorkersStarted = new CyclicBarrier(parallelism);
+		final AtomicInteger countInFlight = new AtomicInteger(0);
+		final AtomicInteger maxInFlight = new AtomicInteger(0);
+
+		final Integer countProcessed = newExecutor()
+				.setItemsPerBatch(1)
+				.setParallelism(parallelism, ParallelTrxItemChunkProcessorExecutorTest::partitionKey)
+				.setProcessorFactory(() -> new TrxItemProcessorAdapter<Integer, Integer>()
+				{
+					private int countProcessedByWorker = 0;
+
+					@Override
+					public void process(final Integer item) throws Exception
+					{
+						maxInFlight.accumulateAndGet(countInFlight.incrementAndGet(), Math::max);
+						try
+						{
+							if (countProcessedByWorker == 0)
+							{
+								allWorkersStarted.await(10, TimeUnit.SECONDS);
+							}
+							countProcessedByWorker++;
+						}
+						finally
+						{
+							countInFlight.decrementAndGet();
+						}
+					}
+
+					@Override
+					public Integer getResult()
+					{
+						return countProcessedByWorker;
+					}
+				})
+				.setResultsMerger(Integer::sum)
+				.process(createItems(40));
+
+		assertThat(countProcessed).isEqualTo(40);
+		assertThat(maxInFlight.get()).isEqualTo(parallelism);
+	}
+}
@@ -0,0 +1,157 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.MSequence.TableIdRange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MSequenceTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		MSequence.onSequenceCacheReset(CacheInvalidateMultiRequest.all());
+	}
+
+	/** Allocates consecutive ranges of given size from one AD_Sequence, like the AD_Sequence.CurrentNext update does */
+	private static class RangeAllocator implements Supplier<TableIdRange>
+	{
+		private final int sequenceId;
+		private final int incrementNo;
+		private final int count;
+		private int currentNext;
+		private final List<Integer> allocatedFirstIds = new ArrayList<>();
+
+		private RangeAllocator(final int sequenceId, final int currentNext, final int incrementNo, final int count)
+		{
+			this.sequenceId = sequenceId;
+			this.currentNext = currentNext;
+			this.incrementNo = incrementNo;
+			this.count = count;
+		}
+
+		@Override
+		public TableIdRange get()
+		{
+			final int firstId = currentNext;
+			currentNext += incrementNo * count;
+			allocatedFirstIds.add(firstId);
+			return new TableIdRange(sequenceId, firstId, incrementNo, count);
+		}
+	}
+
+	private static List<Integer> nextIDs(final String tableName, final RangeAllocator rangeAllocator, final int count)
+	{
+		final List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+		{
+			ids.add(MSequence.nextPreallocatedID(tableName, rangeAllocator));
+		}
+		return ids;
+	}
+
+	@Test
+	public void nextPreallocatedID_allocatesTheIDsInBlocks()
+	{
+		final RangeAllocator rangeAllocator = new RangeAllocator(10, 1000, 1, 3);
+
+		assertThat(nextIDs("Test_Table", rangeAllocator, 7)).containsExactly(1000, 1001, 1002, 1003, 1004, 1005, 1006);
+		assertThat(rangeAllocator.allocatedFirstIds).containsExactly(1000, 1003, 1006);
+	}
+
+	@Test
+	public void nextPreallocatedID_considersTheIncrement()
+	{
+		final RangeAllocator rangeAllocator = new RangeAllocator(10, 1000, 10, 2);
+
+		assertThat(nextIDs("Test_Table", rangeAllocator, 3)).containsExactly(1000, 1010, 1020);
+		assertThat(rangeAllocator.allocatedFirstIds).containsExactly(1000, 1020);
+	}
+
+	@Test
+	public void nextPreallocatedID_keepsTheBlocksPerTable()
+	{
+		final RangeAllocator rangeAllocator1 = new RangeAllocator(10, 1000, 1, 3);
+		final RangeAllocator rangeAllocator2 = new RangeAllocator(20, 5000, 1, 3);
+
+		assertThat(MSequence.nextPreallocatedID("Test_Table1", rangeAllocator1)).isEqualTo(1000);
+		assertThat(MSequence.nextPreallocatedID("Test_Table2", rangeAllocator2)).isEqualTo(5000);
+		assertThat(MSequence.nextPreallocatedID("Test_Table1", rangeAllocator1)).isEqualTo(1001);
+		assertThat(MSequence.nextPreallocatedID("Test_Table2", rangeAllocator2)).isEqualTo(5001);
+	}
+
+	@Test
+	public void onSequenceCacheReset_discardsOnlyTheBlocksOfTheChangedSequence()
+	{
+		final RangeAllocator rangeAllocator1 = new RangeAllocator(10, 1000, 1, 3);
+		final RangeAllocator rangeAllocator2 = new RangeAllocator(20, 5000, 1, 3);
+		assertThat(MSequence.nextPreallocatedID("Test_Table1", rangeAllocator1)).isEqualTo(1000);
+		assertThat(MSequence.nextPreallocatedID("Test_Table2", rangeAllocator2)).isEqualTo(5000);
+
+		// e.g. AD_Sequence_ID=10 was reset to CurrentNext=2000
+		rangeAllocator1.currentNext = 2000;
+		final long countDiscarded = MSequence.onSequenceCacheReset(CacheInvalidateMultiRequest.rootRecord(I_AD_Sequence.Table_Name, 10));
+
+		assertThat(countDiscarded).isEqualTo(1);
+		assertThat(MSequence.nextPreallocatedID("Test_Table1", rangeAllocator1)).isEqualTo(2000);
+		assertThat(MSequence.nextPreallocatedID("Test_Table2", rangeAllocator2)).isEqualTo(5001);
+	}
+
+	@Test
+	public void onSequenceCacheReset_ignoresOtherTables()
+	{
+		final RangeAllocator rangeAllocator = new RangeAllocator(10, 1000, 1, 3);
+		assertThat(MSequence.nextPreallocatedID("Test_Table", rangeAllocator)).isEqualTo(1000);
+
+		final long countDiscarded = MSequence.onSequenceCacheReset(CacheInvalidateMultiRequest.rootRecord("Test_Table", 10));
+
+		assertThat(countDiscarded).isZero();
+		assertThat(MSequence.nextPreallocatedID("Test_Table", rangeAllocator)).isEqualTo(1001);
+	}
+
+	@Test
+	public void onSequenceCacheReset_discardsAllBlocks_ifAllSequencesChanged()
+	{
+		final RangeAllocator rangeAllocator1 = new RangeAllocator(10, 1000, 1, 3);
+		final RangeAllocator rangeAllocator2 = new RangeAllocator(20, 5000, 1, 3);
+		assertThat(MSequence.nextPreallocatedID("Test_Table1", rangeAllocator1)).isEqualTo(1000);
+		assertThat(MSequence.nextPreallocatedID("Test_Table2", rangeAllocator2)).isEqualTo(5000);
+
+		final long countDiscarded = MSequence.onSequenceCacheReset(CacheInvalidateMultiRequest.allRecordsForTable(I_AD_Sequence.Table_Name));
+
+		assertThat(countDiscarded).isEqualTo(2);
+		assertThat(MSequence.nextPreallocatedID("Test_Table1", rangeAllocator1)).isEqualTo(1003);
+		assertThat(MSequence.nextPreallocatedID("Test_Table2", rangeAllocator2)).isEqualTo(5003);
+	}
+}
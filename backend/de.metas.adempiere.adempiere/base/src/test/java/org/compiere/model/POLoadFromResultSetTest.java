@@ -0,0 +1,255 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.DisplayType;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class POLoadFromResultSetTest
+{
+	private static final String TABLE_NAME = "Test_Record";
+	private static final String COLUMNSQL_LinesQty = "(SELECT SUM(l.Qty) FROM Test_Line l WHERE l.Test_Record_ID=Test_Record.Test_Record_ID)";
+
+	private static final Timestamp CREATED = Timestamp.valueOf("2021-03-04 05:06:07");
+
+	/** Needed by {@link TestPO#initPO(Properties)}, which is called from PO's constructor */
+	private static POInfo poInfo;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		poInfo = new POInfo(
+				12345,
+				TABLE_NAME,
+				ImmutableList.of(
+						column(1, "Test_Record_ID", null, DisplayType.ID, true),
+						column(2, "Name", null, DisplayType.String, false),
+						column(3, "LinesQty", COLUMNSQL_LinesQty, DisplayType.Quantity, false),
+						lazyLoadingColumn(column(4, "Description", null, DisplayType.Text, false)),
+						column(5, "Qty", null, DisplayType.Quantity, false),
+						column(6, "IsActive", null, DisplayType.YesNo, false),
+						column(7, "Created", null, DisplayType.DateTime, false)));
+	}
+
+	private static POInfoColumn column(final int adColumnId, final String columnName, final String columnSQL, final int displayType, final boolean isKey)
+	{
+		return new POInfoColumn(
+				adColumnId, TABLE_NAME, columnName, columnSQL, displayType,
+				false, // isMandatory
+				true, // isUpdateable
+				null, // defaultLogic
+				columnName, // columnLabel
+				null, // columnDescription
+				isKey,
+				false, // isParent
+				-1, // AD_Reference_Value_ID
+				-1, // AD_Val_Rule_ID
+				0, // fieldLength
+				null, // valueMin
+				null, // valueMax
+				false, // isTranslated
+				false, // isEncrypted
+				true); // isAllowLogging
+	}
+
+	private static POInfoColumn lazyLoadingColumn(final POInfoColumn column)
+	{
+		column.IsLazyLoading = true;
+		return column;
+	}
+
+	private static class TestPO extends PO
+	{
+		private static final long serialVersionUID = 1L;
+
+		private TestPO(final Properties ctx)
+		{
+			super(ctx, 0, null);
+		}
+
+		@Override
+		protected POInfo initPO(final Properties ctx)
+		{
+			return poInfo;
+		}
+	}
+
+	/**
+	 * @return result set whose current row has given column labels and values; if <code>columnsByName</code> is false, the columns can be fetched only by position
+	 */
+	private static ResultSet resultSet(final List<String> columnLabels, final Map<String, Object> values, final boolean columnsByName)
+	{
+		final Object[] lastValue = new Object[1];
+		return Mockito.mock(ResultSet.class, invocation -> {
+			final String methodName = invocation.getMethod().getName();
+			if ("wasNull".equals(methodName))
+			{
+				return lastValue[0] == null;
+			}
+
+			final Object columnRef = invocation.getArguments().length == 1 ? invocation.getArgument(0) : null;
+			final int position;
+			if (columnRef instanceof Integer)
+			{
+				position = (Integer)columnRef;
+			}
+			else if (columnRef instanceof String && columnsByName)
+			{
+				position = columnLabels.indexOf(columnRef) + 1;
+			}
+			else
+			{
+				throw new SQLException("Not supported: " + invocation);
+			}
+			if (position < 1 || position > columnLabels.size())
+			{
+				throw new SQLException("Column not found: " + columnRef);
+			}
+
+			if ("findColumn".equals(methodName))
+			{
+				return position;
+			}
+
+			final Object value = values.get(columnLabels.get(position - 1));
+			lastValue[0] = value;
+			if ("getInt".equals(methodName))
+			{
+				return value != null ? (Integer)value : 0;
+			}
+			else if ("getString".equals(methodName))
+			{
+				return value != null ? value.toString() : null;
+			}
+			else
+			{
+				return value;
+			}
+		});
+	}
+
+	private static Map<String, Object> values()
+	{
+		final Map<String, Object> values = new HashMap<>();
+		values.put("Test_Record_ID", 1001);
+		values.put("Name", "name1");
+		values.put("LinesQty", new BigDecimal("7"));
+		values.put("Qty", new BigDecimal("12.5"));
+		values.put("IsActive", "Y");
+		values.put("Created", CREATED);
+		return values;
+	}
+
+	@Test
+	public void sqlSelect_skipsTheLazyLoadingColumns()
+	{
+		assertThat(poInfo.getSqlSelect())
+				.isEqualTo("SELECT Test_Record_ID,Name," + COLUMNSQL_LinesQty + " AS LinesQty,Qty,IsActive,Created\n FROM Test_Record");
+
+		assertThat(poInfo.getSqlSelectColumnPosition(poInfo.getColumnIndex("Test_Record_ID"))).isEqualTo(1);
+		assertThat(poInfo.getSqlSelectColumnPosition(poInfo.getColumnIndex("LinesQty"))).isEqualTo(3);
+		assertThat(poInfo.getSqlSelectColumnPosition(poInfo.getColumnIndex("Description"))).isEqualTo(-1);
+		assertThat(poInfo.getSqlSelectColumnPosition(poInfo.getColumnIndex("Qty"))).isEqualTo(4);
+		assertThat(poInfo.getSqlSelectColumnPosition(poInfo.getColumnIndex("Created"))).isEqualTo(6);
+	}
+
+	@Test
+	public void load_byColumnPositions_includingVirtualColumns()
+	{
+		final ResultSet rs = resultSet(
+				Arrays.asList("Test_Record_ID", "Name", "LinesQty", "Qty", "IsActive", "Created"), // same order as in POInfo's SQL
+				values(),
+				false); // positions only
+
+		final TestPO po = new TestPO(Env.getCtx());
+		final boolean sqlSelectColumnPositions = true;
+		assertThat(po.load(rs, sqlSelectColumnPositions)).isTrue();
+
+		assertThat(po.is_new()).isFalse();
+		assertThat(po.get_ID()).isEqualTo(1001);
+		assertThat(po.get_Value("Name")).isEqualTo("name1");
+		assertThat(po.get_Value("LinesQty")).isEqualTo(new BigDecimal("7"));
+		assertThat(po.get_Value("Qty")).isEqualTo(new BigDecimal("12.5"));
+		assertThat(po.get_Value("IsActive")).isEqualTo(true);
+		assertThat(po.get_Value("Created")).isEqualTo(CREATED);
+	}
+
+	@Test
+	public void load_byColumnNames_fromReorderedColumns()
+	{
+		final Map<String, Object> values = values();
+		values.put("SomeOtherColumn", "other");
+		final ResultSet rs = resultSet(
+				Arrays.asList("Created", "SomeOtherColumn", "Qty", "IsActive", "Name", "Test_Record_ID"), // different order and without the virtual column
+				values,
+				true);
+
+		final TestPO po = new TestPO(Env.getCtx());
+		assertThat(po.load(rs)).isTrue(); // the missing virtual column is not an error
+
+		assertThat(po.get_ID()).isEqualTo(1001);
+		assertThat(po.get_Value("Name")).isEqualTo("name1");
+		assertThat(po.get_Value("Qty")).isEqualTo(new BigDecimal("12.5"));
+		assertThat(po.get_Value("IsActive")).isEqualTo(true);
+		assertThat(po.get_Value("Created")).isEqualTo(CREATED);
+	}
+
+	@Test
+	public void load_byColumnNames_nullValues()
+	{
+		final Map<String, Object> values = values();
+		values.put("Name", null);
+		values.put("Qty", null);
+		final ResultSet rs = resultSet(
+				Arrays.asList("Test_Record_ID", "Name", "LinesQty", "Qty", "IsActive", "Created"),
+				values,
+				true);
+
+		final TestPO po = new TestPO(Env.getCtx());
+		assertThat(po.load(rs)).isTrue();
+
+		assertThat(po.get_Value("Name")).isNull();
+		assertThat(po.get_Value("Qty")).isNull();
+		assertThat(po.get_Value("LinesQty")).isEqualTo(new BigDecimal("7"));
+	}
+}
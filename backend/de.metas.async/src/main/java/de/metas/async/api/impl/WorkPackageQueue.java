@@ -115,6 +115,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 	private boolean asyncBatchForNewWorkpackagesSet = false;
 
 	private final ReentrantLock mainLock = new ReentrantLock();
+	private final WorkPackageReadySignal readySignal = WorkPackageReadySignal.instance;
 
 	private WorkPackageQueue(@NonNull final Properties ctx,
 			@NonNull final List<Integer> packageProcessorIds,
@@ -195,30 +196,22 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return skipRetryTimeoutMillis;
 	}
 
+	/**
+	 * Polls the next workpackage.
+	 *
+	 * NOTE: the {@link #mainLock} is held only while retrieving and locking, but not while waiting,
+	 * so that other pollers and {@link #markReadyForProcessing(I_C_Queue_WorkPackage, IQueueProcessorListener)} are not blocked by an idle poller.
+	 */
 	@Override
 	public I_C_Queue_WorkPackage pollAndLock(final long timeoutMillis)
-	{
-		logger.debug("Going to obtain mainLock");
-		mainLock.lock();
-		logger.debug("Obtained mainLock");
-		try
-		{
-			return pollAndLock0(timeoutMillis);
-		}
-		finally
-		{
-			mainLock.unlock();
-		}
-	}
-
-	private I_C_Queue_WorkPackage pollAndLock0(final long timeoutMillis)
 	{
 		final Properties workPackageCtx = Env.newTemporaryCtx();
 
 		final IQuery<I_C_Queue_WorkPackage> query = createQuery(workPackageCtx);
 
-		final long startTS = de.metas.common.util.time.SystemTime.millis();
-		I_C_Queue_WorkPackage workPackage = retrieveAndLock(query);
+		final long startTS = SystemTime.millis();
+		long signalGeneration = readySignal.getGeneration(packageProcessorIds);
+		I_C_Queue_WorkPackage workPackage = retrieveAndLockInMainLock(query);
 		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackage == null)
 		{
 			// We are running in one time only mode (synchronous mode) and we did not get the package from the first time
@@ -241,12 +234,14 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				}
 			}
 
-			// No workpackages were found. Sleep 1sec and then try again
+			// No workpackages were found.
+			// Wait until a workpackage is marked as ready for processing in this JVM, but at most the poll interval (1sec), and then try again
 			try
 			{
 				// note: we always get the new service, because things might have changed since this method started
 				final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
-				Thread.sleep(pollIntervalMs);
+				final boolean signaled = readySignal.awaitNextGeneration(packageProcessorIds, signalGeneration, pollIntervalMs);
+				logger.debug("Stopped waiting for workpackages: signaled={}", signaled);
 			}
 			catch (final InterruptedException e)
 			{
@@ -256,7 +251,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 			// Try fetching the workpackage again
 			logger.debug("Retry retrieving next workpackage");
-			workPackage = retrieveAndLock(query);
+			signalGeneration = readySignal.getGeneration(packageProcessorIds);
+			workPackage = retrieveAndLockInMainLock(query);
 		}
 
 		Check.assumeNotNull(workPackage, "workPackage not null");
@@ -334,6 +330,21 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		Env.setContext(workPackageCtx, Env.CTXNAME_AD_Session_ID, Env.CTXVALUE_AD_SESSION_ID_NONE);
 	}
 
+	private I_C_Queue_WorkPackage retrieveAndLockInMainLock(final IQuery<I_C_Queue_WorkPackage> query)
+	{
+		logger.debug("Going to obtain mainLock");
+		mainLock.lock();
+		logger.debug("Obtained mainLock");
+		try
+		{
+			return retrieveAndLock(query);
+		}
+		finally
+		{
+			mainLock.unlock();
+		}
+	}
+
 	private I_C_Queue_WorkPackage retrieveAndLock(final IQuery<I_C_Queue_WorkPackage> query)
 	{
 		I_C_Queue_WorkPackage workPackage = Services.get(ILockManager.class).retrieveAndLock(query, I_C_Queue_WorkPackage.class);
@@ -755,6 +766,16 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				dao.save(workPackage);
 				logger.debug("C_Queue_WorkPackage.IsReadyForProcessing is now set to true");
 				success = true;
+
+				// Wake up the idle pollers of the workpackage's processor, as soon as the workpackage is visible for them.
+				// NOTE: when we are called from an after-commit listener, the workpackage's trx is no longer active,
+				// so the auto-commit listener manager will signal right away.
+				final int packageProcessorId = getPackageProcessorId(workPackage);
+				final String workPackageTrxName = InterfaceWrapperHelper.getTrxName(workPackage);
+				Services.get(ITrxManager.class)
+						.getTrxListenerManagerOrAutoCommit(workPackageTrxName)
+						.newEventListener(TrxEventTiming.AFTER_COMMIT)
+						.registerHandlingMethod(innerTrx -> readySignal.signal(packageProcessorId));
 			}
 			finally
 			{
@@ -774,6 +795,13 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		}
 	}
 
+	private int getPackageProcessorId(final I_C_Queue_WorkPackage workPackage)
+	{
+		return enquingPackageProcessorId > 0
+				? enquingPackageProcessorId
+				: workPackage.getC_Queue_Block().getC_Queue_PackageProcessor_ID();
+	}
+
 	private IQuery<I_C_Queue_WorkPackage> createQuery(final Properties workPackageCtx)
 	{
 		//
@@ -865,6 +893,11 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return defaultPrio.getPrioriy(this);
 	}
 
+	/* package */ List<Integer> getPackageProcessorIds()
+	{
+		return packageProcessorIds;
+	}
+
 	@Override
 	public String getEnquingPackageProcessorInternalName()
 	{
@@ -0,0 +1,135 @@
+package de.metas.async.api.impl;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-JVM signal which is fired when a workpackage was marked as ready for processing.
+ *
+ * Idle queue pollers are waiting on it instead of sleeping a full poll interval.
+ * Because workpackages can also be enqueued from other JVMs, pollers shall still wait at most one poll interval.
+ *
+ * The signal is keyed by C_Queue_PackageProcessor_ID, so only the pollers which can process the new workpackage are woken up.
+ *
+ * To avoid lost signals, a poller shall get the {@link #getGeneration(Collection)} <b>before</b> querying the database
+ * and then wait using {@link #awaitNextGeneration(Collection, long, long)}.
+ */
+final class WorkPackageReadySignal
+{
+	public static final WorkPackageReadySignal instance = new WorkPackageReadySignal();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final HashMap<Integer, Long> generationsByPackageProcessorId = new HashMap<>();
+	private final SetMultimap<Integer, Condition> waitersByPackageProcessorId = HashMultimap.create();
+
+	private WorkPackageReadySignal()
+	{
+	}
+
+	/**
+	 * @return the generation of given package processors; it's changed each time one of them is signaled
+	 */
+	public long getGeneration(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		lock.lock();
+		try
+		{
+			return getGenerationInLock(packageProcessorIds);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private long getGenerationInLock(final Collection<Integer> packageProcessorIds)
+	{
+		long generation = 0;
+		for (final Integer packageProcessorId : packageProcessorIds)
+		{
+			generation += generationsByPackageProcessorId.getOrDefault(packageProcessorId, 0L);
+		}
+		return generation;
+	}
+
+	/**
+	 * Wakes up the pollers which are waiting for given package processor.
+	 */
+	public void signal(final int packageProcessorId)
+	{
+		lock.lock();
+		try
+		{
+			generationsByPackageProcessorId.merge(packageProcessorId, 1L, Long::sum);
+			waitersByPackageProcessorId.get(packageProcessorId).forEach(Condition::signal);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until {@link #signal(int)} is called for one of given package processors or the timeout expires.
+	 *
+	 * @param sinceGeneration the generation which was fetched before querying the database
+	 * @return true if signaled, false if the timeout expired
+	 */
+	public boolean awaitNextGeneration(
+			@NonNull final Collection<Integer> packageProcessorIds,
+			final long sinceGeneration,
+			final long timeoutMillis) throws InterruptedException
+	{
+		long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		lock.lock();
+		final Condition waiter = lock.newCondition();
+		try
+		{
+			packageProcessorIds.forEach(packageProcessorId -> waitersByPackageProcessorId.put(packageProcessorId, waiter));
+			while (getGenerationInLock(packageProcessorIds) == sinceGeneration)
+			{
+				if (remainingNanos <= 0)
+				{
+					return false;
+				}
+				remainingNanos = waiter.awaitNanos(remainingNanos);
+			}
+			return true;
+		}
+		finally
+		{
+			packageProcessorIds.forEach(packageProcessorId -> waitersByPackageProcessorId.remove(packageProcessorId, waiter));
+			lock.unlock();
+		}
+	}
+}
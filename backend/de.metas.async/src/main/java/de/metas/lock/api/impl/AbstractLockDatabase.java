@@ -23,6 +23,7 @@ package de.metas.lock.api.impl;
  */
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -32,6 +33,8 @@ import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
 import org.slf4j.Logger;
 
+import com.google.common.collect.Iterators;
+
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.ILockCommand.AllowAdditionalLocks;
@@ -142,33 +145,76 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		final Iterator<TableRecordReference> records = lockCommand.getRecordsToLockIterator();
 		Check.assumeNotNull(records, "records not null");
 
-		final boolean failIfAlreadyLocked = lockCommand.isFailIfAlreadyLocked();
 		final boolean changeLock = lockCommand.getParentLock() != null;
+		if (!changeLock)
+		{
+			int countLocked = 0;
+			final Iterator<List<TableRecordReference>> batches = Iterators.partition(records, getRecordsBatchSize());
+			while (batches.hasNext())
+			{
+				countLocked += lockRecords(lockCommand, batches.next());
+			}
+			return countLocked;
+		}
+
+		final boolean failIfAlreadyLocked = lockCommand.isFailIfAlreadyLocked();
 		int countLocked = 0;
 		while (records.hasNext())
 		{
 			final TableRecordReference record = records.next();
 
 			//
-			// Acquire/Change the lock
-			final boolean locked;
-			if (changeLock)
+			// Change the lock
+			final boolean locked = changeLockRecord(lockCommand, record);
+
+			// Increment the locked counter
+			if (locked)
 			{
-				locked = changeLockRecord(lockCommand, record);
+				countLocked++;
 			}
-			else
+
+			//
+			// If lock could not be acquired/changed and we were asked to fail, do so
+			if (failIfAlreadyLocked && !locked)
 			{
-				locked = lockRecord(lockCommand, record);
+				// NOTE: we are checking this just to me sure, but basically, the "lockRecord" method is already throwing an exception in this case
+				throw new LockFailedException("Record was already locked: " + record)
+						.setLockCommand(lockCommand)
+						.setRecordToLock(record);
 			}
+		}
 
-			// Increment the locked counter
+		return countLocked;
+	}
+
+	/**
+	 * @return how many records shall be passed at once to {@link #lockRecords(ILockCommand, List)} and {@link #unlockRecords(IUnlockCommand, List)}
+	 */
+	protected int getRecordsBatchSize()
+	{
+		return 1;
+	}
+
+	/**
+	 * Locks given records.
+	 *
+	 * The default implementation calls {@link #lockRecord(ILockCommand, TableRecordReference)} for each record.
+	 *
+	 * @return how many records were locked
+	 * @throws LockFailedException if locking failed or if a record was already locked and {@link LockCommand#isFailIfAlreadyLocked()} is true
+	 */
+	protected int lockRecords(final ILockCommand lockCommand, final List<TableRecordReference> records)
+	{
+		final boolean failIfAlreadyLocked = lockCommand.isFailIfAlreadyLocked();
+		int countLocked = 0;
+		for (final TableRecordReference record : records)
+		{
+			final boolean locked = lockRecord(lockCommand, record);
 			if (locked)
 			{
 				countLocked++;
 			}
 
-			//
-			// If lock could not be acquired/changed and we were asked to fail, do so
 			if (failIfAlreadyLocked && !locked)
 			{
 				// NOTE: we are checking this just to me sure, but basically, the "lockRecord" method is already throwing an exception in this case
@@ -248,9 +294,27 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		Check.assumeNotNull(records, "records not null");
 
 		int countUnlocked = 0;
-		while (records.hasNext())
+		final Iterator<List<TableRecordReference>> batches = Iterators.partition(records, getRecordsBatchSize());
+		while (batches.hasNext())
+		{
+			countUnlocked += unlockRecords(unlockCommand, batches.next());
+		}
+
+		return countUnlocked;
+	}
+
+	/**
+	 * Unlocks given records.
+	 *
+	 * The default implementation calls {@link #unlockRecord(IUnlockCommand, TableRecordReference)} for each record.
+	 *
+	 * @return how many records were unlocked
+	 */
+	protected int unlockRecords(final IUnlockCommand unlockCommand, final List<TableRecordReference> records)
+	{
+		int countUnlocked = 0;
+		for (final TableRecordReference record : records)
 		{
-			final TableRecordReference record = records.next();
 			final boolean unlocked = unlockRecord(unlockCommand, record);
 			if (unlocked)
 			{
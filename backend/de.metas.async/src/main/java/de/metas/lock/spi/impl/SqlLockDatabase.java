@@ -5,7 +5,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.ISqlQueryFilter;
@@ -20,6 +22,8 @@ import org.compiere.model.IQuery;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.IUnlockCommand;
@@ -47,6 +51,9 @@ public class SqlLockDatabase extends AbstractLockDatabase
 {
 	private static final String SQL_DeleteLock = "DELETE FROM " + I_T_Lock.Table_Name + " WHERE 1=1 ";
 
+	/** How many records are locked/unlocked in one SQL statement */
+	private static final int RECORDS_BATCH_SIZE = 500;
+
 	/**
 	 * @param lockOwner
 	 * @param sql
@@ -281,7 +288,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 
 		try
 		{
-			DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+			executeUpdate(sql, sqlParams);
 			return true;
 		}
 		catch (final DBUniqueConstraintException e)
@@ -307,6 +314,84 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Executes given INSERT/DELETE statement on T_Lock, out of transaction.
+	 * Used when locking/unlocking records, so that tests can verify the statements without a database.
+	 */
+	@VisibleForTesting
+	protected int executeUpdate(final String sql, final List<Object> sqlParams)
+	{
+		return DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+	}
+
+	@Override
+	protected int getRecordsBatchSize()
+	{
+		return RECORDS_BATCH_SIZE;
+	}
+
+	/**
+	 * Locks all given records using one single multi-row INSERT.
+	 *
+	 * If any of the records is already locked, the whole INSERT fails (so nothing is locked) and we fall back to locking record by record,
+	 * in order to have exactly the same outcome as {@link #lockRecord(ILockCommand, TableRecordReference)}.
+	 */
+	@Override
+	protected int lockRecords(final ILockCommand lockCommand, final List<TableRecordReference> records)
+	{
+		if (records.size() <= 1 || records.stream().anyMatch(record -> record.getRecord_ID() < 0))
+		{
+			return super.lockRecords(lockCommand, records);
+		}
+
+		final LockOwner lockOwner = lockCommand.getOwner();
+		assertValidLockOwner(lockOwner);
+
+		final boolean autoCleanup = lockCommand.isAutoCleanup();
+		final boolean allowMultipleOwners = isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks());
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ") VALUES ");
+		for (final TableRecordReference record : records)
+		{
+			Check.assume(record.getAD_Table_ID() > 0, "adTableId > 0");
+
+			if (!sqlParams.isEmpty())
+			{
+				sql.append(", ");
+			}
+			sql.append("(")
+					.append(toSqlParam(record.getAD_Table_ID(), sqlParams))
+					.append(", ").append(toSqlParam(record.getRecord_ID(), sqlParams))
+					.append(", ").append(toSqlParam(lockOwner.getOwnerName(), sqlParams))
+					.append(", ").append(toSqlParam(autoCleanup, sqlParams))
+					.append(", ").append(toSqlParam(allowMultipleOwners, sqlParams))
+					.append(")");
+		}
+
+		try
+		{
+			return executeUpdate(sql.toString(), sqlParams);
+		}
+		catch (final DBUniqueConstraintException e)
+		{
+			logger.debug("Some of the {} records were already locked. Locking them one by one.", records.size(), e);
+			return super.lockRecords(lockCommand, records);
+		}
+		catch (final Exception e)
+		{
+			throw LockFailedException.wrapIfNeeded(e)
+					.setLockCommand(lockCommand)
+					.setSql(sql.toString(), sqlParams.toArray());
+		}
+	}
+
 	@Override
 	protected boolean changeLockRecord(final ILockCommand lockCommand, final TableRecordReference record)
 	{
@@ -401,7 +486,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 
 		try
 		{
-			final int countUnlocked = DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
+			final int countUnlocked = executeUpdate(sql.toString(), sqlParams);
 			return countUnlocked > 0;
 		}
 		catch (final Exception e)
@@ -412,6 +497,58 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Unlocks all given records using one single DELETE.
+	 *
+	 * NOTE: we do that only for a given real owner, because else one record might have more than one lock and
+	 * the count of deleted locks would not match the count of unlocked records anymore.
+	 */
+	@Override
+	protected int unlockRecords(final IUnlockCommand unlockCommand, final List<TableRecordReference> records)
+	{
+		final LockOwner lockOwner = unlockCommand.getOwner();
+		if (records.size() <= 1 || lockOwner.isAnyOwner())
+		{
+			return super.unlockRecords(unlockCommand, records);
+		}
+
+		final Map<Integer, List<Integer>> recordIdsByTableId = new LinkedHashMap<>();
+		for (final TableRecordReference record : records)
+		{
+			recordIdsByTableId.computeIfAbsent(record.getAD_Table_ID(), k -> new ArrayList<>()).add(record.getRecord_ID());
+		}
+
+		final StringBuilder sql = new StringBuilder(SQL_DeleteLock);
+		final List<Object> sqlParams = new ArrayList<>();
+
+		// For AD_Table_ID/RecordIds
+		final StringBuilder sqlTableRecords = new StringBuilder();
+		recordIdsByTableId.forEach((adTableId, recordIds) -> {
+			if (sqlTableRecords.length() > 0)
+			{
+				sqlTableRecords.append(" OR ");
+			}
+			sqlTableRecords.append("(").append(I_T_Lock.COLUMNNAME_AD_Table_ID).append("=").append(toSqlParam(adTableId, sqlParams))
+					.append(" AND ").append(DB.buildSqlList(I_T_Lock.COLUMNNAME_Record_ID, recordIds, sqlParams))
+					.append(")");
+		});
+		sql.append(" AND (").append(sqlTableRecords).append(")");
+
+		// For Owner
+		appendLockOwnerWhereClause(lockOwner, sql, sqlParams);
+
+		try
+		{
+			return executeUpdate(sql.toString(), sqlParams);
+		}
+		catch (final Exception e)
+		{
+			throw new UnlockFailedException("Failed unlocking records: " + records, e)
+					.setUnlockCommand(unlockCommand)
+					.setSql(sql.toString(), sqlParams.toArray());
+		}
+	}
+
 	@Override
 	protected int unlockByOwner(final IUnlockCommand unlockCommand)
 	{
@@ -4,7 +4,10 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.test.AdempiereTestHelper;
 import org.junit.Before;
 import org.junit.Test;
@@ -58,6 +61,31 @@ public class TestQueue__Misc
 		assertThat(workpackage.isReadyForProcessing()).isTrue();
 	}
 
+	@Test
+	public void markReadyForProcessingAfterTrxCommit_signalsPollersAfterCommit()
+	{
+		final IWorkPackageQueueFactory workPackageQueueFactory = Services.get(IWorkPackageQueueFactory.class);
+		final IWorkPackageQueue queueForEnqueuing = workPackageQueueFactory.getQueueForEnqueuing(NOPWorkpackageProcessor.class);
+
+		final List<Integer> packageProcessorIds = ((WorkPackageQueue)queueForEnqueuing).getPackageProcessorIds();
+		final WorkPackageReadySignal readySignal = WorkPackageReadySignal.instance;
+		final long generationBefore = readySignal.getGeneration(packageProcessorIds);
+
+		final I_C_Queue_WorkPackage workpackage = Services.get(ITrxManager.class).callInNewTrx(() -> {
+			final I_C_Queue_WorkPackage wp = newInstance(I_C_Queue_WorkPackage.class);
+			save(wp);
+
+			queueForEnqueuing.markReadyForProcessingAfterTrxCommit(wp, ITrx.TRXNAME_ThreadInherited);
+			assertThat(wp.isReadyForProcessing()).isFalse();
+			assertThat(readySignal.getGeneration(packageProcessorIds)).isEqualTo(generationBefore);
+
+			return wp;
+		});
+
+		assertThat(workpackage.isReadyForProcessing()).isTrue();
+		assertThat(readySignal.getGeneration(packageProcessorIds)).isGreaterThan(generationBefore);
+	}
+
 	private static final class NOPWorkpackageProcessor extends WorkpackageProcessorAdapter
 	{
 		@Override
@@ -0,0 +1,85 @@
+package de.metas.async.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WorkPackageReadySignalTest
+{
+	private final WorkPackageReadySignal signal = WorkPackageReadySignal.instance;
+
+	@Test
+	public void timeoutWhenNotSignaled() throws Exception
+	{
+		final ImmutableList<Integer> packageProcessorIds = ImmutableList.of(1001);
+		final long generation = signal.getGeneration(packageProcessorIds);
+		assertThat(signal.awaitNextGeneration(packageProcessorIds, generation, 10)).isFalse();
+	}
+
+	@Test
+	public void signalBeforeWaiting_isNotLost() throws Exception
+	{
+		final ImmutableList<Integer> packageProcessorIds = ImmutableList.of(1002);
+		final long generation = signal.getGeneration(packageProcessorIds);
+		signal.signal(1002);
+		assertThat(signal.awaitNextGeneration(packageProcessorIds, generation, 10_000)).isTrue();
+	}
+
+	@Test
+	public void waitingThreadIsWokenUp() throws Exception
+	{
+		final ImmutableList<Integer> packageProcessorIds = ImmutableList.of(1003, 1004);
+		final long generation = signal.getGeneration(packageProcessorIds);
+		final CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				return signal.awaitNextGeneration(packageProcessorIds, generation, 60_000);
+			}
+			catch (final InterruptedException e)
+			{
+				return false;
+			}
+		});
+
+		signal.signal(1004);
+		assertThat(waiting.get(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void signalOfOtherPackageProcessor_isIgnored() throws Exception
+	{
+		final ImmutableList<Integer> packageProcessorIds = ImmutableList.of(1005);
+		final long generation = signal.getGeneration(packageProcessorIds);
+		signal.signal(1006);
+
+		assertThat(signal.getGeneration(packageProcessorIds)).isEqualTo(generation);
+		assertThat(signal.awaitNextGeneration(packageProcessorIds, generation, 10)).isFalse();
+	}
+}
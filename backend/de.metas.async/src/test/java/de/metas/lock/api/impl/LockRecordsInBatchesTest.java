@@ -0,0 +1,261 @@
+package de.metas.lock.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.adempiere.exceptions.DBUniqueConstraintException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_M_Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.lock.api.ILock;
+import de.metas.lock.api.ILockCommand;
+import de.metas.lock.api.IUnlockCommand;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.exceptions.LockFailedException;
+import de.metas.lock.spi.ILockDatabase;
+import de.metas.lock.spi.impl.PlainLockDatabase;
+import de.metas.lock.spi.impl.SqlLockDatabase;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LockRecordsInBatchesTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static List<I_M_Product> createRecords(final int count)
+	{
+		final List<I_M_Product> records = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+		{
+			final I_M_Product record = newInstance(I_M_Product.class);
+			saveRecord(record);
+			records.add(record);
+		}
+		return records;
+	}
+
+	private static LockRow toLockRow(final I_M_Product record, final LockOwner owner)
+	{
+		final TableRecordReference recordRef = TableRecordReference.of(record);
+		return new LockRow(recordRef.getAD_Table_ID(), recordRef.getRecord_ID(), owner.getOwnerName());
+	}
+
+	private static LockCommand newLockCommand(final ILockDatabase lockDatabase, final LockOwner owner, final List<I_M_Product> records)
+	{
+		final LockCommand lockCommand = new LockCommand(lockDatabase);
+		lockCommand.setOwner(owner);
+		lockCommand.setAutoCleanup(false);
+		lockCommand.addRecordsByModel(records);
+		return lockCommand;
+	}
+
+	private static IUnlockCommand newUnlockCommand(final ILockDatabase lockDatabase, final LockOwner owner, final List<I_M_Product> records)
+	{
+		return new UnlockCommand(lockDatabase)
+				.setOwner(owner)
+				.setRecordsByModels(records);
+	}
+
+	/** {@link PlainLockDatabase} which records the batches it was asked to lock/unlock */
+	private static class BatchesRecordingLockDatabase extends PlainLockDatabase
+	{
+		private final List<Integer> lockBatchSizes = new ArrayList<>();
+		private final List<Integer> unlockBatchSizes = new ArrayList<>();
+
+		@Override
+		protected int getRecordsBatchSize()
+		{
+			return 2;
+		}
+
+		@Override
+		protected int lockRecords(final ILockCommand lockCommand, final List<TableRecordReference> records)
+		{
+			lockBatchSizes.add(records.size());
+			return super.lockRecords(lockCommand, records);
+		}
+
+		@Override
+		protected int unlockRecords(final IUnlockCommand unlockCommand, final List<TableRecordReference> records)
+		{
+			unlockBatchSizes.add(records.size());
+			return super.unlockRecords(unlockCommand, records);
+		}
+	}
+
+	@Test
+	public void lockAndUnlock_passesTheRecordsInBatches()
+	{
+		final BatchesRecordingLockDatabase lockDatabase = new BatchesRecordingLockDatabase();
+		final LockOwner owner = LockOwner.newOwner("test");
+		final List<I_M_Product> records = createRecords(5);
+
+		final ILock lock = lockDatabase.lock(newLockCommand(lockDatabase, owner, records));
+		assertThat(lock.getCountLocked()).isEqualTo(5);
+		assertThat(lockDatabase.lockBatchSizes).containsExactly(2, 2, 1);
+		assertThat(lockDatabase.getLocksCount()).isEqualTo(5);
+
+		final int countUnlocked = lockDatabase.unlock(newUnlockCommand(lockDatabase, owner, records));
+		assertThat(countUnlocked).isEqualTo(5);
+		assertThat(lockDatabase.unlockBatchSizes).containsExactly(2, 2, 1);
+		assertThat(lockDatabase.getLocksCount()).isZero();
+	}
+
+	@Value
+	private static class LockRow
+	{
+		int adTableId;
+		int recordId;
+		String owner;
+	}
+
+	/**
+	 * {@link SqlLockDatabase} which executes its T_Lock INSERTs and DELETEs against an in-memory set of locks, enforcing the unique constraint on (AD_Table_ID, Record_ID, Owner).
+	 */
+	private static class InMemorySqlLockDatabase extends SqlLockDatabase
+	{
+		private final Set<LockRow> locks = new HashSet<>();
+		private final List<String> executedStatements = new ArrayList<>();
+
+		@Override
+		protected int executeUpdate(final String sql, final List<Object> sqlParams)
+		{
+			executedStatements.add(sql.substring(0, sql.indexOf(' ')));
+			if (sql.startsWith("INSERT"))
+			{
+				// the params are AD_Table_ID, Record_ID, Owner, IsAutoCleanup, IsAllowMultipleOwners for each inserted row
+				final List<LockRow> rows = new ArrayList<>();
+				for (int i = 0; i < sqlParams.size(); i += 5)
+				{
+					rows.add(new LockRow((Integer)sqlParams.get(i), (Integer)sqlParams.get(i + 1), (String)sqlParams.get(i + 2)));
+				}
+				if (rows.stream().anyMatch(locks::contains))
+				{
+					throw new DBUniqueConstraintException(new RuntimeException("T_Lock unique constraint violated"));
+				}
+				locks.addAll(rows);
+				return rows.size();
+			}
+			else
+			{
+				// the params are AD_Table_ID, Record_ID(s) and Owner, unless deleting the locks of any owner
+				final int adTableId = (Integer)sqlParams.get(0);
+				final boolean anyOwner = !(sqlParams.get(sqlParams.size() - 1) instanceof String);
+				final Set<Object> recordIds = new HashSet<>(sqlParams.subList(1, anyOwner ? sqlParams.size() : sqlParams.size() - 1));
+				final Object owner = anyOwner ? null : sqlParams.get(sqlParams.size() - 1);
+				final Set<LockRow> rowsToDelete = locks.stream()
+						.filter(row -> row.getAdTableId() == adTableId && recordIds.contains(row.getRecordId()))
+						.filter(row -> anyOwner || owner.equals(row.getOwner()))
+						.collect(Collectors.toSet());
+				locks.removeAll(rowsToDelete);
+				return rowsToDelete.size();
+			}
+		}
+	}
+
+	@Test
+	public void sqlLockDatabase_locksAndUnlocksTheRecordsWithOneStatementPerBatch()
+	{
+		final InMemorySqlLockDatabase lockDatabase = new InMemorySqlLockDatabase();
+		final LockOwner owner = LockOwner.newOwner("test");
+		final List<I_M_Product> records = createRecords(5);
+
+		final ILock lock = lockDatabase.lock(newLockCommand(lockDatabase, owner, records));
+		assertThat(lock.getCountLocked()).isEqualTo(5);
+		assertThat(lockDatabase.executedStatements).containsExactly("INSERT");
+		assertThat(lockDatabase.locks).hasSize(5);
+
+		lockDatabase.executedStatements.clear();
+		final int countUnlocked = lockDatabase.unlock(newUnlockCommand(lockDatabase, owner, records));
+		assertThat(countUnlocked).isEqualTo(5);
+		assertThat(lockDatabase.executedStatements).containsExactly("DELETE");
+		assertThat(lockDatabase.locks).isEmpty();
+	}
+
+	@Test
+	public void sqlLockDatabase_fallsBackToLockingRecordByRecord_ifSomeRecordsAreAlreadyLocked()
+	{
+		final InMemorySqlLockDatabase lockDatabase = new InMemorySqlLockDatabase();
+		final LockOwner owner = LockOwner.newOwner("test");
+		final List<I_M_Product> records = createRecords(3);
+		lockDatabase.locks.add(toLockRow(records.get(1), owner));
+
+		final LockCommand lockCommand = newLockCommand(lockDatabase, owner, records);
+		lockCommand.setFailIfAlreadyLocked(false);
+		final ILock lock = lockDatabase.lock(lockCommand);
+
+		assertThat(lock.getCountLocked()).isEqualTo(2);
+		assertThat(lockDatabase.executedStatements).containsExactly("INSERT", "INSERT", "INSERT", "INSERT");
+		assertThat(lockDatabase.locks).hasSize(3);
+	}
+
+	@Test
+	public void sqlLockDatabase_fallsBackToLockingRecordByRecord_andFailsOnTheAlreadyLockedRecord()
+	{
+		final InMemorySqlLockDatabase lockDatabase = new InMemorySqlLockDatabase();
+		final LockOwner owner = LockOwner.newOwner("test");
+		final List<I_M_Product> records = createRecords(3);
+		lockDatabase.locks.add(toLockRow(records.get(1), owner));
+
+		final LockCommand lockCommand = newLockCommand(lockDatabase, owner, records);
+		lockCommand.setFailIfAlreadyLocked(true);
+
+		assertThatThrownBy(() -> lockDatabase.lock(lockCommand))
+				.isInstanceOf(LockFailedException.class);
+
+		// the batch INSERT failed, so the records were locked one by one, until the already locked one
+		assertThat(lockDatabase.executedStatements.size()).isGreaterThan(1);
+		assertThat(lockDatabase.executedStatements).containsOnly("INSERT");
+		assertThat(lockDatabase.locks).contains(toLockRow(records.get(1), owner));
+	}
+
+	@Test
+	public void sqlLockDatabase_unlocksRecordByRecord_forAnyOwner()
+	{
+		final InMemorySqlLockDatabase lockDatabase = new InMemorySqlLockDatabase();
+		final LockOwner owner = LockOwner.newOwner("test");
+		final List<I_M_Product> records = createRecords(3);
+		lockDatabase.lock(newLockCommand(lockDatabase, owner, records));
+		lockDatabase.executedStatements.clear();
+
+		lockDatabase.unlock(newUnlockCommand(lockDatabase, LockOwner.ANY, records));
+
+		assertThat(lockDatabase.executedStatements).containsExactly("DELETE", "DELETE", "DELETE");
+	}
+}
@@ -1,10 +1,12 @@
 package de.metas.inout;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import de.metas.bpartner.BPartnerId;
 import de.metas.document.DocTypeId;
 import de.metas.lang.SOTrx;
+import de.metas.order.OrderLineId;
 import de.metas.organization.OrgId;
 import de.metas.product.ProductId;
 import de.metas.shipping.model.ShipperTransportationId;
@@ -78,6 +80,13 @@ public interface IInOutDAO extends ISingletonService
 
 	<T extends I_M_InOutLine> List<T> retrieveLinesForOrderLine(I_C_OrderLine orderLine, Class<T> clazz);
 
+	/**
+	 * Retrieves the active lines of all given order lines, using one query. The lines are loaded out of transaction.
+	 *
+	 * @return lines indexed by order line, ordered by M_InOutLine_ID (like {@link #retrieveLinesForOrderLine(I_C_OrderLine, Class)})
+	 */
+	<T extends I_M_InOutLine> ImmutableListMultimap<OrderLineId, T> retrieveLinesForOrderLineIdsOutOfTrx(Set<OrderLineId> orderLineIds, Class<T> clazz);
+
 	/**
 	 * @return query to retrieve all {@link I_M_InOutLine}s which are part of a shipment with doc status <code>Draft</code>, <code>InProgress</code> or <code>WaitingConfirmation</code>.
 	 */
@@ -1,6 +1,7 @@
 package de.metas.inout.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import de.metas.bpartner.BPartnerId;
@@ -12,6 +13,7 @@ import de.metas.inout.InOutId;
 import de.metas.inout.InOutLineId;
 import de.metas.lang.SOTrx;
 import de.metas.logging.LogManager;
+import de.metas.order.OrderLineId;
 import de.metas.organization.OrgId;
 import de.metas.product.ProductId;
 import de.metas.shipping.model.ShipperTransportationId;
@@ -214,6 +216,25 @@ public class InOutDAO implements IInOutDAO
 				.list(clazz);
 	}
 
+	@Override
+	public <T extends I_M_InOutLine> ImmutableListMultimap<OrderLineId, T> retrieveLinesForOrderLineIdsOutOfTrx(@NonNull final Set<OrderLineId> orderLineIds, @NonNull final Class<T> clazz)
+	{
+		if (orderLineIds.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		return queryBL.createQueryBuilderOutOfTrx(I_M_InOutLine.class)
+				.addInArrayFilter(I_M_InOutLine.COLUMN_C_OrderLine_ID, orderLineIds)
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_M_InOutLine.COLUMN_M_InOutLine_ID)
+				.create()
+				.stream(clazz)
+				.collect(ImmutableListMultimap.toImmutableListMultimap(
+						inoutLine -> OrderLineId.ofRepoId(inoutLine.getC_OrderLine_ID()),
+						inoutLine -> inoutLine));
+	}
+
 	@Override
 	public <T extends I_M_InOutLine> List<T> retrieveLinesWithoutOrderLine(final I_M_InOut inOut, final Class<T> clazz)
 	{
@@ -23,8 +23,11 @@ package de.metas.pricing.service;
  */
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Set;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.lang.SOTrx;
 import de.metas.location.CountryId;
@@ -66,6 +69,14 @@ public interface IPricingBL extends ISingletonService
 
 	IPricingResult calculatePrice(IPricingContext pricingCtx);
 
+	/**
+	 * Calculates the prices of all given pricing contexts.
+	 * The pricing rules are set up only once and the contexts which are getting the same result are calculated only once.
+	 *
+	 * @return the pricing results, in the same order as the given contexts
+	 */
+	ImmutableList<IPricingResult> calculatePrices(List<? extends IPricingContext> pricingCtxs);
+
 	/**
 	 * Creates an initial {@link IPricingResult}. Copies some of the given <code>pricingCtx</code>'s properties to the pricing result.
 	 *
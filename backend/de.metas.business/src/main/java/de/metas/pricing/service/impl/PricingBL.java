@@ -24,17 +24,32 @@ package de.metas.pricing.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.Nullable;
 
 import de.metas.common.util.time.SystemTime;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.pricing.model.I_C_PricingRule;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_C_Campaign_Price;
 import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_C_UOM_Conversion;
+import org.compiere.model.I_M_DiscountSchema;
+import org.compiere.model.I_M_DiscountSchemaBreak;
+import org.compiere.model.I_M_DiscountSchemaLine;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.model.I_M_PricingSystem;
+import org.compiere.model.I_M_Product;
 import org.compiere.model.I_M_ProductPrice;
 import org.compiere.util.DisplayType;
 import org.compiere.util.TimeUtil;
@@ -46,6 +61,9 @@ import com.google.common.collect.ImmutableList;
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.service.IBPartnerDAO;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.cache.CacheWeigher;
 import de.metas.currency.CurrencyPrecision;
 import de.metas.lang.SOTrx;
 import de.metas.location.CountryId;
@@ -93,6 +111,44 @@ public class PricingBL implements IPricingBL
 
 	private final CompositePriceLimitRule priceLimitRules = new CompositePriceLimitRule();
 
+	/**
+	 * The pricing rules are stateless, so we instantiate them only once per configuration.
+	 * Key: the pricing rule descriptors.
+	 */
+	private final CCache<ImmutableList<PricingRuleDescriptor>, AggregatedPricingRule> pricingRulesCache = CCache.<ImmutableList<PricingRuleDescriptor>, AggregatedPricingRule> builder()
+			.tableName(I_C_PricingRule.Table_Name)
+			.initialCapacity(1)
+			.build();
+
+	/**
+	 * If enabled, the pricing results are cached by {@link PricingResultCacheKey}.
+	 * Disabled by default, because a custom pricing rule might depend on data which is not invalidating the cache.
+	 */
+	private static final String SYSCONFIG_ResultsCacheEnabled = "de.metas.pricing.service.impl.PricingBL.ResultsCacheEnabled";
+
+	/** Estimated memory footprint of one cached {@link PricingResult} (including its cache key), in bytes */
+	private static final int PRICING_RESULT_ESTIMATED_SIZE_BYTES = 2 * 1024;
+
+	private final CCache<PricingResultCacheKey, PricingResult> resultsCache = CCache.<PricingResultCacheKey, PricingResult> builder()
+			.cacheName("PricingBL#pricingResults")
+			.cacheMapType(CacheMapType.LRU)
+			.weigher(CacheWeigher.ofFixedEntrySize(PRICING_RESULT_ESTIMATED_SIZE_BYTES))
+			.maximumWeight(10000L * PRICING_RESULT_ESTIMATED_SIZE_BYTES) // i.e. max 10000 results
+			.tableName(I_M_ProductPrice.Table_Name)
+			.additionalTableNameToResetFor(I_M_PriceList_Version.Table_Name)
+			.additionalTableNameToResetFor(I_M_PriceList.Table_Name)
+			.additionalTableNameToResetFor(I_M_PricingSystem.Table_Name)
+			.additionalTableNameToResetFor(I_M_DiscountSchema.Table_Name)
+			.additionalTableNameToResetFor(I_M_DiscountSchemaBreak.Table_Name)
+			.additionalTableNameToResetFor(I_M_DiscountSchemaLine.Table_Name)
+			.additionalTableNameToResetFor(I_C_Campaign_Price.Table_Name)
+			.additionalTableNameToResetFor(I_C_UOM_Conversion.Table_Name)
+			.additionalTableNameToResetFor(I_C_BPartner.Table_Name)
+			.additionalTableNameToResetFor(I_M_Product.Table_Name)
+			.additionalTableNameToResetFor(I_C_PricingRule.Table_Name)
+			.invalidationKeysMapper(new PricingResultCacheKeysMapper(this::getCachedResultKeys))
+			.build();
+
 	@Override
 	public IEditablePricingContext createPricingContext()
 	{
@@ -160,12 +216,74 @@ public class PricingBL implements IPricingBL
 
 	@Override
 	public IPricingResult calculatePrice(@NonNull final IPricingContext pricingCtx)
+	{
+		return calculatePrice0Cached(pricingCtx);
+	}
+
+	private PricingResult calculatePrice0Cached(@NonNull final IPricingContext pricingCtx)
+	{
+		// NOTE: don't use the cache within a running transaction, because the result might depend on uncommitted (and maybe rolled back) changes
+		final PricingResultCacheKey cacheKey = isResultsCacheEnabled() && !isTrxActive(pricingCtx)
+				? PricingResultCacheKey.ofPricingContextOrNull(pricingCtx)
+				: null;
+		if (cacheKey == null)
+		{
+			return calculatePriceNoCache(pricingCtx);
+		}
+
+		// NOTE: always return a copy, because the callers are free to change the result
+		return resultsCache.getOrLoad(cacheKey, () -> calculatePriceNoCache(pricingCtx)).copy();
+	}
+
+	@Override
+	public ImmutableList<IPricingResult> calculatePrices(@NonNull final List<? extends IPricingContext> pricingCtxs)
+	{
+		// the contexts which have the same key are getting the same result, so we calculate it only once
+		final HashMap<PricingResultCacheKey, PricingResult> resultsByKey = new HashMap<>();
+
+		final ImmutableList.Builder<IPricingResult> results = ImmutableList.builder();
+		for (final IPricingContext pricingCtx : pricingCtxs)
+		{
+			final PricingResultCacheKey key = PricingResultCacheKey.ofPricingContextOrNull(pricingCtx);
+			if (key == null)
+			{
+				results.add(calculatePrice(pricingCtx));
+			}
+			else
+			{
+				final PricingResult result = resultsByKey.computeIfAbsent(key, k -> calculatePrice0Cached(pricingCtx));
+				results.add(result.copy());
+			}
+		}
+
+		return results.build();
+	}
+
+	private boolean isResultsCacheEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ResultsCacheEnabled, false);
+	}
+
+	private static boolean isTrxActive(@NonNull final IPricingContext pricingCtx)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		return trxManager.isActive(pricingCtx.getTrxName())
+				|| trxManager.isActive(ITrx.TRXNAME_ThreadInherited);
+	}
+
+	private Collection<PricingResultCacheKey> getCachedResultKeys()
+	{
+		return resultsCache.keySet();
+	}
+
+	private PricingResult calculatePriceNoCache(@NonNull final IPricingContext pricingCtx)
 	{
 		final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
 		try (IAutoCloseable c = Loggables.temporarySetLoggable(plainStringLoggable))
 		{
-			final IPricingResult result = calculatePrice0(pricingCtx);
-			return result.setLoggableMessages(plainStringLoggable.getSingleMessages());
+			final PricingResult result = calculatePrice0(pricingCtx);
+			result.setLoggableMessages(plainStringLoggable.getSingleMessages());
+			return result;
 		}
 		catch (final ProductNotOnPriceListException e)
 		{
@@ -173,7 +291,7 @@ public class PricingBL implements IPricingBL
 		}
 	}
 
-	private IPricingResult calculatePrice0(final IPricingContext pricingCtx)
+	private PricingResult calculatePrice0(final IPricingContext pricingCtx)
 	{
 		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
 		final PricingResult result = createInitialResult(pricingCtxToUse);
@@ -196,7 +314,7 @@ public class PricingBL implements IPricingBL
 			// return result;
 		}
 
-		final AggregatedPricingRule rules = createPricingRules();
+		final AggregatedPricingRule rules = getPricingRules();
 		rules.calculate(pricingCtxToUse, result);
 
 		//
@@ -490,11 +608,17 @@ public class PricingBL implements IPricingBL
 		return result;
 	}
 
-	private AggregatedPricingRule createPricingRules()
+	private AggregatedPricingRule getPricingRules()
 	{
 		final IPricingDAO pricingRulesRepo = Services.get(IPricingDAO.class);
+		final ImmutableList<PricingRuleDescriptor> ruleDefs = ImmutableList.copyOf(pricingRulesRepo.getPricingRules());
 
-		final ImmutableList<IPricingRule> rules = pricingRulesRepo.getPricingRules()
+		return pricingRulesCache.getOrLoad(ruleDefs, this::createPricingRules);
+	}
+
+	private AggregatedPricingRule createPricingRules(@NonNull final ImmutableList<PricingRuleDescriptor> ruleDefs)
+	{
+		final ImmutableList<IPricingRule> rules = ruleDefs
 				.stream()
 				.map(this::createPricingRuleNoFail)
 				.filter(Objects::nonNull)
@@ -371,6 +371,14 @@ class PricingContext implements IEditablePricingContext
 		return properties.get(propertyName) != null;
 	}
 
+	/**
+	 * @return true if at least one custom property is set
+	 */
+	boolean hasProperties()
+	{
+		return properties.values().stream().anyMatch(Objects::nonNull);
+	}
+
 	@Override
 	public IEditablePricingContext setProperty(@NonNull final String propertyName, @Nullable final Object value)
 	{
@@ -152,6 +152,47 @@ final class PricingResult implements IPricingResult
 		this.disallowDiscount = disallowDiscount;
 	}
 
+	/**
+	 * @return a copy of this result, which can be changed without affecting this result
+	 */
+	PricingResult copy()
+	{
+		final PricingResult copy = builder()
+				.priceDate(priceDate)
+				.pricingSystemId(pricingSystemId)
+				.priceListId(priceListId)
+				.priceListVersionId(priceListVersionId)
+				.currencyId(currencyId)
+				.productId(productId)
+				.disallowDiscount(disallowDiscount)
+				.build();
+
+		copy.calculated = calculated;
+		copy.priceUomId = priceUomId;
+		copy.precision = precision;
+		copy.productCategoryId = productCategoryId;
+		copy.taxCategoryId = taxCategoryId;
+		copy.taxIncluded = taxIncluded;
+		copy.pricingConditions = pricingConditions;
+		copy.priceList = priceList;
+		copy.priceStd = priceStd;
+		copy.priceLimit = priceLimit;
+		copy.discount = discount;
+		copy.enforcePriceLimit = enforcePriceLimit;
+		copy.usesDiscountSchema = usesDiscountSchema;
+		copy.priceEditable = priceEditable;
+		copy.discountEditable = discountEditable;
+		copy.campaignPrice = campaignPrice;
+		copy.invoicableQtyBasedOn = invoicableQtyBasedOn;
+		copy.rulesApplied.addAll(rulesApplied);
+		copy.pricingAttributes.addAll(pricingAttributes);
+		copy.loggableMessages = loggableMessages;
+		copy.baseCommissionPointsPerPriceUOM = baseCommissionPointsPerPriceUOM;
+		copy.tradedCommissionPercent = tradedCommissionPercent;
+
+		return copy;
+	}
+
 	@Override
 	public Money getPriceStdAsMoney()
 	{
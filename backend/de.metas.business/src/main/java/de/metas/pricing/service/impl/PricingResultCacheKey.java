@@ -0,0 +1,112 @@
+package de.metas.pricing.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import javax.annotation.Nullable;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.lang.SOTrx;
+import de.metas.location.CountryId;
+import de.metas.money.CurrencyId;
+import de.metas.organization.OrgId;
+import de.metas.pricing.IPricingContext;
+import de.metas.pricing.PriceListId;
+import de.metas.pricing.PriceListVersionId;
+import de.metas.pricing.PricingSystemId;
+import de.metas.product.ProductId;
+import de.metas.uom.UomId;
+import de.metas.util.OptionalBoolean;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Fingerprint of an {@link IPricingContext}, i.e. all the context values which the pricing engine uses to calculate the price.
+ * Two contexts with the same key are getting the same pricing result.
+ */
+@Value
+@Builder
+class PricingResultCacheKey
+{
+	/**
+	 * @return the key of given pricing context or {@code null} if the pricing result of given context shall not be cached,
+	 *         because it might depend on something which is not part of the key (e.g. the referenced object, its attributes or custom properties).
+	 */
+	@Nullable
+	static PricingResultCacheKey ofPricingContextOrNull(@NonNull final IPricingContext pricingCtx)
+	{
+		if (pricingCtx.getReferencedObject() != null
+				|| pricingCtx.getForcePricingConditionsBreak() != null
+				|| !(pricingCtx instanceof PricingContext)
+				|| ((PricingContext)pricingCtx).hasProperties())
+		{
+			return null;
+		}
+
+		final BigDecimal qty = pricingCtx.getQty();
+
+		return builder()
+				.orgId(pricingCtx.getOrgId())
+				.productId(pricingCtx.getProductId())
+				.bpartnerId(pricingCtx.getBPartnerId())
+				.pricingSystemId(pricingCtx.getPricingSystemId())
+				.priceListId(pricingCtx.getPriceListId())
+				.priceListVersionId(pricingCtx.getPriceListVersionId())
+				.priceDate(pricingCtx.getPriceDate())
+				.countryId(pricingCtx.getCountryId())
+				.currencyId(pricingCtx.getCurrencyId())
+				.uomId(pricingCtx.getUomId())
+				.qty(qty != null ? qty.stripTrailingZeros() : null) // so that 1 and 1.00 are the same key
+				.soTrx(pricingCtx.getSoTrx())
+				.disallowDiscount(pricingCtx.isDisallowDiscount())
+				.convertPriceToContextUOM(pricingCtx.isConvertPriceToContextUOM())
+				.manualPriceEnabled(pricingCtx.getManualPriceEnabled())
+				.failIfNotCalculated(pricingCtx.isFailIfNotCalculated())
+				.skipCheckingPriceListSOTrxFlag(pricingCtx.isSkipCheckingPriceListSOTrxFlag())
+				.build();
+	}
+
+	OrgId orgId;
+	ProductId productId;
+	BPartnerId bpartnerId;
+
+	PricingSystemId pricingSystemId;
+	PriceListId priceListId;
+	PriceListVersionId priceListVersionId;
+	LocalDate priceDate;
+	CountryId countryId;
+	CurrencyId currencyId;
+
+	UomId uomId;
+	BigDecimal qty;
+	SOTrx soTrx;
+
+	boolean disallowDiscount;
+	boolean convertPriceToContextUOM;
+	OptionalBoolean manualPriceEnabled;
+	boolean failIfNotCalculated;
+	boolean skipCheckingPriceListSOTrxFlag;
+}
@@ -0,0 +1,92 @@
+package de.metas.pricing.service.impl;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_M_Product;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CachingKeysMapper;
+import de.metas.product.ProductId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Invalidates only the cached pricing results of the changed product or business partner.
+ * Changes of any other table reset the whole pricing results cache.
+ */
+final class PricingResultCacheKeysMapper implements CachingKeysMapper<PricingResultCacheKey>
+{
+	private final Supplier<Collection<PricingResultCacheKey>> cachedKeysSupplier;
+
+	PricingResultCacheKeysMapper(@NonNull final Supplier<Collection<PricingResultCacheKey>> cachedKeysSupplier)
+	{
+		this.cachedKeysSupplier = cachedKeysSupplier;
+	}
+
+	@Override
+	public boolean isResetAll(@NonNull final TableRecordReference recordRef)
+	{
+		return extractKeysFilterOrNull(recordRef) == null;
+	}
+
+	@Override
+	public Collection<PricingResultCacheKey> computeCachingKeys(@NonNull final TableRecordReference recordRef)
+	{
+		final Predicate<PricingResultCacheKey> keysFilter = extractKeysFilterOrNull(recordRef);
+		if (keysFilter == null)
+		{
+			return ImmutableList.of();
+		}
+
+		return cachedKeysSupplier.get()
+				.stream()
+				.filter(keysFilter)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static Predicate<PricingResultCacheKey> extractKeysFilterOrNull(final TableRecordReference recordRef)
+	{
+		final String tableName = recordRef.getTableName();
+		if (I_M_Product.Table_Name.equals(tableName))
+		{
+			final ProductId productId = ProductId.ofRepoIdOrNull(recordRef.getRecord_ID());
+			return productId != null ? key -> productId.equals(key.getProductId()) : null;
+		}
+		else if (I_C_BPartner.Table_Name.equals(tableName))
+		{
+			final BPartnerId bpartnerId = BPartnerId.ofRepoIdOrNull(recordRef.getRecord_ID());
+			return bpartnerId != null ? key -> bpartnerId.equals(key.getBpartnerId()) : null;
+		}
+		else
+		{
+			return null;
+		}
+	}
+}
@@ -39,6 +39,7 @@ import org.compiere.model.I_AD_OrgInfo;
 import org.compiere.model.I_AD_Process;
 import org.compiere.model.I_AD_Process_Para;
 import org.compiere.model.I_AD_Ref_List;
+import org.compiere.model.I_AD_Sequence;
 import org.compiere.model.I_AD_SysConfig;
 import org.compiere.model.I_AD_Table;
 import org.compiere.model.I_C_BP_Relation;
@@ -299,6 +300,9 @@ public final class AdempiereBaseValidator extends AbstractModuleInterceptor
 
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_C_DocTypeCounter.Table_Name);
 
+		// the table IDs which were preallocated by MSequence have to be discarded on all nodes when a sequence is changed
+		cacheMgt.enableRemoteCacheInvalidationForTableName(I_AD_Sequence.Table_Name);
+
 		// Broadcast cache invalidation of AD_Client and AD_Org tables.
 		// This is needed in case there are some configuration changes and we want them to be applied ASAP, without restarting the server.
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_AD_Client.Table_Name);
@@ -0,0 +1,98 @@
+package de.metas.pricing.service.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_OrderLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.lang.SOTrx;
+import de.metas.pricing.IEditablePricingContext;
+import de.metas.pricing.PriceListId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PricingResultCacheKeyTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static IEditablePricingContext newPricingContext(final BigDecimal qty)
+	{
+		return new PricingContext()
+				.setProductId(ProductId.ofRepoId(1))
+				.setBPartnerId(BPartnerId.ofRepoId(2))
+				.setPriceListId(PriceListId.ofRepoId(3))
+				.setPriceDate(LocalDate.parse("2021-03-01"))
+				.setSOTrx(SOTrx.SALES)
+				.setQty(qty);
+	}
+
+	@Test
+	public void same_key_for_equal_contexts()
+	{
+		final PricingResultCacheKey key1 = PricingResultCacheKey.ofPricingContextOrNull(newPricingContext(new BigDecimal("1")));
+		final PricingResultCacheKey key2 = PricingResultCacheKey.ofPricingContextOrNull(newPricingContext(new BigDecimal("1.000")));
+
+		assertThat(key1).isNotNull();
+		assertThat(key1).isEqualTo(key2);
+		assertThat(key1.hashCode()).isEqualTo(key2.hashCode());
+	}
+
+	@Test
+	public void different_key_for_different_qty()
+	{
+		final PricingResultCacheKey key1 = PricingResultCacheKey.ofPricingContextOrNull(newPricingContext(new BigDecimal("1")));
+		final PricingResultCacheKey key2 = PricingResultCacheKey.ofPricingContextOrNull(newPricingContext(new BigDecimal("10")));
+
+		assertThat(key1).isNotEqualTo(key2);
+	}
+
+	@Test
+	public void no_key_if_referenced_object_is_set()
+	{
+		final IEditablePricingContext pricingCtx = newPricingContext(BigDecimal.ONE)
+				.setReferencedObject(newInstance(I_C_OrderLine.class));
+
+		assertThat(PricingResultCacheKey.ofPricingContextOrNull(pricingCtx)).isNull();
+	}
+
+	@Test
+	public void no_key_if_custom_property_is_set()
+	{
+		final IEditablePricingContext pricingCtx = newPricingContext(BigDecimal.ONE)
+				.setProperty("SomeProperty", "SomeValue");
+
+		assertThat(PricingResultCacheKey.ofPricingContextOrNull(pricingCtx)).isNull();
+	}
+}
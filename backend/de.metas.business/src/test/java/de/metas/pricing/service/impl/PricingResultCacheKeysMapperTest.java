@@ -0,0 +1,80 @@
+package de.metas.pricing.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_M_Product;
+import org.compiere.model.I_M_ProductPrice;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PricingResultCacheKeysMapperTest
+{
+	private static PricingResultCacheKey key(final int productId, final int bpartnerId)
+	{
+		return PricingResultCacheKey.builder()
+				.productId(ProductId.ofRepoId(productId))
+				.bpartnerId(BPartnerId.ofRepoId(bpartnerId))
+				.build();
+	}
+
+	private final PricingResultCacheKey product1_bpartner1 = key(1, 1);
+	private final PricingResultCacheKey product1_bpartner2 = key(1, 2);
+	private final PricingResultCacheKey product2_bpartner1 = key(2, 1);
+
+	private final PricingResultCacheKeysMapper keysMapper = new PricingResultCacheKeysMapper(
+			() -> ImmutableList.of(product1_bpartner1, product1_bpartner2, product2_bpartner1));
+
+	@Test
+	public void product_invalidates_only_its_keys()
+	{
+		final TableRecordReference recordRef = TableRecordReference.of(I_M_Product.Table_Name, 1);
+
+		assertThat(keysMapper.isResetAll(recordRef)).isFalse();
+		assertThat(keysMapper.computeCachingKeys(recordRef)).containsExactlyInAnyOrder(product1_bpartner1, product1_bpartner2);
+	}
+
+	@Test
+	public void bpartner_invalidates_only_its_keys()
+	{
+		final TableRecordReference recordRef = TableRecordReference.of(I_C_BPartner.Table_Name, 1);
+
+		assertThat(keysMapper.isResetAll(recordRef)).isFalse();
+		assertThat(keysMapper.computeCachingKeys(recordRef)).containsExactlyInAnyOrder(product1_bpartner1, product2_bpartner1);
+	}
+
+	@Test
+	public void other_tables_reset_all()
+	{
+		final TableRecordReference recordRef = TableRecordReference.of(I_M_ProductPrice.Table_Name, 1);
+
+		assertThat(keysMapper.isResetAll(recordRef)).isTrue();
+	}
+}
@@ -22,6 +22,7 @@ package de.metas.handlingunits;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.annotation.Nullable;
@@ -55,6 +56,14 @@ public interface IHUAndItemsDAO
 
 	List<I_M_HU_Item> retrieveItems(I_M_HU hu);
 
+	/**
+	 * Loads the items and included HUs of given HUs and of all their included HUs, using a few set based queries,
+	 * so that the following {@link #retrieveItems(I_M_HU)} and {@link #retrieveIncludedHUs(I_M_HU_Item)} calls won't hit the database.
+	 * <p>
+	 * Implementations which are not caching shall do nothing.
+	 */
+	void prefetchHUTrees(Collection<I_M_HU> hus);
+
 	/**
 	 * From the {@link I_M_HU_Item}s that reference the given {@code hu}, retrieve the one that also references the given {@code piItem},<br>
 	 * <b>or</b> (gh #460) if there is no such item and the given {@code piItem} has {@code ItemType='HU'}, then retrieve the {@link I_M_HU_Item} with {@link X_M_HU_Item#ITEMTYPE_HUAggregate}.
@@ -161,6 +161,14 @@ public interface IHandlingUnitsDAO extends ISingletonService
 
 	List<I_M_HU_Item> retrieveItems(I_M_HU hu, HUItemType type);
 
+	/**
+	 * Loads the items and included HUs of given HUs and of all their included HUs, using a few set based queries.
+	 * Useful before iterating over many HU trees.
+	 *
+	 * @see IHUAndItemsDAO#prefetchHUTrees(Collection)
+	 */
+	void prefetchHUTrees(Collection<I_M_HU> hus);
+
 	I_M_HU_Item retrieveItem(I_M_HU hu, I_M_HU_PI_Item piItem);
 
 	List<I_M_HU> retrieveIncludedHUs(final I_M_HU_Item item);
@@ -23,13 +23,21 @@ package de.metas.handlingunits.impl;
  */
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 
+import org.adempiere.ad.dao.IQueryBL;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+
 import de.metas.handlingunits.IHUAndItemsDAO;
 import de.metas.handlingunits.IHandlingUnitsBL;
 import de.metas.handlingunits.IHandlingUnitsDAO;
@@ -54,6 +62,9 @@ public class CachedHUAndItemsDAO extends AbstractHUAndItemsDAO
 
 	private final IHUAndItemsDAO db = HUAndItemsDAO.instance;
 
+	/** Max number of IDs to be used in one SQL IN list, when prefetching */
+	private static final int PREFETCH_IDS_CHUNK_SIZE = 1000;
+
 	/* package */ CachedHUAndItemsDAO()
 	{
 	}
@@ -190,6 +201,125 @@ public class CachedHUAndItemsDAO extends AbstractHUAndItemsDAO
 		return new ArrayList<>(huItems);
 	}
 
+	@Override
+	public void prefetchHUTrees(@NonNull final Collection<I_M_HU> hus)
+	{
+		if (hus.isEmpty())
+		{
+			return;
+		}
+
+		// NOTE: the HUs were loaded in our transaction, else CachedIfInTransactionHUAndItemsDAO would not have delegated to us
+		final Object contextProvider = hus.iterator().next();
+
+		// Load the HU trees level by level (e.g. LUs, TUs, VHUs)
+		Collection<I_M_HU> husToPrefetch = hus;
+		while (!husToPrefetch.isEmpty())
+		{
+			final List<I_M_HU_Item> items = prefetchItems(contextProvider, husToPrefetch);
+			husToPrefetch = prefetchIncludedHUs(contextProvider, items);
+		}
+	}
+
+	/**
+	 * Loads and caches the items of given HUs, if not already cached.
+	 *
+	 * @return the loaded items
+	 */
+	private List<I_M_HU_Item> prefetchItems(final Object contextProvider, final Collection<I_M_HU> hus)
+	{
+		final Map<Integer, I_M_HU> husToLoad = new LinkedHashMap<>();
+		for (final I_M_HU hu : hus)
+		{
+			final int huId = hu.getM_HU_ID();
+			if (huId > 0 && !huKey2huItems.containsKey(mkHUKey(huId)))
+			{
+				husToLoad.putIfAbsent(huId, hu);
+			}
+		}
+		if (husToLoad.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+
+		final ListMultimap<Integer, I_M_HU_Item> itemsByHUId = ArrayListMultimap.create();
+		for (final List<Integer> huIds : Iterables.partition(husToLoad.keySet(), PREFETCH_IDS_CHUNK_SIZE))
+		{
+			// NOTE: shall be in sync with HUItemsLocalCache.retrieveItems
+			Services.get(IQueryBL.class).createQueryBuilder(I_M_HU_Item.class, contextProvider)
+					.addInArrayFilter(I_M_HU_Item.COLUMN_M_HU_ID, huIds)
+					.addOnlyActiveRecordsFilter()
+					.create()
+					.list()
+					.forEach(item -> itemsByHUId.put(item.getM_HU_ID(), item));
+		}
+
+		final List<I_M_HU_Item> loadedItems = new ArrayList<>();
+		for (final I_M_HU hu : husToLoad.values())
+		{
+			final ArrayList<I_M_HU_Item> huItems = new ArrayList<>(itemsByHUId.get(hu.getM_HU_ID()));
+			for (final I_M_HU_Item huItem : huItems)
+			{
+				huItem.setM_HU(hu);
+			}
+			Collections.sort(huItems, IHandlingUnitsDAO.HU_ITEMS_COMPARATOR);
+
+			huKey2huItems.put(mkHUKey(hu), huItems);
+			loadedItems.addAll(huItems);
+		}
+
+		return loadedItems;
+	}
+
+	/**
+	 * Loads and caches the included HUs of given items, if not already cached.
+	 *
+	 * @return the loaded included HUs
+	 */
+	private List<I_M_HU> prefetchIncludedHUs(final Object contextProvider, final Collection<I_M_HU_Item> huItems)
+	{
+		final Map<Integer, I_M_HU_Item> huItemsToLoad = new LinkedHashMap<>();
+		for (final I_M_HU_Item huItem : huItems)
+		{
+			final int huItemId = huItem.getM_HU_Item_ID();
+			if (huItemId > 0 && !huItemKey2includedHUs.containsKey(mkHUItemKey(huItemId)))
+			{
+				huItemsToLoad.putIfAbsent(huItemId, huItem);
+			}
+		}
+		if (huItemsToLoad.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+
+		final ListMultimap<Integer, I_M_HU> includedHUsByParentItemId = ArrayListMultimap.create();
+		for (final List<Integer> huItemIds : Iterables.partition(huItemsToLoad.keySet(), PREFETCH_IDS_CHUNK_SIZE))
+		{
+			// NOTE: shall be in sync with IncludedHUsLocalCache.retrieveItems (i.e. also inactive HUs are retrieved)
+			Services.get(IQueryBL.class).createQueryBuilder(I_M_HU.class, contextProvider)
+					.addInArrayFilter(I_M_HU.COLUMN_M_HU_Item_Parent_ID, huItemIds)
+					.orderBy(I_M_HU.COLUMN_M_HU_ID)
+					.create()
+					.list()
+					.forEach(includedHU -> includedHUsByParentItemId.put(includedHU.getM_HU_Item_Parent_ID(), includedHU));
+		}
+
+		final List<I_M_HU> loadedIncludedHUs = new ArrayList<>();
+		for (final I_M_HU_Item huItem : huItemsToLoad.values())
+		{
+			final ArrayList<I_M_HU> includedHUs = new ArrayList<>(includedHUsByParentItemId.get(huItem.getM_HU_Item_ID()));
+			for (final I_M_HU includedHU : includedHUs)
+			{
+				includedHU.setM_HU_Item_Parent(huItem);
+			}
+
+			huItemKey2includedHUs.put(mkHUItemKey(huItem), includedHUs);
+			loadedIncludedHUs.addAll(includedHUs);
+		}
+
+		return loadedIncludedHUs;
+	}
+
 	@Override
 	public I_M_HU retrieveParent(final I_M_HU hu)
 	{
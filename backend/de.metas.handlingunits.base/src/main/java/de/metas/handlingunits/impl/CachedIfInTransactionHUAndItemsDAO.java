@@ -22,6 +22,7 @@ package de.metas.handlingunits.impl;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.List;
 
 import org.adempiere.ad.trx.api.ITrx;
@@ -152,6 +153,17 @@ public class CachedIfInTransactionHUAndItemsDAO implements IHUAndItemsDAO
 		return getDelegate(hu).retrieveItems(hu);
 	}
 
+	@Override
+	public void prefetchHUTrees(@NonNull final Collection<I_M_HU> hus)
+	{
+		if (hus.isEmpty())
+		{
+			return;
+		}
+
+		getDelegate(hus.iterator().next()).prefetchHUTrees(hus);
+	}
+
 	@Override
 	public I_M_HU_Item retrieveItem(final I_M_HU hu, final I_M_HU_PI_Item piItem)
 	{
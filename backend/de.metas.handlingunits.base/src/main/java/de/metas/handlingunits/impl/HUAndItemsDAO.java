@@ -22,6 +22,7 @@ package de.metas.handlingunits.impl;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.List;
 
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -158,6 +159,12 @@ public final class HUAndItemsDAO extends AbstractHUAndItemsDAO
 		return huItemsCache.getItems();
 	}
 
+	@Override
+	public void prefetchHUTrees(final Collection<I_M_HU> hus)
+	{
+		// nothing to do: we are not caching
+	}
+
 	@VisibleForTesting
 	public static I_M_HU_Item createHUItemNoSave(
 			@NonNull final I_M_HU hu,
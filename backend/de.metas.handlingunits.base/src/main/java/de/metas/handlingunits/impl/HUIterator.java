@@ -87,6 +87,13 @@ public class HUIterator extends AbstractHUIterator
 
 		setStatus(HUIteratorStatus.Running);
 
+		// Load the HU trees in a few set based queries instead of querying items and included HUs for each node.
+		// Do it only if we are going to navigate the whole trees.
+		if (getDepthMax() <= 0)
+		{
+			handlingUnitsDAO.prefetchHUTrees(hus);
+		}
+
 		for (final I_M_HU hu : hus)
 		{
 			huNodeIterator.iterate(hu);
@@ -319,6 +319,12 @@ public class HandlingUnitsDAO implements IHandlingUnitsDAO
 		return getHUAndItemsDAO().retrieveItems(hu);
 	}
 
+	@Override
+	public void prefetchHUTrees(@NonNull final Collection<I_M_HU> hus)
+	{
+		getHUAndItemsDAO().prefetchHUTrees(hus);
+	}
+
 	@Override
 	public List<I_M_HU_Item> retrieveItems(@NonNull final I_M_HU hu, @NonNull final HUItemType type)
 	{
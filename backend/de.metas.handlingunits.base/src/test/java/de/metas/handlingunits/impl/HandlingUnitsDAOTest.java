@@ -70,6 +70,31 @@ public class HandlingUnitsDAOTest extends AbstractHUTest
 		Assert.assertEquals("Invalid item: " + items, huItem.getM_HU_Item_ID(), items.get(0).getM_HU_Item_ID());
 	}
 
+	@Test
+	public void test_prefetchHUTrees()
+	{
+		final I_M_HU lu = InterfaceWrapperHelper.newInstance(I_M_HU.class, helper.contextProvider);
+		InterfaceWrapperHelper.save(lu);
+
+		final I_M_HU_Item luItem = InterfaceWrapperHelper.newInstance(I_M_HU_Item.class, helper.contextProvider);
+		luItem.setM_HU(lu);
+		InterfaceWrapperHelper.save(luItem);
+
+		final I_M_HU tu = InterfaceWrapperHelper.newInstance(I_M_HU.class, helper.contextProvider);
+		tu.setM_HU_Item_Parent(luItem);
+		InterfaceWrapperHelper.save(tu);
+
+		dao.prefetchHUTrees(Arrays.asList(lu));
+
+		final List<I_M_HU_Item> items = dao.retrieveItems(lu);
+		Assert.assertEquals("Invalid items: " + items, 1, items.size());
+		Assert.assertEquals("Invalid item: " + items, luItem.getM_HU_Item_ID(), items.get(0).getM_HU_Item_ID());
+
+		final List<I_M_HU> includedHUs = dao.retrieveIncludedHUs(items.get(0));
+		Assert.assertEquals("Invalid included HUs: " + includedHUs, 1, includedHUs.size());
+		Assert.assertEquals("Invalid included HU: " + includedHUs, tu.getM_HU_ID(), includedHUs.get(0).getM_HU_ID());
+	}
+
 	@Test
 	public void test_retrivePIItems()
 	{
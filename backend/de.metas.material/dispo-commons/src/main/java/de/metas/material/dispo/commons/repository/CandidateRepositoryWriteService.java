@@ -3,6 +3,8 @@ package de.metas.material.dispo.commons.repository;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.common.util.CoalesceUtil;
 import de.metas.document.engine.DocStatus;
 import de.metas.material.dispo.commons.candidate.Candidate;
@@ -14,6 +16,7 @@ import de.metas.material.dispo.commons.candidate.businesscase.DemandDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.DistributionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.ProductionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.PurchaseDetail;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
 import de.metas.material.dispo.commons.repository.repohelpers.PurchaseDetailRepoHelper;
 import de.metas.material.dispo.commons.repository.repohelpers.RepositoryCommons;
@@ -35,14 +38,18 @@ import lombok.Builder;
 import lombok.NonNull;
 import lombok.Value;
 import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.ICompositeQueryUpdater;
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.warehouse.WarehouseId;
+import org.compiere.SpringContextHolder;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Objects;
 
 import static de.metas.material.dispo.commons.candidate.IdConstants.NULL_REPO_ID;
@@ -125,6 +132,67 @@ public class CandidateRepositoryWriteService
 		return addOrUpdate(query, candidate, false);
 	}
 
+	/**
+	 * Adds the given {@code qtyDelta} to the quantities of all stock candidates matched by the given {@code query}, using one set based SQL update.
+	 * If the given {@code groupId} is not null, it's also set to those candidates. The candidates' qty scale and status are updated the same way {@link #updateCandidateById(Candidate)} would do it.
+	 * <p>
+	 * Unlike {@link #updateCandidateById(Candidate)}, the candidate records are not loaded and saved, so:
+	 * <ul>
+	 * <li>their details are not touched, which is why this method is supported only for stock candidates</li>
+	 * <li>no model interceptors are fired. There are none for {@code MD_Candidate} right now; if one is added, it has to be considered here or the record based path has to be used</li>
+	 * <li>the cache invalidation for the updated records is fired explicitly</li>
+	 * </ul>
+	 *
+	 * @return number of updated candidate records
+	 */
+	public int addQtyDeltaToStockCandidates(
+			@NonNull final CandidatesQuery query,
+			@NonNull final BigDecimal qtyDelta,
+			@Nullable final MaterialDispoGroupId groupId)
+	{
+		Check.assume(CandidateType.STOCK.equals(query.getType()), "The query shall match only stock candidates; query={}", query);
+		if (qtyDelta.signum() == 0 && groupId == null)
+		{
+			return 0;
+		}
+
+		// fetch the IDs first, so we know which records to invalidate
+		final List<Integer> candidateIds = RepositoryCommons.mkQueryBuilder(query)
+				.orderBy(I_MD_Candidate.COLUMNNAME_MD_Candidate_ID)
+				.create()
+				.listIds();
+		if (candidateIds.isEmpty())
+		{
+			return 0;
+		}
+
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+		final ICompositeQueryUpdater<I_MD_Candidate> updater = queryBL.createCompositeQueryUpdater(I_MD_Candidate.class);
+		if (qtyDelta.signum() != 0)
+		{
+			updater.addQueryUpdater(new StockQtyDeltaQueryUpdater(qtyDelta));
+		}
+		if (groupId != null)
+		{
+			updater.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_GroupId, groupId.toInt());
+		}
+
+		final int countUpdated = queryBL.createQueryBuilder(I_MD_Candidate.class)
+				.addInArrayFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_ID, candidateIds)
+				.create()
+				.updateDirectly(updater);
+
+		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
+				ITrx.TRXNAME_ThreadInherited,
+				CacheInvalidateMultiRequest.fromTableNameAndRecordIds(I_MD_Candidate.Table_Name, candidateIds));
+
+		Loggables.addLog(
+				"addQtyDeltaToStockCandidates - updated {} stock candidates; qtyDelta={}; groupId={};\nquery={}",
+				countUpdated, qtyDelta, groupId, query);
+
+		return countUpdated;
+	}
+
 	@Value
 	@Builder
 	public static class SaveResult
@@ -338,6 +406,16 @@ public class CandidateRepositoryWriteService
 		save(synchedRecord);
 	}
 
+	private static void invalidateCacheForPreviousProduct(final int previousProductId)
+	{
+		// NOTE: there is no ATP repository when running without spring (e.g. in some unit tests)
+		final AvailableToPromiseRepository availableToPromiseRepository = SpringContextHolder.instance.getBeanOr(AvailableToPromiseRepository.class, null);
+		if (availableToPromiseRepository != null)
+		{
+			availableToPromiseRepository.invalidateCacheForProductId(previousProductId);
+		}
+	}
+
 	@VisibleForTesting
 	void updateCandidateRecordFromCandidate(
 			@NonNull final I_MD_Candidate candidateRecord,
@@ -353,8 +431,14 @@ public class CandidateRepositoryWriteService
 		candidateRecord.setC_BPartner_Customer_ID(BPartnerId.toRepoId(materialDescriptor.getCustomerId()));
 		candidateRecord.setIsReservedForCustomer(materialDescriptor.isReservedForCustomer());
 
+		final int previousProductId = candidateRecord.getM_Product_ID();
 		candidateRecord.setM_Product_ID(materialDescriptor.getProductId());
 		candidateRecord.setM_AttributeSetInstance_ID(materialDescriptor.getAttributeSetInstanceId());
+		if (previousProductId > 0 && previousProductId != materialDescriptor.getProductId())
+		{
+			// the cache invalidation of the candidate record itself will only know about the new product
+			invalidateCacheForPreviousProduct(previousProductId);
+		}
 
 		candidateRecord.setStorageAttributesKey(computeStorageAttributesKeyToStore(materialDescriptor));
 
@@ -460,7 +544,7 @@ public class CandidateRepositoryWriteService
 		}
 	}
 
-	private BigDecimal stripZerosAfterTheDigit(final BigDecimal quantity)
+	static BigDecimal stripZerosAfterTheDigit(final BigDecimal quantity)
 	{
 		final BigDecimal stripTrailingZeros = quantity.stripTrailingZeros();
 		if (stripTrailingZeros.scale() < 0)
@@ -0,0 +1,89 @@
+package de.metas.material.dispo.commons.repository;
+
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import lombok.NonNull;
+import org.adempiere.ad.dao.ISqlQueryUpdater;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Properties;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Adds a quantity delta to a stock candidate's {@code Qty} and updates its {@code MD_Candidate_Status} within the same SQL statement,
+ * the same way {@link CandidateRepositoryWriteService} does it when saving a single candidate record.
+ * <p>
+ * Note that within the SQL {@code SET} clause, all columns still have their old values, so the new qty is evaluated in each place where it's needed.
+ */
+final class StockQtyDeltaQueryUpdater implements ISqlQueryUpdater<I_MD_Candidate>
+{
+	private final BigDecimal qtyDelta;
+
+	StockQtyDeltaQueryUpdater(@NonNull final BigDecimal qtyDelta)
+	{
+		this.qtyDelta = qtyDelta;
+	}
+
+	@Override
+	public String getSql(final Properties ctx, final List<Object> params)
+	{
+		final String sqlNewQty = "(" + I_MD_Candidate.COLUMNNAME_Qty + " + ?)";
+
+		// strip the trailing zeros after the digit (like BigDecimal.stripTrailingZeros); we can't rely on trim_scale() which requires postgresql 13
+		final String sqlNewQtyStripped = "(CASE WHEN " + sqlNewQty + "::text LIKE '%.%'"
+				+ " THEN rtrim(rtrim(" + sqlNewQty + "::text, '0'), '.')"
+				+ " ELSE " + sqlNewQty + "::text"
+				+ " END)::numeric";
+		params.add(qtyDelta);
+		params.add(qtyDelta);
+		params.add(qtyDelta);
+
+		final String sqlNewStatus = "(CASE WHEN " + I_MD_Candidate.COLUMNNAME_QtyFulfilled + " >= " + sqlNewQty
+				+ " THEN '" + X_MD_Candidate.MD_CANDIDATE_STATUS_Processed + "'"
+				+ " ELSE '" + X_MD_Candidate.MD_CANDIDATE_STATUS_Planned + "'"
+				+ " END)";
+		params.add(qtyDelta);
+
+		return I_MD_Candidate.COLUMNNAME_Qty + "=" + sqlNewQtyStripped
+				+ ", " + I_MD_Candidate.COLUMNNAME_MD_Candidate_Status + "=" + sqlNewStatus;
+	}
+
+	@Override
+	public boolean update(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		final BigDecimal newQty = CandidateRepositoryWriteService.stripZerosAfterTheDigit(candidateRecord.getQty().add(qtyDelta));
+		candidateRecord.setQty(newQty);
+
+		if (candidateRecord.getQtyFulfilled().compareTo(newQty) >= 0)
+		{
+			candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+		}
+		else
+		{
+			candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+		}
+		return MODEL_UPDATED;
+	}
+}
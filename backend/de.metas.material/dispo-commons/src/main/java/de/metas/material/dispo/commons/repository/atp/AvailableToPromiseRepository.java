@@ -1,12 +1,23 @@
 package de.metas.material.dispo.commons.repository.atp;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.adempiere.warehouse.WarehouseId;
 import org.compiere.model.IQuery;
 import org.compiere.util.Env;
@@ -14,14 +25,23 @@ import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.commons.attributes.AttributesKeyPatterns;
+import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
 import de.metas.material.event.commons.AttributesKey;
+import de.metas.util.NumberUtils;
 import de.metas.util.Services;
 import lombok.NonNull;
 import lombok.Value;
@@ -53,6 +73,41 @@ public class AvailableToPromiseRepository
 {
 	private static final String SYSCONFIG_ATP_ATTRIBUTES_KEYS = "de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.AttributesKeys";
 
+	static final String SYSCONFIG_CacheEnabled = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository.CacheEnabled";
+
+	/**
+	 * ATP records by query. Entries are invalidated when an {@link I_MD_Candidate} of one of the query's products is changed.
+	 * <p>
+	 * IMPORTANT: the cache is shared by all threads, so it's used only when running out of transaction, i.e. only committed data is cached.
+	 */
+	private final CCache<AvailableToPromiseQuery, ImmutableList<AddToResultGroupRequest>> cache = CCache.<AvailableToPromiseQuery, ImmutableList<AddToResultGroupRequest>> builder()
+			.cacheName("AvailableToPromiseRepository_ATPRecords")
+			.tableName(I_MD_Candidate.Table_Name)
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(5000)
+			.expireMinutes(10)
+			.invalidationKeysMapper(recordRef -> ImmutableList.of()) // the entries are invalidated by product, see onCacheReset
+			.build();
+
+	/**
+	 * Incremented on each cache invalidation, so that a load which overlapped an invalidation is not put into cache.
+	 */
+	private final AtomicLong cacheInvalidationsCount = new AtomicLong(0);
+
+	public AvailableToPromiseRepository()
+	{
+		CacheMgt.get().addCacheResetListener(I_MD_Candidate.Table_Name, this::onCacheReset);
+	}
+
+	/**
+	 * Comparator for ATP records: records with dedicated bPartnerId first, latest date first, biggest seqNo first
+	 */
+	private static final Comparator<AddToResultGroupRequest> ATP_RECORDS_ORDER = Comparator
+			.comparing((AddToResultGroupRequest request) -> request.getBpartner().isSpecificBPartner())
+			.thenComparing(AddToResultGroupRequest::getDate)
+			.thenComparing(AddToResultGroupRequest::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
+			.reversed();
+
 	@NonNull
 	public BigDecimal retrieveAvailableStockQtySum(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -75,56 +130,246 @@ public class AvailableToPromiseRepository
 				? AvailableToPromiseResultBuilder.createEmptyWithPredefinedBuckets(multiQuery)
 				: AvailableToPromiseResultBuilder.createEmpty();
 
-		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
-		if (dbQuery == null)
+		final ImmutableList<AddToResultGroupRequest> requests = retrieveAddToResultGroupRequests(multiQuery.getQueries());
+		for (final AddToResultGroupRequest request : requests)
 		{
-			return result.build();
+			if (addToPredefinedBuckets)
+			{
+				result.addQtyToAllMatchingGroups(request);
+			}
+			else
+			{
+				result.addToNewGroupIfFeasible(request);
+			}
 		}
 
-		final Function<I_MD_Candidate_ATP_QueryResult, Boolean> compareByWhetherRecordHasBPartnerId = record -> record.getC_BPartner_Customer_ID() > 0;
+		return result.build();
+	}
 
-		final List<I_MD_Candidate_ATP_QueryResult> atpRecords = dbQuery.list()
-				.stream()
-				// records with dedicated bPartnerId first
-				// latest date first
-				// biggest seqNo first
-				.sorted(Comparator
-						.comparing(compareByWhetherRecordHasBPartnerId)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getDateProjected)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
-						.reversed())
+	public AvailableToPromiseResult retrieveAvailableStock(@NonNull AvailableToPromiseQuery query)
+	{
+		return retrieveAvailableStock(AvailableToPromiseMultiQuery.of(query));
+	}
+
+	/**
+	 * @return the ATP records of the given queries, without duplicates and sorted by {@link #ATP_RECORDS_ORDER}
+	 */
+	private ImmutableList<AddToResultGroupRequest> retrieveAddToResultGroupRequests(@NonNull final Collection<AvailableToPromiseQuery> queries)
+	{
+		if (!isCacheEnabled() || isThreadInheritedTrxActive())
+		{
+			return retrieveAddToResultGroupRequestsFromDB(queries);
+		}
+
+		// NOTE: in case of multiple queries we have to drop the duplicates, same as the DB's "UNION DISTINCT" does
+		final LinkedHashSet<AddToResultGroupRequest> requests = new LinkedHashSet<>();
+		for (final AvailableToPromiseQuery query : queries)
+		{
+			if (query == null)
+			{
+				continue;
+			}
+			requests.addAll(getFromCacheOrLoad(query));
+		}
+
+		return requests.stream()
+				.sorted(ATP_RECORDS_ORDER)
 				.collect(ImmutableList.toImmutableList());
+	}
 
-		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the atpRecords)
-		final ImmutableList<AddToResultGroupRequest> requests = atpRecords
+	private ImmutableList<AddToResultGroupRequest> retrieveAddToResultGroupRequestsFromDB(@NonNull final Collection<AvailableToPromiseQuery> queries)
+	{
+		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(queries);
+		if (dbQuery == null)
+		{
+			return ImmutableList.of();
+		}
+
+		return dbQuery.list()
 				.stream()
 				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
+				.sorted(ATP_RECORDS_ORDER)
 				.collect(ImmutableList.toImmutableList());
+	}
 
-		for (final AddToResultGroupRequest request : requests)
+	private ImmutableList<AddToResultGroupRequest> getFromCacheOrLoad(@NonNull final AvailableToPromiseQuery query)
+	{
+		final ImmutableList<AddToResultGroupRequest> cachedRequests = cache.get(query);
+		if (cachedRequests != null)
 		{
-			if (addToPredefinedBuckets)
+			return cachedRequests;
+		}
+
+		final long cacheInvalidationsCountBeforeLoad = cacheInvalidationsCount.get();
+		final ImmutableList<AddToResultGroupRequest> requests = retrieveAddToResultGroupRequestsFromDB(ImmutableList.of(query));
+
+		// If the cache was invalidated while we were loading, what we loaded might be already stale => don't cache it
+		if (cacheInvalidationsCountBeforeLoad == cacheInvalidationsCount.get())
+		{
+			cache.put(query, requests);
+
+			// the cache was invalidated while we were adding it
+			if (cacheInvalidationsCountBeforeLoad != cacheInvalidationsCount.get())
 			{
-				result.addQtyToAllMatchingGroups(request);
+				cache.remove(query);
 			}
-			else
+		}
+
+		return requests;
+	}
+
+	private boolean isCacheEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_CacheEnabled, false);
+	}
+
+	private static boolean isThreadInheritedTrxActive()
+	{
+		return Services.get(ITrxManager.class).isActive(ITrx.TRXNAME_ThreadInherited);
+	}
+
+	private ImmutableList<AvailableToPromiseQuery> getCachedQueriesByProductIds(@NonNull final Set<Integer> productIds)
+	{
+		return cache.keySet()
+				.stream()
+				.filter(query -> query.getProductIds().stream().anyMatch(productIds::contains))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Invalidates the cached ATP records of given product, in this JVM only.
+	 * <p>
+	 * To be called when a candidate is moved to another product, because the candidate's invalidation only covers its current product.
+	 */
+	public void invalidateCacheForProductId(final int productId)
+	{
+		final ImmutableSet<Integer> productIds = ImmutableSet.of(productId);
+		invalidateByProductIds(productIds);
+		Services.get(ITrxManager.class).runAfterCommit(() -> invalidateByProductIds(productIds));
+	}
+
+	/**
+	 * Called when the caches are invalidated for {@link I_MD_Candidate} records.
+	 * <p>
+	 * The products of all invalidated candidates are fetched with one query, so that a bulk update of many candidates doesn't cause one query per candidate.
+	 * They are fetched only if there is something cached.
+	 * <p>
+	 * When a candidate is saved, the local caches are invalidated right away, before the candidate's transaction is committed.
+	 * So somebody might load the not yet changed ATP records after that invalidation.
+	 * That's why we invalidate the affected products once again, after commit.
+	 */
+	private long onCacheReset(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		cacheInvalidationsCount.incrementAndGet();
+
+		if (!isCacheEnabled())
+		{
+			// the cache is not used, but make sure it's not serving stale records when it's enabled again
+			if (!cache.isEmpty())
 			{
-				result.addToNewGroupIfFeasible(request);
+				cache.reset();
 			}
+			return 0;
 		}
 
-		return result.build();
+		final Supplier<Set<Integer>> productIdsSupplier = Suppliers.memoize(() -> extractProductIdsOrNullIfAll(multiRequest));
+		invalidateByProductIdsIfCacheNotEmpty(productIdsSupplier);
+		Services.get(ITrxManager.class).runAfterCommit(() -> invalidateByProductIdsIfCacheNotEmpty(productIdsSupplier));
+		return 0;
 	}
 
-	public AvailableToPromiseResult retrieveAvailableStock(@NonNull AvailableToPromiseQuery query)
+	private void invalidateByProductIdsIfCacheNotEmpty(@NonNull final Supplier<Set<Integer>> productIdsSupplier)
 	{
-		return retrieveAvailableStock(AvailableToPromiseMultiQuery.of(query));
+		if (cache.isEmpty())
+		{
+			cacheInvalidationsCount.incrementAndGet(); // there might be a load in progress
+			return;
+		}
+		invalidateByProductIds(productIdsSupplier.get());
+	}
+
+	private void invalidateByProductIds(@Nullable final Set<Integer> productIds)
+	{
+		cacheInvalidationsCount.incrementAndGet();
+
+		if (productIds == null)
+		{
+			cache.reset();
+		}
+		else if (!productIds.isEmpty())
+		{
+			cache.removeAll(getCachedQueriesByProductIds(productIds));
+		}
+	}
+
+	/**
+	 * @return product IDs of the candidates which were invalidated, or {@code null} if all products shall be considered
+	 */
+	@Nullable
+	private static Set<Integer> extractProductIdsOrNullIfAll(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (multiRequest.isResetAll())
+		{
+			return null;
+		}
+
+		final HashSet<Integer> candidateIds = new HashSet<>();
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			if (!I_MD_Candidate.Table_Name.equals(request.getTableNameEffective()))
+			{
+				continue;
+			}
+			if (request.isAllRecords())
+			{
+				return null;
+			}
+
+			final TableRecordReference recordRef = request.getRecordEffective();
+			if (!I_MD_Candidate.Table_Name.equals(recordRef.getTableName()))
+			{
+				return null;
+			}
+			candidateIds.add(recordRef.getRecord_ID());
+		}
+
+		return !candidateIds.isEmpty()
+				? retrieveProductIdsOrNullIfNotAllFound(candidateIds)
+				: ImmutableSet.of();
+	}
+
+	@Nullable
+	private static Set<Integer> retrieveProductIdsOrNullIfNotAllFound(@NonNull final Set<Integer> candidateIds)
+	{
+		// NOTE: we are fetching the candidates in the thread inherited transaction,
+		// because the invalidation is triggered when the candidates are saved, i.e. before their transaction is committed
+		final List<Map<String, Object>> rows = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_MD_Candidate.class)
+				.addInArrayFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_ID, candidateIds)
+				.create()
+				.listColumns(I_MD_Candidate.COLUMNNAME_MD_Candidate_ID, I_MD_Candidate.COLUMNNAME_M_Product_ID);
+		if (rows.size() < candidateIds.size())
+		{
+			return null;
+		}
+
+		final HashSet<Integer> productIds = new HashSet<>();
+		for (final Map<String, Object> row : rows)
+		{
+			final int productId = NumberUtils.asInt(row.get(I_MD_Candidate.COLUMNNAME_M_Product_ID), -1);
+			if (productId <= 0)
+			{
+				return null;
+			}
+			productIds.add(productId);
+		}
+		return productIds;
 	}
 
 	private IQuery<I_MD_Candidate_ATP_QueryResult> createDBQueryForMaterialQueryOrNull(
-			@NonNull final AvailableToPromiseMultiQuery multiQuery)
+			@NonNull final Collection<AvailableToPromiseQuery> queries)
 	{
-		return multiQuery.getQueries()
+		return queries
 				.stream()
 				.filter(Objects::nonNull)
 				.map(AvailableToPromiseSqlHelper::createDBQueryForStockQuery)
@@ -323,6 +323,44 @@ public class CandidateRepositoryWriteServiceTests
 		assertThat(result1Record.getMD_Candidate_GroupId()).isEqualTo(result1.getGroupId().toInt());
 	}
 
+	@Test
+	public void addQtyDeltaToStockCandidates()
+	{
+		final Candidate laterStockCandidate = repositoryTestHelper.laterStockCandidate;
+		final CandidatesQuery query = CandidatesQuery.builder()
+				.type(CandidateType.STOCK)
+				.id(laterStockCandidate.getId())
+				.build();
+
+		final int countUpdated = candidateRepositoryWriteService.addQtyDeltaToStockCandidates(query, new BigDecimal("-10"), repositoryTestHelper.stockCandidate.getGroupId());
+		assertThat(countUpdated).isEqualTo(1);
+
+		final I_MD_Candidate laterStockRecord = load(laterStockCandidate.getId().getRepoId(), I_MD_Candidate.class);
+		assertThat(laterStockRecord.getQty()).isEqualByComparingTo("0");
+		assertThat(laterStockRecord.getMD_Candidate_GroupId()).isEqualTo(repositoryTestHelper.stockCandidate.getGroupId().toInt());
+		assertThat(laterStockRecord.getMD_Candidate_Status()).isEqualTo(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+
+		final I_MD_Candidate stockRecord = load(repositoryTestHelper.stockCandidate.getId().getRepoId(), I_MD_Candidate.class);
+		assertThat(stockRecord.getQty()).isEqualByComparingTo("11"); // not matched by the query => unchanged
+		assertThat(stockRecord.getMD_Candidate_Status()).isEqualTo(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+	}
+
+	@Test
+	public void addQtyDeltaToStockCandidates_stripsTrailingZeros()
+	{
+		final Candidate laterStockCandidate = repositoryTestHelper.laterStockCandidate;
+		final CandidatesQuery query = CandidatesQuery.builder()
+				.type(CandidateType.STOCK)
+				.id(laterStockCandidate.getId())
+				.build();
+
+		candidateRepositoryWriteService.addQtyDeltaToStockCandidates(query, new BigDecimal("0.50"), null);
+
+		final I_MD_Candidate laterStockRecord = load(laterStockCandidate.getId().getRepoId(), I_MD_Candidate.class);
+		assertThat(laterStockRecord.getQty()).isEqualTo(new BigDecimal("10.5"));
+		assertThat(laterStockRecord.getMD_Candidate_Status()).isEqualTo(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+	}
+
 	/**
 	 * Verifies that {@link DistributionDetail} data is also persisted
 	 */
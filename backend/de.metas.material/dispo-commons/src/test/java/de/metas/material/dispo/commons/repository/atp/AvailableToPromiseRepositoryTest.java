@@ -14,6 +14,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.compiere.util.TimeUtil;
@@ -22,6 +25,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.commons.attributes.AttributesKeyPatterns;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseMultiQuery.AvailableToPromiseMultiQueryBuilder;
@@ -32,6 +37,8 @@ import de.metas.material.event.EventTestHelper;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.material.event.commons.MaterialDescriptor;
 import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -243,6 +250,73 @@ public class AvailableToPromiseRepositoryTest
 				.allMatch(group -> group.getQty().compareTo(TEN) == 0);
 	}
 
+	@Test
+	public void retrieveAvailableStock_cached_until_candidate_of_same_product_is_changed()
+	{
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseRepository.SYSCONFIG_CacheEnabled, true, ClientId.SYSTEM, OrgId.ANY);
+
+		final I_MD_Candidate_ATP_QueryResult viewRecord = createStockRecordWithProduct(PRODUCT_ID, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW);
+		final I_MD_Candidate otherProductCandidateRecord = newInstance(I_MD_Candidate.class);
+		otherProductCandidateRecord.setM_Product_ID(PRODUCT_ID + 1);
+		save(otherProductCandidateRecord);
+
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.storageAttributesKeyPattern(AttributesKeyPattern.ALL)
+				.build();
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo(TEN);
+
+		viewRecord.setQty(new BigDecimal("20"));
+		save(viewRecord);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).as("cached").isEqualByComparingTo(TEN);
+
+		CacheMgt.get().reset(CacheInvalidateMultiRequest.rootRecord(I_MD_Candidate.Table_Name, otherProductCandidateRecord.getMD_Candidate_ID()));
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).as("still cached").isEqualByComparingTo(TEN);
+
+		CacheMgt.get().reset(CacheInvalidateMultiRequest.rootRecord(I_MD_Candidate.Table_Name, candidateRecordIdOfLastStockRecord));
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).as("reloaded").isEqualByComparingTo("20");
+	}
+
+	@Test
+	public void retrieveAvailableStock_cached_until_product_is_invalidated()
+	{
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseRepository.SYSCONFIG_CacheEnabled, true, ClientId.SYSTEM, OrgId.ANY);
+
+		final I_MD_Candidate_ATP_QueryResult viewRecord = createStockRecordWithProduct(PRODUCT_ID, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW);
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.storageAttributesKeyPattern(AttributesKeyPattern.ALL)
+				.build();
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo(TEN);
+
+		viewRecord.setQty(new BigDecimal("20"));
+		save(viewRecord);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).as("cached").isEqualByComparingTo(TEN);
+
+		// i.e. a candidate was moved from this product to another one
+		availableToPromiseRepository.invalidateCacheForProductId(PRODUCT_ID);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).as("reloaded").isEqualByComparingTo("20");
+	}
+
+	@Test
+	public void retrieveAvailableStock_cache_not_used_within_trx()
+	{
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseRepository.SYSCONFIG_CacheEnabled, true, ClientId.SYSTEM, OrgId.ANY);
+
+		final I_MD_Candidate_ATP_QueryResult viewRecord = createStockRecordWithProduct(PRODUCT_ID, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW);
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.storageAttributesKeyPattern(AttributesKeyPattern.ALL)
+				.build();
+
+		final BigDecimal qtyWithinTrx = Services.get(ITrxManager.class).callInNewTrx(() -> availableToPromiseRepository.retrieveAvailableStockQtySum(query));
+		assertThat(qtyWithinTrx).isEqualByComparingTo(TEN);
+
+		viewRecord.setQty(new BigDecimal("20"));
+		save(viewRecord);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).as("not cached from within trx").isEqualByComparingTo("20");
+	}
+
 	private AvailableToPromiseMultiQuery retrieveAvailableStock_differentStorageAttributesKeys_performTest(boolean addToPredefinedBuckets)
 	{
 		createStockRecordWithProduct(PRODUCT_ID, AttributesKey.NONE, BEFORE_NOW);
@@ -267,6 +341,7 @@ public class AvailableToPromiseRepositoryTest
 	}
 
 	private int seqNoCounter = 1; // we start with one, because 0 is not considered valid by the code under test
+	private int candidateRecordIdOfLastStockRecord = -1;
 
 	private I_MD_Candidate_ATP_QueryResult createStockRecordWithBPartner(
 			final BPartnerId bpartnerId,
@@ -299,7 +374,9 @@ public class AvailableToPromiseRepositoryTest
 		candidateRecord.setIsActive(true);
 		candidateRecord.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
 		candidateRecord.setSeqNo(seqNoCounter);
+		candidateRecord.setM_Product_ID(productId);
 		save(candidateRecord);
+		candidateRecordIdOfLastStockRecord = candidateRecord.getMD_Candidate_ID();
 
 		final I_MD_Candidate_ATP_QueryResult viewRecord = newInstance(I_MD_Candidate_ATP_QueryResult.class);
 		viewRecord.setM_Product_ID(productId);
@@ -2,6 +2,8 @@ package de.metas.monitoring.adapter;
 
 import java.util.concurrent.Callable;
 
+import org.adempiere.util.lang.IAutoCloseable;
+
 /*
  * #%L
  * de.metas.monitoring
@@ -31,7 +33,7 @@ public class NoopPerformanceMonitoringService implements PerformanceMonitoringSe
 	@Override
 	public <V> V monitorSpan(Callable<V> callable, SpanMetadata request)
 	{
-		try
+		try (final IAutoCloseable context = PerformanceMonitoringContext.temporarySetCurrentNameIfRestAPI(request))
 		{
 			return callable.call();
 		}
@@ -44,7 +46,7 @@ public class NoopPerformanceMonitoringService implements PerformanceMonitoringSe
 	@Override
 	public <V> V monitorTransaction(Callable<V> callable, TransactionMetadata request)
 	{
-		try
+		try (final IAutoCloseable context = PerformanceMonitoringContext.temporarySetCurrentName(request.getType().getCode(), request.getName()))
 		{
 			return callable.call();
 		}
@@ -0,0 +1,81 @@
+package de.metas.monitoring.adapter;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.IAutoCloseable;
+
+import de.metas.monitoring.adapter.PerformanceMonitoringService.SpanMetadata;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.Type;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Remembers which monitored transaction (e.g. async workpackage, scheduler, REST API call) is currently running in the current thread,
+ * so that low level instrumentation (e.g. SQL statistics) can tell which business process caused the work it measures.
+ * <p>
+ * It is maintained by the {@link PerformanceMonitoringService} implementations, no matter if an actual APM is available or not.
+ */
+@UtilityClass
+public class PerformanceMonitoringContext
+{
+	private final ThreadLocal<String> currentName = new ThreadLocal<>();
+
+	/**
+	 * @return the name of the innermost monitored transaction of the current thread, e.g. {@code "asyncWorkPackage:Workpackage-Processor - MyProcessor"}
+	 */
+	@Nullable
+	public String getCurrentName()
+	{
+		return currentName.get();
+	}
+
+	public IAutoCloseable temporarySetCurrentName(@NonNull final String type, @NonNull final String name)
+	{
+		final String previousName = currentName.get();
+		currentName.set(type + ":" + name);
+		return () -> {
+			if (previousName != null)
+			{
+				currentName.set(previousName);
+			}
+			else
+			{
+				currentName.remove();
+			}
+		};
+	}
+
+	/**
+	 * REST API calls are monitored as spans, so only those spans are considered; all the other spans are just parts of the current transaction.
+	 */
+	public IAutoCloseable temporarySetCurrentNameIfRestAPI(@NonNull final SpanMetadata metadata)
+	{
+		if (!Type.REST_API_PROCESSING.getCode().equals(metadata.getType()))
+		{
+			return () -> {};
+		}
+		return temporarySetCurrentName(metadata.getType(), metadata.getName());
+	}
+}
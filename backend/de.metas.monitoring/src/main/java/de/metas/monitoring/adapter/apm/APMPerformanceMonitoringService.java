@@ -3,6 +3,7 @@ package de.metas.monitoring.adapter.apm;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
+import org.adempiere.util.lang.IAutoCloseable;
 import org.springframework.stereotype.Service;
 
 import co.elastic.apm.api.ElasticApm;
@@ -10,6 +11,7 @@ import co.elastic.apm.api.HeaderInjector;
 import co.elastic.apm.api.Scope;
 import co.elastic.apm.api.Span;
 import co.elastic.apm.api.Transaction;
+import de.metas.monitoring.adapter.PerformanceMonitoringContext;
 import de.metas.monitoring.adapter.PerformanceMonitoringService;
 import de.metas.monitoring.adapter.PerformanceMonitoringServiceUtil;
 import lombok.NonNull;
@@ -55,7 +57,8 @@ public class APMPerformanceMonitoringService implements PerformanceMonitoringSer
 			transaction = ElasticApm.startTransactionWithRemoteParent(name -> distrHeaders.get(name));
 		}
 
-		try (final Scope scope = transaction.activate())
+		try (final Scope scope = transaction.activate();
+				final IAutoCloseable context = PerformanceMonitoringContext.temporarySetCurrentName(metadata.getType().getCode(), metadata.getName()))
 		{
 			transaction.setName(metadata.getName());
 			transaction.setType(metadata.getType().getCode());
@@ -90,7 +93,7 @@ public class APMPerformanceMonitoringService implements PerformanceMonitoringSer
 		span.setName(metadata.getName());
 		metadata.getLabels().forEach(span::addLabel);
 
-		try
+		try (final IAutoCloseable context = PerformanceMonitoringContext.temporarySetCurrentNameIfRestAPI(metadata))
 		{
 			return callable.call();
 		}
@@ -30,6 +30,7 @@ import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule_QtyPicked;
 import de.metas.util.ISingletonService;
 import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.model.IContextAware;
 import org.compiere.model.I_M_InOutLine;
 
 import java.math.BigDecimal;
@@ -118,4 +119,20 @@ public interface IShipmentScheduleAllocDAO extends ISingletonService
 	List<I_M_ShipmentSchedule_QtyPicked> retrieveOnShipmentLineRecords(ShipmentScheduleId shipmentScheduleId);
 
 	ImmutableMap<ShipmentScheduleId, List<I_M_ShipmentSchedule_QtyPicked>> retrieveOnShipmentLineRecordsByScheduleIds(Set<ShipmentScheduleId> scheduleIds);
+
+	/**
+	 * Same as {@link #retrieveQtyDelivered(I_M_ShipmentSchedule)}, but for many shipment schedules at once.
+	 *
+	 * @param context ctx and trx to load in, i.e. the ones of the shipment schedules
+	 * @return qtys delivered; shipment schedules which were not delivered at all are not included
+	 */
+	ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyDeliveredByScheduleIds(Set<ShipmentScheduleId> scheduleIds, IContextAware context);
+
+	/**
+	 * Same as {@link #retrieveQtyPickedAndUnconfirmed(I_M_ShipmentSchedule)}, but for many shipment schedules at once.
+	 *
+	 * @param context ctx and trx to load in, i.e. the ones of the shipment schedules
+	 * @return qtys picked and unconfirmed; shipment schedules which have no such qtys are not included
+	 */
+	ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyPickedAndUnconfirmedByScheduleIds(Set<ShipmentScheduleId> scheduleIds, IContextAware context);
 }
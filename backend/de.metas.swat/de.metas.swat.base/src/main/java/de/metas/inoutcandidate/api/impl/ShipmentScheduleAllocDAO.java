@@ -1,6 +1,10 @@
 package de.metas.inoutcandidate.api.impl;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.SetMultimap;
 import de.metas.inout.InOutLineId;
 import de.metas.inout.model.I_M_InOut;
 import de.metas.inoutcandidate.ShipmentScheduleId;
@@ -16,6 +20,7 @@ import org.adempiere.ad.dao.ICompositeQueryUpdater;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.model.IContextAware;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.IQuery.Aggregate;
 import org.compiere.model.I_M_InOutLine;
@@ -61,6 +66,9 @@ public class ShipmentScheduleAllocDAO implements IShipmentScheduleAllocDAO
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final IShipmentSchedulePA shipmentScheduleDao = Services.get(IShipmentSchedulePA.class);
 
+	/** Max. shipment schedule IDs to be used in one SQL IN list */
+	private static final int IN_ARRAY_CHUNK_SIZE = 500;
+
 	/**
 	 * Creates a filter which keeps {@link I_M_ShipmentSchedule_QtyPicked} all records (active or not),
 	 * for given shipment schedule, which are <b>not</b> referenced by a shipment line.
@@ -331,6 +339,72 @@ public class ShipmentScheduleAllocDAO implements IShipmentScheduleAllocDAO
 		return ImmutableMap.copyOf(scheduleId2QtyPicked);
 	}
 
+	@Override
+	public ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyDeliveredByScheduleIds(
+			@NonNull final Set<ShipmentScheduleId> scheduleIds,
+			@NonNull final IContextAware context)
+	{
+		final HashMap<ShipmentScheduleId, BigDecimal> qtysDelivered = new HashMap<>();
+		for (final List<ShipmentScheduleId> scheduleIdsChunk : Iterables.partition(scheduleIds, IN_ARRAY_CHUNK_SIZE))
+		{
+			// NOTE: like in retrieveQtyDelivered, a shipment line shall be counted only once for a shipment schedule, no matter how many QtyPicked records are pointing to it
+			final SetMultimap<ShipmentScheduleId, InOutLineId> inoutLineIdsByScheduleId = HashMultimap.create();
+			queryBL.createQueryBuilder(I_M_ShipmentSchedule_QtyPicked.class, context)
+					.addOnlyActiveRecordsFilter()
+					.filter(createOnShipmentLineFilter(ImmutableSet.copyOf(scheduleIdsChunk), true))
+					.create()
+					.list()
+					.forEach(qtyPickedRecord -> inoutLineIdsByScheduleId.put(
+							ShipmentScheduleId.ofRepoId(qtyPickedRecord.getM_ShipmentSchedule_ID()),
+							InOutLineId.ofRepoId(qtyPickedRecord.getM_InOutLine_ID())));
+			if (inoutLineIdsByScheduleId.isEmpty())
+			{
+				continue;
+			}
+
+			final ImmutableMap<InOutLineId, BigDecimal> movementQtysByInOutLineId = queryBL.createQueryBuilder(I_M_InOutLine.class, context)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_M_InOutLine.COLUMN_M_InOutLine_ID, ImmutableSet.copyOf(inoutLineIdsByScheduleId.values()))
+					.addEqualsFilter(I_M_InOutLine.COLUMNNAME_Processed, true)
+					.create()
+					.stream()
+					.collect(ImmutableMap.toImmutableMap(inoutLine -> InOutLineId.ofRepoId(inoutLine.getM_InOutLine_ID()), I_M_InOutLine::getMovementQty));
+
+			inoutLineIdsByScheduleId.forEach((scheduleId, inoutLineId) -> {
+				final BigDecimal movementQty = movementQtysByInOutLineId.get(inoutLineId);
+				if (movementQty != null)
+				{
+					qtysDelivered.merge(scheduleId, movementQty, BigDecimal::add);
+				}
+			});
+		}
+
+		return ImmutableMap.copyOf(qtysDelivered);
+	}
+
+	@Override
+	public ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyPickedAndUnconfirmedByScheduleIds(
+			@NonNull final Set<ShipmentScheduleId> scheduleIds,
+			@NonNull final IContextAware context)
+	{
+		final HashMap<ShipmentScheduleId, BigDecimal> qtysPicked = new HashMap<>();
+		for (final List<ShipmentScheduleId> scheduleIdsChunk : Iterables.partition(scheduleIds, IN_ARRAY_CHUNK_SIZE))
+		{
+			queryBL.createQueryBuilder(I_M_ShipmentSchedule_QtyPicked.class, context)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_M_ShipmentSchedule_QtyPicked.COLUMN_M_ShipmentSchedule_ID, scheduleIdsChunk)
+					.addEqualsFilter(I_M_ShipmentSchedule_QtyPicked.COLUMNNAME_Processed, false)
+					.create()
+					.list()
+					.forEach(qtyPickedRecord -> qtysPicked.merge(
+							ShipmentScheduleId.ofRepoId(qtyPickedRecord.getM_ShipmentSchedule_ID()),
+							qtyPickedRecord.getQtyPicked(),
+							BigDecimal::add));
+		}
+
+		return ImmutableMap.copyOf(qtysPicked);
+	}
+
 	/**
 	 * Creates a filter which keeps {@link I_M_ShipmentSchedule_QtyPicked} all records (active or not), for the given shipment schedule ids, which were:
 	 * <ul>
@@ -10,8 +10,6 @@ import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.bpartner_product.IBPartnerProductDAO;
 import de.metas.inoutcandidate.ShipmentScheduleId;
 import de.metas.inoutcandidate.api.IShipmentConstraintsBL;
-import de.metas.inoutcandidate.api.IShipmentScheduleAllocBL;
-import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
 import de.metas.inoutcandidate.api.IShipmentScheduleBL;
 import de.metas.inoutcandidate.api.IShipmentScheduleEffectiveBL;
 import de.metas.inoutcandidate.api.IShipmentScheduleHandlerBL;
@@ -39,7 +37,6 @@ import de.metas.organization.OrgId;
 import de.metas.process.PInstanceId;
 import de.metas.product.IProductBL;
 import de.metas.product.ProductId;
-import de.metas.quantity.Quantity;
 import de.metas.tourplanning.api.IDeliveryDayBL;
 import de.metas.tourplanning.api.IShipmentScheduleDeliveryDayBL;
 import de.metas.tourplanning.model.TourId;
@@ -131,8 +128,6 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 	private final IShipmentScheduleBL shipmentScheduleBL = Services.get(IShipmentScheduleBL.class);
 	private final IShipmentScheduleDeliveryDayBL shipmentScheduleDeliveryDayBL = Services.get(IShipmentScheduleDeliveryDayBL.class);
 	private final IShipmentScheduleEffectiveBL shipmentScheduleEffectiveBL = Services.get(IShipmentScheduleEffectiveBL.class);
-	private final IShipmentScheduleAllocBL shipmentScheduleAllocBL = Services.get(IShipmentScheduleAllocBL.class);
-	private final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO = Services.get(IShipmentScheduleAllocDAO.class);
 	private final IShipmentConstraintsBL shipmentConstraintsBL = Services.get(IShipmentConstraintsBL.class);
 	private final ShipmentScheduleQtyOnHandStorageFactory shipmentScheduleQtyOnHandStorageFactory;
 	private final ShipmentScheduleReferencedLineFactory shipmentScheduleReferencedLineFactory;
@@ -280,7 +275,10 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			}
 		}
 
-		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(ctx, olsAndScheds);
+		// Load the quantities of all our shipment schedules at once, instead of querying them for each schedule and run
+		final ShipmentSchedulesPrefetchedData prefetchedData = ShipmentSchedulesPrefetchedData.prefetch(olsAndScheds);
+
+		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(ctx, olsAndScheds, prefetchedData);
 		firstRun.updateCompleteStatusAndSetQtyToZeroWhereNeeded();
 
 		applyCandidateProcessors(ctx, firstRun);
@@ -303,7 +301,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 
 		// make the second run
-		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(ctx, olsAndScheds, firstRun);
+		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(ctx, olsAndScheds, firstRun, prefetchedData);
 
 		// finally update the shipment schedule entries
 		for (final OlAndSched olAndSched : olsAndScheds)
@@ -311,7 +309,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			final I_M_ShipmentSchedule schedRecord = olAndSched.getSched();
 			final BPartnerId bpartnerId = shipmentScheduleEffectiveBL.getBPartnerId(schedRecord); // task 08756: we don't really care for the ol's partner, but for the partner who will actually receive the shipment.
 
-			schedRecord.setAllowConsolidateInOut(isAllowConsolidateShipment(bpartnerId));
+			schedRecord.setAllowConsolidateInOut(prefetchedData.isAllowConsolidateShipment(bpartnerId, this::isAllowConsolidateShipment));
 
 			updatePreparationAndDeliveryDate(schedRecord);
 
@@ -322,7 +320,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 			// task 09358: ol.qtyReserved should be as correct as QtyOrdered and QtyDelivered, but in some cases isn't. this here is a workaround to the problem
 			// task 09869: don't rely on ol anyways
-			final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(schedRecord);
+			final BigDecimal qtyDelivered = prefetchedData.getQtyDelivered(olAndSched.getShipmentScheduleId());
 			schedRecord.setQtyDelivered(qtyDelivered);
 			schedRecord.setQtyReserved(BigDecimal.ZERO.max(olAndSched.getQtyOrdered().subtract(schedRecord.getQtyDelivered())));
 
@@ -361,7 +359,9 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			final I_M_Product product = productsService.getById(productId);
 			final OrgId orgId = OrgId.ofRepoId(product.getAD_Org_ID());
 
-			final I_C_BPartner_Product bpp = bpartnerProductDAO.retrieveBPartnerProductAssociation(ctx, partnerId, productId, orgId);
+			final I_C_BPartner_Product bpp = prefetchedData.getBPartnerProductAssociation(
+					partnerId, productId, orgId,
+					() -> bpartnerProductDAO.retrieveBPartnerProductAssociation(ctx, partnerId, productId, orgId));
 			if (bpp == null)
 			{
 				// in case no dropship bpp entry was found, the schedule shall not be dropship
@@ -414,32 +414,43 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 	}
 
+	@VisibleForTesting
 	ShipmentSchedulesDuringUpdate generate_FirstRun(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines)
+	{
+		return generate_FirstRun(ctx, lines, ShipmentSchedulesPrefetchedData.prefetch(lines));
+	}
+
+	private ShipmentSchedulesDuringUpdate generate_FirstRun(
+			@NonNull final Properties ctx,
+			@NonNull final List<OlAndSched> lines,
+			@NonNull final ShipmentSchedulesPrefetchedData prefetchedData)
 	{
 		try (final MDCCloseable mdcClosable = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(1))
 		{
 			final ShipmentSchedulesDuringUpdate firstRun = new ShipmentSchedulesDuringUpdate();
-			return generate(ctx, lines, firstRun);
+			return generate(ctx, lines, firstRun, prefetchedData);
 		}
 	}
 
-	ShipmentSchedulesDuringUpdate generate_SecondRun(
+	private ShipmentSchedulesDuringUpdate generate_SecondRun(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate firstRun)
+			@NonNull final ShipmentSchedulesDuringUpdate firstRun,
+			@NonNull final ShipmentSchedulesPrefetchedData prefetchedData)
 	{
 		try (final MDCCloseable mdcClosable = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(2))
 		{
-			return generate(ctx, lines, firstRun);
+			return generate(ctx, lines, firstRun, prefetchedData);
 		}
 	}
 
 	private ShipmentSchedulesDuringUpdate generate(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate candidates)
+			@NonNull final ShipmentSchedulesDuringUpdate candidates,
+			@NonNull final ShipmentSchedulesPrefetchedData prefetchedData)
 	{
 		//
 		// Load QtyOnHand in scope for our lines
@@ -473,7 +484,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				}
 				else
 				{
-					final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+					final BigDecimal qtyDelivered = prefetchedData.getQtyDelivered(olAndSched.getShipmentScheduleId());
 					qtyRequired = olAndSched.getQtyOrdered().subtract(qtyDelivered);
 					logger.debug("QtyOrdered={}; QtyDelivered={}; => qtyRequired={}", olAndSched.getQtyOrdered(), qtyDelivered, qtyRequired);
 				}
@@ -485,9 +496,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				final BigDecimal qtyPickedOrOnDraftShipment;
 				{
 					// task 08123: we also take those numbers into account that are *not* on an M_InOutLine yet, but are nonetheless picked
-					final Quantity qtyPickedAndUnconfirmed = shipmentScheduleAllocBL.retrieveQtyPickedAndUnconfirmed(sched);
-					logger.debug("QtyPickedAndUnconfirmed={}", qtyPickedAndUnconfirmed);
-					qtyPickedOrOnDraftShipment = qtyPickedAndUnconfirmed.toBigDecimal();
+					qtyPickedOrOnDraftShipment = prefetchedData.getQtyPickedAndUnconfirmed(olAndSched.getShipmentScheduleId());
+					logger.debug("QtyPickedAndUnconfirmed={}", qtyPickedOrOnDraftShipment);
 
 					// Update shipment schedule's fields
 					sched.setQtyPickList(qtyPickedOrOnDraftShipment);
@@ -509,7 +519,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 							ShipmentScheduleAvailableStock.of(),
 							true/* force */,
 							CompleteStatus.OK,
-							candidates);
+							candidates,
+							prefetchedData);
 					continue;
 				}
 				else
@@ -535,7 +546,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 								storages,
 								true, // force
 								completeStatus,
-								candidates);
+								candidates,
+								prefetchedData);
 					}
 					//
 					// Delivery rule: Complete Order/Line or Availability or Manual
@@ -559,7 +571,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 									storages,
 									false, // force
 									completeStatus,
-									candidates);
+									candidates,
+									prefetchedData);
 						}
 						else
 						{
@@ -605,7 +618,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			@NonNull final ShipmentScheduleAvailableStock storages,
 			final boolean force,
 			@NonNull final CompleteStatus completeStatus,
-			@NonNull final ShipmentSchedulesDuringUpdate candidates)
+			@NonNull final ShipmentSchedulesDuringUpdate candidates,
+			@NonNull final ShipmentSchedulesPrefetchedData prefetchedData)
 	{
 		if (candidates.hasDeliveryLineCandidateFor(olAndSched.getShipmentScheduleId()))
 		{
@@ -613,7 +627,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			return;
 		}
 
-		final DeliveryGroupCandidate groupCandidate = getOrCreateGroupCandidateForShipmentSchedule(olAndSched.getSched(), candidates);
+		final DeliveryGroupCandidate groupCandidate = getOrCreateGroupCandidateForShipmentSchedule(olAndSched.getSched(), candidates, prefetchedData);
 
 		if (storages.isEmpty())
 		{
@@ -705,7 +719,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 	private DeliveryGroupCandidate getOrCreateGroupCandidateForShipmentSchedule(
 			@NonNull final I_M_ShipmentSchedule sched,
-			final IShipmentSchedulesDuringUpdate candidates)
+			final IShipmentSchedulesDuringUpdate candidates,
+			@NonNull final ShipmentSchedulesPrefetchedData prefetchedData)
 	{
 		final BPartnerId bpartnerId = shipmentScheduleEffectiveBL.getBPartnerId(sched);
 
@@ -715,7 +730,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		DeliveryGroupCandidate candidate = null;
 
 		final WarehouseId warehouseId = shipmentScheduleEffectiveBL.getWarehouseId(sched);
-		if (isAllowConsolidateShipment(bpartnerId))
+		if (prefetchedData.isAllowConsolidateShipment(bpartnerId, this::isAllowConsolidateShipment))
 		{
 			// see if there is an existing shipment for this location and shipper
 			candidate = candidates.getGroupForShipper(scheduleSourceDoc.getShipperId(), warehouseId, bpartnerAddress);
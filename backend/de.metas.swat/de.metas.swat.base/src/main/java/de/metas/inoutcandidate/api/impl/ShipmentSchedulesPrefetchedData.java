@@ -0,0 +1,131 @@
+package de.metas.inoutcandidate.api.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import de.metas.bpartner.BPartnerId;
+import de.metas.inoutcandidate.ShipmentScheduleId;
+import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.model.IContextAware;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_C_BPartner_Product;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Data which {@link ShipmentScheduleUpdater} needs for each of the shipment schedules it updates in one go.
+ * <p>
+ * The quantities are loaded for all the shipment schedules at once, instead of one query per shipment schedule and run.
+ * The other data is shared by many shipment schedules (e.g. same bpartner), so it's loaded lazily and remembered until the update is done.
+ * <p>
+ * Not thread-safe; an instance shall be used only for one update.
+ */
+final class ShipmentSchedulesPrefetchedData
+{
+	public static ShipmentSchedulesPrefetchedData prefetch(@NonNull final List<OlAndSched> olsAndScheds)
+	{
+		if (olsAndScheds.isEmpty())
+		{
+			return new ShipmentSchedulesPrefetchedData(ImmutableMap.of(), ImmutableMap.of());
+		}
+
+		final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO = Services.get(IShipmentScheduleAllocDAO.class);
+
+		final ImmutableSet<ShipmentScheduleId> scheduleIds = olsAndScheds.stream()
+				.map(OlAndSched::getShipmentScheduleId)
+				.collect(ImmutableSet.toImmutableSet());
+
+		// load in the same trx as the shipment schedules, like the per-schedule retrieveQtyDelivered and retrieveQtyPickedAndUnconfirmed do
+		final IContextAware context = InterfaceWrapperHelper.getContextAware(olsAndScheds.get(0).getSched());
+
+		return new ShipmentSchedulesPrefetchedData(
+				shipmentScheduleAllocDAO.retrieveQtyDeliveredByScheduleIds(scheduleIds, context),
+				shipmentScheduleAllocDAO.retrieveQtyPickedAndUnconfirmedByScheduleIds(scheduleIds, context));
+	}
+
+	private final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysDelivered;
+	private final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysPickedAndUnconfirmed;
+
+	private final HashMap<BPartnerId, Boolean> allowConsolidateShipmentByBPartnerId = new HashMap<>();
+	private final HashMap<BPartnerProductKey, Optional<I_C_BPartner_Product>> bpartnerProductAssociations = new HashMap<>();
+
+	private ShipmentSchedulesPrefetchedData(
+			@NonNull final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysDelivered,
+			@NonNull final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysPickedAndUnconfirmed)
+	{
+		this.qtysDelivered = qtysDelivered;
+		this.qtysPickedAndUnconfirmed = qtysPickedAndUnconfirmed;
+	}
+
+	/** @see de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO#retrieveQtyDelivered(de.metas.inoutcandidate.model.I_M_ShipmentSchedule) */
+	public BigDecimal getQtyDelivered(@NonNull final ShipmentScheduleId scheduleId)
+	{
+		return qtysDelivered.getOrDefault(scheduleId, BigDecimal.ZERO);
+	}
+
+	/** @see de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO#retrieveQtyPickedAndUnconfirmed(de.metas.inoutcandidate.model.I_M_ShipmentSchedule) */
+	public BigDecimal getQtyPickedAndUnconfirmed(@NonNull final ShipmentScheduleId scheduleId)
+	{
+		return qtysPickedAndUnconfirmed.getOrDefault(scheduleId, BigDecimal.ZERO);
+	}
+
+	public boolean isAllowConsolidateShipment(
+			@NonNull final BPartnerId bpartnerId,
+			@NonNull final Function<BPartnerId, Boolean> loader)
+	{
+		return allowConsolidateShipmentByBPartnerId.computeIfAbsent(bpartnerId, loader);
+	}
+
+	@Nullable
+	public I_C_BPartner_Product getBPartnerProductAssociation(
+			@NonNull final BPartnerId bpartnerId,
+			@NonNull final ProductId productId,
+			@NonNull final OrgId orgId,
+			@NonNull final Supplier<I_C_BPartner_Product> loader)
+	{
+		return bpartnerProductAssociations
+				.computeIfAbsent(new BPartnerProductKey(bpartnerId, productId, orgId), key -> Optional.ofNullable(loader.get()))
+				.orElse(null);
+	}
+
+	@Value
+	private static class BPartnerProductKey
+	{
+		BPartnerId bpartnerId;
+		ProductId productId;
+		OrgId orgId;
+	}
+}
@@ -22,6 +22,8 @@ import org.compiere.model.I_C_InvoiceSchedule;
 import org.compiere.model.I_M_InOut;
 import org.compiere.model.I_M_InOutLine;
 
+import com.google.common.collect.ImmutableListMultimap;
+
 /*
  * #%L
  * de.metas.swat.base
@@ -312,6 +314,19 @@ public interface IInvoiceCandDAO extends ISingletonService
 	@Nullable
 	I_C_InvoiceCandidate_InOutLine retrieveInvoiceCandidateInOutLine(@NonNull I_C_Invoice_Candidate ic, @NonNull I_M_InOutLine iol);
 
+	/**
+	 * Return all active allocations between the given invoice candidate and receipt/shipment lines, ordered by {@code M_InOutLine_ID}.
+	 * Unlike {@link #retrieveICIOLAssociationsExclRE(I_C_Invoice_Candidate)}, this also includes the allocations to reversed receipts/shipments.
+	 * The query is made within the ic's transaction.
+	 */
+	List<I_C_InvoiceCandidate_InOutLine> retrieveActiveICIOLAssociations(@NonNull I_C_Invoice_Candidate ic);
+
+	/**
+	 * Same as {@link #retrieveActiveICIOLAssociations(I_C_Invoice_Candidate)}, but for many invoice candidates at once, using one query.
+	 * The query is made out of transaction.
+	 */
+	ImmutableListMultimap<InvoiceCandidateId, I_C_InvoiceCandidate_InOutLine> retrieveActiveICIOLAssociationsOutOfTrx(@NonNull Set<InvoiceCandidateId> invoiceCandidateIds);
+
 	/**
 	 * Checks if the given <code>ic</code> is referenced by a <code>C_Invoice_Candidate_Recompute</code> record. The check is made within the ic's transaction.<br>
 	 * Please use this method instead of calling the SQL-column based {@link I_C_Invoice_Candidate#isToRecompute()}.
@@ -59,6 +59,7 @@ import org.compiere.util.TimeUtil;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 
 import ch.qos.logback.classic.Level;
@@ -387,6 +388,40 @@ public class InvoiceCandDAO implements IInvoiceCandDAO
 				.firstOnly(I_C_InvoiceCandidate_InOutLine.class);
 	}
 
+	@Override
+	public List<I_C_InvoiceCandidate_InOutLine> retrieveActiveICIOLAssociations(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		return queryBL
+				.createQueryBuilder(I_C_InvoiceCandidate_InOutLine.class, ic)
+				.addEqualsFilter(I_C_InvoiceCandidate_InOutLine.COLUMN_C_Invoice_Candidate_ID, ic.getC_Invoice_Candidate_ID())
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_C_InvoiceCandidate_InOutLine.COLUMN_M_InOutLine_ID)
+				//
+				.create()
+				.list(I_C_InvoiceCandidate_InOutLine.class);
+	}
+
+	@Override
+	public ImmutableListMultimap<InvoiceCandidateId, I_C_InvoiceCandidate_InOutLine> retrieveActiveICIOLAssociationsOutOfTrx(@NonNull final Set<InvoiceCandidateId> invoiceCandidateIds)
+	{
+		if (invoiceCandidateIds.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		return queryBL
+				.createQueryBuilderOutOfTrx(I_C_InvoiceCandidate_InOutLine.class)
+				.addInArrayFilter(I_C_InvoiceCandidate_InOutLine.COLUMN_C_Invoice_Candidate_ID, invoiceCandidateIds)
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_C_InvoiceCandidate_InOutLine.COLUMN_M_InOutLine_ID)
+				//
+				.create()
+				.stream(I_C_InvoiceCandidate_InOutLine.class)
+				.collect(ImmutableListMultimap.toImmutableListMultimap(
+						iciol -> InvoiceCandidateId.ofRepoId(iciol.getC_Invoice_Candidate_ID()),
+						iciol -> iciol));
+	}
+
 	@Override
 	public List<I_C_InvoiceCandidate_InOutLine> retrieveICIOLAssociationsExclRE(@NonNull final I_C_Invoice_Candidate invoiceCandidate)
 	{
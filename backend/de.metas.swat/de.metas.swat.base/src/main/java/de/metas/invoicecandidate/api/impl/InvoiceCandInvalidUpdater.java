@@ -23,6 +23,7 @@
 package de.metas.invoicecandidate.api.impl;
 
 import ch.qos.logback.classic.Level;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.LinkedHashMultimap;
 import de.metas.inout.IInOutDAO;
 import de.metas.invoicecandidate.api.IInvoiceCandBL;
@@ -41,9 +42,12 @@ import de.metas.lock.api.ILock;
 import de.metas.logging.LogManager;
 import de.metas.logging.TableRecordMDC;
 import de.metas.util.Check;
+import de.metas.util.GuavaCollectors;
+import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.ToString;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
@@ -62,11 +66,16 @@ import org.slf4j.MDC.MDCCloseable;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.math.BigDecimal.ONE;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
@@ -87,6 +96,15 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	private static final String SYSCONFIG_ItemsPerBatch = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ItemsPerBatch";
 	private static final int DEFAULT_ItemsPerBatch = 100;
 
+	/**
+	 * Number of workers which are updating invoice candidates in parallel, each of them in its own transaction.
+	 * Used only if the invoice candidates are updated in batches, i.e. not if a particular set of invoice candidates is updated.
+	 */
+	private static final String SYSCONFIG_Parallelism = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.Parallelism";
+	private static final int DEFAULT_Parallelism = 1;
+
+	private static final Duration PROGRESS_LOG_INTERVAL = Duration.ofSeconds(30);
+
 	//
 	// Parameters
 	private Properties _ctx;
@@ -153,19 +171,31 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		final boolean processInBatches = !icTagger.isOnlyC_Invoice_Candidate_IDs();
 		final int itemsPerBatch = processInBatches ? getItemsPerBatch() : Integer.MAX_VALUE;
 
+		//
+		// Prefetching and parallel processing are allowed only if each chunk is processed and committed in its own transaction,
+		// because the prefetched data is loaded out of transaction and the workers can't share the caller's transaction.
+		final boolean chunksInOwnTrx = processInBatches && trxManager.isNull(trxManager.get(getTrxName(), OnTrxMissingPolicy.ReturnTrxNone));
+		final InvoiceCandUpdatePrefetcher prefetcher = chunksInOwnTrx ? new InvoiceCandUpdatePrefetcher(itemsPerBatch) : null;
+		final int parallelism = chunksInOwnTrx ? getParallelism() : 1;
+
 		//
 		// Fetch the invoice candidates to update
-		final Iterator<I_C_Invoice_Candidate> candidatesToUpdate = icTagger.retrieveInvoiceCandidates();
+		Iterator<I_C_Invoice_Candidate> candidatesToUpdate = icTagger.retrieveInvoiceCandidates();
 		if (!candidatesToUpdate.hasNext())
 		{
 			// no candidates found => nothing to do
 			Loggables.withLogger(logger, Level.DEBUG).addLog("icTagger has no invoice candidates to update; nothing to do; icTagger={}", icTagger);
 			return;
 		}
+		if (prefetcher != null)
+		{
+			candidatesToUpdate = prefetcher.prefetchingIterator(candidatesToUpdate);
+		}
 
 		//
 		// Update invoice candidates in chunks
 		final ICUpdateResult result = new ICUpdateResult();
+		final ILoggable loggable = new SynchronizedLoggable(Loggables.get());
 		try (final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
 		{
 			trxItemProcessorExecutorService.<I_C_Invoice_Candidate, ICUpdateResult> createExecutor()
@@ -181,76 +211,13 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 					// issue #302: ICTrxItemExceptionHandler will deal with problems, so we just continue if they happen.
 					.setOnItemErrorPolicy(OnItemErrorPolicy.ContinueChunkAndCommit)
 
-					.setProcessor(new TrxItemChunkProcessorAdapter<I_C_Invoice_Candidate, ICUpdateResult>()
-					{
-						/** the invoice candidates which were updated in current batch/chunk */
-						final List<Integer> chunkInvoiceCandidateIds = new ArrayList<>();
-
-						@Override
-						public void process(final I_C_Invoice_Candidate icRecord)
-						{
-							try (final MDCCloseable ignore = TableRecordMDC.putTableRecordReference(icRecord))
-							{
-
-
-								chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
-
-								updateInvalid(icRecord);
-								if (!icRecord.isError())
-								{
-									logger.debug("Updated invoice candidate");
-									result.addInvoiceCandidate(icRecord);
-									final ITrx currentTrx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
-									if (trxManager.isActive(currentTrx))
-									{
-										final InvoiceCandidateValidationCollector collector = currentTrx.getPropertyAndProcessAfterCommit(
-												InvoiceCandidateValidationCollector.class.getName(),
-												InvoiceCandidateValidationCollector::new,
-												InvoiceCandidateValidationCollector::processAsync);
-
-										collector.collect(icRecord);
-									}
-								}
-								else
-								{
-									Loggables.withLogger(logger, Level.DEBUG)
-											.addLog("Error updating invoice candidate; ic.errorMessage={}; icRecord={}", icRecord.getErrorMsg(), icRecord);
-									result.incrementErrorsCount();
-								}
-							}
-						}
-
-						@Override
-						public ICUpdateResult getResult()
-						{
-							return result;
-						}
-
-						/**
-						 * Always return <code>true</code> and let the caller decide when to close the chunk (based on ItemsPerBatch setting).
-						 * We do this because in fact, each IC is independent from each other.
-						 * On the other hand, we don't want the overhead of dealing with each IC independently (trx-commit etc).
-						 */
-						@Override
-						public boolean isSameChunk(final I_C_Invoice_Candidate item)
-						{
-							return true;
-						}
-
-						@Override
-						public void newChunk(final I_C_Invoice_Candidate item)
-						{
-							chunkInvoiceCandidateIds.clear(); // better safe than sorry
-						}
-
-						/** Delete the items which we just updated from <code>C_Invoice_Candidate_Recompute</code>. */
-						@Override
-						public void completeChunk()
-						{
-							icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
-							chunkInvoiceCandidateIds.clear();
-						}
-					})
+					// ICs of the same bill partner might end up in the same invoice, so we update them in the same worker, one after the other.
+					// Note that we can't partition by the header aggregation key, because it's only (re)computed while updating the IC.
+					.setParallelism(parallelism, I_C_Invoice_Candidate::getBill_BPartner_ID)
+					// the workers need our thread-local state not only while updating the ICs but also while completing and committing their chunks
+					.setWorkerThreadInitializer(() -> setUpWorkerThread(loggable))
+					.setProcessorFactory(() -> new ICUpdateChunkProcessor(result, prefetcher))
+					.setResultsMerger((result1, result2) -> result) // all workers share the same result
 					//
 					.process(candidatesToUpdate);
 		}
@@ -260,6 +227,106 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		Loggables.addLog("Update invalid result: {}", result.getSummary());
 	}
 
+	/**
+	 * Sets up the thread-local state of our caller in a worker thread which is updating invoice candidates in parallel.
+	 */
+	private IAutoCloseable setUpWorkerThread(@NonNull final ILoggable loggable)
+	{
+		final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(loggable);
+		final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress();
+		return () -> {
+			updateInProgressCloseable.close();
+			loggableRestorer.close();
+		};
+	}
+
+	/**
+	 * Updates the invoice candidates of one chunk.
+	 * When updating in parallel, each worker has its own instance.
+	 */
+	private final class ICUpdateChunkProcessor extends TrxItemChunkProcessorAdapter<I_C_Invoice_Candidate, ICUpdateResult>
+	{
+		private final ICUpdateResult result;
+		@Nullable
+		private final InvoiceCandUpdatePrefetcher prefetcher;
+
+		/** the invoice candidates which were updated in current batch/chunk */
+		private final List<Integer> chunkInvoiceCandidateIds = new ArrayList<>();
+
+		private ICUpdateChunkProcessor(
+				@NonNull final ICUpdateResult result,
+				@Nullable final InvoiceCandUpdatePrefetcher prefetcher)
+		{
+			this.result = result;
+			this.prefetcher = prefetcher;
+		}
+
+		@Override
+		public void process(final I_C_Invoice_Candidate icRecord)
+		{
+			try (final MDCCloseable ignore = TableRecordMDC.putTableRecordReference(icRecord))
+			{
+				chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
+
+				updateInvalid(icRecord, prefetcher);
+				if (!icRecord.isError())
+				{
+					logger.debug("Updated invoice candidate");
+					result.addInvoiceCandidate(icRecord);
+					final ITrx currentTrx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+					if (trxManager.isActive(currentTrx))
+					{
+						final InvoiceCandidateValidationCollector collector = currentTrx.getPropertyAndProcessAfterCommit(
+								InvoiceCandidateValidationCollector.class.getName(),
+								InvoiceCandidateValidationCollector::new,
+								InvoiceCandidateValidationCollector::processAsync);
+
+						collector.collect(icRecord);
+					}
+				}
+				else
+				{
+					Loggables.withLogger(logger, Level.DEBUG)
+							.addLog("Error updating invoice candidate; ic.errorMessage={}; icRecord={}", icRecord.getErrorMsg(), icRecord);
+					result.incrementErrorsCount();
+				}
+			}
+		}
+
+		@Override
+		public ICUpdateResult getResult()
+		{
+			return result;
+		}
+
+		/**
+		 * Always return <code>true</code> and let the caller decide when to close the chunk (based on ItemsPerBatch setting).
+		 * We do this because in fact, each IC is independent from each other.
+		 * On the other hand, we don't want the overhead of dealing with each IC independently (trx-commit etc).
+		 */
+		@Override
+		public boolean isSameChunk(final I_C_Invoice_Candidate item)
+		{
+			return true;
+		}
+
+		@Override
+		public void newChunk(final I_C_Invoice_Candidate item)
+		{
+			chunkInvoiceCandidateIds.clear(); // better safe than sorry
+		}
+
+		/** Delete the items which we just updated from <code>C_Invoice_Candidate_Recompute</code>. */
+		@Override
+		public void completeChunk()
+		{
+			icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
+			chunkInvoiceCandidateIds.clear();
+
+			result.logProgressIfDue();
+		}
+	}
+
 	private class InvoiceCandidateValidationCollector
 	{
 		private final LinkedHashMultimap<String, Integer> headerKeys = LinkedHashMultimap.create();
@@ -287,7 +354,9 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 	}
 
-	private void updateInvalid(@NonNull final I_C_Invoice_Candidate icRecord)
+	private void updateInvalid(
+			@NonNull final I_C_Invoice_Candidate icRecord,
+			@Nullable final InvoiceCandUpdatePrefetcher prefetcher)
 	{
 		final Properties ctx = InterfaceWrapperHelper.getCtx(icRecord);
 
@@ -318,7 +387,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		// Note: the code originally related to task 06502 has partially been moved to de.metas.invoicecandidate.modelvalidator.M_InoutLine
 		// we'll need those icIols to be up to date to date in order to have QtyWithIssues (updateQtyWithIssues() et al. further down),
 		// and we need them (depending on which handler) for setDeliveredData()
-		populateC_InvoiceCandidate_InOutLine(icRecord, icRecord.getC_OrderLine());
+		populateC_InvoiceCandidate_InOutLine(icRecord, icRecord.getC_OrderLine(), prefetcher);
 
 		// Update 'QtyToInvoice_OverrideFulfilled'
 		// If is turns out that the fulfillment is now sufficient,
@@ -391,20 +460,36 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	 */
 	private void populateC_InvoiceCandidate_InOutLine(
 			@NonNull final I_C_Invoice_Candidate ic,
-			@Nullable final org.compiere.model.I_C_OrderLine orderLine)
+			@Nullable final org.compiere.model.I_C_OrderLine orderLine,
+			@Nullable final InvoiceCandUpdatePrefetcher prefetcher)
 	{
 		if (orderLine == null)
 		{
 			return; // nothing to do
 		}
 
-		final IContextAware context = InterfaceWrapperHelper.getContextAware(ic);
+		final List<I_M_InOutLine> inoutLines = prefetcher != null
+				? prefetcher.getInOutLines(orderLine)
+				: inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class);
+		if (inoutLines.isEmpty())
+		{
+			return; // nothing to do
+		}
+
+		// load the existing associations with one query, instead of one query per inoutLine
+		// NOTE: there is a unique index on C_Invoice_Candidate_ID and M_InOutLine_ID (C_IC_IOL_Unique_Active), so there is at most one per inoutLine
+		final List<I_C_InvoiceCandidate_InOutLine> existingIciols = prefetcher != null
+				? prefetcher.getActiveICIOLAssociations(ic)
+				: invoiceCandDAO.retrieveActiveICIOLAssociations(ic);
+		final Map<Integer, I_C_InvoiceCandidate_InOutLine> existingIciolsByInOutLineId = existingIciols
+				.stream()
+				.collect(GuavaCollectors.toHashMapByKey(I_C_InvoiceCandidate_InOutLine::getM_InOutLine_ID));
 
-		final List<I_M_InOutLine> inoutLines = inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class);
+		final IContextAware context = InterfaceWrapperHelper.getContextAware(ic);
 		for (final I_M_InOutLine inOutLine : inoutLines)
 		{
 			// create a new PO or update the unique existing one
-			I_C_InvoiceCandidate_InOutLine iciol = invoiceCandDAO.retrieveInvoiceCandidateInOutLine(ic, inOutLine);
+			I_C_InvoiceCandidate_InOutLine iciol = existingIciolsByInOutLineId.get(inOutLine.getM_InOutLine_ID());
 			if (iciol == null)
 			{
 				iciol = newInstance(I_C_InvoiceCandidate_InOutLine.class, context);
@@ -521,24 +606,48 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		return sysConfigBL.getIntValue(SYSCONFIG_ItemsPerBatch, DEFAULT_ItemsPerBatch);
 	}
 
+	private int getParallelism()
+	{
+		return Math.max(sysConfigBL.getIntValue(SYSCONFIG_Parallelism, DEFAULT_Parallelism), 1);
+	}
+
 	/**
 	 * IC update result.
+	 * Thread-safe, because when updating in parallel it's shared by all workers.
 	 *
 	 * @author metas-dev <dev@metasfresh.com>
 	 */
 	private static final class ICUpdateResult
 	{
-		private int countOk = 0;
-		private int countErrors = 0;
+		private final Stopwatch stopwatch = Stopwatch.createStarted();
+		private final AtomicInteger countOk = new AtomicInteger(0);
+		private final AtomicInteger countErrors = new AtomicInteger(0);
+		private final AtomicLong lastProgressLogMillis = new AtomicLong(0);
 
 		public void addInvoiceCandidate(final I_C_Invoice_Candidate ic)
 		{
-			countOk++;
+			countOk.incrementAndGet();
 		}
 
 		public void incrementErrorsCount()
 		{
-			countErrors++;
+			countErrors.incrementAndGet();
+		}
+
+		/**
+		 * Logs the progress, but not more often than {@link #PROGRESS_LOG_INTERVAL}, so that we get an idea of how a long running update is doing.
+		 */
+		public void logProgressIfDue()
+		{
+			final long elapsedMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+			final long lastLogMillis = lastProgressLogMillis.get();
+			if (elapsedMillis - lastLogMillis < PROGRESS_LOG_INTERVAL.toMillis()
+					|| !lastProgressLogMillis.compareAndSet(lastLogMillis, elapsedMillis))
+			{
+				return;
+			}
+
+			logger.info("Update invalid in progress: {}", getSummary());
 		}
 
 		@Override
@@ -549,7 +658,14 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 		public String getSummary()
 		{
-			return "Updated " + countOk + " invoice candidates, " + countErrors + " errors";
+			final int countOk = this.countOk.get();
+			final int countErrors = this.countErrors.get();
+			final long elapsedMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+			final long countPerSecond = elapsedMillis > 0 ? (countOk + countErrors) * 1000L / elapsedMillis : 0;
+
+			return "Updated " + countOk + " invoice candidates, " + countErrors + " errors"
+					+ " in " + stopwatch
+					+ " (" + countPerSecond + " invoice candidates/sec)";
 		}
 	}
 
@@ -585,4 +701,31 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 			invoiceCandDAO.save(ic);
 		}
 	}
+
+	/**
+	 * Makes the caller's loggable usable from the workers which are updating invoice candidates in parallel.
+	 */
+	@ToString
+	private static final class SynchronizedLoggable implements ILoggable
+	{
+		private final ILoggable delegate;
+
+		private SynchronizedLoggable(@NonNull final ILoggable delegate)
+		{
+			this.delegate = delegate;
+		}
+
+		@Override
+		public synchronized ILoggable addLog(final String msg, final Object... msgParameters)
+		{
+			delegate.addLog(msg, msgParameters);
+			return this;
+		}
+
+		@Override
+		public synchronized void flush()
+		{
+			delegate.flush();
+		}
+	}
 }
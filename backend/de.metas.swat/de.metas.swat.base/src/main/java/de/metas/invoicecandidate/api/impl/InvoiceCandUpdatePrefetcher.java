@@ -0,0 +1,207 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoicecandidate.api.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import de.metas.inout.IInOutDAO;
+import de.metas.invoicecandidate.InvoiceCandidateId;
+import de.metas.invoicecandidate.api.IInvoiceCandDAO;
+import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_M_InOutLine;
+import de.metas.order.OrderLineId;
+import de.metas.util.Services;
+import de.metas.util.collections.IteratorUtils;
+import lombok.NonNull;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_C_OrderLine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads ahead the invoice candidates which are about to be updated and loads, batch by batch, the data they need using one query per batch instead of one query per invoice candidate.
+ * <p>
+ * Currently the receipt/shipment lines of the invoice candidates' order lines and the invoice candidates' active receipt/shipment line associations are prefetched.
+ * The prefetched data is loaded out of transaction, so this shall be used only when the update is not running within a transaction which might have created that data.
+ * <p>
+ * Thread-safe: the prefetched data might be consumed by multiple workers.
+ */
+/* package */ final class InvoiceCandUpdatePrefetcher
+{
+	private final IInOutDAO inOutDAO = Services.get(IInOutDAO.class);
+	private final IInvoiceCandDAO invoiceCandDAO = Services.get(IInvoiceCandDAO.class);
+
+	private final int batchSize;
+	private final Map<OrderLineId, ImmutableList<I_M_InOutLine>> inoutLinesByOrderLineId = new ConcurrentHashMap<>();
+	private final Map<InvoiceCandidateId, ImmutableList<I_C_InvoiceCandidate_InOutLine>> iciolsByInvoiceCandidateId = new ConcurrentHashMap<>();
+
+	InvoiceCandUpdatePrefetcher(final int batchSize)
+	{
+		this.batchSize = Math.max(batchSize, 1);
+	}
+
+	/**
+	 * @return iterator which returns the same invoice candidates as the given one, but which prefetches the data for the next batch before returning its first invoice candidate.
+	 */
+	public Iterator<I_C_Invoice_Candidate> prefetchingIterator(@NonNull final Iterator<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		return new PrefetchingIterator(invoiceCandidates);
+	}
+
+	/**
+	 * @return the receipt/shipment lines of given order line; if they were not prefetched, they are loaded in the order line's transaction.
+	 */
+	public List<I_M_InOutLine> getInOutLines(@NonNull final I_C_OrderLine orderLine)
+	{
+		// NOTE: remove the entry because each order line is usually needed only once and we don't want to hold on to all the lines of a big update
+		final ImmutableList<I_M_InOutLine> prefetchedLines = inoutLinesByOrderLineId.remove(OrderLineId.ofRepoId(orderLine.getC_OrderLine_ID()));
+		if (prefetchedLines != null)
+		{
+			return prefetchedLines;
+		}
+
+		return inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class);
+	}
+
+	/**
+	 * @return the active receipt/shipment line associations of given invoice candidate, bound to the invoice candidate's transaction because they are about to be updated;
+	 * if they were not prefetched, they are loaded in that transaction.
+	 */
+	public List<I_C_InvoiceCandidate_InOutLine> getActiveICIOLAssociations(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		final ImmutableList<I_C_InvoiceCandidate_InOutLine> prefetchedIciols = iciolsByInvoiceCandidateId.remove(InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID()));
+		if (prefetchedIciols != null)
+		{
+			final String trxName = InterfaceWrapperHelper.getTrxName(ic);
+			prefetchedIciols.forEach(iciol -> InterfaceWrapperHelper.setTrxName(iciol, trxName));
+			return prefetchedIciols;
+		}
+
+		return invoiceCandDAO.retrieveActiveICIOLAssociations(ic);
+	}
+
+	private void prefetch(@NonNull final List<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		prefetchInOutLines(invoiceCandidates);
+		prefetchICIOLAssociations(invoiceCandidates);
+	}
+
+	private void prefetchInOutLines(@NonNull final List<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		final ImmutableSet<OrderLineId> orderLineIds = invoiceCandidates.stream()
+				.map(ic -> OrderLineId.ofRepoIdOrNull(ic.getC_OrderLine_ID()))
+				.filter(orderLineId -> orderLineId != null && !inoutLinesByOrderLineId.containsKey(orderLineId))
+				.collect(ImmutableSet.toImmutableSet());
+		if (orderLineIds.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableListMultimap<OrderLineId, I_M_InOutLine> inoutLines = inOutDAO.retrieveLinesForOrderLineIdsOutOfTrx(orderLineIds, I_M_InOutLine.class);
+		for (final OrderLineId orderLineId : orderLineIds)
+		{
+			// NOTE: also remember the order lines without any inout line, so that we won't query them again
+			inoutLinesByOrderLineId.put(orderLineId, inoutLines.get(orderLineId));
+		}
+	}
+
+	private void prefetchICIOLAssociations(@NonNull final List<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		final ImmutableSet<InvoiceCandidateId> invoiceCandidateIds = invoiceCandidates.stream()
+				.filter(ic -> ic.getC_OrderLine_ID() > 0) // the associations are needed only for ICs which have an order line
+				.map(ic -> InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID()))
+				.collect(ImmutableSet.toImmutableSet());
+		if (invoiceCandidateIds.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableListMultimap<InvoiceCandidateId, I_C_InvoiceCandidate_InOutLine> iciols = invoiceCandDAO.retrieveActiveICIOLAssociationsOutOfTrx(invoiceCandidateIds);
+		for (final InvoiceCandidateId invoiceCandidateId : invoiceCandidateIds)
+		{
+			iciolsByInvoiceCandidateId.put(invoiceCandidateId, iciols.get(invoiceCandidateId));
+		}
+	}
+
+	private final class PrefetchingIterator implements Iterator<I_C_Invoice_Candidate>, AutoCloseable
+	{
+		private final Iterator<I_C_Invoice_Candidate> delegate;
+		private final Deque<I_C_Invoice_Candidate> currentBatch = new ArrayDeque<>();
+
+		private PrefetchingIterator(@NonNull final Iterator<I_C_Invoice_Candidate> delegate)
+		{
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			if (currentBatch.isEmpty())
+			{
+				readNextBatch();
+			}
+			return !currentBatch.isEmpty();
+		}
+
+		@Override
+		public I_C_Invoice_Candidate next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			return currentBatch.poll();
+		}
+
+		private void readNextBatch()
+		{
+			final List<I_C_Invoice_Candidate> batch = new ArrayList<>(batchSize);
+			while (batch.size() < batchSize && delegate.hasNext())
+			{
+				batch.add(delegate.next());
+			}
+
+			if (!batch.isEmpty())
+			{
+				prefetch(batch);
+				currentBatch.addAll(batch);
+			}
+		}
+
+		@Override
+		public void close()
+		{
+			currentBatch.clear();
+			IteratorUtils.closeQuietly(delegate);
+		}
+	}
+}
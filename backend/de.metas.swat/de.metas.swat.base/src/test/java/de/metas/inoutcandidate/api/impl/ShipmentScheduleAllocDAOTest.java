@@ -2,11 +2,19 @@ package de.metas.inoutcandidate.api.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
+
+import org.adempiere.model.IContextAware;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_InOutLine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.inoutcandidate.ShipmentScheduleId;
 import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule_QtyPicked;
@@ -61,6 +69,73 @@ public class ShipmentScheduleAllocDAOTest
 				.containsExactly(qp2, qp4);
 	}
 
+	/**
+	 * Makes sure that the bulk retrieval methods are returning the same quantities as the methods which retrieve them for one shipment schedule.
+	 */
+	@Test
+	public void test_retrieveQtysByScheduleIds()
+	{
+		final I_M_ShipmentSchedule ss1 = createShipmentSchedule();
+		final I_M_ShipmentSchedule ss2 = createShipmentSchedule();
+		final I_M_ShipmentSchedule ssNothingPicked = createShipmentSchedule();
+
+		final I_M_InOutLine processedLine1 = createInOutLine("10", true);
+		final I_M_InOutLine processedLine2 = createInOutLine("3", true);
+		final I_M_InOutLine draftLine = createInOutLine("100", false);
+
+		// ss1: two picked records on the same shipment line; the shipment line shall be counted only once
+		createShipmentScheduleQtyPickedRecord(ss1, processedLine1.getM_InOutLine_ID(), "5", true);
+		createShipmentScheduleQtyPickedRecord(ss1, processedLine1.getM_InOutLine_ID(), "5", true);
+		createShipmentScheduleQtyPickedRecord(ss1, draftLine.getM_InOutLine_ID(), "100", true);
+		createShipmentScheduleQtyPickedRecord(ss1, 0, "7", false);
+
+		// ss2
+		createShipmentScheduleQtyPickedRecord(ss2, processedLine2.getM_InOutLine_ID(), "3", true);
+		createShipmentScheduleQtyPickedRecord(ss2, 0, "2", false);
+		createShipmentScheduleQtyPickedRecord(ss2, 0, "4", false);
+
+		final ImmutableSet<ShipmentScheduleId> scheduleIds = ImmutableSet.of(
+				ShipmentScheduleId.ofRepoId(ss1.getM_ShipmentSchedule_ID()),
+				ShipmentScheduleId.ofRepoId(ss2.getM_ShipmentSchedule_ID()),
+				ShipmentScheduleId.ofRepoId(ssNothingPicked.getM_ShipmentSchedule_ID()));
+
+		final IContextAware context = InterfaceWrapperHelper.getContextAware(ss1);
+
+		final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysDelivered = dao.retrieveQtyDeliveredByScheduleIds(scheduleIds, context);
+		assertThat(qtysDelivered.get(ShipmentScheduleId.ofRepoId(ss1.getM_ShipmentSchedule_ID()))).isEqualByComparingTo(dao.retrieveQtyDelivered(ss1)).isEqualByComparingTo("10");
+		assertThat(qtysDelivered.get(ShipmentScheduleId.ofRepoId(ss2.getM_ShipmentSchedule_ID()))).isEqualByComparingTo(dao.retrieveQtyDelivered(ss2)).isEqualByComparingTo("3");
+		assertThat(qtysDelivered).doesNotContainKey(ShipmentScheduleId.ofRepoId(ssNothingPicked.getM_ShipmentSchedule_ID()));
+
+		final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysPicked = dao.retrieveQtyPickedAndUnconfirmedByScheduleIds(scheduleIds, context);
+		assertThat(qtysPicked.get(ShipmentScheduleId.ofRepoId(ss1.getM_ShipmentSchedule_ID()))).isEqualByComparingTo(dao.retrieveQtyPickedAndUnconfirmed(ss1)).isEqualByComparingTo("7");
+		assertThat(qtysPicked.get(ShipmentScheduleId.ofRepoId(ss2.getM_ShipmentSchedule_ID()))).isEqualByComparingTo(dao.retrieveQtyPickedAndUnconfirmed(ss2)).isEqualByComparingTo("6");
+		assertThat(qtysPicked).doesNotContainKey(ShipmentScheduleId.ofRepoId(ssNothingPicked.getM_ShipmentSchedule_ID()));
+	}
+
+	private final I_M_InOutLine createInOutLine(final String movementQty, final boolean processed)
+	{
+		final I_M_InOutLine inoutLine = InterfaceWrapperHelper.newInstance(I_M_InOutLine.class);
+		inoutLine.setMovementQty(new BigDecimal(movementQty));
+		inoutLine.setProcessed(processed);
+		InterfaceWrapperHelper.saveRecord(inoutLine);
+		return inoutLine;
+	}
+
+	private final I_M_ShipmentSchedule_QtyPicked createShipmentScheduleQtyPickedRecord(
+			final I_M_ShipmentSchedule ss,
+			final int inoutLineId,
+			final String qtyPicked,
+			final boolean processed)
+	{
+		final I_M_ShipmentSchedule_QtyPicked record = InterfaceWrapperHelper.newInstance(I_M_ShipmentSchedule_QtyPicked.class);
+		record.setM_ShipmentSchedule_ID(ss.getM_ShipmentSchedule_ID());
+		record.setM_InOutLine_ID(inoutLineId);
+		record.setQtyPicked(new BigDecimal(qtyPicked));
+		record.setProcessed(processed);
+		InterfaceWrapperHelper.saveRecord(record);
+		return record;
+	}
+
 	private final I_M_ShipmentSchedule createShipmentSchedule()
 	{
 		final I_M_ShipmentSchedule sched = InterfaceWrapperHelper.newInstance(I_M_ShipmentSchedule.class);
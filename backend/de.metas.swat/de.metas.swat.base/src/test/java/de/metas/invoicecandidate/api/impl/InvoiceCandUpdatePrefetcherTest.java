@@ -0,0 +1,151 @@
+package de.metas.invoicecandidate.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.delete;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_OrderLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_M_InOutLine;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InvoiceCandUpdatePrefetcherTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private I_C_OrderLine createOrderLine()
+	{
+		final I_C_OrderLine orderLine = newInstance(I_C_OrderLine.class);
+		saveRecord(orderLine);
+		return orderLine;
+	}
+
+	private I_M_InOutLine createInOutLine(final I_C_OrderLine orderLine)
+	{
+		final I_M_InOutLine inoutLine = newInstance(I_M_InOutLine.class);
+		inoutLine.setC_OrderLine_ID(orderLine.getC_OrderLine_ID());
+		saveRecord(inoutLine);
+		return inoutLine;
+	}
+
+	private I_C_Invoice_Candidate createInvoiceCandidate(final I_C_OrderLine orderLine)
+	{
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		ic.setC_OrderLine_ID(orderLine.getC_OrderLine_ID());
+		saveRecord(ic);
+		return ic;
+	}
+
+	private I_C_InvoiceCandidate_InOutLine createICIOL(final I_C_Invoice_Candidate ic, final I_M_InOutLine inoutLine)
+	{
+		final I_C_InvoiceCandidate_InOutLine iciol = newInstance(I_C_InvoiceCandidate_InOutLine.class);
+		iciol.setC_Invoice_Candidate_ID(ic.getC_Invoice_Candidate_ID());
+		iciol.setM_InOutLine_ID(inoutLine.getM_InOutLine_ID());
+		saveRecord(iciol);
+		return iciol;
+	}
+
+	private static List<Integer> toIds(final List<I_M_InOutLine> inoutLines)
+	{
+		return inoutLines.stream().map(I_M_InOutLine::getM_InOutLine_ID).collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	public void prefetchingIterator_returns_all_items_and_prefetches_inoutLines()
+	{
+		final I_C_OrderLine orderLine1 = createOrderLine();
+		final I_M_InOutLine inoutLine11 = createInOutLine(orderLine1);
+		final I_M_InOutLine inoutLine12 = createInOutLine(orderLine1);
+		final I_C_OrderLine orderLine2 = createOrderLine();
+		final I_M_InOutLine inoutLine21 = createInOutLine(orderLine2);
+		final I_C_OrderLine orderLine3 = createOrderLine();
+
+		final ImmutableList<I_C_Invoice_Candidate> ics = ImmutableList.of(
+				createInvoiceCandidate(orderLine1),
+				createInvoiceCandidate(orderLine2),
+				createInvoiceCandidate(orderLine3));
+
+		final InvoiceCandUpdatePrefetcher prefetcher = new InvoiceCandUpdatePrefetcher(2);
+		final List<I_C_Invoice_Candidate> iteratedICs = new ArrayList<>();
+		final Iterator<I_C_Invoice_Candidate> iterator = prefetcher.prefetchingIterator(ics.iterator());
+		iterator.forEachRemaining(iteratedICs::add);
+		assertThat(iteratedICs).containsExactlyElementsOf(ics);
+
+		// delete an inout line, to make sure that the lines are returned from the prefetched data
+		delete(inoutLine21);
+
+		assertThat(toIds(prefetcher.getInOutLines(orderLine1))).containsExactly(inoutLine11.getM_InOutLine_ID(), inoutLine12.getM_InOutLine_ID());
+		assertThat(toIds(prefetcher.getInOutLines(orderLine2))).containsExactly(inoutLine21.getM_InOutLine_ID());
+		assertThat(prefetcher.getInOutLines(orderLine3)).isEmpty();
+
+		// the prefetched data was consumed, so now it's loaded again
+		assertThat(prefetcher.getInOutLines(orderLine2)).isEmpty();
+	}
+
+	@Test
+	public void prefetchingIterator_prefetches_iciolAssociations()
+	{
+		final I_C_OrderLine orderLine1 = createOrderLine();
+		final I_M_InOutLine inoutLine11 = createInOutLine(orderLine1);
+		final I_M_InOutLine inoutLine12 = createInOutLine(orderLine1);
+		final I_C_OrderLine orderLine2 = createOrderLine();
+
+		final I_C_Invoice_Candidate ic1 = createInvoiceCandidate(orderLine1);
+		final I_C_InvoiceCandidate_InOutLine iciol11 = createICIOL(ic1, inoutLine11);
+		final I_C_InvoiceCandidate_InOutLine iciol12 = createICIOL(ic1, inoutLine12);
+		final I_C_Invoice_Candidate ic2 = createInvoiceCandidate(orderLine2);
+
+		final InvoiceCandUpdatePrefetcher prefetcher = new InvoiceCandUpdatePrefetcher(2);
+		prefetcher.prefetchingIterator(ImmutableList.of(ic1, ic2).iterator()).forEachRemaining(ic -> {});
+
+		// delete an association, to make sure that the associations are returned from the prefetched data
+		delete(iciol12);
+
+		assertThat(prefetcher.getActiveICIOLAssociations(ic1))
+				.extracting(I_C_InvoiceCandidate_InOutLine::getC_InvoiceCandidate_InOutLine_ID)
+				.containsExactly(iciol11.getC_InvoiceCandidate_InOutLine_ID(), iciol12.getC_InvoiceCandidate_InOutLine_ID());
+		assertThat(prefetcher.getActiveICIOLAssociations(ic2)).isEmpty();
+
+		// the prefetched data was consumed, so now it's loaded again
+		assertThat(prefetcher.getActiveICIOLAssociations(ic1))
+				.extracting(I_C_InvoiceCandidate_InOutLine::getC_InvoiceCandidate_InOutLine_ID)
+				.containsExactly(iciol11.getC_InvoiceCandidate_InOutLine_ID());
+	}
+}
@@ -28,6 +28,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import de.metas.cache.CacheLabel;
 import de.metas.cache.CacheMgt;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
@@ -55,6 +56,7 @@ import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.view.ViewProfileId;
 import de.metas.ui.web.view.ViewResult;
 import de.metas.ui.web.view.ViewRowOverridesHelper;
+import de.metas.ui.web.view.ViewsNotificationStatistics;
 import de.metas.ui.web.view.descriptor.annotation.ViewColumnHelper;
 import de.metas.ui.web.view.event.ViewChangesCollector;
 import de.metas.ui.web.view.json.JSONViewResult;
@@ -73,6 +75,9 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.NonNull;
 import org.adempiere.ad.dao.IQueryStatisticsLogger;
+import org.adempiere.ad.dao.SqlQueryStatistics;
+import org.adempiere.ad.modelvalidator.ModelInterceptorsStatistics;
+import org.adempiere.ad.modelvalidator.ModelInterceptorsStatistics.ModelInterceptorStatistics;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
@@ -96,6 +101,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -202,6 +208,50 @@ public class DebugRestController
 		return result.build();
 	}
 
+	@GetMapping("/cacheStats")
+	public List<String> getCacheStats()
+	{
+		userSession.assertLoggedIn();
+
+		return CacheMgt.get().getCacheStats()
+				.stream()
+				.map(stats -> stats.toString())
+				.collect(GuavaCollectors.toImmutableList());
+	}
+
+	@GetMapping("/cacheMemoryBudgets")
+	public Map<String, Object> getCacheMemoryBudgets()
+	{
+		userSession.assertLoggedIn();
+
+		final CacheMgt cacheMgt = CacheMgt.get();
+		final Map<String, Long> budgetsByLabel = new LinkedHashMap<>();
+		cacheMgt.getMemoryBudgetsByLabel().forEach((label, budget) -> budgetsByLabel.put(label.getName(), budget));
+
+		return ImmutableMap.<String, Object> builder()
+				.put("totalEstimatedWeight", cacheMgt.getTotalEstimatedWeight())
+				.put("globalMemoryBudget", cacheMgt.getGlobalMemoryBudgetBytes())
+				.put("memoryBudgetsByLabel", budgetsByLabel)
+				.build();
+	}
+
+	@PostMapping("/cacheMemoryBudgets")
+	public void setCacheMemoryBudget(
+			@RequestParam(name = "cacheLabel", required = false) @ApiParam("Cache label (usually a table name). If not set, the global memory budget is set.") final String cacheLabel,
+			@RequestParam("memoryBudgetBytes") @ApiParam("Memory budget in bytes. Zero means no budget.") final long memoryBudgetBytes)
+	{
+		userSession.assertLoggedIn();
+
+		if (Check.isEmpty(cacheLabel, true))
+		{
+			CacheMgt.get().setGlobalMemoryBudgetBytes(memoryBudgetBytes);
+		}
+		else
+		{
+			CacheMgt.get().setMemoryBudgetBytes(CacheLabel.ofTableName(cacheLabel.trim()), memoryBudgetBytes);
+		}
+	}
+
 	// NOTE: using String parameter because when using boolean parameter, we get following error in swagger-ui:
 	// swagger-ui.min.js:10 Uncaught TypeError: Cannot read property 'toLowerCase' of undefined
 	@RequestMapping(value = "/showColumnNamesForCaption", method = RequestMethod.PUT)
@@ -255,6 +305,44 @@ public class DebugRestController
 		}
 	}
 
+	@GetMapping("/sqlQueries/stats")
+	public List<SqlQueryStatistics> getSqlQueriesStats(
+			@ApiParam("Max number of SQL queries to return, ordered by their total execution time") //
+			@RequestParam(name = "limit", defaultValue = "100", required = false) final int limit)
+	{
+		userSession.assertLoggedIn();
+
+		return statisticsLogger.getTopTotalDurationQueries(limit);
+	}
+
+	@GetMapping("/sqlQueries/explainSlowest")
+	public List<String> explainSlowestSqlQueries(
+			@ApiParam("Max number of SELECT queries to explain, ordered by their maximum execution time") //
+			@RequestParam(name = "limit", defaultValue = "5", required = false) final int limit,
+			@ApiParam("If true, runs EXPLAIN ANALYZE. NOTE: the queries are actually executed; the ones which are locking rows or might call functions are skipped.") //
+			@RequestParam(name = "analyze", defaultValue = "false", required = false) final boolean analyze)
+	{
+		userSession.assertLoggedIn();
+
+		return Arrays.asList(statisticsLogger.explainSlowestQueries(limit, analyze));
+	}
+
+	@GetMapping("/modelInterceptors/stats")
+	public List<ModelInterceptorStatistics> getModelInterceptorsStats()
+	{
+		userSession.assertLoggedIn();
+
+		return ModelInterceptorsStatistics.instance.getStatistics();
+	}
+
+	@PostMapping("/modelInterceptors/stats/reset")
+	public void resetModelInterceptorsStats()
+	{
+		userSession.assertLoggedIn();
+
+		ModelInterceptorsStatistics.instance.reset();
+	}
+
 	@RequestMapping(value = "/debugProtocol", method = RequestMethod.GET)
 	public void setDebugProtocol(@RequestParam("enabled") final boolean enabled)
 	{
@@ -277,6 +365,14 @@ public class DebugRestController
 				.collect(GuavaCollectors.toImmutableList());
 	}
 
+	@GetMapping("/views/notificationStats")
+	public ViewsNotificationStatistics getViewsNotificationStatistics()
+	{
+		userSession.assertLoggedIn();
+
+		return viewsRepo.getNotificationStatistics();
+	}
+
 	@PostMapping("/viewDefaultProfile/{windowId}")
 	public void setDefaultViewProfile(@PathVariable("windowId") final String windowIdStr, @RequestBody final String profileIdStr)
 	{
@@ -30,6 +30,7 @@ import de.metas.ui.web.websocket.WebsocketSender;
 import de.metas.ui.web.websocket.WebsocketSubscriptionId;
 import de.metas.ui.web.websocket.WebsocketTopicName;
 import de.metas.ui.web.websocket.WebsocketTopicNames;
+import de.metas.ui.web.websocket.WebsocketTopicStatistics;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.util.GuavaCollectors;
 import lombok.NonNull;
@@ -152,6 +153,14 @@ public class DebugWebsocketRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("/stats")
+	public List<WebsocketTopicStatistics> getWebsocketStatistics()
+	{
+		userSession.assertLoggedIn();
+
+		return websocketSender.getStatistics();
+	}
+
 	@GetMapping("/activeSubscriptions")
 	public Map<String, ?> getActiveSubscriptions()
 	{
@@ -125,6 +125,12 @@ final class FacetsFilterLookupDescriptor extends SimpleLookupDescriptorTemplate
 		return fieldLookupDescriptor.getLookupDataSourceFetcher().retrieveLookupValueById(evalCtx);
 	}
 
+	@Override
+	public ImmutableList<LookupValue> retrieveLookupValueByIdsInOrder(@NonNull final List<LookupDataSourceContext> evalCtxs)
+	{
+		return fieldLookupDescriptor.getLookupDataSourceFetcher().retrieveLookupValueByIdsInOrder(evalCtxs);
+	}
+
 	@Override
 	public LookupDataSourceContext.Builder newContextForFetchingList()
 	{
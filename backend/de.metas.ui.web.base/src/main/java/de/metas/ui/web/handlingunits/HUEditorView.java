@@ -419,6 +419,12 @@ public class HUEditorView implements IView
 		invalidateAll();
 	}
 
+	@Override
+	public Optional<ImmutableSet<String>> getTableNamesToWatchForChanges()
+	{
+		return Optional.of(ImmutableSet.of(I_M_HU.Table_Name));
+	}
+
 	@Override
 	public Stream<HUEditorRow> streamByIds(final DocumentIdsSelection rowIds)
 	{
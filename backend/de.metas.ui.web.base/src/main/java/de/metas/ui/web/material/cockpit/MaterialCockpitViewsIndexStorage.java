@@ -23,6 +23,7 @@
 package de.metas.ui.web.material.cockpit;
 
 import java.time.Duration;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -30,6 +31,8 @@ import javax.annotation.Nullable;
 import org.compiere.model.I_M_Product;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.CacheMgt;
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.model.I_MD_Stock;
@@ -104,6 +107,18 @@ public class MaterialCockpitViewsIndexStorage implements IViewsIndexStorage
 		return defaultViewsRepositoryStorage.streamAllViews();
 	}
 
+	@Override
+	public ImmutableList<IView> getViewsWatchingAnyOf(@NonNull final Set<String> tableNames)
+	{
+		return defaultViewsRepositoryStorage.getViewsWatchingAnyOf(tableNames);
+	}
+
+	@Override
+	public long countAllViews()
+	{
+		return defaultViewsRepositoryStorage.countAllViews();
+	}
+
 	@Override
 	public void invalidateView(final ViewId viewId)
 	{
@@ -329,6 +329,12 @@ public class PPOrderLinesView implements IView
 		// TODO: notifyRecordsChanged: identify the sub-trees which could be affected and invalidate only those
 	}
 
+	@Override
+	public Optional<ImmutableSet<String>> getTableNamesToWatchForChanges()
+	{
+		return Optional.of(ImmutableSet.of()); // see notifyRecordsChanged
+	}
+
 	@Override
 	public List<RelatedProcessDescriptor> getAdditionalRelatedProcessDescriptors()
 	{
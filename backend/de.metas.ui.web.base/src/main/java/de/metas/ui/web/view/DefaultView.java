@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
@@ -27,6 +28,7 @@ import com.google.common.collect.ImmutableSet;
 
 import de.metas.cache.CCache;
 import de.metas.cache.CCache.CacheMapType;
+import de.metas.cache.CacheWeigher;
 import de.metas.common.util.CoalesceUtil;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.TranslatableStrings;
@@ -151,6 +153,8 @@ public final class DefaultView implements IEditableView
 	//
 	// Caching
 	private final transient CCache<DocumentId, IViewRow> cache_rowsById;
+	/** Estimated memory footprint of one cached row, in bytes */
+	private static final int ROW_ESTIMATED_SIZE_BYTES = 4 * 1024;
 
 	private final IViewInvalidationAdvisor viewInvalidationAdvisor;
 
@@ -201,7 +205,8 @@ public final class DefaultView implements IEditableView
 				.cacheMapType(CacheMapType.LRU)
 				.cacheName("ViewRows#" + viewId)
 				.additionalTableNameToResetFor(viewDataRepository.getTableName())
-				.initialCapacity(100) // i.e. max size
+				.weigher(CacheWeigher.ofFixedEntrySize(ROW_ESTIMATED_SIZE_BYTES))
+				.maximumWeight(100L * ROW_ESTIMATED_SIZE_BYTES) // i.e. max 100 rows
 				.expireMinutes(2)
 				.build();
 
@@ -592,6 +597,12 @@ public final class DefaultView implements IEditableView
 		}
 	}
 
+	@Override
+	public Optional<ImmutableSet<String>> getTableNamesToWatchForChanges()
+	{
+		return viewInvalidationAdvisor.getTableNamesToWatchForChanges(this);
+	}
+
 	private void checkCollectHeaderPropertiesChanged(
 			@NonNull final Set<DocumentId> rowIds,
 			final boolean watchedByFrontend)
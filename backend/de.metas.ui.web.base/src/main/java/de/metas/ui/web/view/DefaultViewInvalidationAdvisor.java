@@ -1,5 +1,6 @@
 package de.metas.ui.web.view;
 
+import java.util.Optional;
 import java.util.Set;
 
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
@@ -64,4 +65,11 @@ public final class DefaultViewInvalidationAdvisor implements IViewInvalidationAd
 				.collect(ImmutableSet.toImmutableSet());
 	}
 
+	@Override
+	public Optional<ImmutableSet<String>> getTableNamesToWatchForChanges(@NonNull final IView view)
+	{
+		final String viewTableName = view.getTableNameOrNull();
+		return Optional.of(viewTableName != null ? ImmutableSet.of(viewTableName) : ImmutableSet.of());
+	}
+
 }
@@ -1,6 +1,8 @@
 package de.metas.ui.web.view;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
@@ -11,6 +13,7 @@ import org.slf4j.Logger;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.logging.LogManager;
 import de.metas.ui.web.view.event.ViewChangesCollector;
@@ -45,6 +48,7 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	private static transient final Logger logger = LogManager.getLogger(DefaultViewsRepositoryStorage.class);
 
 	private final Cache<ViewId, IView> views;
+	private final ViewsByWatchedTableNameIndex viewsByWatchedTableName = new ViewsByWatchedTableNameIndex();
 
 	public DefaultViewsRepositoryStorage(@NonNull final Duration viewExpirationTimeout)
 	{
@@ -64,6 +68,7 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	public void put(@NonNull final IView view)
 	{
 		views.put(view.getViewId(), view);
+		viewsByWatchedTableName.add(view);
 	}
 
 	@Nullable
@@ -100,6 +105,7 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 	{
 		final IView view = (IView)notification.getValue();
 		logger.debug("View <" + view.getViewId() + "> removed from cache. Cause: " + notification.getCause());
+		viewsByWatchedTableName.remove(view); // NOTE: does nothing if the view was meanwhile replaced by another one with the same ID
 		view.afterDestroy();
 	}
 
@@ -124,4 +130,23 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 		return views.asMap().values().stream();
 	}
 
+	@Override
+	public ImmutableList<IView> getViewsWatchingAnyOf(@NonNull final Set<String> tableNames)
+	{
+		// NOTE: don't get the views from the cache, because that would count as an access and the views would never expire.
+		// The index is pruned only when the expired views are evicted, so we skip the views which expired but were not evicted yet (containsKey does not count as access).
+		final Map<ViewId, IView> viewsMap = views.asMap();
+		return viewsByWatchedTableName.getViewsWatchingAnyOf(tableNames)
+				.stream()
+				.filter(view -> viewsMap.containsKey(view.getViewId()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Override
+	public long countAllViews()
+	{
+		views.cleanUp(); // evict the expired views, because they are still counted otherwise
+		return views.size();
+	}
+
 }
@@ -2,6 +2,7 @@ package de.metas.ui.web.view;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.TranslatableStrings;
 import de.metas.process.RelatedProcessDescriptor;
@@ -24,6 +25,7 @@ import org.compiere.util.Evaluatee;
 
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -218,6 +220,16 @@ public interface IView
 	 */
 	void notifyRecordsChanged(TableRecordReferenceSet recordRefs, boolean watchedByFrontend);
 
+	/**
+	 * @return the tables whose changed records might be relevant for {@link #notifyRecordsChanged(TableRecordReferenceSet, boolean)},
+	 * or empty if not known, in which case the view will be notified about all changed records.
+	 * The result shall not change during the lifetime of the view.
+	 */
+	default Optional<ImmutableSet<String>> getTableNamesToWatchForChanges()
+	{
+		return Optional.empty();
+	}
+
 	/**
 	 * @return actions which were registered particularly for this view instance
 	 */
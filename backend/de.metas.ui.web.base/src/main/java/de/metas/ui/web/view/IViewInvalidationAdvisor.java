@@ -1,11 +1,14 @@
 package de.metas.ui.web.view;
 
+import java.util.Optional;
 import java.util.Set;
 
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.WindowId;
 
@@ -47,4 +50,13 @@ public interface IViewInvalidationAdvisor
 			final TableRecordReferenceSet recordRefs,
 			final boolean watchedByFrontend,
 			IView view);
+
+	/**
+	 * @return the tables for which {@link #findAffectedRowIds(TableRecordReferenceSet, boolean, IView)} might return some rows, or empty if not known
+	 * @see IView#getTableNamesToWatchForChanges()
+	 */
+	default Optional<ImmutableSet<String>> getTableNamesToWatchForChanges(final IView view)
+	{
+		return Optional.empty();
+	}
 }
@@ -22,6 +22,8 @@
 
 package de.metas.ui.web.view;
 
+import java.util.Collections;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -29,6 +31,7 @@ import javax.annotation.Nullable;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /**
  * Implementations of this interface are responsible of storing {@link IView} references for a particular window ID identified by {@link #getWindowId()}.
@@ -72,6 +75,24 @@ public interface IViewsIndexStorage
 		return streamAllViews().collect(ImmutableList.toImmutableList());
 	}
 
+	/**
+	 * @return the views which shall be notified when records of any of given tables were changed
+	 * @see IView#getTableNamesToWatchForChanges()
+	 */
+	default ImmutableList<IView> getViewsWatchingAnyOf(@NonNull final Set<String> tableNames)
+	{
+		return streamAllViews()
+				.filter(view -> view.getTableNamesToWatchForChanges()
+						.map(watchedTableNames -> !Collections.disjoint(watchedTableNames, tableNames))
+						.orElse(true))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	default long countAllViews()
+	{
+		return streamAllViews().count();
+	}
+
 	void invalidateView(ViewId viewId);
 
 }
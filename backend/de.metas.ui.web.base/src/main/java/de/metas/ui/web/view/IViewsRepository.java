@@ -105,6 +105,8 @@ public interface IViewsRepository
 
 	void notifyRecordsChangedNow(@NonNull TableRecordReferenceSet recordRefs);
 
+	ViewsNotificationStatistics getNotificationStatistics();
+
 	boolean isWatchedByFrontend(ViewId viewId);
 
 }
@@ -86,7 +86,7 @@ class SqlViewDataRepository implements IViewDataRepository
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
 	private final ImmutableMap<String, DocumentFieldWidgetType> widgetTypesByFieldName;
 	private final SqlViewSelectData sqlViewSelect;
-	private final ViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
+	private final SqlViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
 	private final DocumentFilterDescriptorsProvider viewFilterDescriptors;
 	private final DocumentQueryOrderByList defaultOrderBys;
 
@@ -519,6 +519,12 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Getting page: firstRow={}, pageLength={} - {}", firstRow, pageLength, this);
 		logger.debug("Using: {}", orderedSelection);
 
+		final List<DocumentId> rowIdsFromInMemoryIndex = viewRowIdsOrderedSelectionFactory.getRowIdsByPageFromInMemoryIndex(orderedSelection, firstRow, pageLength);
+		if (rowIdsFromInMemoryIndex != null)
+		{
+			return rowIdsFromInMemoryIndex;
+		}
+
 		final ViewId viewId = orderedSelection.getViewId();
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
 				.viewEvalCtx(viewEvalCtx)
@@ -3,22 +3,32 @@ package de.metas.ui.web.view;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
 
+import de.metas.cache.CCache;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.logging.LogManager;
 import de.metas.security.IUserRolePermissions;
 import de.metas.security.IUserRolePermissionsDAO;
 import de.metas.security.UserRolePermissionsKey;
 import de.metas.security.permissions.WindowMaxQueryRecordsConstraint;
+import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
 import de.metas.ui.web.view.descriptor.SqlAndParams;
@@ -65,6 +75,29 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 
 	private static final Logger logger = LogManager.getLogger(SqlViewRowIdsOrderedSelectionFactory.class);
 	private final IUserRolePermissionsDAO userRolePermissionsRepo = Services.get(IUserRolePermissionsDAO.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	/**
+	 * Selections having at most this number of rows are also kept in memory, so paging row IDs and checking if a row is part of the selection won't hit the database.
+	 * If not positive, the in-memory indexes are disabled.
+	 */
+	private static final String SYSCONFIG_InMemoryIndexMaxRows = "de.metas.ui.web.view.SqlViewRowIdsOrderedSelectionFactory.InMemoryIndexMaxRows";
+	private static final int DEFAULT_InMemoryIndexMaxRows = 0;
+
+	private static final long InMemoryIndexes_MaximumWeightBytes = 64 * 1024 * 1024;
+
+	private static final CCache<String, ViewRowIdsInMemoryIndex> inMemoryIndexesBySelectionId = CCache.<String, ViewRowIdsInMemoryIndex> builder()
+			.cacheName(I_T_WEBUI_ViewSelection.Table_Name + "#InMemoryIndex")
+			.tableName(I_T_WEBUI_ViewSelection.Table_Name)
+			.expireMinutes(60)
+			.maximumWeight(InMemoryIndexes_MaximumWeightBytes)
+			.weigher((selectionId, index) -> index.getEstimatedSizeInBytes())
+			.build();
+
+	static
+	{
+		CacheMgt.get().addCacheResetListener(SqlViewRowIdsOrderedSelectionFactory::invalidateInMemoryIndexes);
+	}
 
 	private final SqlViewBinding viewBinding;
 
@@ -192,6 +225,159 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 				.build();
 	}
 
+	/**
+	 * Drops the in-memory indexes which might contain records which were deleted in meantime.
+	 */
+	private static long invalidateInMemoryIndexes(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (inMemoryIndexesBySelectionId.isEmpty())
+		{
+			return 0;
+		}
+		if (multiRequest.isResetAll())
+		{
+			return 0; // the whole cache is reset by CacheMgt
+		}
+
+		final Set<String> selectionIdsToInvalidate = new HashSet<>();
+		for (final String selectionId : inMemoryIndexesBySelectionId.keySet())
+		{
+			final ViewRowIdsInMemoryIndex index = inMemoryIndexesBySelectionId.get(selectionId);
+			if (index == null)
+			{
+				continue;
+			}
+
+			final boolean affected = multiRequest.getRequests()
+					.stream()
+					.filter(request -> !request.isAll())
+					.filter(request -> index.getTableName().equals(request.getTableNameEffective()))
+					.anyMatch(request -> request.isAllRecords() || index.containsRecordId(request.getRecordIdEffective()));
+			if (affected)
+			{
+				selectionIdsToInvalidate.add(selectionId);
+			}
+		}
+
+		inMemoryIndexesBySelectionId.removeAll(selectionIdsToInvalidate);
+		return selectionIdsToInvalidate.size();
+	}
+
+	private boolean isInMemoryIndexApplicable(@NonNull final ViewRowIdsOrderedSelection selection)
+	{
+		final long size = selection.getSize();
+		if (size <= 0)
+		{
+			return false;
+		}
+
+		final int maxRows = sysConfigBL.getIntValue(SYSCONFIG_InMemoryIndexMaxRows, DEFAULT_InMemoryIndexMaxRows);
+		if (maxRows <= 0 || size > maxRows)
+		{
+			return false;
+		}
+
+		// NOTE: grouping views are paging the groups and not the rows, so we don't support them
+		return !viewBinding.hasGroupingFields() && viewBinding.getSqlViewKeyColumnNamesMap().isSingleIntKey();
+	}
+
+	/**
+	 * @return in-memory index or {@link ViewRowIdsInMemoryIndex#NOT_AVAILABLE} if the selection lines are not contiguous (i.e. not 1, 2, 3...)
+	 */
+	private ViewRowIdsInMemoryIndex retrieveInMemoryIndex(final String selectionId, final int expectedSize)
+	{
+		final SqlAndParams sql = newSqlViewSelectionQueryBuilder().buildSqlRetrieveOrderedIntRowIds(selectionId);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sql.getSqlParams());
+			rs = pstmt.executeQuery();
+
+			final int[] orderedRowIds = new int[expectedSize];
+			final BitSet missingRecordIndexes = new BitSet();
+			int count = 0;
+			while (rs.next())
+			{
+				final int line = rs.getInt(1);
+				if (count >= expectedSize || line != count + 1)
+				{
+					logger.debug("Selection {} has not contiguous lines. Skip creating the in-memory index.", selectionId);
+					return ViewRowIdsInMemoryIndex.NOT_AVAILABLE;
+				}
+
+				orderedRowIds[count] = rs.getInt(2);
+				if (!rs.getBoolean(3))
+				{
+					missingRecordIndexes.set(count);
+				}
+				count++;
+			}
+
+			if (count != expectedSize)
+			{
+				logger.debug("Selection {} has {} lines but {} were expected. Skip creating the in-memory index.", selectionId, count, expectedSize);
+				return ViewRowIdsInMemoryIndex.NOT_AVAILABLE;
+			}
+
+			final ViewRowIdsInMemoryIndex index = ViewRowIdsInMemoryIndex.ofOrderedRowIds(viewBinding.getTableName(), orderedRowIds, missingRecordIndexes);
+			logger.trace("Loaded in-memory index for selection {}: {} (duration: {})", selectionId, index, stopwatch);
+			return index;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql.getSql(), sql.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/**
+	 * Gets the in-memory index of given selection. The index is loaded on first use, so we don't have to query the whole selection for views which are never paged.
+	 */
+	@Nullable
+	private ViewRowIdsInMemoryIndex getInMemoryIndex(@NonNull final ViewRowIdsOrderedSelection selection)
+	{
+		if (!isInMemoryIndexApplicable(selection))
+		{
+			return null;
+		}
+
+		final int size = (int)selection.getSize();
+		final ViewRowIdsInMemoryIndex index = inMemoryIndexesBySelectionId.getOrLoad(
+				selection.getSelectionId(),
+				selectionId -> retrieveInMemoryIndex(selectionId, size));
+
+		// In case the selection was changed in meantime (or the index is not available), don't use the index
+		if (index.size() != selection.getSize())
+		{
+			return null;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Gets the row IDs of given page from the in-memory index of given selection.
+	 * <p>
+	 * NOTE: same as the database paging, rows whose underlying records were deleted are skipped.
+	 *
+	 * @return row IDs or <code>null</code> if the selection has no in-memory index, in which case the caller shall fetch the page from database
+	 */
+	@Nullable
+	public List<DocumentId> getRowIdsByPageFromInMemoryIndex(
+			@NonNull final ViewRowIdsOrderedSelection selection,
+			final int firstRowZeroBased,
+			final int pageLength)
+	{
+		final ViewRowIdsInMemoryIndex index = getInMemoryIndex(selection);
+		return index != null ? index.getRowIdsByPage(firstRowZeroBased, pageLength) : null;
+	}
+
 	@Override
 	public ViewRowIdsOrderedSelection addRowIdsToSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
 	{
@@ -227,6 +413,8 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return selection;
 		}
 
+		inMemoryIndexesBySelectionId.remove(selectionId); // the index does not contain the new rows
+
 		//
 		// Retrieve current size
 		// NOTE: we are querying it instead of adding how many we added to current "size" because it might be that the size is staled
@@ -256,6 +444,8 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			}
 		}
 
+		inMemoryIndexesBySelectionId.remove(selection.getSelectionId()); // lines are no longer contiguous
+
 		//
 		// Retrieve current size
 		// NOTE: we are querying it instead of subtracting "deleted" from current "size" because it might be that the size is staled
@@ -279,6 +469,12 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return false;
 		}
 
+		final ViewRowIdsInMemoryIndex index = getInMemoryIndex(selection);
+		if (index != null)
+		{
+			return index.containsAnyOfRowIds(rowIds);
+		}
+
 		final SqlAndParams sqlCount = newSqlViewSelectionQueryBuilder().buildSqlCount(selection.getSelectionId(), rowIds);
 		final int count = DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, sqlCount.getSql(), sqlCount.getSqlParamsArray());
 		return count > 0;
@@ -292,6 +488,8 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return;
 		}
 
+		inMemoryIndexesBySelectionId.removeAll(selectionIds);
+
 		final SqlViewSelectionQueryBuilder viewQueryBuilder = newSqlViewSelectionQueryBuilder();
 
 		// Delete selection lines
@@ -312,6 +510,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	@Override
 	public void scheduleDeleteSelections(@NonNull final Set<String> selectionIds)
 	{
+		inMemoryIndexesBySelectionId.removeAll(selectionIds);
 		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(selectionIds);
 	}
 
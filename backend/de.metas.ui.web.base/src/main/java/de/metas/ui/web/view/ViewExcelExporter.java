@@ -3,17 +3,23 @@ package de.metas.ui.web.view;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.i18n.Language;
@@ -22,6 +28,7 @@ import de.metas.impexp.excel.CellValue;
 import de.metas.impexp.excel.CellValues;
 import de.metas.impexp.excel.ExcelExportConstants;
 import de.metas.impexp.excel.ExcelFormat;
+import de.metas.logging.LogManager;
 import de.metas.ui.web.view.descriptor.ViewLayout;
 import de.metas.ui.web.view.util.PageIndex;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -75,7 +82,7 @@ import lombok.NonNull;
 			@NonNull final Language language,
 			@NonNull final ZoneId zoneId)
 	{
-		super(excelFormat, constants);
+		super(excelFormat, streamingIfAllRows(constants, rowIds));
 		this.layout = layout;
 		setLanguage(language);
 		jsonOpts = JSONOptions.builder()
@@ -102,6 +109,24 @@ import lombok.NonNull;
 		setFreezePane(0, 1);
 	}
 
+	/**
+	 * Exporting all rows could mean a huge workbook, so we always build it with the streaming implementation, which keeps only a window of rows in memory.
+	 */
+	private static ExcelExportConstants streamingIfAllRows(
+			@Nullable final ExcelExportConstants constants,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		final ExcelExportConstants constantsEffective = ExcelExportConstants.givenOrDefault(constants);
+		if (!rowIds.isAll() || constantsEffective.isUseStreamingWorkbookImplementation())
+		{
+			return constantsEffective;
+		}
+
+		return constantsEffective.toBuilder()
+				.useStreamingWorkbookImplementation(true)
+				.build();
+	}
+
 	private IViewRow getRow(final int rowIndex)
 	{
 		return rows.getRow(rowIndex);
@@ -219,24 +244,31 @@ import lombok.NonNull;
 		int getRowCount();
 	}
 
+	/**
+	 * Supplies all view's rows, page by page.
+	 * <p>
+	 * While the rows of current page are exported, the next page is loaded in background.
+	 * So at most two pages are kept in memory.
+	 */
 	private static class AllRowsSupplier implements RowsSupplier
 	{
+		private static final Logger logger = LogManager.getLogger(AllRowsSupplier.class);
+
+		private static final ExecutorService prefetchExecutor = Executors.newCachedThreadPool(
+				CustomizableThreadFactory.builder()
+						.setDaemon(true)
+						.setThreadNamePrefix(ViewExcelExporter.class.getSimpleName() + "-prefetch-")
+						.build());
+
 		private final int pageSize;
 		private final IView view;
-		private final JSONOptions jsonOpts;
+		private final int rowCount;
+		private final ViewRowsOrderBy orderBys;
+		private final Properties ctx;
 
-		private LoadingCache<PageIndex, ViewResult> cache = CacheBuilder.newBuilder()
-				.maximumSize(2) // cache max 2 pages
-				.build(new CacheLoader<PageIndex, ViewResult>()
-				{
-					@Override
-					public ViewResult load(final PageIndex pageIndex)
-					{
-						final ViewRowsOrderBy orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
-						return view.getPage(pageIndex.getFirstRow(), pageIndex.getPageLength(), orderBys);
-					}
-
-				});
+		private ViewResult currentPage;
+		private PageIndex nextPageIndex;
+		private CompletableFuture<ViewResult> nextPageFuture;
 
 		private AllRowsSupplier(
 				@NonNull final IView view,
@@ -245,21 +277,73 @@ import lombok.NonNull;
 		{
 			this.view = view;
 			this.pageSize = pageSize;
-			this.jsonOpts = jsonOpts;
+			this.rowCount = (int)view.size();
+			this.orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
+			this.ctx = Env.copyCtx(Env.getCtx());
+		}
+
+		private ViewResult loadPage(final PageIndex pageIndex)
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			final ViewResult page = view.getPage(pageIndex.getFirstRow(), pageIndex.getPageLength(), orderBys);
+			logger.debug("Loaded rows {}..{} of {} from {} in {}", pageIndex.getFirstRow(), pageIndex.getFirstRow() + pageIndex.getPageLength(), rowCount, view.getViewId(), stopwatch);
+			return page;
 		}
 
 		private ViewResult getPage(final PageIndex pageIndex)
+		{
+			if (currentPage != null && currentPage.getFirstRow() == pageIndex.getFirstRow())
+			{
+				return currentPage;
+			}
+
+			currentPage = pageIndex.equals(nextPageIndex)
+					? getPrefetchedPage()
+					: loadPage(pageIndex);
+			prefetchPageAfter(pageIndex);
+
+			return currentPage;
+		}
+
+		private ViewResult getPrefetchedPage()
 		{
 			try
 			{
-				return cache.get(pageIndex);
+				return nextPageFuture.join();
 			}
-			catch (ExecutionException e)
+			catch (final CompletionException ex)
 			{
-				throw AdempiereException.wrapIfNeeded(e);
+				throw AdempiereException.wrapIfNeeded(ex.getCause() != null ? ex.getCause() : ex);
 			}
 		}
 
+		private void prefetchPageAfter(final PageIndex pageIndex)
+		{
+			if (nextPageFuture != null && !nextPageFuture.isDone())
+			{
+				nextPageFuture.cancel(false);
+			}
+
+			final int nextFirstRow = pageIndex.getFirstRow() + pageIndex.getPageLength();
+			if (nextFirstRow >= rowCount)
+			{
+				nextPageIndex = null;
+				nextPageFuture = null;
+				return;
+			}
+
+			final PageIndex pageIndexToLoad = PageIndex.ofFirstRowAndPageLength(nextFirstRow, pageSize);
+			nextPageIndex = pageIndexToLoad;
+			nextPageFuture = CompletableFuture.supplyAsync(
+					() -> {
+						try (final IAutoCloseable ignored = Env.switchContext(ctx))
+						{
+							return loadPage(pageIndexToLoad);
+						}
+					},
+					prefetchExecutor);
+		}
+
 		@Override
 		public IViewRow getRow(final int rowIndex)
 		{
@@ -284,7 +368,7 @@ import lombok.NonNull;
 		@Override
 		public int getRowCount()
 		{
-			return (int)view.size();
+			return rowCount;
 		}
 	}
 
@@ -78,8 +78,9 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -540,7 +541,8 @@ public class ViewRestController
 		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
 		headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
 
-		final ResponseEntity<Resource> response = new ResponseEntity<>(new InputStreamResource(new FileInputStream(tmpFile)), headers, HttpStatus.OK);
+		// NOTE: the temporary file is deleted after it was sent
+		final ResponseEntity<Resource> response = new ResponseEntity<>(new InputStreamResource(Files.newInputStream(tmpFile.toPath(), StandardOpenOption.DELETE_ON_CLOSE)), headers, HttpStatus.OK);
 		return response;
 	}
 }
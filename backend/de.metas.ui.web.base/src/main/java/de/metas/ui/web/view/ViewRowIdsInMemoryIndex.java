@@ -0,0 +1,153 @@
+package de.metas.ui.web.view;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.util.Check;
+import lombok.Getter;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable in-memory copy of the ordered integer row IDs of a view selection.
+ *
+ * The row at index <code>i</code> corresponds to the <code>T_WEBUI_ViewSelection</code> line having <code>Line = i + 1</code>,
+ * so this index is valid only as long as the selection lines are contiguous (i.e. nothing was added or removed after the selection was created).
+ *
+ * Rows whose underlying records did not exist anymore when the index was loaded are kept (so the lines are still matching)
+ * but they are skipped when paging, same as the database paging is doing.
+ */
+final class ViewRowIdsInMemoryIndex
+{
+	public static ViewRowIdsInMemoryIndex ofOrderedRowIds(@NonNull final String tableName, @NonNull final int[] orderedRowIds)
+	{
+		return new ViewRowIdsInMemoryIndex(tableName, orderedRowIds, new BitSet());
+	}
+
+	public static ViewRowIdsInMemoryIndex ofOrderedRowIds(
+			@NonNull final String tableName,
+			@NonNull final int[] orderedRowIds,
+			@NonNull final BitSet missingRecordIndexes)
+	{
+		return new ViewRowIdsInMemoryIndex(tableName, orderedRowIds, missingRecordIndexes);
+	}
+
+	/**
+	 * Index to be used when the selection is not suitable to be kept in memory (e.g. lines are not contiguous).
+	 * Because it's empty, it will never match the size of a not empty selection.
+	 */
+	public static final ViewRowIdsInMemoryIndex NOT_AVAILABLE = new ViewRowIdsInMemoryIndex("-", new int[] {}, new BitSet());
+
+	private static final int OBJECT_OVERHEAD_BYTES = 64;
+
+	@Getter
+	private final String tableName;
+	private final int[] orderedRowIds;
+	/** same row IDs as {@link #orderedRowIds}, but sorted, to be able to use binary search */
+	private final int[] sortedRowIds;
+	/** indexes (in {@link #orderedRowIds}) of the rows whose underlying records no longer exist */
+	private final BitSet missingRecordIndexes;
+
+	private ViewRowIdsInMemoryIndex(
+			@NonNull final String tableName,
+			@NonNull final int[] orderedRowIds,
+			@NonNull final BitSet missingRecordIndexes)
+	{
+		this.tableName = tableName;
+		this.orderedRowIds = orderedRowIds.clone();
+		this.sortedRowIds = orderedRowIds.clone();
+		Arrays.sort(this.sortedRowIds);
+		this.missingRecordIndexes = (BitSet)missingRecordIndexes.clone();
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("tableName", tableName)
+				.add("size", size())
+				.add("missingRecords", missingRecordIndexes.cardinality())
+				.toString();
+	}
+
+	public int size()
+	{
+		return orderedRowIds.length;
+	}
+
+	/**
+	 * @return estimated memory footprint, in bytes
+	 */
+	public int getEstimatedSizeInBytes()
+	{
+		return OBJECT_OVERHEAD_BYTES + 2 * Integer.BYTES * orderedRowIds.length;
+	}
+
+	public List<DocumentId> getRowIdsByPage(final int firstRowZeroBased, final int pageLength)
+	{
+		Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
+		Check.assume(pageLength > 0, "pageLength > 0 but it was {}", pageLength);
+
+		final int fromIndex = Math.min(firstRowZeroBased, orderedRowIds.length);
+		final int toIndex = (int)Math.min((long)firstRowZeroBased + pageLength, orderedRowIds.length);
+
+		final ImmutableList.Builder<DocumentId> rowIds = ImmutableList.builder();
+		for (int i = fromIndex; i < toIndex; i++)
+		{
+			if (missingRecordIndexes.get(i))
+			{
+				continue;
+			}
+			rowIds.add(DocumentId.of(orderedRowIds[i]));
+		}
+		return rowIds.build();
+	}
+
+	public boolean containsAnyOfRowIds(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return false;
+		}
+		else if (rowIds.isAll())
+		{
+			return size() > 0;
+		}
+
+		return rowIds.stream()
+				.filter(DocumentId::isInt)
+				.anyMatch(rowId -> containsRecordId(rowId.toInt()));
+	}
+
+	public boolean containsRecordId(final int recordId)
+	{
+		return Arrays.binarySearch(sortedRowIds, recordId) >= 0;
+	}
+}
@@ -0,0 +1,137 @@
+package de.metas.ui.web.view;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Inverted index: table name to the views which shall be notified when records of that table are changed.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see IView#getTableNamesToWatchForChanges()
+ */
+final class ViewsByWatchedTableNameIndex
+{
+	private final HashMap<String, Set<ViewId>> viewIdsByTableName = new HashMap<>();
+	/** Views which did not tell us which tables they are watching, so they are interested in all changes */
+	private final HashSet<ViewId> viewIdsWatchingAllTables = new HashSet<>();
+	private final HashMap<ViewId, IndexedView> viewsById = new HashMap<>();
+
+	public synchronized void add(@NonNull final IView view)
+	{
+		final ViewId viewId = view.getViewId();
+		remove(viewId);
+
+		final Optional<ImmutableSet<String>> tableNames = view.getTableNamesToWatchForChanges();
+		viewsById.put(viewId, new IndexedView(view, tableNames));
+		if (tableNames.isPresent())
+		{
+			tableNames.get().forEach(tableName -> viewIdsByTableName.computeIfAbsent(tableName, k -> new HashSet<>()).add(viewId));
+		}
+		else
+		{
+			viewIdsWatchingAllTables.add(viewId);
+		}
+	}
+
+	/**
+	 * Removes given view, unless it was already replaced by another view with the same ID.
+	 */
+	public synchronized void remove(@NonNull final IView view)
+	{
+		final IndexedView indexedView = viewsById.get(view.getViewId());
+		if (indexedView != null && indexedView.getView() == view)
+		{
+			remove(view.getViewId());
+		}
+	}
+
+	private void remove(@NonNull final ViewId viewId)
+	{
+		final IndexedView indexedView = viewsById.remove(viewId);
+		if (indexedView == null)
+		{
+			return;
+		}
+
+		final Optional<ImmutableSet<String>> tableNames = indexedView.getTableNames();
+		if (tableNames.isPresent())
+		{
+			for (final String tableName : tableNames.get())
+			{
+				final Set<ViewId> viewIds = viewIdsByTableName.get(tableName);
+				if (viewIds != null && viewIds.remove(viewId) && viewIds.isEmpty())
+				{
+					viewIdsByTableName.remove(tableName);
+				}
+			}
+		}
+		else
+		{
+			viewIdsWatchingAllTables.remove(viewId);
+		}
+	}
+
+	public synchronized ImmutableList<IView> getViewsWatchingAnyOf(@NonNull final Set<String> tableNames)
+	{
+		final LinkedHashSet<ViewId> viewIds = new LinkedHashSet<>(viewIdsWatchingAllTables);
+		for (final String tableName : tableNames)
+		{
+			final Set<ViewId> viewIdsForTableName = viewIdsByTableName.get(tableName);
+			if (viewIdsForTableName != null)
+			{
+				viewIds.addAll(viewIdsForTableName);
+			}
+		}
+
+		return viewIds.stream()
+				.map(viewId -> viewsById.get(viewId).getView())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public synchronized int size()
+	{
+		return viewsById.size();
+	}
+
+	@Value
+	private static class IndexedView
+	{
+		@NonNull
+		IView view;
+
+		@NonNull
+		Optional<ImmutableSet<String>> tableNames;
+	}
+}
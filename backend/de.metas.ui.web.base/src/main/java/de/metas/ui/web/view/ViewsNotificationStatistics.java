@@ -0,0 +1,43 @@
+package de.metas.ui.web.view;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Statistics about how {@link IViewsRepository#notifyRecordsChangedNow(org.adempiere.util.lang.impl.TableRecordReferenceSet)} fanned out the changed records to the open views.
+ */
+@Value
+@Builder
+public class ViewsNotificationStatistics
+{
+	/** How many times the views were notified about a set of changed records */
+	long recordsChangedEventsCount;
+
+	/** How many {@link IView#notifyRecordsChanged(org.adempiere.util.lang.impl.TableRecordReferenceSet, boolean)} calls were made */
+	long viewsNotifiedCount;
+
+	/** How many notifications were not sent because the view was not watching any of the changed tables */
+	long viewsSkippedCount;
+}
@@ -3,6 +3,7 @@ package de.metas.ui.web.view;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Streams;
 import de.metas.logging.LogManager;
 import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
@@ -42,6 +43,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 /*
@@ -84,6 +86,10 @@ public class ViewsRepository implements IViewsRepository
 
 	private final Executor async;
 
+	private final LongAdder recordsChangedEventsCount = new LongAdder();
+	private final LongAdder viewsNotifiedCount = new LongAdder();
+	private final LongAdder viewsSkippedCount = new LongAdder();
+
 	public ViewsRepository(
 			@NonNull final List<IViewFactory> viewFactories,
 			@SuppressWarnings("OptionalUsedAsFieldOrParameterType") @NonNull final Optional<List<IViewsIndexStorage>> viewIndexStorages,
@@ -430,22 +436,28 @@ public class ViewsRepository implements IViewsRepository
 			return;
 		}
 
+		recordsChangedEventsCount.increment();
+		final ImmutableSet<String> tableNames = recordRefs.getTableNames();
+
 		try (final IAutoCloseable ignored = ViewChangesCollector.currentOrNewThreadLocalCollector())
 		{
 			for (final IViewsIndexStorage viewsIndexStorage : viewsIndexStorages.values())
 			{
-				notifyRecordsChangedNow(recordRefs, viewsIndexStorage);
+				notifyRecordsChangedNow(recordRefs, tableNames, viewsIndexStorage);
 			}
 
-			notifyRecordsChangedNow(recordRefs, defaultViewsIndexStorage);
+			notifyRecordsChangedNow(recordRefs, tableNames, defaultViewsIndexStorage);
 		}
 	}
 
 	private void notifyRecordsChangedNow(
 			@NonNull final TableRecordReferenceSet recordRefs,
+			@NonNull final ImmutableSet<String> tableNames,
 			@NonNull final IViewsIndexStorage viewsIndexStorage)
 	{
-		final ImmutableList<IView> views = viewsIndexStorage.getAllViews();
+		// Notify only the views which are watching the changed tables
+		final ImmutableList<IView> views = viewsIndexStorage.getViewsWatchingAnyOf(tableNames);
+		viewsSkippedCount.add(Math.max(viewsIndexStorage.countAllViews() - views.size(), 0));
 		if (views.isEmpty())
 		{
 			return;
@@ -466,9 +478,20 @@ public class ViewsRepository implements IViewsRepository
 			}
 		}
 
+		viewsNotifiedCount.add(notifiedCount.getValue());
 		logger.debug("Notified {} views in {} about changed records: {}", notifiedCount, viewsIndexStorage, recordRefs);
 	}
 
+	@Override
+	public ViewsNotificationStatistics getNotificationStatistics()
+	{
+		return ViewsNotificationStatistics.builder()
+				.recordsChangedEventsCount(recordsChangedEventsCount.sum())
+				.viewsNotifiedCount(viewsNotifiedCount.sum())
+				.viewsSkippedCount(viewsSkippedCount.sum())
+				.build();
+	}
+
 	@lombok.Value(staticConstructor = "of")
 	private static class ViewFactoryKey
 	{
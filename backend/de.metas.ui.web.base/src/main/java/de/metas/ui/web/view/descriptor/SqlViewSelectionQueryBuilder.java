@@ -775,6 +775,28 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of("SELECT COUNT(1) FROM " + I_T_WEBUI_ViewSelection.Table_Name + " WHERE " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?", selectionId);
 	}
 
+	/**
+	 * @return SQL which retrieves <code>Line, IntKey1, RecordExists</code> for given selection, ordered by <code>Line</code>. Applicable only for single integer key views.
+	 */
+	public SqlAndParams buildSqlRetrieveOrderedIntRowIds(final String selectionId)
+	{
+		Check.assumeNotEmpty(selectionId, "selectionId is not empty");
+
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		final String keyColumnName = keyColumnNamesMap.getSingleKeyColumnName();
+		final String selectionKeyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+
+		// NOTE: we are also fetching if the underlying record still exists, same as the row paging SQL is joining it
+		return SqlAndParams.of("SELECT sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+				+ ", sel." + selectionKeyColumnName
+				+ ", (t." + keyColumnName + " IS NOT NULL) AS RecordExists"
+				+ " FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel"
+				+ " LEFT OUTER JOIN " + getTableName() + " t ON (t." + keyColumnName + "=sel." + selectionKeyColumnName + ")"
+				+ " WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?"
+				+ " ORDER BY sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line,
+				selectionId);
+	}
+
 	public SqlAndParams buildSqlCount(final String selectionId, final DocumentIdsSelection rowIds)
 	{
 		Check.assumeNotEmpty(selectionId, "selectionId is not empty");
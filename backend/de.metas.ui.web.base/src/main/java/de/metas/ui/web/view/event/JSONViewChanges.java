@@ -27,6 +27,8 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
+import de.metas.ui.web.websocket.MergeableWebsocketEvent;
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
 import de.metas.ui.web.websocket.WebsocketTopicName;
 import de.metas.ui.web.websocket.WebsocketTopicNames;
@@ -35,11 +37,12 @@ import de.metas.ui.web.window.datatypes.WindowId;
 import lombok.NonNull;
 import lombok.Value;
 
+import javax.annotation.Nullable;
 import java.util.Set;
 
 @Value
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public class JSONViewChanges implements WebsocketEndpointAware
+public class JSONViewChanges implements WebsocketEndpointAware, MergeableWebsocketEvent
 {
 	public static JSONViewChanges of(@NonNull final ViewChanges changes)
 	{
@@ -92,5 +95,65 @@ public class JSONViewChanges implements WebsocketEndpointAware
 
 		websocketEndpoint = WebsocketTopicNames.buildViewNotificationsTopicName(viewId);
 	}
+
+	private JSONViewChanges(
+			@NonNull final String viewId,
+			@NonNull final WindowId windowId,
+			@Nullable final Boolean fullyChanged,
+			@Nullable final Set<String> changedIds,
+			@Nullable final Boolean headerPropertiesChanged,
+			@NonNull final WebsocketTopicName websocketEndpoint)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+		this.headerPropertiesChanged = headerPropertiesChanged;
+		this.websocketEndpoint = websocketEndpoint;
+	}
+
+	/**
+	 * Merges the changed row IDs. If any of the events is about all rows, the changed row IDs are dropped because the frontend will reload all rows anyways.
+	 */
+	@Nullable
+	@Override
+	public JSONViewChanges mergeWith(@NonNull final MergeableWebsocketEvent nextEvent)
+	{
+		if (!(nextEvent instanceof JSONViewChanges))
+		{
+			return null;
+		}
+
+		final JSONViewChanges next = (JSONViewChanges)nextEvent;
+		if (!viewId.equals(next.viewId))
+		{
+			return null;
+		}
+
+		final Boolean fullyChangedMerged;
+		final Set<String> changedIdsMerged;
+		if (Boolean.TRUE.equals(fullyChanged) || Boolean.TRUE.equals(next.fullyChanged))
+		{
+			fullyChangedMerged = Boolean.TRUE;
+			changedIdsMerged = null;
+		}
+		else if (fullyChanged == null && next.fullyChanged == null)
+		{
+			fullyChangedMerged = null;
+			changedIdsMerged = null;
+		}
+		else
+		{
+			fullyChangedMerged = Boolean.FALSE;
+			changedIdsMerged = ImmutableSet.<String> builder()
+					.addAll(changedIds != null ? changedIds : ImmutableSet.of())
+					.addAll(next.changedIds != null ? next.changedIds : ImmutableSet.of())
+					.build();
+		}
+
+		final Boolean headerPropertiesChangedMerged = Boolean.TRUE.equals(headerPropertiesChanged) || Boolean.TRUE.equals(next.headerPropertiesChanged) ? true : null;
+
+		return new JSONViewChanges(viewId, windowId, fullyChangedMerged, changedIdsMerged, headerPropertiesChangedMerged, websocketEndpoint);
+	}
 }
 
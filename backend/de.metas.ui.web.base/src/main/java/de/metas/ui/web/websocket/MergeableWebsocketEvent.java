@@ -0,0 +1,41 @@
+package de.metas.ui.web.websocket;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Implemented by websocket events which can be merged with the next event which is sent to the same topic.
+ * <p>
+ * {@link WebsocketSender} merges such events before sending them, so the frontend gets one message instead of many (e.g. when a bulk operation changes many rows of a view).
+ */
+public interface MergeableWebsocketEvent
+{
+	/**
+	 * @return an event which is equivalent to sending this event and then the given one, or <code>null</code> if they cannot be merged
+	 */
+	@Nullable
+	MergeableWebsocketEvent mergeWith(@NonNull MergeableWebsocketEvent nextEvent);
+}
@@ -1,5 +1,6 @@
 package de.metas.ui.web.websocket;
 
+import com.google.common.collect.ImmutableList;
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
 import de.metas.util.async.Debouncer;
@@ -16,9 +17,14 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /*
  * #%L
@@ -64,6 +70,8 @@ public class WebsocketSender implements InitializingBean
 
 	private final Debouncer<WebsocketEvent> debouncer;
 
+	private final ConcurrentHashMap<String, TopicCounters> countersByTopicType = new ConcurrentHashMap<>();
+
 	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
 	{
 		this.websocketMessagingTemplate = websocketMessagingTemplate;
@@ -99,11 +107,13 @@ public class WebsocketSender implements InitializingBean
 
 	public void convertAndSend(final WebsocketTopicName destination, final Object event)
 	{
+		getCounters(destination).eventsIn.increment();
 		getQueue().enqueueObject(destination, event);
 	}
 
 	public void sendMessage(final WebsocketTopicName destination, final Message<?> message)
 	{
+		getCounters(destination).eventsIn.increment();
 		getQueue().enqueueMessage(destination, message);
 	}
 
@@ -154,9 +164,73 @@ public class WebsocketSender implements InitializingBean
 		return eventsLog.getLoggedEvents(destinationFilter);
 	}
 
+	public ImmutableList<WebsocketTopicStatistics> getStatistics()
+	{
+		return countersByTopicType.entrySet()
+				.stream()
+				.map(entry -> WebsocketTopicStatistics.builder()
+						.topicType(entry.getKey())
+						.eventsInCount(entry.getValue().eventsIn.sum())
+						.messagesOutCount(entry.getValue().messagesOut.sum())
+						.build())
+				.sorted(Comparator.comparing(WebsocketTopicStatistics::getTopicType))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private TopicCounters getCounters(@NonNull final WebsocketTopicName destination)
+	{
+		return countersByTopicType.computeIfAbsent(extractTopicType(destination), topicType -> new TopicCounters());
+	}
+
+	/**
+	 * @return topic type, e.g. <code>/view</code> for <code>/view/123</code>.
+	 * We are not counting per topic because there is one topic for each view, document etc.
+	 */
+	private static String extractTopicType(@NonNull final WebsocketTopicName destination)
+	{
+		final String topicName = destination.getAsString();
+		final int idx = topicName.indexOf('/', 1);
+		return idx > 0 ? topicName.substring(0, idx) : topicName;
+	}
+
 	private void sendEventsNow(final List<WebsocketEvent> events)
 	{
-		events.forEach(this::sendEventNow);
+		mergeEvents(events).forEach(this::sendEventNow);
+	}
+
+	/**
+	 * Merges the events which are sent to the same topic, where possible (see {@link MergeableWebsocketEvent}).
+	 * <p>
+	 * An event is merged only into the last event which was sent to the same topic, so the order of the events of a given topic is preserved.
+	 */
+	private static List<WebsocketEvent> mergeEvents(@NonNull final List<WebsocketEvent> events)
+	{
+		if (events.size() <= 1)
+		{
+			return events;
+		}
+
+		final ArrayList<WebsocketEvent> result = new ArrayList<>(events.size());
+		final HashMap<WebsocketTopicName, Integer> lastIndexByDestination = new HashMap<>();
+		for (final WebsocketEvent event : events)
+		{
+			final Integer lastIndex = lastIndexByDestination.get(event.getDestination());
+			final WebsocketEvent mergedEvent = lastIndex != null
+					? result.get(lastIndex).mergeWith(event)
+					: null;
+			if (mergedEvent != null)
+			{
+				result.set(lastIndex, mergedEvent);
+			}
+			else
+			{
+				lastIndexByDestination.put(event.getDestination(), result.size());
+				result.add(event);
+			}
+		}
+
+		logger.debug("Merged {} events to {}", events.size(), result.size());
+		return result;
 	}
 
 	private void sendEventNow(final WebsocketEvent event)
@@ -177,17 +251,40 @@ public class WebsocketSender implements InitializingBean
 			websocketMessagingTemplate.convertAndSend(destination.getAsString(), payload);
 		}
 
+		getCounters(destination).messagesOut.increment();
 		eventsLog.logEvent(destination, payload);
-		System.out.println("\tSent to " + destination + ": " + payload);
 	}
 
 	@lombok.Value
-	@lombok.Builder
+	@lombok.Builder(toBuilder = true)
 	private static class WebsocketEvent
 	{
 		WebsocketTopicName destination;
 		Object payload;
 		boolean converted;
+
+		@Nullable
+		public WebsocketEvent mergeWith(@NonNull final WebsocketEvent nextEvent)
+		{
+			if (converted
+					|| nextEvent.isConverted()
+					|| !(payload instanceof MergeableWebsocketEvent)
+					|| !(nextEvent.getPayload() instanceof MergeableWebsocketEvent))
+			{
+				return null;
+			}
+
+			final MergeableWebsocketEvent mergedPayload = ((MergeableWebsocketEvent)payload).mergeWith((MergeableWebsocketEvent)nextEvent.getPayload());
+			return mergedPayload != null
+					? toBuilder().payload(mergedPayload).build()
+					: null;
+		}
+	}
+
+	private static class TopicCounters
+	{
+		private final LongAdder eventsIn = new LongAdder();
+		private final LongAdder messagesOut = new LongAdder();
 	}
 
 	private static class WebsocketEventsQueue
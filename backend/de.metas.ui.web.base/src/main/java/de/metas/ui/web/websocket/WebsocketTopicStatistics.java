@@ -0,0 +1,45 @@
+package de.metas.ui.web.websocket;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Statistics about the events which were sent by {@link WebsocketSender} to the topics of a given type.
+ */
+@Value
+@Builder
+public class WebsocketTopicStatistics
+{
+	/** Topic type, e.g. <code>/view</code> or <code>/document</code> */
+	@NonNull
+	String topicType;
+
+	/** How many events were enqueued to be sent */
+	long eventsInCount;
+
+	/** How many messages were actually sent, after merging the events */
+	long messagesOutCount;
+}
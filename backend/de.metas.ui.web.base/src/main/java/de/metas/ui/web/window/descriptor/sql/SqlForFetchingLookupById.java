@@ -1,6 +1,7 @@
 package de.metas.ui.web.window.descriptor.sql;
 
 import de.metas.ui.web.window.model.lookup.LookupDataSourceContext;
+import de.metas.util.Check;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
@@ -45,13 +46,22 @@ public class SqlForFetchingLookupById
 	public static final String SQL_PARAM_VALUE_ShowInactive_No = "N";
 	public static final CtxName SQL_PARAM_ShowInactive = CtxNames.ofNameAndDefaultValue("SqlShowInactive", SQL_PARAM_VALUE_ShowInactive_No);
 
+	private static final String SQL_ALIAS_LookupIds = "lookup_ids";
+
 	private final IStringExpression sql;
 
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final IStringExpression sqlJoinedOnLookupIds;
+
 	@Builder
 	private SqlForFetchingLookupById(
 			@NonNull final IStringExpression sql)
 	{
 		this.sql = sql;
+		this.sqlJoinedOnLookupIds = sql.resolvePartial(Evaluatees.mapBuilder()
+				.put(SQL_PARAM_KeyId, SQL_ALIAS_LookupIds + ".id")
+				.build());
 	}
 
 	public IStringExpression toStringExpression()
@@ -82,4 +92,32 @@ public class SqlForFetchingLookupById
 	{
 		return sql.evaluate(evalCtx, OnVariableNotFound.Fail);
 	}
+
+	/**
+	 * Builds the SQL which fetches the lookup values of many IDs in one go.
+	 * <p>
+	 * The SQL has one parameter for each ID.
+	 * For each ID it returns one row containing the ID's index (starting from 1) and the same array which is returned by {@link #evaluate(LookupDataSourceContext)} for that ID.
+	 * The array is <code>null</code> if the ID was not found.
+	 */
+	public String evaluateForIds(@NonNull final LookupDataSourceContext evalCtx, final int idsCount)
+	{
+		Check.assumeGreaterThanZero(idsCount, "idsCount");
+
+		final StringBuilder sqlForIds = new StringBuilder()
+				.append("SELECT ").append(SQL_ALIAS_LookupIds).append(".idx")
+				.append(", (").append(sqlJoinedOnLookupIds.evaluate(evalCtx, OnVariableNotFound.Fail)).append(")")
+				.append("\n FROM (VALUES ");
+		for (int idx = 1; idx <= idsCount; idx++)
+		{
+			if (idx > 1)
+			{
+				sqlForIds.append(", ");
+			}
+			sqlForIds.append("(").append(idx).append(", ?)");
+		}
+		sqlForIds.append(") AS ").append(SQL_ALIAS_LookupIds).append("(idx, id)");
+
+		return sqlForIds.toString();
+	}
 }
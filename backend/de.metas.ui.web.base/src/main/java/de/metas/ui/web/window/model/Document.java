@@ -1847,6 +1847,20 @@ public final class Document
 
 	}
 
+	/**
+	 * @return estimated weight of this document, i.e. the number of fields of this document and of the included documents which are kept in memory.
+	 * Used to limit the memory used by the cached documents.
+	 */
+	public int getEstimatedWeight()
+	{
+		int weight = fieldsByName.size();
+		for (final IIncludedDocumentsCollection includedDocumentsPerDetailId : includedDocuments.values())
+		{
+			weight += includedDocumentsPerDetailId.getEstimatedWeight();
+		}
+		return weight;
+	}
+
 	/* package */void updateIncludedDetailsStatus()
 	{
 		includedDocuments.values().forEach(IIncludedDocumentsCollection::updateStatusFromParent);
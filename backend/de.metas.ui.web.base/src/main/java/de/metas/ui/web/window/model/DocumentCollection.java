@@ -22,6 +22,7 @@
 
 package de.metas.ui.web.window.model;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
@@ -92,12 +93,16 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 @Component
 public class DocumentCollection
 {
+	/** Max number of cached documents. Used only if {@link #SYSCONFIG_CACHE_MAX_WEIGHT} is not set. */
 	private static final String SYSCONFIG_CACHE_SIZE = "de.metas.ui.web.window.model.DocumentCollection.CacheSize";
 	private static final int DEFAULT_CACHE_SIZE = 800;
+	/** Max weight of the cached documents, see {@link Document#getEstimatedWeight()}. If set, it is used instead of {@link #SYSCONFIG_CACHE_SIZE}. */
+	private static final String SYSCONFIG_CACHE_MAX_WEIGHT = "de.metas.ui.web.window.model.DocumentCollection.CacheMaxWeight";
 
 	private static final Logger logger = LogManager.getLogger(DocumentCollection.class);
 	public static final AdMessageKey MSG_CLONING_NOT_ALLOWED_FOR_CURRENT_WINDOW = AdMessageKey.of("de.metas.ui.web.window.model.DocumentCollection.CloningNotAllowedForCurrentWindow");
@@ -118,15 +123,43 @@ public class DocumentCollection
 		this.userSession = userSession;
 		this.websocketPublisher = websocketPublisher;
 
-		// setup the cache
-		final int cacheSize = Services
-				.get(ISysConfigBL.class)
-				.getIntValue(SYSCONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+		rootDocuments = createRootDocumentsCache();
+	}
+
+	private static Cache<DocumentKey, Document> createRootDocumentsCache()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int cacheMaxWeight = sysConfigBL.getIntValue(SYSCONFIG_CACHE_MAX_WEIGHT, -1);
+		final int cacheSize = sysConfigBL.getIntValue(SYSCONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+		return createRootDocumentsCache(cacheMaxWeight, cacheSize, Document::getEstimatedWeight);
+	}
 
-		rootDocuments = CacheBuilder
-				.newBuilder()
-				.maximumSize(cacheSize)
-				.build();
+	/**
+	 * @param cacheMaxWeight max weight of the cached documents; if not positive, the cache is limited by <code>cacheSize</code>
+	 * @param cacheSize max number of cached documents, used only if <code>cacheMaxWeight</code> is not positive
+	 */
+	@VisibleForTesting
+	static <K, V> Cache<K, V> createRootDocumentsCache(final int cacheMaxWeight, final int cacheSize, @NonNull final ToIntFunction<V> weigher)
+	{
+		if (cacheMaxWeight > 0)
+		{
+			logger.info("Root documents cache max weight: {}", cacheMaxWeight);
+
+			// Weigh the documents, because a document which has many included documents in memory is much bigger than a simple one
+			return CacheBuilder
+					.newBuilder()
+					.maximumWeight(cacheMaxWeight)
+					.weigher((K key, V value) -> Math.max(weigher.applyAsInt(value), 1))
+					.build();
+		}
+		else
+		{
+			logger.info("Root documents cache max size: {}", cacheSize);
+			return CacheBuilder
+					.newBuilder()
+					.maximumSize(cacheSize)
+					.build();
+		}
 	}
 
 	public DocumentDescriptorFactory getDocumentDescriptorFactory()
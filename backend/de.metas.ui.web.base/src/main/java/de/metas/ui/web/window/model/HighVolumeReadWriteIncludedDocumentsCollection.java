@@ -401,6 +401,15 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 				.anyMatch(document -> document.hasChangesRecursivelly());
 	}
 
+	@Override
+	public int getEstimatedWeight()
+	{
+		return getChangedDocuments()
+				.stream()
+				.mapToInt(Document::getEstimatedWeight)
+				.sum();
+	}
+
 	@Override
 	public void saveIfHasChanges()
 	{
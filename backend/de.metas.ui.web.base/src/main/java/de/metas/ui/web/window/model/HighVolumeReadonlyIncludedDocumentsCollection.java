@@ -188,6 +188,12 @@ public final class HighVolumeReadonlyIncludedDocumentsCollection implements IInc
 	{
 	}
 
+	@Override
+	public int getEstimatedWeight()
+	{
+		return 0; // the documents are always loaded on demand
+	}
+
 	@Override
 	public void markStaleAll()
 	{
@@ -76,6 +76,12 @@ public interface IIncludedDocumentsCollection
 
 	int getNextLineNo();
 
+	/**
+	 * @return estimated weight of the included documents which are kept in memory
+	 * @see Document#getEstimatedWeight()
+	 */
+	int getEstimatedWeight();
+
 	default void onChildSaved(final Document document)
 	{
 		// nothing
@@ -232,6 +232,12 @@ public class SingleRowDetailIncludedDocumentsCollection implements IIncludedDocu
 		return singleDocument.hasChangesRecursivelly();
 	}
 
+	@Override
+	public int getEstimatedWeight()
+	{
+		return singleDocument != null ? singleDocument.getEstimatedWeight() : 0;
+	}
+
 	@Override
 	public void saveIfHasChanges()
 	{
@@ -1,5 +1,7 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -8,11 +10,14 @@ import com.google.common.collect.ImmutableList;
 
 import de.metas.cache.CCache;
 import de.metas.cache.CCache.CCacheStats;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.cache.CacheWeigher;
 import de.metas.ui.web.window.datatypes.LookupValue;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceContext.Builder;
 import de.metas.util.Check;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -55,6 +60,12 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 
 	private static final String NAME = "PerPartition";
 
+	/** Estimated memory footprint of one cached {@link LookupValue} (including its cache key), in bytes */
+	private static final int LOOKUP_VALUE_ESTIMATED_SIZE_BYTES = 512;
+	private static final int LOOKUP_VALUES_LIST_AVERAGE_SIZE = 50;
+	/** The weight of one lookup values list is at most the maximum weight divided by this number; it's greater than guava's default number of segments (4) */
+	private static final int RETRIEVE_ENTITIES_MAX_ENTRY_WEIGHT_DIVISOR = 8;
+
 	private final LookupDataSourceFetcher delegate;
 	private final String cachePrefix;
 
@@ -72,8 +83,25 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 		final int maxSize = 100;
 		final int expireAfterMinutes = 60 * 2;
 		// NOTE: it's very important to have the lookupTableName as cache name prefix because we want the cache invalidation to happen for this table
-		cache_retrieveEntities = CCache.newLRUCache(cachePrefix + "#" + NAME + "#retrieveEntities", maxSize, expireAfterMinutes);
-		cache_retrieveLookupValueById = CCache.newLRUCache(cachePrefix + "#" + NAME + "#retrieveLookupValueById", maxSize, expireAfterMinutes);
+		// NOTE: the caches are weighted, so they participate in the cache memory budgets; the maximum weights are roughly matching the max sizes.
+		final long retrieveEntitiesMaxWeight = (long)maxSize * LOOKUP_VALUES_LIST_AVERAGE_SIZE * LOOKUP_VALUE_ESTIMATED_SIZE_BYTES;
+		// NOTE: guava splits the maximum weight between its segments and silently drops an entry which is heavier than one segment,
+		// so we cap the weight of one (big) lookup values list
+		final int retrieveEntitiesMaxEntryWeight = (int)(retrieveEntitiesMaxWeight / RETRIEVE_ENTITIES_MAX_ENTRY_WEIGHT_DIVISOR);
+		cache_retrieveEntities = CCache.<LookupDataSourceContext, LookupValuesList> builder()
+				.cacheName(cachePrefix + "#" + NAME + "#retrieveEntities")
+				.cacheMapType(CacheMapType.LRU)
+				.expireMinutes(expireAfterMinutes)
+				.weigher((evalCtx, lookupValues) -> (int)Math.min((long)LOOKUP_VALUE_ESTIMATED_SIZE_BYTES * (1 + lookupValues.getKeys().size()), retrieveEntitiesMaxEntryWeight))
+				.maximumWeight(retrieveEntitiesMaxWeight)
+				.build();
+		cache_retrieveLookupValueById = CCache.<LookupDataSourceContext, LookupValue> builder()
+				.cacheName(cachePrefix + "#" + NAME + "#retrieveLookupValueById")
+				.cacheMapType(CacheMapType.LRU)
+				.expireMinutes(expireAfterMinutes)
+				.weigher(CacheWeigher.ofFixedEntrySize(LOOKUP_VALUE_ESTIMATED_SIZE_BYTES))
+				.maximumWeight((long)maxSize * LOOKUP_VALUE_ESTIMATED_SIZE_BYTES)
+				.build();
 	}
 
 	@Override
@@ -137,6 +165,44 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 		return cache_retrieveLookupValueById.getOrLoad(evalCtx, () -> delegate.retrieveLookupValueById(evalCtx));
 	}
 
+	@Override
+	public ImmutableList<LookupValue> retrieveLookupValueByIdsInOrder(@NonNull final List<LookupDataSourceContext> evalCtxs)
+	{
+		final HashMap<LookupDataSourceContext, LookupValue> lookupValues = new HashMap<>(evalCtxs.size());
+		final LinkedHashSet<LookupDataSourceContext> evalCtxsToLoad = new LinkedHashSet<>();
+		for (final LookupDataSourceContext evalCtx : evalCtxs)
+		{
+			final LookupValue lookupValue = cache_retrieveLookupValueById.get(evalCtx);
+			if (lookupValue != null)
+			{
+				lookupValues.put(evalCtx, lookupValue);
+			}
+			else
+			{
+				evalCtxsToLoad.add(evalCtx);
+			}
+		}
+
+		//
+		// Load all cache misses in one go
+		if (!evalCtxsToLoad.isEmpty())
+		{
+			final ImmutableList<LookupDataSourceContext> evalCtxsToLoadList = ImmutableList.copyOf(evalCtxsToLoad);
+			final ImmutableList<LookupValue> lookupValuesLoaded = delegate.retrieveLookupValueByIdsInOrder(evalCtxsToLoadList);
+			for (int i = 0; i < evalCtxsToLoadList.size(); i++)
+			{
+				final LookupDataSourceContext evalCtx = evalCtxsToLoadList.get(i);
+				final LookupValue lookupValue = lookupValuesLoaded.get(i);
+				cache_retrieveLookupValueById.put(evalCtx, lookupValue);
+				lookupValues.put(evalCtx, lookupValue);
+			}
+		}
+
+		return evalCtxs.stream()
+				.map(lookupValues::get)
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	@Override
 	public Builder newContextForFetchingList()
 	{
@@ -24,6 +24,9 @@ package de.metas.ui.web.window.model.lookup;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import de.metas.adempiere.service.impl.TooltipType;
 import de.metas.cache.CCache.CCacheStats;
 import de.metas.i18n.ITranslatableString;
@@ -45,9 +48,18 @@ import lombok.NonNull;
 import org.adempiere.ad.service.impl.LookupDAO.SQLNamePairIterator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.validationRule.INamePairPredicate;
+import org.adempiere.exceptions.DBException;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
 
@@ -74,6 +86,8 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 
 	private final boolean isTranslatable;
 
+	private static final int MAX_IDS_PER_SQL = 500;
+
 	private final Optional<WindowId> zoomIntoWindowId;
 
 	private GenericSqlLookupDataSourceFetcher(@NonNull final LookupDescriptor lookupDescriptor)
@@ -207,6 +221,88 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		final String sqlForFetchingLookupById = sqlForFetchingLookupByIdExpression.evaluate(evalCtx);
 
 		final String[] nameAndDescriptionAndActive = DB.getSQLValueArrayEx(ITrx.TRXNAME_None, sqlForFetchingLookupById, id);
+		return toLookupValue(id, nameAndDescriptionAndActive, evalCtx);
+	}
+
+	/**
+	 * Retrieves the lookup values with one SQL for all contexts which are evaluating the SQL the same way (e.g. same language),
+	 * instead of one SQL for each ID.
+	 */
+	@Override
+	public ImmutableList<LookupValue> retrieveLookupValueByIdsInOrder(@NonNull final List<LookupDataSourceContext> evalCtxs)
+	{
+		final LinkedHashMap<String, List<LookupDataSourceContext>> evalCtxsBySqlForFetchingLookupById = new LinkedHashMap<>();
+		for (final LookupDataSourceContext evalCtx : ImmutableSet.copyOf(evalCtxs))
+		{
+			if (evalCtx.getIdToFilter() == null)
+			{
+				throw new IllegalStateException("No ID provided in " + evalCtx);
+			}
+
+			final String sqlForFetchingLookupById = sqlForFetchingLookupByIdExpression.evaluate(evalCtx);
+			evalCtxsBySqlForFetchingLookupById.computeIfAbsent(sqlForFetchingLookupById, k -> new ArrayList<>()).add(evalCtx);
+		}
+
+		final HashMap<LookupDataSourceContext, LookupValue> lookupValues = new HashMap<>(evalCtxs.size());
+		for (final List<LookupDataSourceContext> evalCtxsWithSameSql : evalCtxsBySqlForFetchingLookupById.values())
+		{
+			for (final List<LookupDataSourceContext> evalCtxsChunk : Lists.partition(evalCtxsWithSameSql, MAX_IDS_PER_SQL))
+			{
+				lookupValues.putAll(retrieveLookupValueByIds(evalCtxsChunk));
+			}
+		}
+
+		return evalCtxs.stream()
+				.map(lookupValues::get)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @param evalCtxs contexts for which {@link SqlForFetchingLookupById#evaluate(LookupDataSourceContext)} returns the same SQL
+	 */
+	private ImmutableMap<LookupDataSourceContext, LookupValue> retrieveLookupValueByIds(@NonNull final List<LookupDataSourceContext> evalCtxs)
+	{
+		final String sql = sqlForFetchingLookupByIdExpression.evaluateForIds(evalCtxs.get(0), evalCtxs.size());
+		final List<Object> sqlParams = evalCtxs.stream()
+				.map(LookupDataSourceContext::getIdToFilter)
+				.collect(ImmutableList.toImmutableList());
+
+		final HashMap<LookupDataSourceContext, LookupValue> lookupValues = new HashMap<>(evalCtxs.size());
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				final LookupDataSourceContext evalCtx = evalCtxs.get(rs.getInt(1) - 1);
+				final Array nameAndDescriptionAndActive = rs.getArray(2);
+				if (nameAndDescriptionAndActive != null)
+				{
+					lookupValues.put(evalCtx, toLookupValue(evalCtx.getIdToFilter(), (String[])nameAndDescriptionAndActive.getArray(), evalCtx));
+				}
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		return evalCtxs.stream()
+				.collect(ImmutableMap.toImmutableMap(evalCtx -> evalCtx, evalCtx -> lookupValues.getOrDefault(evalCtx, LOOKUPVALUE_NULL)));
+	}
+
+	private LookupValue toLookupValue(
+			@NonNull final Object id,
+			@Nullable final String[] nameAndDescriptionAndActive,
+			@NonNull final LookupDataSourceContext evalCtx)
+	{
 		if (nameAndDescriptionAndActive == null || nameAndDescriptionAndActive.length == 0)
 		{
 			return LOOKUPVALUE_NULL;
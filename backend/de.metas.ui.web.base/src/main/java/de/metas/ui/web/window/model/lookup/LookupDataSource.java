@@ -63,6 +63,8 @@ public interface LookupDataSource extends LookupValueByIdSupplier
 	LookupValue findById(Object id);
 
 	/**
+	 * The default implementation calls {@link #findById(Object)} for each ID. Database backed lookups are overriding it to fetch all IDs in one go.
+	 *
 	 * @return lookup values in the same order as the collection order
 	 */
 	@NonNull
@@ -73,8 +75,6 @@ public interface LookupDataSource extends LookupValueByIdSupplier
 			return LookupValuesList.EMPTY;
 		}
 
-		// TODO @teo: avoid SQL N+1 problem and also return the data ordered in the input collection order
-
 		return new LinkedHashSet<>(ids)
 				.stream()
 				.map(this::findById)
@@ -1,11 +1,14 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.compiere.util.Evaluatee;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.cache.CCache.CCacheStats;
 import de.metas.ui.web.window.datatypes.LookupValue;
@@ -117,16 +120,9 @@ final class LookupDataSourceAdapter implements LookupDataSource
 			return null;
 		}
 
-		//
-		// Build the validation context
-		final LookupDataSourceContext evalCtx = fetcher.newContextForFetchingById(idNormalized)
-				.putFilterById(idNormalized)
-				.putShowInactive(true)
-				.build();
-
 		//
 		// Get the lookup value
-		final LookupValue lookupValue = fetcher.retrieveLookupValueById(evalCtx);
+		final LookupValue lookupValue = fetcher.retrieveLookupValueById(newContextForFetchingById(idNormalized));
 		if (lookupValue == LookupDataSourceFetcher.LOOKUPVALUE_NULL)
 		{
 			return null;
@@ -134,6 +130,34 @@ final class LookupDataSourceAdapter implements LookupDataSource
 		return lookupValue;
 	}
 
+	@Override
+	public LookupValuesList findByIdsOrdered(@NonNull final Collection<?> ids)
+	{
+		final ImmutableList<LookupDataSourceContext> evalCtxs = ids.stream()
+				.map(idObj -> LookupValue.normalizeId(idObj, fetcher.isNumericKey()))
+				.filter(Objects::nonNull)
+				.distinct()
+				.map(this::newContextForFetchingById)
+				.collect(ImmutableList.toImmutableList());
+		if (evalCtxs.isEmpty())
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		return fetcher.retrieveLookupValueByIdsInOrder(evalCtxs)
+				.stream()
+				.filter(lookupValue -> lookupValue != LookupDataSourceFetcher.LOOKUPVALUE_NULL)
+				.collect(LookupValuesList.collect());
+	}
+
+	private LookupDataSourceContext newContextForFetchingById(@NonNull final Object idNormalized)
+	{
+		return fetcher.newContextForFetchingById(idNormalized)
+				.putFilterById(idNormalized)
+				.putShowInactive(true)
+				.build();
+	}
+
 	@Override
 	public List<CCacheStats> getCacheStats()
 	{
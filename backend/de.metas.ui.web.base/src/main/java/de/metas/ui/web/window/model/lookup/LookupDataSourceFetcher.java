@@ -48,6 +48,23 @@ public interface LookupDataSourceFetcher
 	@Nullable
 	LookupValue retrieveLookupValueById(@NonNull LookupDataSourceContext evalCtx);
 
+	/**
+	 * Retrieves the lookup values of many IDs.
+	 * <p>
+	 * The default implementation calls {@link #retrieveLookupValueById(LookupDataSourceContext)} for each context.
+	 * Fetchers which can load many IDs in one go shall override it.
+	 *
+	 * @param evalCtxs contexts built from {@link #newContextForFetchingById(Object)}, one for each ID
+	 * @return lookup values, in the same order as the given contexts; {@link #LOOKUPVALUE_NULL} for the IDs which were not found
+	 */
+	default ImmutableList<LookupValue> retrieveLookupValueByIdsInOrder(@NonNull final List<LookupDataSourceContext> evalCtxs)
+	{
+		return evalCtxs.stream()
+				.map(this::retrieveLookupValueById)
+				.map(lookupValue -> lookupValue != null ? lookupValue : LOOKUPVALUE_NULL)
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	LookupDataSourceContext.Builder newContextForFetchingList();
 
 	LookupValuesList retrieveEntities(LookupDataSourceContext evalCtx);
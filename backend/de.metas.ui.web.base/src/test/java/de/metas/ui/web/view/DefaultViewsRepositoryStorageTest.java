@@ -0,0 +1,137 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DefaultViewsRepositoryStorageTest
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+
+	private DefaultViewsRepositoryStorage storage;
+
+	@BeforeEach
+	public void init()
+	{
+		storage = new DefaultViewsRepositoryStorage(Duration.ofHours(1));
+	}
+
+	private static IView view(final Optional<ImmutableSet<String>> tableNamesToWatch)
+	{
+		final IView view = Mockito.mock(IView.class);
+		Mockito.doReturn(ViewId.random(WINDOW_ID)).when(view).getViewId();
+		Mockito.doReturn(tableNamesToWatch).when(view).getTableNamesToWatchForChanges();
+		return view;
+	}
+
+	private static IView viewWatching(final String... tableNames)
+	{
+		return view(Optional.of(ImmutableSet.copyOf(tableNames)));
+	}
+
+	@Test
+	public void getViewsWatchingAnyOf()
+	{
+		final IView orderView = viewWatching("C_Order");
+		final IView invoiceView = viewWatching("C_Invoice", "C_InvoiceLine");
+		final IView viewWatchingNothing = viewWatching();
+		final IView viewWatchingAll = view(Optional.empty());
+		ImmutableList.of(orderView, invoiceView, viewWatchingNothing, viewWatchingAll).forEach(storage::put);
+
+		assertThat(storage.getViewsWatchingAnyOf(ImmutableSet.of("C_Order"))).containsExactlyInAnyOrder(orderView, viewWatchingAll);
+		assertThat(storage.getViewsWatchingAnyOf(ImmutableSet.of("C_InvoiceLine", "C_Order"))).containsExactlyInAnyOrder(orderView, invoiceView, viewWatchingAll);
+		assertThat(storage.getViewsWatchingAnyOf(ImmutableSet.of("M_Product"))).containsExactly(viewWatchingAll);
+		assertThat(storage.countAllViews()).isEqualTo(4);
+	}
+
+	@Test
+	public void closedViewIsNoLongerWatching()
+	{
+		final IView orderView = viewWatching("C_Order");
+		Mockito.doReturn(true).when(orderView).isAllowClosingPerUserRequest();
+		storage.put(orderView);
+
+		storage.closeById(orderView.getViewId(), ViewCloseAction.DONE);
+
+		assertThat(storage.getViewsWatchingAnyOf(ImmutableSet.of("C_Order"))).isEmpty();
+	}
+
+	@Test
+	public void replacedViewIsNoLongerWatching()
+	{
+		final IView orderView = viewWatching("C_Order");
+		storage.put(orderView);
+
+		final IView newView = viewWatching("C_Invoice");
+		Mockito.doReturn(orderView.getViewId()).when(newView).getViewId();
+		storage.put(newView);
+
+		assertThat(storage.getViewsWatchingAnyOf(ImmutableSet.of("C_Order"))).isEmpty();
+		assertThat(storage.getViewsWatchingAnyOf(ImmutableSet.of("C_Invoice"))).containsExactly(newView);
+	}
+
+	@Test
+	public void expiredViewIsNoLongerWatchingNorCounted() throws Exception
+	{
+		storage = new DefaultViewsRepositoryStorage(Duration.ofMillis(10));
+		final IView orderView = viewWatching("C_Order");
+		storage.put(orderView);
+
+		Thread.sleep(100);
+
+		assertThat(storage.getViewsWatchingAnyOf(ImmutableSet.of("C_Order"))).isEmpty();
+		assertThat(storage.countAllViews()).isZero();
+	}
+
+	@Test
+	public void manyOpenViews()
+	{
+		final List<IView> orderViews = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			final IView view = i % 100 == 0 ? viewWatching("C_Order") : viewWatching("M_HU");
+			storage.put(view);
+			if (i % 100 == 0)
+			{
+				orderViews.add(view);
+			}
+		}
+
+		assertThat(storage.countAllViews()).isEqualTo(1000);
+		assertThat(storage.getViewsWatchingAnyOf(ImmutableSet.of("C_Order"))).containsExactlyInAnyOrderElementsOf(orderViews);
+	}
+}
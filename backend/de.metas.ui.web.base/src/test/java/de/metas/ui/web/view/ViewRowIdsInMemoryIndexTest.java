@@ -0,0 +1,80 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewRowIdsInMemoryIndexTest
+{
+	private final ViewRowIdsInMemoryIndex index = ViewRowIdsInMemoryIndex.ofOrderedRowIds("C_Order", new int[] { 50, 10, 40, 20, 30 });
+
+	@Test
+	public void getRowIdsByPage()
+	{
+		assertThat(index.getRowIdsByPage(0, 2)).containsExactly(DocumentId.of(50), DocumentId.of(10));
+		assertThat(index.getRowIdsByPage(2, 2)).containsExactly(DocumentId.of(40), DocumentId.of(20));
+		assertThat(index.getRowIdsByPage(4, 2)).containsExactly(DocumentId.of(30));
+		assertThat(index.getRowIdsByPage(5, 2)).isEmpty();
+		assertThat(index.getRowIdsByPage(1, Integer.MAX_VALUE)).hasSize(4);
+	}
+
+	@Test
+	public void containsAnyOfRowIds()
+	{
+		assertThat(index.containsAnyOfRowIds(DocumentIdsSelection.EMPTY)).isFalse();
+		assertThat(index.containsAnyOfRowIds(DocumentIdsSelection.ALL)).isTrue();
+		assertThat(index.containsAnyOfRowIds(DocumentIdsSelection.of(ImmutableList.of(DocumentId.of(1), DocumentId.of(40))))).isTrue();
+		assertThat(index.containsAnyOfRowIds(DocumentIdsSelection.of(ImmutableList.of(DocumentId.of(1), DocumentId.of(2))))).isFalse();
+		assertThat(index.containsAnyOfRowIds(DocumentIdsSelection.of(ImmutableList.of(DocumentId.of("abc"))))).isFalse();
+	}
+
+	@Test
+	public void getRowIdsByPage_skipsMissingRecords()
+	{
+		final BitSet missingRecordIndexes = new BitSet();
+		missingRecordIndexes.set(1);
+		final ViewRowIdsInMemoryIndex index = ViewRowIdsInMemoryIndex.ofOrderedRowIds("C_Order", new int[] { 50, 10, 40 }, missingRecordIndexes);
+
+		assertThat(index.size()).isEqualTo(3);
+		assertThat(index.getRowIdsByPage(0, 2)).containsExactly(DocumentId.of(50));
+		assertThat(index.getRowIdsByPage(2, 2)).containsExactly(DocumentId.of(40));
+		assertThat(index.containsRecordId(10)).isTrue();
+	}
+
+	@Test
+	public void emptyIndex()
+	{
+		final ViewRowIdsInMemoryIndex emptyIndex = ViewRowIdsInMemoryIndex.ofOrderedRowIds("C_Order", new int[] {});
+		assertThat(emptyIndex.getRowIdsByPage(0, 10)).isEmpty();
+		assertThat(emptyIndex.containsAnyOfRowIds(DocumentIdsSelection.ALL)).isFalse();
+	}
+}
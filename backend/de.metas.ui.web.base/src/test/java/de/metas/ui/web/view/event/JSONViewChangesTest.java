@@ -0,0 +1,95 @@
+package de.metas.ui.web.view.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JSONViewChangesTest
+{
+	private static final ViewId VIEW_ID = ViewId.random(WindowId.of(123));
+
+	private static JSONViewChanges rowsChanged(final ViewId viewId, final int... rowIds)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		for (final int rowId : rowIds)
+		{
+			changes.addChangedRowId(DocumentId.of(rowId));
+		}
+		return JSONViewChanges.of(changes);
+	}
+
+	private static JSONViewChanges fullyChanged(final ViewId viewId)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.setFullyChanged();
+		return JSONViewChanges.of(changes);
+	}
+
+	@Test
+	public void mergeWith_unionsChangedRowIds()
+	{
+		final JSONViewChanges merged = rowsChanged(VIEW_ID, 1, 2).mergeWith(rowsChanged(VIEW_ID, 2, 3));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getFullyChanged()).isFalse();
+		assertThat(merged.getChangedIds()).containsExactlyInAnyOrder("1", "2", "3");
+		assertThat(merged.getWebsocketEndpoint()).isEqualTo(rowsChanged(VIEW_ID, 1).getWebsocketEndpoint());
+	}
+
+	@Test
+	public void mergeWith_fullyChangedSupersedesChangedRowIds()
+	{
+		final JSONViewChanges merged = rowsChanged(VIEW_ID, 1, 2).mergeWith(fullyChanged(VIEW_ID));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getFullyChanged()).isTrue();
+		assertThat(merged.getChangedIds()).isNull();
+	}
+
+	@Test
+	public void mergeWith_keepsHeaderPropertiesChanged()
+	{
+		final ViewChanges changes = new ViewChanges(VIEW_ID);
+		changes.setHeaderPropertiesChanged();
+
+		final JSONViewChanges merged = JSONViewChanges.of(changes).mergeWith(rowsChanged(VIEW_ID, 1));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getHeaderPropertiesChanged()).isTrue();
+		assertThat(merged.getChangedIds()).containsExactly("1");
+	}
+
+	@Test
+	public void mergeWith_otherView()
+	{
+		final ViewId otherViewId = ViewId.random(WindowId.of(123));
+
+		assertThat(rowsChanged(VIEW_ID, 1).mergeWith(rowsChanged(otherViewId, 2))).isNull();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.ui.web.window.model;
+
+import com.google.common.cache.Cache;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentCollectionTest
+{
+	/**
+	 * The cached values are their own weights.
+	 */
+	private static Cache<String, Integer> createCache(final int cacheMaxWeight, final int cacheSize)
+	{
+		return DocumentCollection.createRootDocumentsCache(cacheMaxWeight, cacheSize, Integer::intValue);
+	}
+
+	@Nested
+	class RootDocumentsCache_MaxWeightNotSet
+	{
+		@Test
+		void limitedByDocumentsCount_noMatterTheWeight()
+		{
+			final Cache<String, Integer> cache = createCache(-1, 3);
+
+			cache.put("doc1", 1000);
+			cache.put("doc2", 1000);
+			cache.put("doc3", 1000);
+			assertThat(cache.asMap()).containsOnlyKeys("doc1", "doc2", "doc3");
+
+			cache.put("doc4", 1);
+			assertThat(cache.asMap()).containsOnlyKeys("doc2", "doc3", "doc4");
+		}
+	}
+
+	@Nested
+	class RootDocumentsCache_MaxWeightSet
+	{
+		@Test
+		void limitedByWeight()
+		{
+			final Cache<String, Integer> cache = createCache(10, 3);
+
+			cache.put("doc1", 4);
+			cache.put("doc2", 4);
+			assertThat(cache.asMap()).containsOnlyKeys("doc1", "doc2");
+
+			cache.put("doc3", 4);
+			assertThat(cache.asMap()).containsOnlyKeys("doc2", "doc3");
+		}
+
+		@Test
+		void cacheSizeIsIgnored()
+		{
+			final Cache<String, Integer> cache = createCache(10, 3);
+
+			cache.put("doc1", 1);
+			cache.put("doc2", 1);
+			cache.put("doc3", 1);
+			cache.put("doc4", 1);
+			cache.put("doc5", 1);
+			assertThat(cache.asMap()).containsOnlyKeys("doc1", "doc2", "doc3", "doc4", "doc5");
+		}
+
+		@Test
+		void documentsWithoutWeightAreWeighedAsOne()
+		{
+			final Cache<String, Integer> cache = createCache(3, 100);
+
+			cache.put("doc1", 0);
+			cache.put("doc2", 0);
+			cache.put("doc3", 0);
+			cache.put("doc4", 0);
+			assertThat(cache.asMap()).containsOnlyKeys("doc2", "doc3", "doc4");
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2021 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CachedLookupDataSourceFetcherAdapterTest
+{
+	private MockedFetcher fetcher;
+	private LookupDataSource lookupDataSource;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		fetcher = new MockedFetcher();
+		lookupDataSource = LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcher));
+	}
+
+	@Test
+	public void findByIdsOrdered_loadsAllIdsInOneGo()
+	{
+		final LookupValuesList lookupValues = lookupDataSource.findByIdsOrdered(ImmutableList.of(3, 1, 2, 1));
+
+		assertThat(lookupValues.getKeysAsInt()).containsExactly(3, 1, 2);
+		assertThat(fetcher.bulkCalls).containsExactly(ImmutableList.of(3, 1, 2));
+		assertThat(fetcher.singleCalls).isZero();
+	}
+
+	@Test
+	public void findByIdsOrdered_loadsOnlyTheIdsWhichAreNotCached()
+	{
+		assertThat(lookupDataSource.findById(2)).isNotNull();
+		assertThat(fetcher.singleCalls).isEqualTo(1);
+
+		final LookupValuesList lookupValues = lookupDataSource.findByIdsOrdered(ImmutableList.of(1, 2, 3));
+
+		assertThat(lookupValues.getKeysAsInt()).containsExactly(1, 2, 3);
+		assertThat(fetcher.bulkCalls).containsExactly(ImmutableList.of(1, 3));
+	}
+
+	@Test
+	public void findByIdsOrdered_skipsNotFoundIds()
+	{
+		final LookupValuesList lookupValues = lookupDataSource.findByIdsOrdered(ImmutableList.of(1, MockedFetcher.NOT_EXISTING_ID, 2));
+		assertThat(lookupValues.getKeysAsInt()).containsExactly(1, 2);
+
+		// the not found ID is cached too
+		assertThat(lookupDataSource.findByIdsOrdered(ImmutableList.of(MockedFetcher.NOT_EXISTING_ID)).isEmpty()).isTrue();
+		assertThat(fetcher.bulkCalls).hasSize(1);
+	}
+
+	private static class MockedFetcher implements LookupDataSourceFetcher
+	{
+		static final int NOT_EXISTING_ID = 999;
+
+		final List<List<Object>> bulkCalls = new ArrayList<>();
+		int singleCalls = 0;
+
+		@Override
+		public boolean isNumericKey()
+		{
+			return true;
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingById(final Object id)
+		{
+			return LookupDataSourceContext.builder("Test_Table");
+		}
+
+		@Override
+		public LookupValue retrieveLookupValueById(@NonNull final LookupDataSourceContext evalCtx)
+		{
+			singleCalls++;
+			return toLookupValue(evalCtx.getIdToFilterAsInt(-1));
+		}
+
+		@Override
+		public ImmutableList<LookupValue> retrieveLookupValueByIdsInOrder(@NonNull final List<LookupDataSourceContext> evalCtxs)
+		{
+			bulkCalls.add(evalCtxs.stream().map(LookupDataSourceContext::getIdToFilter).collect(ImmutableList.toImmutableList()));
+			return evalCtxs.stream()
+					.map(evalCtx -> toLookupValue(evalCtx.getIdToFilterAsInt(-1)))
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		private static LookupValue toLookupValue(final int id)
+		{
+			return id == NOT_EXISTING_ID ? LOOKUPVALUE_NULL : IntegerLookupValue.of(id, "name" + id);
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingList()
+		{
+			return LookupDataSourceContext.builder("Test_Table");
+		}
+
+		@Override
+		public LookupValuesList retrieveEntities(final LookupDataSourceContext evalCtx)
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		@Override
+		public boolean isCached()
+		{
+			return false;
+		}
+
+		@Override
+		public String getCachePrefix()
+		{
+			return "Test_Table";
+		}
+
+		@Override
+		public Optional<String> getLookupTableName()
+		{
+			return Optional.of("Test_Table");
+		}
+
+		@Override
+		public Optional<WindowId> getZoomIntoWindowId()
+		{
+			return Optional.empty();
+		}
+
+		@Override
+		public void cacheInvalidate()
+		{
+		}
+	}
+}
@@ -23,6 +23,8 @@ class MProductPriceCloningCommand
 	private final int source_PriceList_Version_ID;
 	private final int target_PriceList_Version_ID;
 
+	private static final int PAGE_SIZE = 500;
+
 	private final transient IAttributeDAO attributeDAO = Services.get(IAttributeDAO.class);
 
 	final public void cloneProductPrice()
@@ -38,7 +40,9 @@ class MProductPriceCloningCommand
 				.addEqualsFilter(I_M_ProductPrice.COLUMN_M_PriceList_Version_ID, source_PriceList_Version_ID)
 				.addNotInSubQueryFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, I_M_ProductPrice.COLUMNNAME_M_Product_ID, existentProductPrices)
 				.create()
-				.iterateAndStream()
+				// we are creating product prices while iterating, which changes the result of the NOT IN subquery;
+				// with keyset pagination no record is skipped, unlike with offset-based paging
+				.streamUsingKeysetPagination(I_M_ProductPrice.class, PAGE_SIZE)
 				.forEach(this::createProductPrice);
 	}
 